@@ -0,0 +1,89 @@
+package org.hsbc.bench;
+
+import org.hsbc.datagen.SyntheticPortfolioFactory;
+import org.hsbc.entity.PmsEntity;
+import org.hsbc.market.PriceHistory;
+import org.hsbc.market.PriceTable;
+import org.hsbc.repo.PmsRepository;
+import org.hsbc.service.PmsService;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Fixtures shared by the benchmarks: seeded synthetic portfolios and allocation-free stand-ins
+ * for the repository and service, so only the code under test shows up in the numbers.
+ */
+final class BenchmarkPortfolios {
+
+    static final long SEED = 42;
+    static final LocalDate AS_OF = LocalDate.of(2025, 6, 30);
+
+    private BenchmarkPortfolios() {
+    }
+
+    static List<PmsEntity> holdings(int count) {
+        return new SyntheticPortfolioFactory(SEED, AS_OF, 1).holdings(count);
+    }
+
+    /** A {@link PmsService} whose {@code getAllAssets()} returns a fixed list; everything else is unsupported. */
+    static PmsService service(List<PmsEntity> holdings) {
+        return (PmsService) Proxy.newProxyInstance(PmsService.class.getClassLoader(),
+                new Class<?>[]{PmsService.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("getAllAssets")) {
+                        return holdings;
+                    }
+                    if (method.getName().equals("getTotalPortfolioValue")) {
+                        return holdings.stream().mapToDouble(a -> a.getCurrentPrice() * a.getQuantity()).sum();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /** A {@link PriceTable} holding a price for every holding, so valuation reads the table rather than the entity. */
+    static PriceTable prices(List<PmsEntity> holdings) {
+        PriceTable table = new PriceTable(holdings.size());
+        for (PmsEntity holding : holdings) {
+            table.update(holding.getSymbol(), holding.getCurrentPrice());
+        }
+        return table;
+    }
+
+    /** A {@link PmsRepository} whose {@code findAll()} returns a fixed list; everything else is unsupported. */
+    static PmsRepository repository(List<PmsEntity> holdings) {
+        return (PmsRepository) Proxy.newProxyInstance(PmsRepository.class.getClassLoader(),
+                new Class<?>[]{PmsRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("findAll") && (args == null || args.length == 0)) {
+                        return holdings;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /** Daily closes of {@code assets} symbols over {@code days} weekdays, as a random walk with 1-3% daily volatility. */
+    static List<PriceHistory> histories(int assets, int days) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<PriceHistory> histories = new ArrayList<>(assets);
+        for (int a = 0; a < assets; a++) {
+            double volatility = 0.01 + 0.02 * random.nextDouble();
+            int[] dayNumbers = new int[days];
+            double[] closes = new double[days];
+            LocalDate day = AS_OF.minusDays(days * 7L / 5);
+            double close = 10 + 490 * random.nextDouble();
+            for (int t = 0; t < days; t++) {
+                while (day.getDayOfWeek().getValue() > 5) {
+                    day = day.plusDays(1);
+                }
+                close *= Math.exp(volatility * random.nextGaussian());
+                dayNumbers[t] = (int) day.toEpochDay();
+                closes[t] = close;
+                day = day.plusDays(1);
+            }
+            histories.add(new PriceHistory(String.format("SYM%04d", a), dayNumbers, closes));
+        }
+        return histories;
+    }
+}
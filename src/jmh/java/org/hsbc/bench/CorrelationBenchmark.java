@@ -0,0 +1,62 @@
+package org.hsbc.bench;
+
+import org.hsbc.market.PriceHistory;
+import org.hsbc.risk.CovarianceTracker;
+import org.hsbc.risk.ReturnMatrix;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code /api/portfolio/correlation}: rebuilding the covariance of a year of daily returns against
+ * rolling the tracker forward by one new daily bar, and deriving the correlation matrix.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class CorrelationBenchmark {
+
+    @Param({"100", "1000"})
+    public int assets;
+
+    private ReturnMatrix yesterday;
+    private ReturnMatrix today;
+    private CovarianceTracker tracker;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<PriceHistory> histories = BenchmarkPortfolios.histories(assets, 252);
+        List<PriceHistory> previous = histories.stream()
+                .map(h -> new PriceHistory(h.symbol(), Arrays.copyOf(h.days(), h.size() - 1),
+                        Arrays.copyOf(h.closes(), h.size() - 1)))
+                .toList();
+        yesterday = ReturnMatrix.align(previous, 250);
+        today = ReturnMatrix.align(histories, 250);
+        today.row(0);
+    }
+
+    @Setup(Level.Invocation)
+    public void resetTracker() {
+        tracker = CovarianceTracker.build(yesterday);
+    }
+
+    @Benchmark
+    public CovarianceTracker rebuild() {
+        return CovarianceTracker.build(today);
+    }
+
+    @Benchmark
+    public boolean advanceOneDay() {
+        return tracker.advance(today);
+    }
+
+    @Benchmark
+    public double[][] correlation() {
+        return tracker.correlation();
+    }
+}
@@ -0,0 +1,57 @@
+package org.hsbc.bench;
+
+import org.hsbc.risk.MonteCarloSimulator;
+import org.hsbc.risk.ReturnMatrix;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code /api/portfolio/simulate} without the summary: 100k ten-day paths over a year of history.
+ * Compare {@code parallelism} values on a multi-core machine to check the near-linear scaling the
+ * fork-join split is meant to give (there is no shared state between leaves).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class MonteCarloBenchmark {
+
+    private static final int PATHS = 100_000;
+    private static final int HORIZON = 10;
+
+    @Param({"20", "200"})
+    public int assets;
+
+    @Param({"GBM", "BOOTSTRAP"})
+    public MonteCarloSimulator.Method method;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private ReturnMatrix returns;
+    private double[] values;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        returns = ReturnMatrix.align(BenchmarkPortfolios.histories(assets, 252), 250);
+        values = new double[assets];
+        Arrays.fill(values, 10_000);
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public double[] simulate() {
+        return MonteCarloSimulator.simulate(values, returns, method, PATHS, HORIZON, 42, pool);
+    }
+}
@@ -0,0 +1,52 @@
+package org.hsbc.bench;
+
+import org.hsbc.risk.CovarianceTracker;
+import org.hsbc.risk.OptimizationService;
+import org.hsbc.risk.PortfolioOptimizer;
+import org.hsbc.risk.ReturnMatrix;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code /api/portfolio/frontier} on a cache miss: a 20-point efficient frontier and the max-Sharpe
+ * refinement, over a year of daily returns with the default shrinkage, assets split over four
+ * classes and at most 10% (or 4/n) per holding.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class OptimizerBenchmark {
+
+    @Param({"50", "500"})
+    public int assets;
+
+    private PortfolioOptimizer optimizer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CovarianceTracker tracker = CovarianceTracker.build(
+                ReturnMatrix.align(BenchmarkPortfolios.histories(assets, 252), 250));
+        int[] group = new int[assets];
+        for (int i = 0; i < assets; i++) {
+            group[i] = i % 4;
+        }
+        optimizer = new PortfolioOptimizer(tracker.mean(), OptimizationService.shrink(tracker.covariance(), 0.2),
+                group, new double[]{1, 0.2, 0.5, 0.3}, Math.max(0.1, 4.0 / assets));
+    }
+
+    @Benchmark
+    public PortfolioOptimizer.Solution frontierAndMaximumSharpe() {
+        List<PortfolioOptimizer.Solution> frontier = optimizer.frontier(20, 0);
+        return optimizer.maximumSharpe(frontier, 0);
+    }
+
+    @Benchmark
+    public PortfolioOptimizer.Solution minimumVariance() {
+        return optimizer.minimumVariance(0);
+    }
+}
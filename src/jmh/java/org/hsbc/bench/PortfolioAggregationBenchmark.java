@@ -0,0 +1,156 @@
+package org.hsbc.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.hsbc.controller.PortfolioController;
+import org.hsbc.datagen.SyntheticPriceHistory;
+import org.hsbc.entity.PmsEntity;
+import org.hsbc.entity.PortfolioValuationEntity;
+import org.hsbc.market.PriceTable;
+import org.hsbc.service.PmsService;
+import org.hsbc.valuation.EodValuationService;
+import org.hsbc.valuation.ValuationEngine;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Aggregation endpoints of {@link PortfolioController} over synthetic portfolios.
+ * The Flask history call behind {@code /performance} is replaced by one canned 1Y response,
+ * so that benchmark measures JSON parsing and the per-date merge rather than the network.
+ * {@code storedPerformance} serves the same chart from a year of end-of-day rows, as
+ * {@link EodValuationService} stores them (the database read itself is not included).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class PortfolioAggregationBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int holdings;
+
+    private PortfolioController controller;
+    private PortfolioController storedController;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // The controller logs per-asset lines at DEBUG/TRACE; keep them but don't flood the harness output
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        System.setErr(new PrintStream(OutputStream.nullOutputStream()));
+
+        List<PmsEntity> portfolio = BenchmarkPortfolios.holdings(holdings);
+        PmsService service = BenchmarkPortfolios.service(portfolio);
+        PriceTable prices = BenchmarkPortfolios.prices(portfolio);
+        EodValuationService empty = mock(EodValuationService.class);
+        EodValuationService stored = mock(EodValuationService.class);
+        when(stored.series(any(), any())).thenReturn(storedYear());
+        controller = controller(service, prices, empty);
+        storedController = controller(service, prices, stored);
+    }
+
+    private static PortfolioController controller(PmsService service, PriceTable prices,
+                                                  EodValuationService eodValuations) {
+        PortfolioController controller =
+                new PortfolioController(new StaticListableBeanFactory().getBeanProvider(RestTemplateBuilder.class));
+        ReflectionTestUtils.setField(controller, "pmsService", service);
+        ReflectionTestUtils.setField(controller, "priceTable", prices);
+        ReflectionTestUtils.setField(controller, "valuationEngine", new ValuationEngine(service, prices));
+        ReflectionTestUtils.setField(controller, "eodValuationService", eodValuations);
+        ReflectionTestUtils.setField(controller, "flaskApiUrl", "http://stub");
+        ReflectionTestUtils.setField(controller, "restTemplate", new CannedHistoryRestTemplate(cannedHistory()));
+        return controller;
+    }
+
+    @Benchmark
+    public ResponseEntity<Map<String, Object>> summary() {
+        return controller.getPortfolioSummary();
+    }
+
+    @Benchmark
+    public ResponseEntity<List<Map<String, Object>>> allocation() {
+        return controller.getAssetAllocation();
+    }
+
+    @Benchmark
+    public ResponseEntity<List<Map<String, Object>>> breakdown() {
+        return controller.getInvestmentBreakdown();
+    }
+
+    @Benchmark
+    public ResponseEntity<Map<String, List<Map<String, Object>>>> performers() {
+        return controller.getPerformers();
+    }
+
+    @Benchmark
+    public ResponseEntity<List<Map<String, Object>>> performance() {
+        return controller.getPortfolioPerformance();
+    }
+
+    @Benchmark
+    public ResponseEntity<List<Map<String, Object>>> storedPerformance() {
+        return storedController.getPortfolioPerformance();
+    }
+
+    private static List<PortfolioValuationEntity> storedYear() {
+        List<PortfolioValuationEntity> rows = new ArrayList<>();
+        for (LocalDate day = BenchmarkPortfolios.AS_OF.minusYears(1); !day.isAfter(BenchmarkPortfolios.AS_OF);
+             day = day.plusDays(1)) {
+            if (day.getDayOfWeek() != DayOfWeek.SATURDAY && day.getDayOfWeek() != DayOfWeek.SUNDAY) {
+                rows.add(new PortfolioValuationEntity(day, 1_250_000, 1_000_000, 1_000_000, 100_000, 100_000, 50_000,
+                        1000));
+            }
+        }
+        return rows;
+    }
+
+    private static String cannedHistory() {
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode root = mapper.createObjectNode();
+        ArrayNode data = root.putArray("data");
+        SyntheticPriceHistory.of(BenchmarkPortfolios.SEED, "STK000000")
+                .bars(BenchmarkPortfolios.AS_OF.minusYears(1), BenchmarkPortfolios.AS_OF)
+                .forEach(bar -> data.addObject()
+                        .put("time", bar.date().toString())
+                        .put("open", bar.open())
+                        .put("high", bar.high())
+                        .put("low", bar.low())
+                        .put("close", bar.close())
+                        .put("volume", bar.volume()));
+        return root.toString();
+    }
+
+    static final class CannedHistoryRestTemplate extends RestTemplate {
+
+        private final String body;
+
+        CannedHistoryRestTemplate(String body) {
+            this.body = body;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T getForObject(String url, Class<T> responseType, Object... uriVariables) {
+            return (T) body;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package org.hsbc.bench;
+
+import org.hsbc.entity.PmsEntity;
+import org.hsbc.service.PmsServiceimp;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PmsServiceimp#getTotalPortfolioValue()} over synthetic portfolios, with the repository
+ * answering {@code findAll()} from memory so only the valuation pass (and its price table reads) is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class PortfolioValuationBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int holdings;
+
+    private PmsServiceimp service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<PmsEntity> portfolio = BenchmarkPortfolios.holdings(holdings);
+        service = new PmsServiceimp(BenchmarkPortfolios.repository(portfolio));
+        ReflectionTestUtils.setField(service, "priceTable", BenchmarkPortfolios.prices(portfolio));
+    }
+
+    @Benchmark
+    public double totalPortfolioValue() {
+        return service.getTotalPortfolioValue();
+    }
+}
@@ -0,0 +1,93 @@
+package org.hsbc.bench;
+
+import org.hsbc.entity.TransactionEntity;
+import org.hsbc.market.PriceHistory;
+import org.hsbc.market.PriceHistoryClient;
+import org.hsbc.market.PriceTable;
+import org.hsbc.performance.PerformanceReport;
+import org.hsbc.performance.PerformanceService;
+import org.hsbc.performance.TransactionRecordedEvent;
+import org.hsbc.service.TransactionService;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@code /api/portfolio/returns} over a transaction log of 100 symbols traded on random days in the
+ * last three years: the first report (folding the whole log) against the report after one more
+ * trade (re-reading one symbol's transactions).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ReturnsBenchmark {
+
+    private static final int SYMBOLS = 100;
+
+    @Param({"10000", "50000"})
+    public int trades;
+
+    private TransactionService transactions;
+    private PriceTable prices;
+    private PriceHistoryClient histories;
+    private PerformanceService warm;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        List<PriceHistory> closes = BenchmarkPortfolios.histories(SYMBOLS, 252);
+        Map<String, PriceHistory> bySymbol = new HashMap<>();
+        prices = new PriceTable(SYMBOLS);
+        for (PriceHistory history : closes) {
+            bySymbol.put(history.symbol(), history);
+            prices.update(history.symbol(), history.closes()[history.size() - 1]);
+        }
+        SplittableRandom random = new SplittableRandom(BenchmarkPortfolios.SEED);
+        LocalDate today = LocalDate.now();
+        List<TransactionEntity> log = new ArrayList<>(trades);
+        Map<String, List<TransactionEntity>> logBySymbol = new HashMap<>();
+        for (int i = 0; i < trades; i++) {
+            PriceHistory history = closes.get(random.nextInt(SYMBOLS));
+            double price = history.closes()[random.nextInt(history.size())];
+            TransactionEntity trade = new TransactionEntity(history.symbol(), 1 + random.nextInt(100), price,
+                    today.minusDays(random.nextInt(3 * 365)).atTime(12, 0), random.nextInt(5) == 0 ? "SELL" : "BUY");
+            log.add(trade);
+            logBySymbol.computeIfAbsent(history.symbol(), s -> new ArrayList<>()).add(trade);
+        }
+        transactions = (TransactionService) Proxy.newProxyInstance(TransactionService.class.getClassLoader(),
+                new Class<?>[]{TransactionService.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getAllTransactions" -> log;
+                    case "getTransactionsBySymbol" -> logBySymbol.getOrDefault((String) args[0], List.of());
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        histories = mock(PriceHistoryClient.class);
+        when(histories.daily(anyCollection())).thenReturn(bySymbol);
+        warm = service();
+        warm.report();
+    }
+
+    private PerformanceService service() {
+        return new PerformanceService(transactions, BenchmarkPortfolios.service(List.of()), prices, histories,
+                365, 3_600_000);
+    }
+
+    @Benchmark
+    public PerformanceReport firstReport() throws InterruptedException {
+        return service().report();
+    }
+
+    @Benchmark
+    public PerformanceReport afterTrade() throws InterruptedException {
+        warm.onTransactionRecorded(new TransactionRecordedEvent("SYM0000"));
+        return warm.report();
+    }
+}
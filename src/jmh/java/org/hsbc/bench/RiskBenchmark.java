@@ -0,0 +1,45 @@
+package org.hsbc.bench;
+
+import org.hsbc.market.PriceHistory;
+import org.hsbc.risk.RiskCalculator;
+import org.hsbc.risk.RiskMeasure;
+import org.hsbc.risk.ReturnMatrix;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What {@code /api/portfolio/risk} costs once the price histories are cached: aligning a year of
+ * daily closes and computing 1/10-day, 95/99% historical and parametric VaR and expected shortfall.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class RiskBenchmark {
+
+    private static final double[] CONFIDENCE = {0.95, 0.99};
+    private static final int[] HORIZONS = {1, 10};
+
+    @Param({"50", "500"})
+    public int assets;
+
+    private List<PriceHistory> histories;
+    private double[] values;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        histories = BenchmarkPortfolios.histories(assets, 252);
+        values = new double[assets];
+        Arrays.fill(values, 10_000);
+    }
+
+    @Benchmark
+    public List<RiskMeasure> alignAndMeasure() {
+        return RiskCalculator.measures(values, ReturnMatrix.align(histories, 250), CONFIDENCE, HORIZONS);
+    }
+}
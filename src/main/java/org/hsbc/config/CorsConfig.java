@@ -34,7 +34,10 @@ public class CorsConfig {
             "Content-Type",
             "Accept",
             "X-Requested-With",
-            "Cache-Control"
+            "Cache-Control",
+            "X-SQL-Count",
+            "X-SQL-Time-Ms",
+            "X-SQL-Rows"
         ));
         
         // Max age
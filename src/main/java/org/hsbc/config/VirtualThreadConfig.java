@@ -0,0 +1,33 @@
+package org.hsbc.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.client.RestTemplateCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+/**
+ * Upstream calls for {@code spring.threads.virtual.enabled=true} (the {@code vthreads} profile).
+ * Boot already moves Tomcat and the task executors to virtual threads; this switches Flask calls
+ * from {@code HttpURLConnection}, which keeps at most 5 idle connections per host
+ * ({@code http.maxConnections}), to the JDK {@link HttpClient} with an unbounded pool.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    public RestTemplateCustomizer virtualThreadRequestFactoryCustomizer() {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        return restTemplate -> restTemplate.setRequestFactory(new JdkClientHttpRequestFactory(httpClient));
+    }
+}
@@ -0,0 +1,69 @@
+package org.hsbc.controller;
+
+import org.hsbc.jfr.JfrRecordingService;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * On-demand JFR recordings: start one, download a snapshot while it runs, stop it.
+ */
+@RestController
+@RequestMapping("/api/admin/jfr")
+public class JfrAdminController {
+
+    private final JfrRecordingService service;
+
+    public JfrAdminController(JfrRecordingService service) {
+        this.service = service;
+    }
+
+    @GetMapping
+    public Map<String, Object> status() {
+        return service.status();
+    }
+
+    @PostMapping("/start")
+    public ResponseEntity<Map<String, Object>> start(
+            @RequestParam(defaultValue = "profile") String settings,
+            @RequestParam(defaultValue = "30") long maxAgeMinutes) throws Exception {
+        try {
+            return ResponseEntity.ok(service.start(settings, Duration.ofMinutes(maxAgeMinutes)));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/dump")
+    public ResponseEntity<Resource> dump() throws Exception {
+        try {
+            return download(service.dump());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @PostMapping("/stop")
+    public ResponseEntity<Resource> stop() throws Exception {
+        try {
+            return download(service.stop());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    private static ResponseEntity<Resource> download(Path file) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(new FileSystemResource(file));
+    }
+}
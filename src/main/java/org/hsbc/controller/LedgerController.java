@@ -0,0 +1,86 @@
+package org.hsbc.controller;
+
+import org.hsbc.exception.InvalidRequestException;
+import org.hsbc.ledger.GainsReport;
+import org.hsbc.ledger.HoldingsAsOf;
+import org.hsbc.ledger.HoldingsHistory;
+import org.hsbc.ledger.LotEngine;
+import org.hsbc.ledger.LotReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+/**
+ * Views of the transaction log: tax lots with their gains, and holdings at past dates.
+ */
+@RestController
+@RequestMapping("/api/portfolio")
+@CrossOrigin(origins = "*")
+public class LedgerController {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerController.class);
+
+    private final LotEngine lotEngine;
+    private final HoldingsHistory holdingsHistory;
+
+    public LedgerController(LotEngine lotEngine, HoldingsHistory holdingsHistory) {
+        this.lotEngine = lotEngine;
+        this.holdingsHistory = holdingsHistory;
+    }
+
+    /**
+     * Realized and unrealized gains per symbol and in total
+     * @param method fifo, lifo or average cost; defaults to pms.lots.method
+     * @return gains of every symbol ever traded, with realized gains split by holding period
+     */
+    @GetMapping("/gains")
+    public ResponseEntity<GainsReport> getGains(@RequestParam(required = false) String method) {
+        return ResponseEntity.ok(lotEngine.gains(method));
+    }
+
+    /**
+     * Open tax lots of one symbol
+     * @param method fifo, lifo or average cost; defaults to pms.lots.method
+     * @return the open lots, oldest first, and the symbol's gains
+     */
+    @GetMapping("/lots/{symbol}")
+    public ResponseEntity<LotReport> getLots(@PathVariable String symbol,
+                                             @RequestParam(required = false) String method) {
+        return ResponseEntity.ok(lotEngine.lots(symbol, method));
+    }
+
+    /**
+     * Positions held at a past moment, replayed from the nearest holdings snapshot
+     * @param asOf a date (the end of that day) or date-time; now if absent
+     * @return quantity and average cost basis per symbol
+     */
+    @GetMapping("/holdings")
+    public ResponseEntity<HoldingsAsOf> getHoldings(@RequestParam(required = false) String asOf) {
+        return ResponseEntity.ok(holdingsHistory.asOf(parseAsOf(asOf)));
+    }
+
+    private static LocalDateTime parseAsOf(String asOf) {
+        if (asOf == null) {
+            return LocalDateTime.now();
+        }
+        try {
+            return asOf.length() == 10 ? LocalDate.parse(asOf).atTime(LocalTime.MAX) : LocalDateTime.parse(asOf);
+        } catch (DateTimeParseException e) {
+            throw new InvalidRequestException("asOf must be a date (2025-03-31) or date-time (2025-03-31T16:00)");
+        }
+    }
+
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidRequest(InvalidRequestException e) {
+        log.warn("Rejected gains request: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", e.getMessage()));
+    }
+}
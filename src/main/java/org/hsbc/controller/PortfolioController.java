@@ -1,14 +1,35 @@
 package org.hsbc.controller;
 
 import org.hsbc.entity.PmsEntity;
+import org.hsbc.entity.PortfolioValuationEntity;
+import org.hsbc.exception.InvalidRequestException;
+import org.hsbc.jfr.AggregationEvent;
+import org.hsbc.market.PriceTable;
+import org.hsbc.performance.PerformanceReport;
+import org.hsbc.performance.PerformanceService;
 import org.hsbc.service.PmsService;
+import org.hsbc.valuation.EodValuationService;
+import org.hsbc.valuation.ValuationEngine;
+import org.hsbc.valuation.ValuationSnapshot;
+import org.hsbc.valuation.ValuationStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 
 @RestController
@@ -16,53 +37,171 @@ import java.util.*;
 @CrossOrigin(origins = "*")
 public class PortfolioController {
 
+    private static final Logger log = LoggerFactory.getLogger(PortfolioController.class);
+
     @Autowired
     private PmsService pmsService;
+
+    @Autowired
+    private PriceTable priceTable;
+
+    @Autowired
+    private ValuationEngine valuationEngine;
+
+    @Autowired
+    private ValuationStream valuationStream;
+
+    @Autowired
+    private PerformanceService performanceService;
+
+    @Autowired
+    private EodValuationService eodValuationService;
+
+    @Value("${pms.valuation.stream-timeout-ms:1800000}")
+    private long summaryStreamTimeoutMs;
+
+    @Value("${flask.api.url:http://localhost:5000}")
+    private String flaskApiUrl;
     
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    public PortfolioController(ObjectProvider<RestTemplateBuilder> restTemplateBuilder) {
+        this.restTemplate = restTemplateBuilder.getIfAvailable(RestTemplateBuilder::new).build();
+    }
+
+    /**
+     * Reads the running totals kept by {@link ValuationEngine}; no holdings are loaded or walked.
+     * The time- and money-weighted returns come from {@link PerformanceService}'s last report, which
+     * may be up to one recompute behind.
+     */
     @GetMapping("/summary")
     public ResponseEntity<Map<String, Object>> getPortfolioSummary() {
-        List<PmsEntity> assets = pmsService.getAllAssets();
-        
-        double totalPortfolioValue = 0;
-        double totalInvestedValue = 0;
+        AggregationEvent event = AggregationEvent.begin("summary");
+        ValuationSnapshot snapshot = valuationEngine.snapshot();
 
-        for (PmsEntity asset : assets) {
-            totalPortfolioValue += asset.getCurrentPrice() * asset.getQuantity();
-            
-            // Use buyPrice * quantity if buyingValue is 0
-            double buyingValue = asset.getBuyingValue();
-            if (buyingValue == 0) {
-                buyingValue = asset.getBuyPrice() * asset.getQuantity();
-            }
-            totalInvestedValue += buyingValue;
+        log.debug("Portfolio Summary: totalPortfolioValue={}, totalInvestedValue={}, totalGain={}, gainPercentage={}%",
+                snapshot.marketValue(), snapshot.investedValue(), snapshot.gain(), snapshot.gainPercentage());
+
+        Map<String, Object> summary = summaryBody(snapshot);
+        addReturns(summary);
+        event.complete(snapshot.positions());
+        return ResponseEntity.ok(summary);
+    }
+
+    /**
+     * Returns net of deposits and withdrawals, portfolio-wide and per symbol: time-weighted over the
+     * last year and money-weighted (XIRR) over the whole transaction log
+     */
+    @GetMapping("/returns")
+    public ResponseEntity<PerformanceReport> getPortfolioReturns() throws InterruptedException {
+        return ResponseEntity.ok(performanceService.report());
+    }
+
+    // Never waits for a recompute; left out until the first report is ready
+    private void addReturns(Map<String, Object> summary) {
+        PerformanceReport report = performanceService.cachedReport();
+        if (report == null) {
+            return;
         }
+        if (report.timeWeightedReturn() != null) {
+            summary.put("twrPercentage", report.timeWeightedReturn() * 100);
+        }
+        if (report.moneyWeightedReturn() != null) {
+            summary.put("xirrPercentage", report.moneyWeightedReturn() * 100);
+        }
+    }
 
-        double totalGain = totalPortfolioValue - totalInvestedValue;
-        double gainPercentage = totalInvestedValue > 0 ? (totalGain / totalInvestedValue) * 100 : 0;
+    /**
+     * The summary, followed by a {@code summary} event (with per asset type and industry subtotals)
+     * every time a price tick or trade moves it
+     */
+    @GetMapping(value = "/summary/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamPortfolioSummary() {
+        SseEmitter emitter = new SseEmitter(summaryStreamTimeoutMs);
+        ValuationStream.Subscription subscription = valuationStream.subscribe(new ValuationStream.SnapshotSink() {
+            @Override
+            public void send(ValuationSnapshot snapshot) throws IOException {
+                Map<String, Object> body = summaryBody(snapshot);
+                body.put("byAssetType", snapshot.byAssetType());
+                body.put("byIndustry", snapshot.byIndustry());
+                emitter.send(SseEmitter.event().name("summary").data(body, MediaType.APPLICATION_JSON));
+            }
 
-        System.out.println("Portfolio Summary: totalPortfolioValue=" + totalPortfolioValue + 
-                         ", totalInvestedValue=" + totalInvestedValue + 
-                         ", totalGain=" + totalGain + ", gainPercentage=" + gainPercentage + "%");
+            @Override
+            public void closed() {
+                emitter.complete();
+            }
+        });
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(e -> subscription.close());
+        return emitter;
+    }
 
+    private static Map<String, Object> summaryBody(ValuationSnapshot snapshot) {
         Map<String, Object> summary = new HashMap<>();
         summary.put("userName", "Alex Johnson");
-        summary.put("portfolioValue", totalPortfolioValue);
-        summary.put("totalInvested", totalInvestedValue);
-        summary.put("totalGain", totalGain);
-        summary.put("gainPercentage", gainPercentage);
-
-        return ResponseEntity.ok(summary);
+        summary.put("portfolioValue", snapshot.marketValue());
+        summary.put("totalInvested", snapshot.investedValue());
+        summary.put("totalGain", snapshot.gain());
+        summary.put("gainPercentage", snapshot.gainPercentage());
+        return summary;
     }
 
+    /**
+     * A year of end-of-day portfolio values, read from {@link EodValuationService}'s table. Until
+     * that has rows (the first backfill is still running) they are rebuilt from each holding's
+     * price history.
+     */
     @GetMapping("/performance")
     public ResponseEntity<List<Map<String, Object>>> getPortfolioPerformance() {
+        AggregationEvent event = AggregationEvent.begin("performance");
+        LocalDate today = LocalDate.now();
+        List<PortfolioValuationEntity> stored = eodValuationService.series(today.minusYears(1), today);
+        if (!stored.isEmpty()) {
+            List<Map<String, Object>> performance = new ArrayList<>(stored.size());
+            for (PortfolioValuationEntity row : stored) {
+                Map<String, Object> dataPoint = new HashMap<>();
+                dataPoint.put("date", row.getValuationDate().toString());
+                dataPoint.put("value", Math.round(row.getMarketValue()));
+                dataPoint.put("invested", Math.round(row.getInvestedValue()));
+                performance.add(dataPoint);
+            }
+            event.complete(stored.get(stored.size() - 1).getPositions());
+            return ResponseEntity.ok(performance);
+        }
+        return ResponseEntity.ok(performanceFromHistory(event));
+    }
+
+    /**
+     * Revalues every trading day from {@code from} (default a year ago) to {@code to} (default today)
+     * into the end-of-day table
+     */
+    @PostMapping("/performance/backfill")
+    public ResponseEntity<Map<String, Object>> backfillPerformance(@RequestParam(required = false) String from,
+                                                                   @RequestParam(required = false) String to)
+            throws InterruptedException {
+        LocalDate end = to == null ? LocalDate.now() : parseDate(to);
+        LocalDate start = from == null ? end.minusYears(1) : parseDate(from);
+        int rows = eodValuationService.backfill(start, end);
+        return ResponseEntity.ok(Map.of("from", start.toString(), "to", end.toString(), "rows", rows));
+    }
+
+    private static LocalDate parseDate(String date) {
+        try {
+            return LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            throw new InvalidRequestException("Dates must look like 2025-03-31");
+        }
+    }
+
+    private List<Map<String, Object>> performanceFromHistory(AggregationEvent event) {
         List<PmsEntity> assets = pmsService.getAllAssets();
         
         if (assets.isEmpty()) {
-            return ResponseEntity.ok(new ArrayList<>());
+            event.complete(assets.size());
+            return new ArrayList<>();
         }
 
         // Fetch 1-year historical data for each asset and aggregate
@@ -73,10 +212,10 @@ public class PortfolioController {
             int quantity = asset.getQuantity();
             String assetType = asset.getAssetType() != null ? asset.getAssetType() : "Stocks";
             
-            System.out.println("Fetching history for " + symbol + " (type: " + assetType + ")");
+            log.debug("Fetching history for {} (type: {})", symbol, assetType);
             
             // Call Flask API to get 1-year historical data
-            String url = "http://localhost:5000/api/history/" + symbol + "?period=1Y&interval=1d";
+            String url = flaskApiUrl + "/api/history/" + symbol + "?period=1Y&interval=1d";
             
             try {
                 String response = restTemplate.getForObject(url, String.class);
@@ -95,7 +234,7 @@ public class PortfolioController {
                         } else if (dataPoint.has("close")) {
                             price = dataPoint.get("close").asDouble();
                         } else {
-                            System.err.println("No price data for " + symbol + " on " + date);
+                            log.debug("No price data for {} on {}", symbol, date);
                             continue;
                         }
                         
@@ -104,13 +243,12 @@ public class PortfolioController {
                         // Add to aggregated data
                         aggregatedData.put(date, aggregatedData.getOrDefault(date, 0.0) + value);
                     }
-                    System.out.println("Added " + historyData.get("data").size() + " data points for " + symbol);
+                    log.debug("Added {} data points for {}", historyData.get("data").size(), symbol);
                 } else {
-                    System.err.println("No data array in response for " + symbol + ". Response: " + response);
+                    log.warn("No data array in response for {}. Response: {}", symbol, response);
                 }
             } catch (Exception e) {
-                System.err.println("Error fetching history for " + symbol + ": " + e.getMessage());
-                e.printStackTrace();
+                log.warn("Error fetching history for {}: {}", symbol, e.getMessage(), e);
             }
         }
         
@@ -123,17 +261,19 @@ public class PortfolioController {
             performance.add(dataPoint);
         }
         
-        System.out.println("Returning " + performance.size() + " total data points for portfolio chart");
-        return ResponseEntity.ok(performance);
+        log.debug("Returning {} total data points for portfolio chart", performance.size());
+        event.complete(assets.size());
+        return performance;
     }
 
     @GetMapping("/allocation")
     public ResponseEntity<List<Map<String, Object>>> getAssetAllocation() {
+        AggregationEvent event = AggregationEvent.begin("allocation");
         List<PmsEntity> assets = pmsService.getAllAssets();
         Map<String, Double> allocation = new HashMap<>();
 
         for (PmsEntity asset : assets) {
-            double value = asset.getCurrentPrice() * asset.getQuantity();
+            double value = currentPrice(asset) * asset.getQuantity();
             String assetType = asset.getAssetType() != null ? asset.getAssetType() : "Unknown";
             
             allocation.put(assetType, allocation.getOrDefault(assetType, 0.0) + value);
@@ -147,11 +287,13 @@ public class PortfolioController {
             result.add(item);
         }
 
+        event.complete(assets.size());
         return ResponseEntity.ok(result);
     }
 
     @GetMapping("/breakdown")
     public ResponseEntity<List<Map<String, Object>>> getInvestmentBreakdown() {
+        AggregationEvent event = AggregationEvent.begin("breakdown");
         List<PmsEntity> assets = pmsService.getAllAssets();
         Map<String, Double> breakdown = new HashMap<>();
 
@@ -202,17 +344,20 @@ public class PortfolioController {
             }
         }
 
+        event.complete(assets.size());
         return ResponseEntity.ok(result);
     }
 
     @GetMapping("/performers")
     public ResponseEntity<Map<String, List<Map<String, Object>>>> getPerformers() {
+        AggregationEvent event = AggregationEvent.begin("performers");
         List<PmsEntity> assets = pmsService.getAllAssets();
         
         if (assets.isEmpty()) {
             Map<String, List<Map<String, Object>>> emptyResult = new HashMap<>();
             emptyResult.put("topPerformers", new ArrayList<>());
             emptyResult.put("lowestPerformers", new ArrayList<>());
+            event.complete(assets.size());
             return ResponseEntity.ok(emptyResult);
         }
 
@@ -220,7 +365,7 @@ public class PortfolioController {
         List<Map<String, Object>> assetPerformance = new ArrayList<>();
         
         for (PmsEntity asset : assets) {
-            double currentValue = asset.getCurrentPrice() * asset.getQuantity();
+            double currentValue = currentPrice(asset) * asset.getQuantity();
             // Use buyPrice * quantity if buyingValue is 0
             double buyingValue = asset.getBuyingValue();
             if (buyingValue == 0) {
@@ -237,8 +382,8 @@ public class PortfolioController {
             assetData.put("percentageChange", percentageChange);
             assetData.put("assetType", asset.getAssetType());
             
-            System.out.println("Asset " + asset.getSymbol() + ": currentValue=" + currentValue + 
-                             ", buyingValue=" + buyingValue + ", percentageChange=" + percentageChange + "%");
+            log.trace("Asset {}: currentValue={}, buyingValue={}, percentageChange={}%",
+                    asset.getSymbol(), currentValue, buyingValue, percentageChange);
             
             assetPerformance.add(assetData);
         }
@@ -266,6 +411,17 @@ public class PortfolioController {
         result.put("topPerformers", topPerformers);
         result.put("lowestPerformers", lowestPerformers);
 
+        event.complete(assets.size());
         return ResponseEntity.ok(result);
     }
+
+    private double currentPrice(PmsEntity asset) {
+        return priceTable.priceOrElse(asset.getSymbol(), asset.getCurrentPrice());
+    }
+
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidRequest(InvalidRequestException e) {
+        log.warn("Rejected portfolio request: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", e.getMessage()));
+    }
 }
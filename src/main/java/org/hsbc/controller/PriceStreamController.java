@@ -0,0 +1,92 @@
+package org.hsbc.controller;
+
+import org.hsbc.exception.InvalidRequestException;
+import org.hsbc.market.PriceStreamHub;
+import org.hsbc.market.PriceSubscription;
+import org.hsbc.market.PriceTick;
+import org.hsbc.market.TickSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Live prices over Server-Sent Events. Each connection receives a {@code price_update} event per
+ * changed quote of the requested symbols; all connections share one upstream feed per symbol.
+ */
+@RestController
+@RequestMapping("/api/yfdata")
+@CrossOrigin(origins = "*")
+public class PriceStreamController {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceStreamController.class);
+    private static final Pattern SYMBOL = Pattern.compile("[A-Z0-9.=^-]{1,20}");
+
+    private final PriceStreamHub hub;
+    private final int maxSymbols;
+
+    public PriceStreamController(PriceStreamHub hub, @Value("${pms.stream.max-symbols:20}") int maxSymbols) {
+        this.hub = hub;
+        this.maxSymbols = maxSymbols;
+    }
+
+    /**
+     * Stream live prices
+     * @param symbols Comma-separated symbols (e.g. AAPL,MSFT,BTC-USD)
+     * @return An SSE stream of {@code price_update} events carrying {@link PriceTick} JSON
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestParam String symbols) {
+        List<String> requested = Arrays.stream(symbols.split(","))
+                .map(s -> s.trim().toUpperCase())
+                .filter(s -> !s.isEmpty())
+                .distinct()
+                .toList();
+        if (requested.isEmpty() || requested.size() > maxSymbols
+                || !requested.stream().allMatch(s -> SYMBOL.matcher(s).matches())) {
+            throw new InvalidRequestException("Parameter 'symbols' must list 1-" + maxSymbols + " valid symbols");
+        }
+
+        // No timeout: the connection lasts until the client goes away or a heartbeat fails
+        SseEmitter emitter = new SseEmitter(0L);
+        PriceSubscription subscription = hub.subscribe(requested, new TickSink() {
+            @Override
+            public void send(PriceTick tick) throws IOException {
+                emitter.send(SseEmitter.event().name("price_update").data(tick, MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void heartbeat() throws IOException {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            }
+
+            @Override
+            public void closed() {
+                emitter.complete();
+            }
+        });
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(e -> subscription.close());
+        log.debug("Price stream opened for {}", requested);
+        return emitter;
+    }
+
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidSymbols(InvalidRequestException e) {
+        log.warn("Rejected price stream request: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("error", e.getMessage()));
+    }
+}
@@ -0,0 +1,113 @@
+package org.hsbc.controller;
+
+import org.hsbc.exception.InvalidRequestException;
+import org.hsbc.risk.CorrelationReport;
+import org.hsbc.risk.CorrelationService;
+import org.hsbc.risk.EfficientFrontier;
+import org.hsbc.risk.OptimizationService;
+import org.hsbc.risk.OptimizedPortfolio;
+import org.hsbc.risk.RiskEngine;
+import org.hsbc.risk.RiskReport;
+import org.hsbc.risk.SimulationResult;
+import org.hsbc.risk.SimulationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Portfolio risk measures computed from the holdings' price history.
+ */
+@RestController
+@RequestMapping("/api/portfolio")
+@CrossOrigin(origins = "*")
+public class RiskController {
+
+    private static final Logger log = LoggerFactory.getLogger(RiskController.class);
+
+    private final RiskEngine riskEngine;
+    private final SimulationService simulationService;
+    private final CorrelationService correlationService;
+    private final OptimizationService optimizationService;
+
+    public RiskController(RiskEngine riskEngine, SimulationService simulationService,
+                          CorrelationService correlationService, OptimizationService optimizationService) {
+        this.riskEngine = riskEngine;
+        this.simulationService = simulationService;
+        this.correlationService = correlationService;
+        this.optimizationService = optimizationService;
+    }
+
+    /**
+     * Historical and parametric VaR / expected shortfall
+     * @return 1-day and 10-day measures at 95% and 99% confidence, as positive losses
+     */
+    @GetMapping("/risk")
+    public ResponseEntity<RiskReport> getRisk() throws InterruptedException {
+        return ResponseEntity.ok(riskEngine.report());
+    }
+
+    /**
+     * Monte Carlo simulation of the portfolio's value
+     * @param method      gbm (correlated geometric Brownian motion) or bootstrap (resampled days)
+     * @param paths       number of simulated paths
+     * @param horizonDays trading days ahead
+     * @param seed        fixes the random draws, for reproducible results
+     * @return terminal value distribution with simulated VaR / expected shortfall
+     */
+    @GetMapping("/simulate")
+    public ResponseEntity<SimulationResult> simulate(@RequestParam(required = false) String method,
+                                                     @RequestParam(required = false) Integer paths,
+                                                     @RequestParam(required = false) Integer horizonDays,
+                                                     @RequestParam(required = false) Long seed)
+            throws InterruptedException {
+        return ResponseEntity.ok(simulationService.simulate(method, paths, horizonDays, seed));
+    }
+
+    /**
+     * Correlation or covariance matrix of the holdings' daily log returns
+     * @param kind correlation (default) or covariance
+     * @return the matrix with its symbols, in the same order for rows and columns
+     */
+    @GetMapping("/correlation")
+    public ResponseEntity<CorrelationReport> getCorrelation(@RequestParam(required = false) String kind)
+            throws InterruptedException {
+        return ResponseEntity.ok(correlationService.matrix(kind));
+    }
+
+    /**
+     * Long-only efficient frontier of the current holdings
+     * @param points         number of frontier points
+     * @param maxAssetWeight largest weight of any one holding, overriding the configured cap
+     * @return the frontier, where the current weights sit, and the minimum-variance and max-Sharpe
+     * target weights with the trades to reach them
+     */
+    @GetMapping("/frontier")
+    public ResponseEntity<EfficientFrontier> getFrontier(@RequestParam(required = false) Integer points,
+                                                         @RequestParam(required = false) Double maxAssetWeight)
+            throws InterruptedException {
+        return ResponseEntity.ok(optimizationService.frontier(points, maxAssetWeight));
+    }
+
+    /**
+     * Rebalancing target weights
+     * @param objective      min-variance (default) or max-sharpe
+     * @param maxAssetWeight largest weight of any one holding, overriding the configured cap
+     * @return target weight and trade value per holding
+     */
+    @GetMapping("/optimize")
+    public ResponseEntity<OptimizedPortfolio> optimize(@RequestParam(required = false) String objective,
+                                                       @RequestParam(required = false) Double maxAssetWeight)
+            throws InterruptedException {
+        return ResponseEntity.ok(optimizationService.optimize(objective, maxAssetWeight));
+    }
+
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidRequest(InvalidRequestException e) {
+        log.warn("Rejected risk request: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", e.getMessage()));
+    }
+}
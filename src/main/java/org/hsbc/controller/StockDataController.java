@@ -1,14 +1,25 @@
 package org.hsbc.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.*;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -21,141 +32,126 @@ public class StockDataController {
     @Value("${flask.api.url:http://localhost:5000}")
     private String flaskApiUrl;
 
+    @Value("${pms.proxy.buffer-size:8192}")
+    private int bufferSize = 8192;
+
     private final RestTemplate restTemplate;
 
-    public StockDataController() {
-        this.restTemplate = new RestTemplate();
+    public StockDataController(ObjectProvider<RestTemplateBuilder> restTemplateBuilder) {
+        // Built from Boot's builder so the Flask call metrics interceptor is applied
+        this.restTemplate = restTemplateBuilder.getIfAvailable(RestTemplateBuilder::new).build();
         logger.info("StockDataController initialized");
     }
 
     /**
      * Get stock data by ticker symbol
+     * Responds with stock data including price, volume, news, recommendations
      * @param symbol Stock ticker symbol (e.g., AAPL, MSFT)
-     * @return Stock data including price, volume, news, recommendations
      */
     @GetMapping(value = "/stocks/{symbol}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> getStock(@PathVariable String symbol) {
+    public void getStock(@PathVariable String symbol, HttpServletRequest request,
+            HttpServletResponse response) {
         logger.info("Request received for stock: {}", symbol);
         try {
             String url = flaskApiUrl + "/api/stocks/" + symbol.toUpperCase();
             logger.debug("Calling Flask API: {}", url);
-            ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+            relay(HttpMethod.GET, url, null, request, response);
             logger.info("Successfully fetched stock data for: {}", symbol);
-            return ResponseEntity.ok()
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(response.getBody());
         } catch (HttpClientErrorException.NotFound e) {
             logger.warn("Stock not found: {}", symbol);
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(createErrorResponse("Stock not found"));
+            throw new ProxyErrorException(HttpStatus.NOT_FOUND, createErrorResponse("Stock not found"));
         } catch (Exception e) {
             logger.error("Error fetching stock data for {}: {}", symbol, e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(createErrorResponse("Error fetching stock data: " + e.getMessage()));
+            throw new ProxyErrorException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    createErrorResponse("Error fetching stock data: " + e.getMessage()));
         }
     }
 
     /**
      * Get cryptocurrency data by symbol
+     * Responds with cryptocurrency data including price, market cap, volume
      * @param symbol Crypto symbol (e.g., BTC, ETH)
-     * @return Cryptocurrency data including price, market cap, volume
      */
     @GetMapping(value = "/crypto/{symbol}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> getCrypto(@PathVariable String symbol) {
+    public void getCrypto(@PathVariable String symbol, HttpServletRequest request,
+            HttpServletResponse response) {
         logger.info("Request received for crypto: {}", symbol);
         try {
             String url = flaskApiUrl + "/api/crypto/" + symbol.toUpperCase();
             logger.debug("Calling Flask API: {}", url);
-            ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+            relay(HttpMethod.GET, url, null, request, response);
             logger.info("Successfully fetched crypto data for: {}", symbol);
-            return ResponseEntity.ok()
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(response.getBody());
         } catch (HttpClientErrorException.NotFound e) {
             logger.warn("Cryptocurrency not found: {}", symbol);
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(createErrorResponse("Cryptocurrency not found"));
+            throw new ProxyErrorException(HttpStatus.NOT_FOUND, createErrorResponse("Cryptocurrency not found"));
         } catch (Exception e) {
             logger.error("Error fetching crypto data for {}: {}", symbol, e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(createErrorResponse("Error fetching crypto data: " + e.getMessage()));
+            throw new ProxyErrorException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    createErrorResponse("Error fetching crypto data: " + e.getMessage()));
         }
     }
 
     /**
      * Get mutual fund data by symbol
+     * Responds with mutual fund data including NAV, returns, holdings
      * @param symbol Mutual fund symbol
-     * @return Mutual fund data including NAV, returns, holdings
      */
     @GetMapping(value = "/mutual-funds/{symbol}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> getMutualFund(@PathVariable String symbol) {
+    public void getMutualFund(@PathVariable String symbol, HttpServletRequest request,
+            HttpServletResponse response) {
         logger.info("Request received for mutual fund: {}", symbol);
         try {
             String url = flaskApiUrl + "/api/mutual-funds/" + symbol.toUpperCase();
             logger.debug("Calling Flask API: {}", url);
-            ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+            relay(HttpMethod.GET, url, null, request, response);
             logger.info("Successfully fetched mutual fund data for: {}", symbol);
-            return ResponseEntity.ok()
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(response.getBody());
         } catch (HttpClientErrorException.NotFound e) {
             logger.warn("Mutual fund not found: {}", symbol);
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(createErrorResponse("Mutual fund not found"));
+            throw new ProxyErrorException(HttpStatus.NOT_FOUND, createErrorResponse("Mutual fund not found"));
         } catch (Exception e) {
             logger.error("Error fetching mutual fund data for {}: {}", symbol, e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(createErrorResponse("Error fetching mutual fund data: " + e.getMessage()));
+            throw new ProxyErrorException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    createErrorResponse("Error fetching mutual fund data: " + e.getMessage()));
         }
     }
 
     /**
      * Get commodity/futures data by symbol
+     * Responds with commodity data including price, volume, changes
      * @param symbol Commodity symbol (e.g., GC=F for Gold, CL=F for Crude Oil)
-     * @return Commodity data including price, volume, changes
      */
     @GetMapping(value = "/commodities/{symbol}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> getCommodity(@PathVariable String symbol) {
+    public void getCommodity(@PathVariable String symbol, HttpServletRequest request,
+            HttpServletResponse response) {
         logger.info("Request received for commodity: {}", symbol);
         try {
             String url = flaskApiUrl + "/api/commodities/" + symbol.toUpperCase();
             logger.debug("Calling Flask API: {}", url);
-            ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+            relay(HttpMethod.GET, url, null, request, response);
             logger.info("Successfully fetched commodity data for: {}", symbol);
-            return ResponseEntity.ok()
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(response.getBody());
         } catch (HttpClientErrorException.NotFound e) {
             logger.warn("Commodity not found: {}", symbol);
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(createErrorResponse("Commodity not found"));
+            throw new ProxyErrorException(HttpStatus.NOT_FOUND, createErrorResponse("Commodity not found"));
         } catch (Exception e) {
             logger.error("Error fetching commodity data for {}: {}", symbol, e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(createErrorResponse("Error fetching commodity data: " + e.getMessage()));
+            throw new ProxyErrorException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    createErrorResponse("Error fetching commodity data: " + e.getMessage()));
         }
     }
 
     /**
      * Get historical price data for a symbol
+     * Responds with historical OHLCV data
      * @param symbol Asset symbol
      * @param period Time period (1D, 5D, 1W, 1MO, 3MO, 6MO, 1Y, 2Y)
      * @param interval Data interval (1m, 5m, 15m, 1h, 1d, 1wk, 1mo)
-     * @return Historical OHLCV data
      */
     @GetMapping(value = "/history/{symbol}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> getHistory(
+    public void getHistory(
             @PathVariable String symbol,
             @RequestParam(defaultValue = "1MO") String period,
-            @RequestParam(required = false) String interval) {
+            @RequestParam(required = false) String interval,
+            HttpServletRequest request, HttpServletResponse response) {
         logger.info("Request received for history: {} with period: {}, interval: {}", symbol, period, interval);
         try {
             String url = flaskApiUrl + "/api/history/" + symbol.toUpperCase() + "?period=" + period.toUpperCase();
@@ -163,172 +159,140 @@ public class StockDataController {
                 url += "&interval=" + interval.toLowerCase();
             }
             logger.debug("Calling Flask API: {}", url);
-            ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+            relay(HttpMethod.GET, url, null, request, response);
             logger.info("Successfully fetched history for: {} ({}, {})", symbol, period, interval);
-            return ResponseEntity.ok()
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(response.getBody());
         } catch (HttpClientErrorException.NotFound e) {
             logger.warn("History not found for: {} ({}, {})", symbol, period, interval);
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(createErrorResponse("History not found"));
+            throw new ProxyErrorException(HttpStatus.NOT_FOUND, createErrorResponse("History not found"));
         } catch (Exception e) {
             logger.error("Error fetching history for {} ({}, {}): {}", symbol, period, interval, e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(createErrorResponse("Error fetching history: " + e.getMessage()));
+            throw new ProxyErrorException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    createErrorResponse("Error fetching history: " + e.getMessage()));
         }
     }
 
     /**
      * Get news for a specific symbol
+     * Responds with latest news articles
      * @param symbol Asset symbol
-     * @return Latest news articles
      */
     @GetMapping(value = "/news/{symbol}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> getNews(@PathVariable String symbol) {
+    public void getNews(@PathVariable String symbol, HttpServletRequest request,
+            HttpServletResponse response) {
         logger.info("Request received for news: {}", symbol);
         try {
             String url = flaskApiUrl + "/api/news/" + symbol.toUpperCase();
             logger.debug("Calling Flask API: {}", url);
-            ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+            relay(HttpMethod.GET, url, null, request, response);
             logger.info("Successfully fetched news for: {}", symbol);
-            return ResponseEntity.ok()
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(response.getBody());
         } catch (HttpClientErrorException.NotFound e) {
             logger.warn("News not found for: {}", symbol);
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(createErrorResponse("News not found"));
+            throw new ProxyErrorException(HttpStatus.NOT_FOUND, createErrorResponse("News not found"));
         } catch (Exception e) {
             logger.error("Error fetching news for {}: {}", symbol, e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(createErrorResponse("Error fetching news: " + e.getMessage()));
+            throw new ProxyErrorException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    createErrorResponse("Error fetching news: " + e.getMessage()));
         }
     }
 
     /**
      * Search for assets (stocks, cryptos, mutual funds, commodities)
+     * Responds with search results across all asset types
      * @param query Search query string
-     * @return Search results across all asset types
      */
     @GetMapping(value = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> searchAssets(@RequestParam String q) {
+    public void searchAssets(@RequestParam String q, HttpServletRequest request,
+            HttpServletResponse response) {
         logger.info("Search request received with query: {}", q);
+        if (q == null || q.trim().isEmpty()) {
+            logger.warn("Empty search query received");
+            throw new ProxyErrorException(HttpStatus.BAD_REQUEST,
+                    createErrorResponse("Query parameter 'q' is required"));
+        }
         try {
-            if (q == null || q.trim().isEmpty()) {
-                logger.warn("Empty search query received");
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .body(createErrorResponse("Query parameter 'q' is required"));
-            }
             String url = flaskApiUrl + "/api/search?q=" + q.trim();
             logger.debug("Calling Flask API: {}", url);
-            ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+            relay(HttpMethod.GET, url, null, request, response);
             logger.info("Search completed successfully for query: {}", q);
-            return ResponseEntity.ok()
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(response.getBody());
         } catch (Exception e) {
             logger.error("Error searching assets for query {}: {}", q, e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(createErrorResponse("Error searching assets: " + e.getMessage()));
+            throw new ProxyErrorException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    createErrorResponse("Error searching assets: " + e.getMessage()));
         }
     }
 
     /**
      * Get portfolio performers (top 5 best and worst)
+     * Responds with top 5 best and worst performers with comprehensive metrics
      * @param requestBody JSON with holdings array containing ticker, buyPrice, quantity, purchaseDate
-     * @return Top 5 best and worst performers with comprehensive metrics
      */
     @PostMapping(value = "/portfolio/performers", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> getPortfolioPerformers(@RequestBody String requestBody) {
+    public void getPortfolioPerformers(@RequestBody String requestBody, HttpServletRequest request,
+            HttpServletResponse response) {
         logger.info("Portfolio performers analysis request received");
         logger.debug("Request body: {}", requestBody);
         try {
             String url = flaskApiUrl + "/api/portfolio/performers";
             logger.debug("Calling Flask API: {}", url);
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<String> request = new HttpEntity<>(requestBody, headers);
-            
-            ResponseEntity<String> response = restTemplate.postForEntity(url, request, String.class);
+            relay(HttpMethod.POST, url, requestBody, request, response);
             logger.info("Portfolio performers analysis completed successfully");
-            return ResponseEntity.ok()
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(response.getBody());
         } catch (HttpClientErrorException.BadRequest e) {
             logger.warn("Invalid portfolio performers request: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(createErrorResponse("Invalid request: " + e.getMessage()));
+            throw new ProxyErrorException(HttpStatus.BAD_REQUEST,
+                    createErrorResponse("Invalid request: " + e.getMessage()));
         } catch (Exception e) {
             logger.error("Error analyzing portfolio performers: {}", e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(createErrorResponse("Error analyzing portfolio performers: " + e.getMessage()));
+            throw new ProxyErrorException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    createErrorResponse("Error analyzing portfolio performers: " + e.getMessage()));
         }
     }
 
     /**
      * Get comprehensive portfolio recommendations using AI sentiment analysis
+     * Responds with portfolio recommendations with buy/sell/hold actions based on sentiment + analysts
      * @param requestBody JSON with holdings array containing ticker, buyPrice, quantity
-     * @return Portfolio recommendations with buy/sell/hold actions based on sentiment + analysts
      */
     @PostMapping(value = "/portfolio/recommendations", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> getPortfolioRecommendations(@RequestBody String requestBody) {
+    public void getPortfolioRecommendations(@RequestBody String requestBody, HttpServletRequest request,
+            HttpServletResponse response) {
         logger.info("Portfolio recommendations request received");
         logger.debug("Request body: {}", requestBody);
         try {
             String url = flaskApiUrl + "/api/portfolio/recommendations";
             logger.debug("Calling Flask API: {}", url);
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<String> request = new HttpEntity<>(requestBody, headers);
-            
-            ResponseEntity<String> response = restTemplate.postForEntity(url, request, String.class);
+            relay(HttpMethod.POST, url, requestBody, request, response);
             logger.info("Portfolio recommendations generated successfully");
-            return ResponseEntity.ok()
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(response.getBody());
         } catch (HttpClientErrorException.BadRequest e) {
             logger.warn("Invalid portfolio recommendations request: {}", e.getMessage());
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(createErrorResponse("Invalid request: " + e.getMessage()));
+            throw new ProxyErrorException(HttpStatus.BAD_REQUEST,
+                    createErrorResponse("Invalid request: " + e.getMessage()));
         } catch (Exception e) {
             logger.error("Error generating portfolio recommendations: {}", e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(createErrorResponse("Error generating recommendations: " + e.getMessage()));
+            throw new ProxyErrorException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    createErrorResponse("Error generating recommendations: " + e.getMessage()));
         }
     }
 
     /**
      * Get comprehensive analysis for a single stock
+     * Responds with stock analysis with sentiment, analyst recommendations, and action
      * @param symbol Stock ticker symbol
      * @param inPortfolio Whether stock is in portfolio (default: false)
      * @param buyPrice Required if inPortfolio=true
-     * @return Stock analysis with sentiment, analyst recommendations, and action
      */
     @GetMapping(value = "/stock/{symbol}/analysis", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> getStockAnalysis(
+    public void getStockAnalysis(
             @PathVariable String symbol,
             @RequestParam(defaultValue = "false") boolean inPortfolio,
-            @RequestParam(required = false) Double buyPrice) {
+            @RequestParam(required = false) Double buyPrice,
+            HttpServletRequest request, HttpServletResponse response) {
         logger.info("Stock analysis request for: {} (inPortfolio={}, buyPrice={})", symbol, inPortfolio, buyPrice);
+        if (inPortfolio && buyPrice == null) {
+            logger.warn("buyPrice missing for stock analysis: {}", symbol);
+            throw new ProxyErrorException(HttpStatus.BAD_REQUEST,
+                    createErrorResponse("buyPrice is required when inPortfolio=true"));
+        }
         try {
-            if (inPortfolio && buyPrice == null) {
-                logger.warn("buyPrice missing for stock analysis: {}", symbol);
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .body(createErrorResponse("buyPrice is required when inPortfolio=true"));
-            }
-            
             String url = flaskApiUrl + "/api/stock/" + symbol.toUpperCase() + "/analysis"
                     + "?inPortfolio=" + inPortfolio;
             
@@ -337,47 +301,101 @@ public class StockDataController {
             }
             
             logger.debug("Calling Flask API: {}", url);
-            ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+            relay(HttpMethod.GET, url, null, request, response);
             logger.info("Stock analysis completed successfully for: {}", symbol);
-            return ResponseEntity.ok()
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(response.getBody());
         } catch (HttpClientErrorException.NotFound e) {
             logger.warn("Unable to analyze stock: {}", symbol);
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(createErrorResponse("Unable to analyze stock"));
+            throw new ProxyErrorException(HttpStatus.NOT_FOUND, createErrorResponse("Unable to analyze stock"));
         } catch (Exception e) {
             logger.error("Error analyzing stock {}: {}", symbol, e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(createErrorResponse("Error analyzing stock: " + e.getMessage()));
+            throw new ProxyErrorException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    createErrorResponse("Error analyzing stock: " + e.getMessage()));
         }
     }
 
     /**
      * Health check endpoint for the Flask API
-     * @return Health status of the data API
+     * Responds with health status of the data API
      */
     @GetMapping(value = "/health", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> healthCheck() {
+    public void healthCheck(HttpServletRequest request, HttpServletResponse response) {
         logger.debug("Health check request received");
         try {
             String url = flaskApiUrl + "/health";
-            ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+            relay(HttpMethod.GET, url, null, request, response);
             logger.info("Health check: Flask API is healthy");
-            return ResponseEntity.ok()
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(response.getBody());
         } catch (Exception e) {
             logger.error("Health check failed: Flask API is not reachable - {}", e.getMessage());
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("status", "unhealthy");
             errorResponse.put("error", "Flask API is not reachable: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(errorResponse);
+            throw new ProxyErrorException(HttpStatus.SERVICE_UNAVAILABLE, errorResponse);
+        }
+    }
+
+    /**
+     * Streams the Flask response body straight into the servlet response through a single
+     * {@code bufferSize} buffer, so proxy memory per request stays constant whatever the payload size.
+     * The client's Accept-Encoding is forwarded upstream and a compressed body is relayed as-is with
+     * its Content-Encoding. Handlers are {@code void} since the response is written here.
+     * <p>
+     * Upstream error statuses are raised by the RestTemplate before anything is written, so the
+     * callers can still answer with a {@link ProxyErrorException}. A failure once the body has
+     * started streaming cannot become an error response any more; it is logged and the truncated
+     * response is left as is.
+     */
+    private void relay(HttpMethod method, String url, String jsonBody, HttpServletRequest clientRequest,
+                       HttpServletResponse clientResponse) {
+        URI uri = UriComponentsBuilder.fromUriString(url).build().encode().toUri();
+        long[] relayed = {-1};
+        try {
+            restTemplate.execute(uri, method, request -> {
+                HttpHeaders headers = request.getHeaders();
+                headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+                String acceptEncoding = clientRequest.getHeader(HttpHeaders.ACCEPT_ENCODING);
+                if (acceptEncoding != null) {
+                    headers.set(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+                }
+                if (jsonBody != null) {
+                    headers.setContentType(MediaType.APPLICATION_JSON);
+                    StreamUtils.copy(jsonBody, StandardCharsets.UTF_8, request.getBody());
+                }
+            }, upstream -> {
+                HttpHeaders headers = upstream.getHeaders();
+                clientResponse.setStatus(HttpStatus.OK.value());
+                clientResponse.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                String contentEncoding = headers.getFirst(HttpHeaders.CONTENT_ENCODING);
+                if (contentEncoding != null) {
+                    clientResponse.setHeader(HttpHeaders.CONTENT_ENCODING, contentEncoding);
+                    clientResponse.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                }
+                if (headers.getContentLength() >= 0) {
+                    clientResponse.setContentLengthLong(headers.getContentLength());
+                }
+                relayed[0] = 0;
+                byte[] buffer = new byte[bufferSize];
+                InputStream in = upstream.getBody();
+                OutputStream out = clientResponse.getOutputStream();
+                int n;
+                while ((n = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, n);
+                    relayed[0] += n;
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            if (relayed[0] < 0) {
+                throw e;
+            }
+            logger.warn("Relay of {} aborted after {} bytes: {}", uri.getPath(), relayed[0], e.getMessage());
+            return;
         }
+        logger.debug("Relayed {} bytes from {}", relayed[0], uri.getPath());
+    }
+
+    @ExceptionHandler(ProxyErrorException.class)
+    public ResponseEntity<Map<String, ?>> handleProxyError(ProxyErrorException e) {
+        return ResponseEntity.status(e.status).contentType(MediaType.APPLICATION_JSON).body(e.body);
     }
 
     /**
@@ -388,4 +406,20 @@ public class StockDataController {
         error.put("error", message);
         return error;
     }
+
+    /**
+     * An error answered with {@code body} as JSON. Handlers write successful responses themselves,
+     * so they throw this rather than return an error entity.
+     */
+    static final class ProxyErrorException extends RuntimeException {
+
+        private final HttpStatus status;
+        private final Map<String, ?> body;
+
+        ProxyErrorException(HttpStatus status, Map<String, ?> body) {
+            super(String.valueOf(body.get("error")), null, false, false);
+            this.status = status;
+            this.body = body;
+        }
+    }
 }
@@ -0,0 +1,99 @@
+package org.hsbc.datagen;
+
+import java.util.List;
+
+/**
+ * The four asset classes the frontend knows about, with the parameters used to
+ * generate synthetic symbols and price paths for each of them.
+ */
+public enum SyntheticAssetType {
+
+    STOCKS("Stocks", "STK", "", "NMS", "/api/stocks/", 5, 800, 0.08, 0.30,
+            List.of("Technology", "Healthcare", "Financial Services", "Energy", "Consumer Cyclical", "Industrials")),
+    MUTUAL_FUNDS("Mutual Funds", "MF", "X", "NAS", "/api/mutual-funds/", 10, 400, 0.06, 0.14,
+            List.of("Large Blend", "Large Growth", "Mid-Cap Value", "Intermediate Bond")),
+    CRYPTO("Crypto", "CR", "-USD", "CCC", "/api/crypto/", 0.5, 60_000, 0.15, 0.75,
+            List.of("Cryptocurrency")),
+    COMMODITIES("Commodities", "CM", "=F", "CMX", "/api/commodities/", 20, 2_500, 0.03, 0.22,
+            List.of("Metals", "Energy", "Agriculture"));
+
+    private final String label;
+    private final String prefix;
+    private final String suffix;
+    private final String exchange;
+    private final String flaskPath;
+    private final double minPrice;
+    private final double maxPrice;
+    private final double drift;
+    private final double volatility;
+    private final List<String> industries;
+
+    SyntheticAssetType(String label, String prefix, String suffix, String exchange, String flaskPath,
+                       double minPrice, double maxPrice, double drift, double volatility, List<String> industries) {
+        this.label = label;
+        this.prefix = prefix;
+        this.suffix = suffix;
+        this.exchange = exchange;
+        this.flaskPath = flaskPath;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.drift = drift;
+        this.volatility = volatility;
+        this.industries = industries;
+    }
+
+    /** Value stored in {@code PmsEntity.assetType}. */
+    public String label() {
+        return label;
+    }
+
+    public String exchange() {
+        return exchange;
+    }
+
+    /** Flask quote route for this asset class, e.g. {@code /api/stocks/}. */
+    public String flaskPath() {
+        return flaskPath;
+    }
+
+    public double minPrice() {
+        return minPrice;
+    }
+
+    public double maxPrice() {
+        return maxPrice;
+    }
+
+    public double drift() {
+        return drift;
+    }
+
+    public double volatility() {
+        return volatility;
+    }
+
+    public List<String> industries() {
+        return industries;
+    }
+
+    public String symbol(int index) {
+        return prefix + String.format("%06d", index) + suffix;
+    }
+
+    /**
+     * Recovers the asset class from a synthetic symbol; anything unrecognised is treated as a stock.
+     */
+    public static SyntheticAssetType fromSymbol(String symbol) {
+        String upper = symbol.toUpperCase();
+        if (upper.endsWith("-USD")) {
+            return CRYPTO;
+        }
+        if (upper.endsWith("=F")) {
+            return COMMODITIES;
+        }
+        if (upper.startsWith("MF") && upper.endsWith("X")) {
+            return MUTUAL_FUNDS;
+        }
+        return STOCKS;
+    }
+}
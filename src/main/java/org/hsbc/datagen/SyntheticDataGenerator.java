@@ -0,0 +1,167 @@
+package org.hsbc.datagen;
+
+import org.hsbc.datagen.SyntheticPortfolioFactory.SyntheticPosition;
+import org.hsbc.entity.PmsEntity;
+import org.hsbc.entity.TransactionEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fills the database with a reproducible large portfolio for scale testing.
+ * Activated with the {@code datagen} profile, e.g.
+ * {@code mvn spring-boot:run -Dspring-boot.run.profiles=datagen -Dspring-boot.run.arguments="--datagen.holdings=100000 --datagen.transactions=10000000"}.
+ * Rows go straight through JDBC batches (no Hibernate persistence context), so memory stays
+ * bounded by {@code datagen.batch-size} whatever the dataset size.
+ */
+@Component
+@Profile("datagen")
+public class SyntheticDataGenerator implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+    static final String INSERT_HOLDING = "INSERT INTO pms_entity (company_name, symbol, quantity, buy_price, "
+            + "current_price, buying_value, currency, exchange, industry, asset_type, purchase_date) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    static final String INSERT_TRANSACTION = "INSERT INTO transactions (symbol, quantity, buy_price, "
+            + "transaction_date, transaction_type) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationContext context;
+
+    @Value("${datagen.seed:42}")
+    private long seed;
+
+    @Value("${datagen.holdings:1000}")
+    private int holdings;
+
+    @Value("${datagen.transactions:50000}")
+    private long transactions;
+
+    @Value("${datagen.years:5}")
+    private int years;
+
+    @Value("${datagen.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${datagen.truncate:true}")
+    private boolean truncate;
+
+    @Value("${datagen.wallet-balance:1000000000}")
+    private double walletBalance;
+
+    @Value("${datagen.exit-when-done:true}")
+    private boolean exitWhenDone;
+
+    public SyntheticDataGenerator(JdbcTemplate jdbcTemplate, ApplicationContext context) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.context = context;
+    }
+
+    @Override
+    public void run(String... args) {
+        generate(new SyntheticPortfolioFactory(seed, LocalDate.now(), years));
+        if (exitWhenDone) {
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    void generate(SyntheticPortfolioFactory factory) {
+        long totalTransactions = Math.max(transactions, holdings);
+        log.info("Generating {} holdings and {} transactions (seed={}, years={}, batch={})",
+                holdings, totalTransactions, factory.getSeed(), years, batchSize);
+        long start = System.nanoTime();
+
+        if (truncate) {
+            jdbcTemplate.execute("DELETE FROM transactions");
+            jdbcTemplate.execute("DELETE FROM pms_entity");
+        }
+        ensureWallet();
+
+        List<PmsEntity> holdingBatch = new ArrayList<>(batchSize);
+        List<TransactionEntity> transactionBatch = new ArrayList<>(batchSize);
+        long perHolding = totalTransactions / holdings;
+        long remainder = totalTransactions % holdings;
+        long written = 0;
+
+        for (int i = 0; i < holdings; i++) {
+            int tradeCount = (int) (perHolding + (i < remainder ? 1 : 0));
+            SyntheticPosition position = factory.position(i, tradeCount);
+            holdingBatch.add(position.holding());
+            if (holdingBatch.size() >= batchSize) {
+                writeHoldings(holdingBatch);
+            }
+            for (TransactionEntity transaction : position.transactions()) {
+                transactionBatch.add(transaction);
+                if (transactionBatch.size() >= batchSize) {
+                    written += writeTransactions(transactionBatch);
+                }
+            }
+            if ((i + 1) % 10_000 == 0) {
+                log.info("Generated {} / {} holdings, {} transactions written", i + 1, holdings, written);
+            }
+        }
+        writeHoldings(holdingBatch);
+        written += writeTransactions(transactionBatch);
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        log.info("Synthetic dataset complete: {} holdings, {} transactions in {} ms", holdings, written, elapsedMs);
+    }
+
+    private void ensureWallet() {
+        Integer wallets = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM wallet WHERE id = 1", Integer.class);
+        if (wallets == null || wallets == 0) {
+            jdbcTemplate.update("INSERT INTO wallet (id, balance) VALUES (1, ?)", walletBalance);
+        } else {
+            jdbcTemplate.update("UPDATE wallet SET balance = ? WHERE id = 1", walletBalance);
+        }
+    }
+
+    private void writeHoldings(List<PmsEntity> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_HOLDING, batch, batch.size(), (ps, holding) -> {
+            ps.setString(1, holding.getCompanyName());
+            ps.setString(2, holding.getSymbol());
+            ps.setInt(3, holding.getQuantity());
+            ps.setDouble(4, holding.getBuyPrice());
+            ps.setDouble(5, holding.getCurrentPrice());
+            ps.setDouble(6, holding.getBuyingValue());
+            ps.setString(7, holding.getCurrency());
+            ps.setString(8, holding.getExchange());
+            ps.setString(9, holding.getIndustry());
+            ps.setString(10, holding.getAssetType());
+            ps.setDate(11, Date.valueOf(holding.getPurchaseDate()));
+        });
+        batch.clear();
+    }
+
+    private int writeTransactions(List<TransactionEntity> batch) {
+        int size = batch.size();
+        if (size == 0) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(INSERT_TRANSACTION, batch, size, (ps, transaction) -> {
+            ps.setString(1, transaction.getSymbol());
+            ps.setInt(2, transaction.getQuantity());
+            ps.setDouble(3, transaction.getBuyPrice());
+            ps.setTimestamp(4, Timestamp.valueOf(transaction.getTransactionDate()));
+            ps.setString(5, transaction.getTransactionType());
+        });
+        batch.clear();
+        return size;
+    }
+}
@@ -0,0 +1,146 @@
+package org.hsbc.datagen;
+
+import org.hsbc.entity.PmsEntity;
+import org.hsbc.entity.TransactionEntity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Builds reproducible synthetic holdings together with the BUY/SELL history that produced them.
+ * Every position is derived only from {@code (seed, index)}, so positions can be generated in any
+ * order or in parallel and still come out identical between runs.
+ */
+public class SyntheticPortfolioFactory {
+
+    private static final long INDEX_MIX = 0x9E3779B97F4A7C15L;
+
+    private final long seed;
+    private final LocalDate asOf;
+    private final LocalDate firstTradeDay;
+
+    public SyntheticPortfolioFactory(long seed, LocalDate asOf, int years) {
+        this.seed = seed;
+        this.asOf = asOf;
+        LocalDate start = asOf.minusYears(years);
+        this.firstTradeDay = start.isBefore(SyntheticPriceHistory.EPOCH) ? SyntheticPriceHistory.EPOCH : start;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public LocalDate getAsOf() {
+        return asOf;
+    }
+
+    /**
+     * In-memory portfolio of {@code count} holdings, each built from a single BUY.
+     * Handy for benchmarks and tests that only need realistic rows.
+     */
+    public List<PmsEntity> holdings(int count) {
+        List<PmsEntity> holdings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            holdings.add(position(i, 1).holding());
+        }
+        return holdings;
+    }
+
+    public SyntheticAssetType assetTypeOf(int index) {
+        double pick = random(index).nextDouble();
+        if (pick < 0.60) {
+            return SyntheticAssetType.STOCKS;
+        } else if (pick < 0.75) {
+            return SyntheticAssetType.MUTUAL_FUNDS;
+        } else if (pick < 0.90) {
+            return SyntheticAssetType.CRYPTO;
+        }
+        return SyntheticAssetType.COMMODITIES;
+    }
+
+    /**
+     * Generates the holding at {@code index} and the {@code tradeCount} transactions that lead to it.
+     * The holding's quantity, weighted-average buy price and buying value are exactly what
+     * {@code PmsServiceimp.buyAsset/sellAsset} would have produced from those trades.
+     */
+    public SyntheticPosition position(int index, int tradeCount) {
+        if (tradeCount < 1) {
+            throw new IllegalArgumentException("A position needs at least one trade");
+        }
+        SplittableRandom random = random(index);
+        SyntheticAssetType type = assetTypeOf(index);
+        random.nextDouble(); // consumed by assetTypeOf
+        String symbol = type.symbol(index);
+        SyntheticPriceHistory history = SyntheticPriceHistory.of(seed, symbol);
+        double[] closes = history.dailyCloses(asOf);
+
+        int epochOffset = (int) ChronoUnit.DAYS.between(SyntheticPriceHistory.EPOCH, firstTradeDay);
+        int span = (int) ChronoUnit.DAYS.between(firstTradeDay, asOf) + 1;
+        int[] tradeDays = new int[tradeCount];
+        for (int t = 0; t < tradeCount; t++) {
+            tradeDays[t] = epochOffset + random.nextInt(span);
+        }
+        Arrays.sort(tradeDays);
+
+        List<TransactionEntity> transactions = new ArrayList<>(tradeCount);
+        int maxLot = type == SyntheticAssetType.CRYPTO ? 20 : 200;
+        int position = 0;
+        double cost = 0;
+        for (int t = 0; t < tradeCount; t++) {
+            LocalDate day = previousTradingDay(history, SyntheticPriceHistory.EPOCH.plusDays(tradeDays[t]));
+            int dayIndex = (int) ChronoUnit.DAYS.between(SyntheticPriceHistory.EPOCH, day);
+            double price = SyntheticPriceHistory.round(closes[dayIndex]);
+            LocalDateTime when = day.atTime(LocalTime.of(9, 30)).plusMinutes(random.nextInt(390));
+
+            boolean sell = t > 0 && position > 1 && random.nextDouble() < 0.3;
+            if (sell) {
+                int quantity = 1 + random.nextInt(position - 1);
+                double averagePrice = cost / position;
+                position -= quantity;
+                cost = averagePrice * position;
+                transactions.add(new TransactionEntity(symbol, quantity, price, when, "SELL"));
+            } else {
+                int quantity = 1 + random.nextInt(maxLot);
+                position += quantity;
+                cost += price * quantity;
+                transactions.add(new TransactionEntity(symbol, quantity, price, when, "BUY"));
+            }
+        }
+
+        List<String> industries = type.industries();
+        PmsEntity holding = new PmsEntity(
+                "Synthetic " + type.label() + " " + index,
+                symbol,
+                position,
+                cost / position,
+                SyntheticPriceHistory.round(closes[closes.length - 1]),
+                cost,
+                "USD",
+                type.exchange(),
+                industries.get(random.nextInt(industries.size())),
+                type.label());
+        holding.setPurchaseDate(transactions.get(0).getTransactionDate().toLocalDate());
+        return new SyntheticPosition(holding, transactions);
+    }
+
+    private LocalDate previousTradingDay(SyntheticPriceHistory history, LocalDate day) {
+        LocalDate candidate = day;
+        while (!history.tradesOn(candidate) && candidate.isAfter(SyntheticPriceHistory.EPOCH)) {
+            candidate = candidate.minusDays(1);
+        }
+        return candidate;
+    }
+
+    private SplittableRandom random(int index) {
+        return new SplittableRandom(seed ^ (index * INDEX_MIX));
+    }
+
+    public record SyntheticPosition(PmsEntity holding, List<TransactionEntity> transactions) {
+    }
+}
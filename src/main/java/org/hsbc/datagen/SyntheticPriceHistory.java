@@ -0,0 +1,117 @@
+package org.hsbc.datagen;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic daily price path for a synthetic symbol.
+ * The path is a geometric Brownian motion anchored at {@link #EPOCH}, seeded from the
+ * dataset seed and the symbol, so the generator, the stub server and any benchmark
+ * see exactly the same prices for the same symbol and day.
+ */
+public final class SyntheticPriceHistory {
+
+    /** First day of every synthetic path. */
+    public static final LocalDate EPOCH = LocalDate.of(2015, 1, 1);
+
+    private final String symbol;
+    private final SyntheticAssetType assetType;
+    private final long pathSeed;
+    private final double startPrice;
+
+    private SyntheticPriceHistory(long seed, String symbol) {
+        this.symbol = symbol;
+        this.assetType = SyntheticAssetType.fromSymbol(symbol);
+        this.pathSeed = seed * 31 + symbol.hashCode();
+        SplittableRandom random = new SplittableRandom(pathSeed);
+        this.startPrice = assetType.minPrice()
+                + random.nextDouble() * (assetType.maxPrice() - assetType.minPrice());
+    }
+
+    public static SyntheticPriceHistory of(long seed, String symbol) {
+        return new SyntheticPriceHistory(seed, symbol);
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public SyntheticAssetType getAssetType() {
+        return assetType;
+    }
+
+    /**
+     * Closing prices for every calendar day from {@link #EPOCH} up to and including {@code to}.
+     * Index {@code i} is the close of {@code EPOCH.plusDays(i)}.
+     */
+    public double[] dailyCloses(LocalDate to) {
+        int days = (int) ChronoUnit.DAYS.between(EPOCH, to) + 1;
+        if (days <= 0) {
+            return new double[0];
+        }
+        double[] closes = new double[days];
+        SplittableRandom random = new SplittableRandom(pathSeed);
+        random.nextDouble(); // consumed by the start price
+        double dt = 1.0 / 365.0;
+        double drift = (assetType.drift() - 0.5 * assetType.volatility() * assetType.volatility()) * dt;
+        double diffusion = assetType.volatility() * Math.sqrt(dt);
+        double logPrice = Math.log(startPrice);
+        for (int i = 0; i < days; i++) {
+            logPrice += drift + diffusion * gaussian(random);
+            closes[i] = Math.exp(logPrice);
+        }
+        return closes;
+    }
+
+    public double closeOn(LocalDate day) {
+        double[] closes = dailyCloses(day);
+        return closes.length == 0 ? startPrice : round(closes[closes.length - 1]);
+    }
+
+    /**
+     * Daily bars between {@code from} and {@code to} on the days this asset type trades.
+     */
+    public List<Bar> bars(LocalDate from, LocalDate to) {
+        double[] closes = dailyCloses(to);
+        List<Bar> bars = new ArrayList<>();
+        LocalDate start = from.isBefore(EPOCH) ? EPOCH : from;
+        for (LocalDate day = start; !day.isAfter(to); day = day.plusDays(1)) {
+            if (!tradesOn(day)) {
+                continue;
+            }
+            int i = (int) ChronoUnit.DAYS.between(EPOCH, day);
+            double close = closes[i];
+            double open = i > 0 ? closes[i - 1] : close;
+            double spread = Math.abs(close - open) * 0.5 + close * 0.002;
+            bars.add(new Bar(day, round(open), round(Math.max(open, close) + spread),
+                    round(Math.min(open, close) - spread), round(close), 1_000 + (long) (closes[i] * 997) % 1_000_000));
+        }
+        return bars;
+    }
+
+    public boolean tradesOn(LocalDate day) {
+        if (assetType == SyntheticAssetType.CRYPTO) {
+            return true;
+        }
+        DayOfWeek dow = day.getDayOfWeek();
+        return dow != DayOfWeek.SATURDAY && dow != DayOfWeek.SUNDAY;
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        // Box-Muller; the second variate is discarded to keep the sequence position-stable
+        double u1 = 1.0 - random.nextDouble();
+        double u2 = random.nextDouble();
+        return Math.sqrt(-2.0 * Math.log(u1)) * Math.cos(2 * Math.PI * u2);
+    }
+
+    static double round(double price) {
+        return Math.round(price * 100.0) / 100.0;
+    }
+
+    public record Bar(LocalDate date, double open, double high, double low, double close, long volume) {
+    }
+}
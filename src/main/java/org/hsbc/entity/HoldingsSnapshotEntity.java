@@ -0,0 +1,87 @@
+package org.hsbc.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Every position held after all transactions up to {@code asOf}, encoded by
+ * {@code org.hsbc.ledger.HoldingsCodec}.
+ */
+@Entity
+@Table(name = "holdings_snapshots", indexes = @Index(name = "idx_holdings_snapshots_as_of", columnList = "asOf"))
+public class HoldingsSnapshotEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long id;
+
+    // Date of the last transaction included
+    LocalDateTime asOf;
+    Long lastTransactionId;
+    long transactionCount;
+    int positions;
+
+    @Lob
+    @Column(length = 16_777_215)
+    byte[] payload;
+
+    public HoldingsSnapshotEntity() {
+    }
+
+    public HoldingsSnapshotEntity(LocalDateTime asOf, Long lastTransactionId, long transactionCount, int positions,
+                                  byte[] payload) {
+        this.asOf = asOf;
+        this.lastTransactionId = lastTransactionId;
+        this.transactionCount = transactionCount;
+        this.positions = positions;
+        this.payload = payload;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDateTime getAsOf() {
+        return asOf;
+    }
+
+    public void setAsOf(LocalDateTime asOf) {
+        this.asOf = asOf;
+    }
+
+    public Long getLastTransactionId() {
+        return lastTransactionId;
+    }
+
+    public void setLastTransactionId(Long lastTransactionId) {
+        this.lastTransactionId = lastTransactionId;
+    }
+
+    public long getTransactionCount() {
+        return transactionCount;
+    }
+
+    public void setTransactionCount(long transactionCount) {
+        this.transactionCount = transactionCount;
+    }
+
+    public int getPositions() {
+        return positions;
+    }
+
+    public void setPositions(int positions) {
+        this.positions = positions;
+    }
+
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    public void setPayload(byte[] payload) {
+        this.payload = payload;
+    }
+}
@@ -5,6 +5,7 @@ import java.time.LocalDate;
 
 
 @Entity
+@Table(indexes = @Index(name = "idx_pms_entity_symbol", columnList = "symbol"))
 public class PmsEntity
 {
     @Id
@@ -14,6 +15,8 @@ public class PmsEntity
     String symbol;
     int quantity;
     double buyPrice;
+    // Written on insert only; afterwards PriceWriteBehindBuffer owns the column
+    @Column(updatable = false)
     double currentPrice;
     double buyingValue;
     String currency;
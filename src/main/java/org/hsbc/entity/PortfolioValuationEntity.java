@@ -0,0 +1,116 @@
+package org.hsbc.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * The portfolio's value at the close of one day, written by
+ * {@code org.hsbc.valuation.EodValuationService}. One row per day.
+ */
+@Entity
+@Table(name = "portfolio_valuations",
+        uniqueConstraints = @UniqueConstraint(name = "uk_portfolio_valuations_date", columnNames = "valuationDate"))
+public class PortfolioValuationEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long id;
+
+    @Column(nullable = false)
+    LocalDate valuationDate;
+    double marketValue;
+    double investedValue;
+    double stockValue;
+    double mutualFundValue;
+    double cryptoValue;
+    double commodityValue;
+    int positions;
+
+    public PortfolioValuationEntity() {
+    }
+
+    public PortfolioValuationEntity(LocalDate valuationDate, double marketValue, double investedValue,
+                                    double stockValue, double mutualFundValue, double cryptoValue,
+                                    double commodityValue, int positions) {
+        this.valuationDate = valuationDate;
+        this.marketValue = marketValue;
+        this.investedValue = investedValue;
+        this.stockValue = stockValue;
+        this.mutualFundValue = mutualFundValue;
+        this.cryptoValue = cryptoValue;
+        this.commodityValue = commodityValue;
+        this.positions = positions;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDate getValuationDate() {
+        return valuationDate;
+    }
+
+    public void setValuationDate(LocalDate valuationDate) {
+        this.valuationDate = valuationDate;
+    }
+
+    public double getMarketValue() {
+        return marketValue;
+    }
+
+    public void setMarketValue(double marketValue) {
+        this.marketValue = marketValue;
+    }
+
+    public double getInvestedValue() {
+        return investedValue;
+    }
+
+    public void setInvestedValue(double investedValue) {
+        this.investedValue = investedValue;
+    }
+
+    public double getStockValue() {
+        return stockValue;
+    }
+
+    public void setStockValue(double stockValue) {
+        this.stockValue = stockValue;
+    }
+
+    public double getMutualFundValue() {
+        return mutualFundValue;
+    }
+
+    public void setMutualFundValue(double mutualFundValue) {
+        this.mutualFundValue = mutualFundValue;
+    }
+
+    public double getCryptoValue() {
+        return cryptoValue;
+    }
+
+    public void setCryptoValue(double cryptoValue) {
+        this.cryptoValue = cryptoValue;
+    }
+
+    public double getCommodityValue() {
+        return commodityValue;
+    }
+
+    public void setCommodityValue(double commodityValue) {
+        this.commodityValue = commodityValue;
+    }
+
+    public int getPositions() {
+        return positions;
+    }
+
+    public void setPositions(int positions) {
+        this.positions = positions;
+    }
+}
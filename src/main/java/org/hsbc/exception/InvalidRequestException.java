@@ -0,0 +1,11 @@
+package org.hsbc.exception;
+
+/**
+ * A request parameter the caller got wrong. Controllers answer it with 400 and its message; any
+ * other {@link IllegalArgumentException} is a bug and surfaces as a 500.
+ */
+public class InvalidRequestException extends IllegalArgumentException {
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
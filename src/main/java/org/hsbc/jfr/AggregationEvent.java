@@ -0,0 +1,40 @@
+package org.hsbc.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One aggregation pass over the holdings by {@code PortfolioController}.
+ */
+@Name("org.hsbc.PortfolioAggregation")
+@Label("Portfolio Aggregation")
+@Category({"Portfolio Management System", "Portfolio"})
+@Description("Summary, allocation, breakdown, performers or performance computation")
+@StackTrace(false)
+public class AggregationEvent extends Event {
+
+    @Label("Endpoint")
+    public String endpoint;
+
+    @Label("Asset Count")
+    public int assetCount;
+
+    public static AggregationEvent begin(String endpoint) {
+        AggregationEvent event = new AggregationEvent();
+        event.endpoint = endpoint;
+        event.begin();
+        return event;
+    }
+
+    public void complete(int assetCount) {
+        end();
+        if (shouldCommit()) {
+            this.assetCount = assetCount;
+            commit();
+        }
+    }
+}
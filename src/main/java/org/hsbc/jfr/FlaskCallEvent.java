@@ -0,0 +1,39 @@
+package org.hsbc.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One call to the Flask data API, from sending the request until the response body is closed.
+ */
+@Name("org.hsbc.FlaskCall")
+@Label("Flask Call")
+@Category({"Portfolio Management System", "Upstream"})
+@Description("HTTP call from the Java tier to the Flask data API")
+@StackTrace(false)
+public class FlaskCallEvent extends Event {
+
+    @Label("Method")
+    public String method;
+
+    @Label("Route")
+    @Description("Flask route template, e.g. /api/history/{symbol}")
+    public String route;
+
+    @Label("URI")
+    @Description("Path and query as sent")
+    public String uri;
+
+    @Label("Status")
+    @Description("HTTP status, or -1 if no response was received")
+    public int status = -1;
+
+    @Label("Response Bytes")
+    @DataAmount
+    public long bytes;
+}
@@ -0,0 +1,120 @@
+package org.hsbc.jfr;
+
+import org.hsbc.metrics.FlaskClientMetricsInterceptor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+
+/**
+ * Emits a {@link FlaskCallEvent} per Flask call. The response is wrapped so the event ends when
+ * the body is closed and records how many bytes were actually read.
+ */
+public class FlaskCallJfrInterceptor implements ClientHttpRequestInterceptor {
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        FlaskCallEvent event = new FlaskCallEvent();
+        if (!event.isEnabled()) {
+            return execution.execute(request, body);
+        }
+        event.begin();
+        URI uri = request.getURI();
+        event.method = request.getMethod().name();
+        event.route = FlaskClientMetricsInterceptor.normalize(uri.getPath());
+        event.uri = uri.getRawQuery() == null ? uri.getRawPath() : uri.getRawPath() + "?" + uri.getRawQuery();
+        ClientHttpResponse response;
+        try {
+            response = execution.execute(request, body);
+        } catch (IOException | RuntimeException e) {
+            commit(event);
+            throw e;
+        }
+        event.status = response.getStatusCode().value();
+        return new CountingResponse(response, event);
+    }
+
+    private static void commit(FlaskCallEvent event) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.commit();
+        }
+    }
+
+    private static final class CountingResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final FlaskCallEvent event;
+        private InputStream body;
+        private boolean closed;
+
+        CountingResponse(ClientHttpResponse delegate, FlaskCallEvent event) {
+            this.delegate = delegate;
+            this.event = event;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new FilterInputStream(delegate.getBody()) {
+                    @Override
+                    public int read() throws IOException {
+                        int b = super.read();
+                        if (b >= 0) {
+                            event.bytes++;
+                        }
+                        return b;
+                    }
+
+                    @Override
+                    public int read(byte[] buffer, int offset, int length) throws IOException {
+                        int n = super.read(buffer, offset, length);
+                        if (n > 0) {
+                            event.bytes += n;
+                        }
+                        return n;
+                    }
+
+                    // Re-reads after reset() would be counted twice
+                    @Override
+                    public boolean markSupported() {
+                        return false;
+                    }
+                };
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+            if (!closed) {
+                closed = true;
+                commit(event);
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package org.hsbc.jfr;
+
+import org.springframework.boot.web.client.RestTemplateCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Adds {@link FlaskCallEvent} emission to every {@code RestTemplate} built from Boot's builder.
+ */
+@Configuration
+public class JfrConfig {
+
+    @Bean
+    public RestTemplateCustomizer flaskCallJfrCustomizer() {
+        return restTemplate -> restTemplate.getInterceptors().add(new FlaskCallJfrInterceptor());
+    }
+}
@@ -0,0 +1,137 @@
+package org.hsbc.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Starts, dumps and stops a single on-demand JFR recording, alongside any recording the JVM was
+ * launched with. The application's own events are enabled on top of the chosen JFC settings.
+ */
+@Service
+public class JfrRecordingService {
+
+    private static final Logger log = LoggerFactory.getLogger(JfrRecordingService.class);
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final Path dumpDir;
+    private final ReentrantLock lock = new ReentrantLock();
+    private Recording recording;
+
+    public JfrRecordingService(@Value("${pms.jfr.dump-dir:${java.io.tmpdir}/pms-jfr}") String dumpDir) {
+        this.dumpDir = Path.of(dumpDir);
+    }
+
+    /**
+     * Starts a recording with the given JFC settings ({@code default} or {@code profile}).
+     *
+     * @throws IllegalStateException if an on-demand recording is already running
+     */
+    public Map<String, Object> start(String settings, Duration maxAge) throws IOException, ParseException {
+        lock.lock();
+        try {
+            if (recording != null) {
+                throw new IllegalStateException("A recording is already running: " + recording.getName());
+            }
+            Recording r = new Recording(Configuration.getConfiguration(settings));
+            r.setName("pms-" + LocalDateTime.now().format(FILE_TIMESTAMP));
+            r.setToDisk(true);
+            r.setMaxAge(maxAge);
+            r.enable(TradeEvent.class);
+            r.enable(FlaskCallEvent.class);
+            r.enable(AggregationEvent.class);
+            r.start();
+            recording = r;
+            log.info("Started JFR recording {} (settings={}, maxAge={})", r.getName(), settings, maxAge);
+            return describe(r);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes what has been recorded so far to a file, leaving the recording running.
+     *
+     * @throws IllegalStateException if no on-demand recording is running
+     */
+    public Path dump() throws IOException {
+        lock.lock();
+        try {
+            Recording r = running();
+            Path file = nextFile(r);
+            r.dump(file);
+            log.info("Dumped JFR recording {} to {}", r.getName(), file);
+            return file;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the recording and writes it to a file.
+     *
+     * @throws IllegalStateException if no on-demand recording is running
+     */
+    public Path stop() throws IOException {
+        lock.lock();
+        try {
+            Recording r = running();
+            Path file = nextFile(r);
+            r.stop();
+            r.dump(file);
+            r.close();
+            recording = null;
+            log.info("Stopped JFR recording {}, written to {}", r.getName(), file);
+            return file;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> status() {
+        lock.lock();
+        try {
+            if (recording == null) {
+                return Map.of("running", false);
+            }
+            return describe(recording);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Recording running() {
+        if (recording == null) {
+            throw new IllegalStateException("No recording is running");
+        }
+        return recording;
+    }
+
+    private Path nextFile(Recording r) throws IOException {
+        Files.createDirectories(dumpDir);
+        return dumpDir.resolve(r.getName() + "-" + LocalDateTime.now().format(FILE_TIMESTAMP) + ".jfr");
+    }
+
+    private static Map<String, Object> describe(Recording r) {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", true);
+        status.put("name", r.getName());
+        status.put("startTime", r.getStartTime() != null ? r.getStartTime().toString() : null);
+        status.put("maxAge", r.getMaxAge() != null ? r.getMaxAge().toString() : null);
+        return status;
+    }
+}
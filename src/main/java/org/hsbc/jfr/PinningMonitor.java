@@ -0,0 +1,91 @@
+package org.hsbc.jfr;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Streams {@code jdk.VirtualThreadPinned} events in-process. Each pin longer than the threshold is
+ * logged at WARN with its stack and counted as {@code pms.vthreads.pinned}, tagged with the first
+ * {@code org.hsbc} frame, so a {@code synchronized} block in our code shows up by name.
+ */
+@Component
+@ConditionalOnProperty(name = "pms.vthreads.pinning-monitor.enabled", havingValue = "true")
+public class PinningMonitor implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(PinningMonitor.class);
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 12;
+
+    private final Duration threshold;
+    private final MeterRegistry registry;
+    private volatile RecordingStream stream;
+
+    public PinningMonitor(@Value("${pms.vthreads.pinned-threshold-ms:20}") long thresholdMs, MeterRegistry registry) {
+        this.threshold = Duration.ofMillis(thresholdMs);
+        this.registry = registry;
+    }
+
+    @Override
+    public void start() {
+        RecordingStream s = new RecordingStream();
+        s.enable(EVENT).withThreshold(threshold).withStackTrace();
+        s.onEvent(EVENT, this::onPinned);
+        s.startAsync();
+        stream = s;
+        log.info("Virtual thread pinning monitor started (threshold {} ms)", threshold.toMillis());
+    }
+
+    @Override
+    public void stop() {
+        RecordingStream s = stream;
+        stream = null;
+        if (s != null) {
+            s.close();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return stream != null;
+    }
+
+    void onPinned(RecordedEvent event) {
+        List<RecordedFrame> frames = frames(event);
+        String site = frames.stream()
+                .filter(f -> f.getMethod().getType().getName().startsWith("org.hsbc."))
+                .findFirst()
+                .or(() -> frames.stream().findFirst())
+                .map(PinningMonitor::format)
+                .orElse("unknown");
+        Counter.builder("pms.vthreads.pinned")
+                .description("Virtual threads pinned to their carrier longer than the threshold")
+                .tag("site", site)
+                .register(registry)
+                .increment();
+        log.warn("Virtual thread pinned for {} ms at {}\n\t{}", event.getDuration().toMillis(), site,
+                frames.stream().limit(LOGGED_FRAMES).map(PinningMonitor::format).collect(Collectors.joining("\n\t")));
+    }
+
+    private static List<RecordedFrame> frames(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        return stackTrace == null ? List.of() : stackTrace.getFrames();
+    }
+
+    private static String format(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
@@ -0,0 +1,51 @@
+package org.hsbc.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * One buy or sell through {@code PmsServiceimp}. The event duration covers the whole trade,
+ * including the time spent in the database.
+ */
+@Name("org.hsbc.Trade")
+@Label("Trade")
+@Category({"Portfolio Management System", "Trading"})
+@Description("Buy or sell of a holding")
+@StackTrace(false)
+public class TradeEvent extends Event {
+
+    @Label("Side")
+    public String side;
+
+    @Label("Symbol")
+    public String symbol;
+
+    @Label("Quantity")
+    public int quantity;
+
+    @Label("Database Time")
+    @Description("Time spent in repository, wallet and transaction calls")
+    @Timespan(Timespan.NANOSECONDS)
+    public long databaseTime;
+
+    public static TradeEvent begin(String side, String symbol, int quantity) {
+        TradeEvent event = new TradeEvent();
+        event.side = side;
+        event.symbol = symbol;
+        event.quantity = quantity;
+        event.begin();
+        return event;
+    }
+
+    public void complete() {
+        end();
+        if (shouldCommit()) {
+            commit();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package org.hsbc.ledger;
+
+import java.util.List;
+
+/**
+ * Realized and unrealized gains of every symbol ever traded, and their totals, under one
+ * {@link LotMethod}.
+ */
+public record GainsReport(String method, double costBasis, double marketValue, double unrealizedGain,
+                          double realizedGain, double shortTermGain, double longTermGain,
+                          List<SymbolGains> symbols) {
+}
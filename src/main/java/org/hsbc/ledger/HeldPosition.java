@@ -0,0 +1,8 @@
+package org.hsbc.ledger;
+
+/**
+ * A position as the transaction log leaves it; the cost basis is reduced at the average cost on a
+ * sale, as the holdings table does.
+ */
+public record HeldPosition(String symbol, long quantity, double costBasis) {
+}
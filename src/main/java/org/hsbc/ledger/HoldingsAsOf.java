@@ -0,0 +1,14 @@
+package org.hsbc.ledger;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * What was held at {@code asOf}.
+ *
+ * @param snapshotAsOf         the snapshot replayed from, null if from the first transaction
+ * @param replayedTransactions transactions applied on top of the snapshot
+ */
+public record HoldingsAsOf(LocalDateTime asOf, LocalDateTime snapshotAsOf, int replayedTransactions,
+                           List<HeldPosition> positions) {
+}
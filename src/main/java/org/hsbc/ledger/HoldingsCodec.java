@@ -0,0 +1,89 @@
+package org.hsbc.ledger;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary form of a holdings snapshot: a version byte and a position count, then per position
+ * (sorted by symbol) the number of leading characters shared with the previous symbol, the rest of
+ * the symbol in UTF-8, the quantity as a zig-zag varint and the cost basis as 8 bytes. A typical
+ * position takes 13-16 bytes.
+ */
+final class HoldingsCodec {
+
+    private static final byte VERSION = 1;
+
+    private HoldingsCodec() {
+    }
+
+    /**
+     * @param positions sorted by symbol
+     */
+    static byte[] encode(List<HeldPosition> positions) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8 + positions.size() * 16);
+        out.write(VERSION);
+        writeVarint(out, positions.size());
+        String previous = "";
+        byte[] cost = new byte[8];
+        for (HeldPosition position : positions) {
+            String symbol = position.symbol();
+            int shared = 0;
+            int limit = Math.min(previous.length(), symbol.length());
+            while (shared < limit && previous.charAt(shared) == symbol.charAt(shared)) {
+                shared++;
+            }
+            byte[] suffix = symbol.substring(shared).getBytes(StandardCharsets.UTF_8);
+            writeVarint(out, shared);
+            writeVarint(out, suffix.length);
+            out.write(suffix, 0, suffix.length);
+            writeVarint(out, (position.quantity() << 1) ^ (position.quantity() >> 63));
+            ByteBuffer.wrap(cost).putDouble(position.costBasis());
+            out.write(cost, 0, 8);
+            previous = symbol;
+        }
+        return out.toByteArray();
+    }
+
+    static List<HeldPosition> decode(byte[] payload) {
+        ByteBuffer in = ByteBuffer.wrap(payload);
+        byte version = in.get();
+        if (version != VERSION) {
+            throw new IllegalStateException("Unknown holdings snapshot version " + version);
+        }
+        int count = (int) readVarint(in);
+        List<HeldPosition> positions = new ArrayList<>(count);
+        String previous = "";
+        for (int i = 0; i < count; i++) {
+            int shared = (int) readVarint(in);
+            byte[] suffix = new byte[(int) readVarint(in)];
+            in.get(suffix);
+            String symbol = previous.substring(0, shared) + new String(suffix, StandardCharsets.UTF_8);
+            long zigzag = readVarint(in);
+            positions.add(new HeldPosition(symbol, (zigzag >>> 1) ^ -(zigzag & 1), in.getDouble()));
+            previous = symbol;
+        }
+        return positions;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package org.hsbc.ledger;
+
+import jakarta.annotation.PreDestroy;
+import org.hsbc.entity.HoldingsSnapshotEntity;
+import org.hsbc.entity.TransactionEntity;
+import org.hsbc.performance.TransactionRecordedEvent;
+import org.hsbc.repo.HoldingsSnapshotRepo;
+import org.hsbc.service.TransactionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Holdings at any past moment, rebuilt from the transaction log.
+ * <p>
+ * A snapshot of every position is stored after each {@code pms.snapshots.every-transactions}
+ * transactions and daily at {@code pms.snapshots.daily-at}, if anything was traded since the last
+ * one. An as-of query loads the latest snapshot at or before that moment and replays only the
+ * transactions after it, so its cost is bounded by the snapshot interval rather than the length of
+ * the log. Snapshots are taken on a background thread, off the trade's path.
+ * <p>
+ * A transaction recorded with an earlier date than a snapshot drops that snapshot and later ones;
+ * a changed or deleted transaction drops them all. Holdings added directly, without a transaction,
+ * are not in the log and so not in the history.
+ */
+@Component
+public class HoldingsHistory {
+
+    private static final Logger log = LoggerFactory.getLogger(HoldingsHistory.class);
+
+    private final TransactionService transactions;
+    private final HoldingsSnapshotRepo snapshots;
+    private final int everyTransactions;
+    private final LocalTime dailyAt;
+    private final Clock clock;
+    private final AtomicInteger sinceSnapshot = new AtomicInteger();
+    private final ScheduledExecutorService scheduler;
+    private volatile LocalDateTime latestSnapshot;
+
+    @Autowired
+    public HoldingsHistory(TransactionService transactions, HoldingsSnapshotRepo snapshots,
+                           @Value("${pms.snapshots.every-transactions:1000}") int everyTransactions,
+                           @Value("${pms.snapshots.daily-at:00:05}") String dailyAt) {
+        this(transactions, snapshots, everyTransactions, dailyAt.isBlank() ? null : LocalTime.parse(dailyAt),
+                Clock.systemDefaultZone());
+    }
+
+    HoldingsHistory(TransactionService transactions, HoldingsSnapshotRepo snapshots, int everyTransactions,
+                    LocalTime dailyAt, Clock clock) {
+        this.transactions = transactions;
+        this.snapshots = snapshots;
+        this.everyTransactions = everyTransactions;
+        this.dailyAt = dailyAt;
+        this.clock = clock;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "holdings-snapshot");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        latestSnapshot = snapshots.findTopByOrderByAsOfDescIdDesc().map(HoldingsSnapshotEntity::getAsOf).orElse(null);
+        if (dailyAt == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime next = now.toLocalDate().atTime(dailyAt);
+        if (!next.isAfter(now)) {
+            next = next.plusDays(1);
+        }
+        scheduler.scheduleAtFixedRate(this::snapshotQuietly, Duration.between(now, next).toMillis(),
+                TimeUnit.DAYS.toMillis(1), TimeUnit.MILLISECONDS);
+    }
+
+    @EventListener
+    public void onTransactionRecorded(TransactionRecordedEvent event) {
+        TransactionEntity transaction = event.transaction();
+        if (transaction == null || transaction.getTransactionDate() == null) {
+            scheduler.execute(() -> invalidate(null));
+            return;
+        }
+        LocalDateTime latest = latestSnapshot;
+        if (latest != null && !transaction.getTransactionDate().isAfter(latest)) {
+            LocalDateTime from = transaction.getTransactionDate();
+            scheduler.execute(() -> invalidate(from));
+        }
+        if (everyTransactions > 0 && sinceSnapshot.incrementAndGet() >= everyTransactions) {
+            sinceSnapshot.set(0);
+            scheduler.execute(this::snapshotQuietly);
+        }
+    }
+
+    /**
+     * The positions after every transaction dated up to and including {@code asOf}.
+     */
+    public HoldingsAsOf asOf(LocalDateTime asOf) {
+        HoldingsSnapshotEntity snapshot = snapshots.findTopByAsOfLessThanEqualOrderByAsOfDescIdDesc(asOf)
+                .orElse(null);
+        Positions positions = Positions.of(snapshot);
+        List<TransactionEntity> delta = transactions.getTransactionsBetween(
+                snapshot == null ? null : snapshot.getAsOf(), asOf);
+        for (TransactionEntity transaction : delta) {
+            positions.apply(transaction);
+        }
+        return new HoldingsAsOf(asOf, snapshot == null ? null : snapshot.getAsOf(), delta.size(), positions.list());
+    }
+
+    /**
+     * The positions at the end of each day from {@code from} to {@code to}, from one snapshot and one
+     * read of the transactions after it.
+     */
+    public List<HoldingsAsOf> daily(LocalDate from, LocalDate to) {
+        HoldingsSnapshotEntity snapshot = snapshots.findTopByAsOfLessThanEqualOrderByAsOfDescIdDesc(
+                from.minusDays(1).atTime(LocalTime.MAX)).orElse(null);
+        LocalDateTime snapshotAsOf = snapshot == null ? null : snapshot.getAsOf();
+        Positions positions = Positions.of(snapshot);
+        List<TransactionEntity> delta = transactions.getTransactionsBetween(snapshotAsOf, to.atTime(LocalTime.MAX));
+        List<HoldingsAsOf> days = new ArrayList<>();
+        int replayed = 0;
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            for (; replayed < delta.size() && !delta.get(replayed).getTransactionDate().toLocalDate().isAfter(day);
+                 replayed++) {
+                positions.apply(delta.get(replayed));
+            }
+            days.add(new HoldingsAsOf(day.atTime(LocalTime.MAX), snapshotAsOf, replayed, positions.list()));
+        }
+        return days;
+    }
+
+    /**
+     * Stores a snapshot of the positions after the latest transaction, unless nothing was traded
+     * since the last one.
+     *
+     * @return the snapshot, or null if none was needed
+     */
+    synchronized HoldingsSnapshotEntity snapshot() {
+        HoldingsSnapshotEntity previous = snapshots.findTopByOrderByAsOfDescIdDesc().orElse(null);
+        List<TransactionEntity> delta = transactions.getTransactionsBetween(
+                previous == null ? null : previous.getAsOf(), LocalDateTime.now(clock));
+        if (delta.isEmpty()) {
+            return null;
+        }
+        long start = System.nanoTime();
+        Positions positions = Positions.of(previous);
+        for (TransactionEntity transaction : delta) {
+            positions.apply(transaction);
+        }
+        TransactionEntity last = delta.get(delta.size() - 1);
+        List<HeldPosition> held = positions.list();
+        HoldingsSnapshotEntity snapshot = snapshots.save(new HoldingsSnapshotEntity(last.getTransactionDate(),
+                last.getTransactionId(), (previous == null ? 0 : previous.getTransactionCount()) + delta.size(),
+                held.size(), HoldingsCodec.encode(held)));
+        latestSnapshot = snapshot.getAsOf();
+        log.debug("Snapshot of {} positions as of {} ({} transactions replayed, {} bytes) in {} µs", held.size(),
+                snapshot.getAsOf(), delta.size(), snapshot.getPayload().length, (System.nanoTime() - start) / 1000);
+        return snapshot;
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (RuntimeException e) {
+            log.warn("Holdings snapshot failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private synchronized void invalidate(LocalDateTime from) {
+        try {
+            if (from == null) {
+                snapshots.deleteAllInBatch();
+            } else {
+                snapshots.deleteByAsOfGreaterThanEqual(from);
+            }
+            latestSnapshot = snapshots.findTopByOrderByAsOfDescIdDesc().map(HoldingsSnapshotEntity::getAsOf)
+                    .orElse(null);
+            log.debug("Dropped holdings snapshots from {}", from == null ? "the start" : from);
+        } catch (RuntimeException e) {
+            log.warn("Could not drop stale holdings snapshots: {}", e.getMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Positions being replayed, by upper-case symbol.
+     */
+    private static final class Positions {
+
+        private final Map<String, Position> bySymbol = new TreeMap<>();
+
+        static Positions of(HoldingsSnapshotEntity snapshot) {
+            Positions positions = new Positions();
+            if (snapshot != null) {
+                for (HeldPosition held : HoldingsCodec.decode(snapshot.getPayload())) {
+                    Position position = new Position();
+                    position.quantity = held.quantity();
+                    position.cost = held.costBasis();
+                    positions.bySymbol.put(held.symbol(), position);
+                }
+            }
+            return positions;
+        }
+
+        void apply(TransactionEntity transaction) {
+            if (transaction.getSymbol() == null) {
+                return;
+            }
+            String symbol = transaction.getSymbol().toUpperCase(Locale.ROOT);
+            Position position = bySymbol.computeIfAbsent(symbol, s -> new Position());
+            if (LotEngine.isSale(transaction)) {
+                long sold = Math.min(transaction.getQuantity(), position.quantity);
+                position.cost -= position.quantity > 0 ? position.cost * sold / position.quantity : 0;
+                position.quantity -= transaction.getQuantity();
+            } else {
+                position.quantity += transaction.getQuantity();
+                position.cost += transaction.getQuantity() * transaction.getBuyPrice();
+            }
+            if (position.quantity == 0) {
+                bySymbol.remove(symbol);
+            }
+        }
+
+        List<HeldPosition> list() {
+            List<HeldPosition> list = new ArrayList<>(bySymbol.size());
+            bySymbol.forEach((symbol, position) -> list.add(new HeldPosition(symbol, position.quantity, position.cost)));
+            return list;
+        }
+
+        private static final class Position {
+            long quantity;
+            double cost;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package org.hsbc.ledger;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Open lots of one symbol under one {@link LotMethod}, with running totals of the open cost and
+ * realized gains. A buy appends a lot; a sale consumes lots from the front (FIFO, AVERAGE) or the
+ * back (LIFO), so each trade costs O(lots it touches) and the totals are always current.
+ * Not thread-safe.
+ */
+final class LotBook {
+
+    private static final double EPSILON = 1e-9;
+
+    private final LotMethod method;
+    // Acquisition order
+    private final ArrayDeque<Lot> open = new ArrayDeque<>();
+    private double openQuantity;
+    private double openCost;
+    private double realized;
+    private double shortTerm;
+    private double longTerm;
+    private double unmatched;
+
+    LotBook(LotMethod method) {
+        this.method = method;
+    }
+
+    void buy(LocalDate day, double quantity, double price) {
+        Lot last = open.peekLast();
+        if (last != null && last.acquired.equals(day) && last.unitCost == price) {
+            last.quantity += quantity;
+        } else {
+            open.addLast(new Lot(day, quantity, price));
+        }
+        openQuantity += quantity;
+        openCost += quantity * price;
+    }
+
+    /**
+     * Units held before any recorded purchase, e.g. a holding added directly: goes in front of the
+     * other lots.
+     */
+    void opening(LocalDate day, double quantity, double unitCost) {
+        open.addFirst(new Lot(day, quantity, unitCost));
+        openQuantity += quantity;
+        openCost += quantity * unitCost;
+    }
+
+    /**
+     * @return the gain realized by this sale
+     */
+    double sell(LocalDate day, double quantity, double price) {
+        double average = openQuantity > EPSILON ? openCost / openQuantity : 0;
+        double remaining = quantity;
+        double gain = 0;
+        while (remaining > EPSILON && !open.isEmpty()) {
+            Lot lot = method == LotMethod.LIFO ? open.peekLast() : open.peekFirst();
+            double taken = Math.min(remaining, lot.quantity);
+            double unitCost = method == LotMethod.AVERAGE ? average : lot.unitCost;
+            double lotGain = taken * (price - unitCost);
+            if (day.isAfter(lot.acquired.plusYears(1))) {
+                longTerm += lotGain;
+            } else {
+                shortTerm += lotGain;
+            }
+            gain += lotGain;
+            openCost -= taken * unitCost;
+            openQuantity -= taken;
+            remaining -= taken;
+            lot.quantity -= taken;
+            if (lot.quantity <= EPSILON) {
+                if (method == LotMethod.LIFO) {
+                    open.removeLast();
+                } else {
+                    open.removeFirst();
+                }
+            }
+        }
+        if (open.isEmpty()) {
+            // Drop the rounding left over from partial lots
+            openQuantity = 0;
+            openCost = 0;
+        }
+        if (remaining > EPSILON) {
+            unmatched += remaining;
+        }
+        realized += gain;
+        return gain;
+    }
+
+    double openQuantity() {
+        return openQuantity;
+    }
+
+    double openCost() {
+        return openCost;
+    }
+
+    double realized() {
+        return realized;
+    }
+
+    double shortTerm() {
+        return shortTerm;
+    }
+
+    double longTerm() {
+        return longTerm;
+    }
+
+    double unmatched() {
+        return unmatched;
+    }
+
+    List<OpenLot> lots() {
+        double average = openQuantity > EPSILON ? openCost / openQuantity : 0;
+        List<OpenLot> lots = new ArrayList<>(open.size());
+        for (Lot lot : open) {
+            lots.add(new OpenLot(lot.acquired, lot.quantity, method == LotMethod.AVERAGE ? average : lot.unitCost));
+        }
+        return lots;
+    }
+
+    private static final class Lot {
+
+        final LocalDate acquired;
+        final double unitCost;
+        double quantity;
+
+        Lot(LocalDate acquired, double quantity, double unitCost) {
+            this.acquired = acquired;
+            this.quantity = quantity;
+            this.unitCost = unitCost;
+        }
+    }
+}
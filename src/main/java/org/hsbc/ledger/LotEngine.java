@@ -0,0 +1,263 @@
+package org.hsbc.ledger;
+
+import org.hsbc.entity.PmsEntity;
+import org.hsbc.entity.TransactionEntity;
+import org.hsbc.exception.ResourceNotFoundException;
+import org.hsbc.market.PriceTable;
+import org.hsbc.performance.TransactionRecordedEvent;
+import org.hsbc.repo.PmsRepository;
+import org.hsbc.service.PmsService;
+import org.hsbc.service.TransactionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Tax lots of every symbol ever traded, kept under all three {@link LotMethod}s at once so any of
+ * them can be reported without a replay.
+ * <p>
+ * The transaction log is replayed once, on the first report. After that each new transaction
+ * arrives on a {@link TransactionRecordedEvent} and is applied to the symbol's books directly: a
+ * buy appends a lot, a sale consumes the lots it matches and adds its gain to the running totals.
+ * A transaction that was changed or deleted, or arrives out of order, makes that symbol (only)
+ * replay from its transactions. Units held without a recorded purchase (holdings added directly)
+ * become an opening lot at the holding's buy price: on the first report, and whenever a later trade
+ * finds its holding carrying more units than the books account for. That check looks up the one
+ * holding by symbol, so a trade never scans the holdings table.
+ */
+@Component
+public class LotEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(LotEngine.class);
+
+    private final TransactionService transactions;
+    private final PmsService pmsService;
+    private final PmsRepository holdings;
+    private final PriceTable prices;
+    private final LotMethod defaultMethod;
+
+    // Keyed by upper-case symbol; guarded by this
+    private final Map<String, SymbolLots> symbols = new TreeMap<>();
+    private boolean loaded;
+
+    public LotEngine(TransactionService transactions, PmsService pmsService, PmsRepository holdings,
+                     PriceTable prices, @Value("${pms.lots.method:fifo}") String defaultMethod) {
+        this.transactions = transactions;
+        this.pmsService = pmsService;
+        this.holdings = holdings;
+        this.prices = prices;
+        this.defaultMethod = LotMethod.of(defaultMethod, LotMethod.FIFO);
+    }
+
+    @EventListener
+    public synchronized void onTransactionRecorded(TransactionRecordedEvent event) {
+        if (!loaded || event.symbol() == null) {
+            // The first report reads the whole log anyway
+            return;
+        }
+        String key = key(event.symbol());
+        SymbolLots lots = symbols.get(key);
+        TransactionEntity transaction = event.transaction();
+        if (transaction == null || transaction.getTransactionDate() == null
+                || (lots != null && !lots.follows(transaction))) {
+            // A sale is published before its holding is reduced, so the holding still counts its units
+            double pending = transaction != null && isSale(transaction) ? transaction.getQuantity() : 0;
+            symbols.put(key, replay(event.symbol(), transactions.getTransactionsBySymbol(event.symbol()),
+                    holding(event.symbol()), pending));
+            return;
+        }
+        if (lots == null) {
+            lots = new SymbolLots(event.symbol());
+            symbols.put(key, lots);
+        }
+        // A buy is recorded after its holding has grown, a sale before its holding shrinks; units
+        // beyond that were added directly and get an opening lot
+        lots.open(holding(event.symbol()), lots.quantity() + (isSale(transaction) ? 0 : transaction.getQuantity()));
+        lots.apply(transaction);
+    }
+
+    /**
+     * @param method fifo, lifo or average; null for {@code pms.lots.method}
+     */
+    public synchronized GainsReport gains(String method) {
+        LotMethod lotMethod = LotMethod.of(method, defaultMethod);
+        load();
+        List<SymbolGains> gains = new ArrayList<>(symbols.size());
+        double costBasis = 0;
+        double marketValue = 0;
+        double realized = 0;
+        double shortTerm = 0;
+        double longTerm = 0;
+        for (SymbolLots lots : symbols.values()) {
+            SymbolGains symbol = lots.gains(lotMethod, prices);
+            gains.add(symbol);
+            costBasis += symbol.costBasis();
+            marketValue += symbol.marketValue();
+            realized += symbol.realizedGain();
+            shortTerm += symbol.shortTermGain();
+            longTerm += symbol.longTermGain();
+        }
+        return new GainsReport(name(lotMethod), costBasis, marketValue, marketValue - costBasis, realized, shortTerm,
+                longTerm, gains);
+    }
+
+    /**
+     * @throws ResourceNotFoundException if the symbol was never traded
+     */
+    public synchronized LotReport lots(String symbol, String method) {
+        LotMethod lotMethod = LotMethod.of(method, defaultMethod);
+        load();
+        SymbolLots lots = symbols.get(key(symbol));
+        if (lots == null) {
+            throw new ResourceNotFoundException("No transactions for symbol " + symbol);
+        }
+        return new LotReport(name(lotMethod), lots.book(lotMethod).lots(), lots.gains(lotMethod, prices));
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        long start = System.nanoTime();
+        Map<String, List<TransactionEntity>> bySymbol = transactions.getAllTransactions().stream()
+                .filter(t -> t.getSymbol() != null && t.getTransactionDate() != null)
+                .collect(Collectors.groupingBy(t -> key(t.getSymbol())));
+        Map<String, PmsEntity> held = new HashMap<>();
+        for (PmsEntity asset : pmsService.getAllAssets()) {
+            if (asset.getSymbol() != null) {
+                held.put(key(asset.getSymbol()), asset);
+            }
+        }
+        // A sale racing this load is replayed again by its event, with the holding's lag allowed for
+        bySymbol.forEach((key, list) -> symbols.put(key,
+                replay(list.get(0).getSymbol(), list, held.get(key), 0)));
+        held.forEach((key, holding) -> symbols.computeIfAbsent(key,
+                k -> replay(holding.getSymbol(), List.of(), holding, 0)));
+        loaded = true;
+        log.debug("Replayed {} symbols' transactions into lots in {} µs", bySymbol.size(),
+                (System.nanoTime() - start) / 1000);
+    }
+
+    /**
+     * @param pending units of a recorded sale not yet taken off {@code holding}
+     */
+    private static SymbolLots replay(String symbol, List<TransactionEntity> history, PmsEntity holding,
+                                     double pending) {
+        List<TransactionEntity> sorted = history.stream()
+                .filter(t -> t.getTransactionDate() != null)
+                .sorted(Comparator.comparing(TransactionEntity::getTransactionDate)
+                        .thenComparing(TransactionEntity::getTransactionId, Comparator.nullsLast(Long::compare)))
+                .toList();
+        SymbolLots lots = new SymbolLots(symbol);
+        double net = 0;
+        for (TransactionEntity transaction : sorted) {
+            net += isSale(transaction) ? -transaction.getQuantity() : transaction.getQuantity();
+        }
+        lots.open(holding, net + pending);
+        for (TransactionEntity transaction : sorted) {
+            lots.apply(transaction);
+        }
+        return lots;
+    }
+
+    private PmsEntity holding(String symbol) {
+        return holdings.findBySymbol(symbol).orElse(null);
+    }
+
+    static boolean isSale(TransactionEntity transaction) {
+        return "SELL".equalsIgnoreCase(transaction.getTransactionType());
+    }
+
+    private static String name(LotMethod method) {
+        return method.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static String key(String symbol) {
+        return symbol.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * One symbol's books under every method, and where its transaction history has got to.
+     */
+    private static final class SymbolLots {
+
+        private final String symbol;
+        private final EnumMap<LotMethod, LotBook> books = new EnumMap<>(LotMethod.class);
+        private Long lastId;
+        private LocalDateTime lastDate;
+        private double lastPrice;
+
+        SymbolLots(String symbol) {
+            this.symbol = symbol;
+            for (LotMethod method : LotMethod.values()) {
+                books.put(method, new LotBook(method));
+            }
+        }
+
+        LotBook book(LotMethod method) {
+            return books.get(method);
+        }
+
+        double quantity() {
+            return books.get(LotMethod.FIFO).openQuantity();
+        }
+
+        /**
+         * Whether {@code transaction} comes after everything applied so far.
+         */
+        boolean follows(TransactionEntity transaction) {
+            if (lastDate != null && transaction.getTransactionDate().isBefore(lastDate)) {
+                return false;
+            }
+            return lastId == null || transaction.getTransactionId() == null
+                    || transaction.getTransactionId() > lastId;
+        }
+
+        /**
+         * Opens a lot for the units of {@code holding} beyond {@code accounted}, if any.
+         */
+        void open(PmsEntity holding, double accounted) {
+            if (holding == null || holding.getQuantity() <= accounted) {
+                return;
+            }
+            LocalDate acquired = holding.getPurchaseDate() != null ? holding.getPurchaseDate() : LocalDate.now();
+            for (LotBook book : books.values()) {
+                book.opening(acquired, holding.getQuantity() - accounted, holding.getBuyPrice());
+            }
+            if (lastPrice == 0) {
+                lastPrice = holding.getCurrentPrice();
+            }
+        }
+
+        void apply(TransactionEntity transaction) {
+            LocalDate day = transaction.getTransactionDate().toLocalDate();
+            for (LotBook book : books.values()) {
+                if (isSale(transaction)) {
+                    book.sell(day, transaction.getQuantity(), transaction.getBuyPrice());
+                } else {
+                    book.buy(day, transaction.getQuantity(), transaction.getBuyPrice());
+                }
+            }
+            if (transaction.getTransactionId() != null) {
+                lastId = transaction.getTransactionId();
+            }
+            lastDate = transaction.getTransactionDate();
+            lastPrice = transaction.getBuyPrice();
+        }
+
+        SymbolGains gains(LotMethod method, PriceTable prices) {
+            LotBook book = books.get(method);
+            double quantity = book.openQuantity();
+            double marketValue = quantity * prices.priceOrElse(symbol, lastPrice);
+            return new SymbolGains(symbol, quantity, book.openCost(), marketValue, marketValue - book.openCost(),
+                    book.realized(), book.shortTerm(), book.longTerm(), book.unmatched());
+        }
+    }
+}
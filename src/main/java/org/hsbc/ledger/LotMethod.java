@@ -0,0 +1,31 @@
+package org.hsbc.ledger;
+
+import org.hsbc.exception.InvalidRequestException;
+
+import java.util.Locale;
+
+/**
+ * Which open lots a sale is matched against.
+ */
+public enum LotMethod {
+    /** Oldest lots first. */
+    FIFO,
+    /** Newest lots first. */
+    LIFO,
+    /** Every unit at the average cost of the open units; holding periods still run oldest first. */
+    AVERAGE;
+
+    /**
+     * @param method "fifo", "lifo" or "average" (case-insensitive), null for {@code fallback}
+     */
+    public static LotMethod of(String method, LotMethod fallback) {
+        if (method == null) {
+            return fallback;
+        }
+        try {
+            return valueOf(method.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("method must be fifo, lifo or average");
+        }
+    }
+}
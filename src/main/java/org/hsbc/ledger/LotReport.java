@@ -0,0 +1,9 @@
+package org.hsbc.ledger;
+
+import java.util.List;
+
+/**
+ * The open lots of one symbol, oldest first, with its gains.
+ */
+public record LotReport(String method, List<OpenLot> lots, SymbolGains gains) {
+}
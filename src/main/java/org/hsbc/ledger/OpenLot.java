@@ -0,0 +1,10 @@
+package org.hsbc.ledger;
+
+import java.time.LocalDate;
+
+/**
+ * Units bought on one day and not yet sold; under {@link LotMethod#AVERAGE} the unit cost is the
+ * average of all open units.
+ */
+public record OpenLot(LocalDate acquired, double quantity, double unitCost) {
+}
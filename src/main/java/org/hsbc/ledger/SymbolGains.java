@@ -0,0 +1,15 @@
+package org.hsbc.ledger;
+
+/**
+ * One symbol's gains under a {@link LotMethod}.
+ *
+ * @param costBasis         what the open units cost
+ * @param realizedGain      sale proceeds less the cost of the units sold, over all sales
+ * @param shortTermGain     the part of {@code realizedGain} on units held a year or less
+ * @param longTermGain      the part on units held longer
+ * @param unmatchedQuantity units sold that no recorded purchase accounts for; they realise no gain
+ */
+public record SymbolGains(String symbol, double quantity, double costBasis, double marketValue,
+                          double unrealizedGain, double realizedGain, double shortTermGain, double longTermGain,
+                          double unmatchedQuantity) {
+}
@@ -4,8 +4,25 @@ import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Traces controller and service calls.
+ * <p>
+ * Enter/exit lines are logged at DEBUG for a sampled fraction of calls ({@code pms.trace.sample-rate}),
+ * with arguments and results formatted lazily and capped in length, so nothing is formatted unless the
+ * line is actually written. Calls slower than {@code pms.trace.slow-threshold-ms} are always logged at
+ * WARN. With DEBUG off for this class the per-call cost is two {@code nanoTime} reads.
+ */
 @Aspect
 @Component
 public class LoggingAspect {
@@ -13,6 +30,21 @@ public class LoggingAspect {
     private static final Logger log =
             LoggerFactory.getLogger(LoggingAspect.class);
 
+    @Value("${pms.trace.sample-rate:1.0}")
+    private double sampleRate = 1.0;
+
+    @Value("${pms.trace.max-arg-length:200}")
+    private int maxArgLength = 200;
+
+    @Value("${pms.trace.max-result-length:200}")
+    private int maxResultLength = 200;
+
+    @Value("${pms.trace.max-elements:3}")
+    private int maxElements = 3;
+
+    @Value("${pms.trace.slow-threshold-ms:1000}")
+    private long slowThresholdMs = 1000;
+
     // 🔹 Apply to all controller & service methods
     @Pointcut("execution(* org.hsbc.controller..*(..)) || execution(* org.hsbc.service..*(..))")
     public void applicationMethods() {}
@@ -20,38 +52,123 @@ public class LoggingAspect {
     @Around("applicationMethods()")
     public Object logMethodExecution(ProceedingJoinPoint joinPoint) throws Throwable {
 
-        String className = joinPoint.getTarget().getClass().getSimpleName();
-        String methodName = joinPoint.getSignature().getName();
+        boolean traced = log.isDebugEnabled() && sampled();
 
-        log.info("➡️ ENTER: {}.{}() with arguments = {}",
-                className,
-                methodName,
-                joinPoint.getArgs());
+        if (traced) {
+            log.debug("➡️ ENTER: {}.{}() with arguments = {}",
+                    className(joinPoint),
+                    joinPoint.getSignature().getName(),
+                    new Abbreviated(joinPoint.getArgs(), maxArgLength, maxElements));
+        }
 
-        long start = System.currentTimeMillis();
+        long start = System.nanoTime();
 
         try {
             Object result = joinPoint.proceed();
 
-            long timeTaken = System.currentTimeMillis() - start;
+            long elapsed = System.nanoTime() - start;
 
-            log.info("✅ EXIT: {}.{}() | Time = {} ms | Result = {}",
-                    className,
-                    methodName,
-                    timeTaken,
-                    result);
+            if (traced) {
+                log.debug("✅ EXIT: {}.{}() | Time = {} ms | Result = {}",
+                        className(joinPoint),
+                        joinPoint.getSignature().getName(),
+                        elapsed / 1_000_000.0,
+                        new Abbreviated(result, maxResultLength, maxElements));
+            }
+            if (elapsed >= TimeUnit.MILLISECONDS.toNanos(slowThresholdMs)) {
+                log.warn("🐢 SLOW: {}.{}() | Time = {} ms",
+                        className(joinPoint),
+                        joinPoint.getSignature().getName(),
+                        elapsed / 1_000_000.0);
+            }
 
             return result;
 
         } catch (Exception ex) {
 
             log.error("❌ EXCEPTION in {}.{}() | Message = {}",
-                    className,
-                    methodName,
+                    className(joinPoint),
+                    joinPoint.getSignature().getName(),
                     ex.getMessage(),
                     ex);
 
             throw ex;
         }
     }
+
+    private boolean sampled() {
+        return sampleRate >= 1.0 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    private static String className(ProceedingJoinPoint joinPoint) {
+        return joinPoint.getTarget().getClass().getSimpleName();
+    }
+
+    /**
+     * Formats a value only when {@link #toString()} is called, showing collection sizes and at most
+     * {@code maxElements} elements instead of rendering every entity in a list.
+     */
+    static final class Abbreviated {
+
+        private final Object value;
+        private final int maxLength;
+        private final int maxElements;
+
+        Abbreviated(Object value, int maxLength, int maxElements) {
+            this.value = value;
+            this.maxLength = maxLength;
+            this.maxElements = maxElements;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder out = new StringBuilder();
+            append(out, value);
+            if (out.length() > maxLength) {
+                out.setLength(maxLength);
+                out.append("...");
+            }
+            return out.toString();
+        }
+
+        private void append(StringBuilder out, Object v) {
+            if (out.length() > maxLength) {
+                return;
+            }
+            if (v instanceof Object[] array) {
+                appendElements(out, "", Arrays.asList(array).iterator(), array.length, '[', ']');
+            } else if (v instanceof Collection<?> collection) {
+                appendElements(out, "size=" + collection.size() + " ", collection.iterator(), collection.size(), '[', ']');
+            } else if (v instanceof Map<?, ?> map) {
+                appendElements(out, "size=" + map.size() + " ", map.entrySet().iterator(), map.size(), '{', '}');
+            } else if (v instanceof Map.Entry<?, ?> entry) {
+                append(out, entry.getKey());
+                out.append('=');
+                append(out, entry.getValue());
+            } else if (v instanceof ResponseEntity<?> response) {
+                out.append('<').append(response.getStatusCode().value()).append(',');
+                append(out, response.getBody());
+                out.append('>');
+            } else {
+                String text = String.valueOf(v);
+                out.append(text, 0, Math.min(text.length(), maxLength - out.length() + 1));
+            }
+        }
+
+        private void appendElements(StringBuilder out, String prefix, Iterator<?> it, int size, char open, char close) {
+            out.append(prefix).append(open);
+            int shown = 0;
+            while (it.hasNext() && shown < maxElements && out.length() <= maxLength) {
+                if (shown > 0) {
+                    out.append(", ");
+                }
+                append(out, it.next());
+                shown++;
+            }
+            if (shown < size) {
+                out.append(", ...");
+            }
+            out.append(close);
+        }
+    }
 }
@@ -0,0 +1,46 @@
+package org.hsbc.market;
+
+import java.util.Locale;
+
+/**
+ * How a holding is quoted: which Flask endpoint serves it and which field carries the price.
+ */
+public enum AssetClass {
+
+    STOCK("/api/stocks/", "currentPrice"),
+    CRYPTO("/api/crypto/", "currentPrice"),
+    MUTUAL_FUND("/api/mutual-funds/", "nav"),
+    COMMODITY("/api/commodities/", "currentPrice");
+
+    private final String path;
+    private final String priceField;
+
+    AssetClass(String path, String priceField) {
+        this.path = path;
+        this.priceField = priceField;
+    }
+
+    public String path() {
+        return path;
+    }
+
+    public String priceField() {
+        return priceField;
+    }
+
+    /**
+     * Maps a {@code PmsEntity.assetType} ("Stocks", "Crypto", "Mutual Funds", "Commodities");
+     * anything else is treated as a stock.
+     */
+    public static AssetClass of(String assetType) {
+        if (assetType == null) {
+            return STOCK;
+        }
+        return switch (assetType.trim().toLowerCase(Locale.ROOT)) {
+            case "crypto", "cryptocurrency" -> CRYPTO;
+            case "mutual funds", "mutual fund", "mutual-funds" -> MUTUAL_FUND;
+            case "commodities", "commodity" -> COMMODITY;
+            default -> STOCK;
+        };
+    }
+}
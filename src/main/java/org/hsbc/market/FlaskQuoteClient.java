@@ -0,0 +1,56 @@
+package org.hsbc.market;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+
+/**
+ * Fetches the current quote for a symbol from Flask, by default from {@code /api/stocks/{symbol}}.
+ */
+@Component
+public class FlaskQuoteClient {
+
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String flaskApiUrl;
+
+    public FlaskQuoteClient(ObjectProvider<RestTemplateBuilder> restTemplateBuilder,
+                            @Value("${flask.api.url:http://localhost:5000}") String flaskApiUrl) {
+        this.restTemplate = restTemplateBuilder.getIfAvailable(RestTemplateBuilder::new).build();
+        this.flaskApiUrl = flaskApiUrl;
+    }
+
+    /**
+     * @throws org.springframework.web.client.RestClientException if Flask is unreachable or the symbol is unknown
+     * @throws IOException if the response is not a quote
+     */
+    public PriceTick fetch(String symbol) throws IOException {
+        return fetch(symbol, AssetClass.STOCK);
+    }
+
+    /**
+     * Fetches from the endpoint for {@code assetClass}; mutual funds are priced by their NAV.
+     *
+     * @throws org.springframework.web.client.RestClientException if Flask is unreachable or the symbol is unknown
+     * @throws IOException if the response is not a quote
+     */
+    public PriceTick fetch(String symbol, AssetClass assetClass) throws IOException {
+        String body = restTemplate.getForObject(flaskApiUrl + assetClass.path() + "{symbol}", String.class, symbol);
+        JsonNode quote = objectMapper.readTree(body);
+        if (quote == null || !quote.hasNonNull(assetClass.priceField())) {
+            throw new IOException("No " + assetClass.priceField() + " in quote for " + symbol);
+        }
+        return new PriceTick(symbol,
+                quote.get(assetClass.priceField()).asDouble(),
+                quote.path("previousClose").asDouble(),
+                quote.path("dayChangePercent").asDouble(),
+                quote.path("currency").asText("USD"),
+                System.currentTimeMillis());
+    }
+}
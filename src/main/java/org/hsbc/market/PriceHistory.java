@@ -0,0 +1,14 @@
+package org.hsbc.market;
+
+/**
+ * Daily closing prices of one symbol, oldest first.
+ *
+ * @param days   epoch days ({@link java.time.LocalDate#toEpochDay()}), strictly increasing
+ * @param closes the close (or NAV) on each day
+ */
+public record PriceHistory(String symbol, int[] days, double[] closes) {
+
+    public int size() {
+        return days.length;
+    }
+}
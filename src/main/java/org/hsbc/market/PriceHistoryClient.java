@@ -0,0 +1,180 @@
+package org.hsbc.market;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.hsbc.timeseries.CompressedSeries;
+import org.hsbc.timeseries.SeriesCursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Daily price history from Flask's {@code /api/history/{symbol}}, cached per symbol for
+ * {@code pms.history.cache-ttl-ms}; daily closes only change once a day. The cache holds each
+ * history as a {@link CompressedSeries} and decodes it per call, so thousands of symbols' years
+ * of closes take a fraction of the heap of the arrays handed out.
+ */
+@Component
+public class PriceHistoryClient {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceHistoryClient.class);
+
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String flaskApiUrl;
+    private final String period;
+    private final long cacheTtlMs;
+    private final Semaphore permits;
+    private final ConcurrentHashMap<String, Cached> cache = new ConcurrentHashMap<>();
+    private final ExecutorService fetchers = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("price-history-", 0).factory());
+
+    public PriceHistoryClient(ObjectProvider<RestTemplateBuilder> restTemplateBuilder, MeterRegistry registry,
+                              @Value("${flask.api.url:http://localhost:5000}") String flaskApiUrl,
+                              @Value("${pms.history.period:1Y}") String period,
+                              @Value("${pms.history.cache-ttl-ms:3600000}") long cacheTtlMs,
+                              @Value("${pms.history.max-concurrency:8}") int maxConcurrency) {
+        this.restTemplate = restTemplateBuilder.getIfAvailable(RestTemplateBuilder::new).build();
+        this.flaskApiUrl = flaskApiUrl;
+        this.period = period;
+        this.cacheTtlMs = cacheTtlMs;
+        this.permits = new Semaphore(maxConcurrency);
+        Gauge.builder("pms.history.cache.bytes", this, PriceHistoryClient::cachedBytes)
+                .description("Compressed size of the cached daily price histories")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    /**
+     * @throws org.springframework.web.client.RestClientException if Flask is unreachable or the symbol is unknown
+     * @throws IOException if the response has no usable data points
+     */
+    public PriceHistory daily(String symbol) throws IOException {
+        String key = symbol.toUpperCase(Locale.ROOT);
+        Cached cached = cache.get(key);
+        if (cached != null && System.currentTimeMillis() - cached.fetchedAt < cacheTtlMs) {
+            return decode(key, cached.closes);
+        }
+        PriceHistory history = fetch(key);
+        cache.put(key, new Cached(encode(history), System.currentTimeMillis()));
+        return history;
+    }
+
+    /**
+     * Bytes the cached histories take compressed; see {@link CompressedSeries#compressedBytes()}.
+     */
+    public long cachedBytes() {
+        long bytes = 0;
+        for (Cached cached : cache.values()) {
+            bytes += cached.closes.compressedBytes();
+        }
+        return bytes;
+    }
+
+    static CompressedSeries encode(PriceHistory history) {
+        CompressedSeries.Builder builder = CompressedSeries.builder();
+        for (int i = 0; i < history.size(); i++) {
+            builder.append(history.days()[i], history.closes()[i]);
+        }
+        return builder.build();
+    }
+
+    static PriceHistory decode(String symbol, CompressedSeries closes) {
+        int[] days = new int[closes.size()];
+        double[] prices = new double[closes.size()];
+        SeriesCursor cursor = closes.cursor();
+        for (int i = 0; cursor.next(); i++) {
+            days[i] = (int) cursor.timestamp();
+            prices[i] = cursor.value();
+        }
+        return new PriceHistory(symbol, days, prices);
+    }
+
+    /**
+     * Histories of all {@code symbols}, fetching those not cached concurrently. Symbols whose
+     * history cannot be fetched are left out of the result.
+     */
+    public Map<String, PriceHistory> daily(Collection<String> symbols) throws InterruptedException {
+        Map<String, Future<PriceHistory>> pending = new HashMap<>();
+        for (String symbol : symbols) {
+            pending.put(symbol, fetchers.submit(() -> {
+                permits.acquire();
+                try {
+                    return daily(symbol);
+                } finally {
+                    permits.release();
+                }
+            }));
+        }
+        Map<String, PriceHistory> histories = new HashMap<>();
+        for (Map.Entry<String, Future<PriceHistory>> entry : pending.entrySet()) {
+            try {
+                histories.put(entry.getKey(), entry.getValue().get());
+            } catch (ExecutionException e) {
+                log.warn("No price history for {}: {}", entry.getKey(), e.getCause().getMessage());
+            }
+        }
+        return histories;
+    }
+
+    private PriceHistory fetch(String symbol) throws IOException {
+        String body = restTemplate.getForObject(flaskApiUrl + "/api/history/{symbol}?period={period}&interval=1d",
+                String.class, symbol, period);
+        JsonNode data = objectMapper.readTree(body).path("data");
+        int count = 0;
+        int[] dayBuffer = new int[data.size()];
+        double[] closeBuffer = new double[data.size()];
+        for (JsonNode point : data) {
+            // Mutual funds report 'nav' rather than 'close'
+            JsonNode price = point.has("nav") ? point.get("nav") : point.get("close");
+            if (price == null || !price.isNumber() || price.asDouble() <= 0 || !point.hasNonNull("time")) {
+                continue;
+            }
+            int day = (int) LocalDate.parse(point.get("time").asText().substring(0, 10)).toEpochDay();
+            if (count > 0 && day <= dayBuffer[count - 1]) {
+                // Duplicate or out-of-order row; keep the later one
+                if (day == dayBuffer[count - 1]) {
+                    closeBuffer[count - 1] = price.asDouble();
+                }
+                continue;
+            }
+            dayBuffer[count] = day;
+            closeBuffer[count] = price.asDouble();
+            count++;
+        }
+        if (count == 0) {
+            throw new IOException("No price history for " + symbol);
+        }
+        return new PriceHistory(symbol, Arrays.copyOf(dayBuffer, count),
+                Arrays.copyOf(closeBuffer, count));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fetchers.shutdownNow();
+    }
+
+    private record Cached(CompressedSeries closes, long fetchedAt) {
+    }
+}
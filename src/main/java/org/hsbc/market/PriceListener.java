@@ -0,0 +1,10 @@
+package org.hsbc.market;
+
+/**
+ * Notified after every {@link PriceTable} update, on the updating thread.
+ */
+@FunctionalInterface
+public interface PriceListener {
+
+    void onPrice(int id, double price);
+}
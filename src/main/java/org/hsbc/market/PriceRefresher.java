@@ -0,0 +1,251 @@
+package org.hsbc.market;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.hsbc.entity.PmsEntity;
+import org.hsbc.service.PmsService;
+import org.hsbc.valuation.HoldingChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the {@link PriceTable} current for every held symbol, whether or not anyone is watching
+ * it. Every {@code pms.refresh.tick-ms} the symbols that are due (see {@link RefreshSchedule}) are
+ * fetched, at most {@code pms.refresh.batch-size} per tick and {@code pms.refresh.max-concurrency}
+ * at a time. Each next refresh is pushed back by a random {@code pms.refresh.jitter-ms}, so
+ * symbols that become due together (at startup, the open, the close, NAV time) are spread out
+ * rather than hitting Flask at once. A failed fetch is retried after {@code pms.refresh.retry-ms}.
+ * <p>
+ * The held symbols are loaded on startup. After that each {@link HoldingChangedEvent} adds or
+ * removes just its own symbol, tracking the held quantity so the symbol is dropped once it reaches
+ * zero. Set {@code pms.refresh.tick-ms} to 0 to turn refreshing off.
+ */
+@Component
+public class PriceRefresher {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceRefresher.class);
+
+    private final PmsService pmsService;
+    private final FlaskQuoteClient quotes;
+    private final PriceTable prices;
+    private final RefreshSchedule schedule;
+    private final Clock clock;
+    private final Random random;
+    private final long tickMs;
+    private final int batchSize;
+    private final Semaphore permits;
+    private final long jitterMs;
+    private final long retryMs;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean resync = new AtomicBoolean(true);
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService fetchers = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("price-refresh-", 0).factory());
+    private final Counter refreshed;
+    private final Counter failed;
+
+    @Autowired
+    public PriceRefresher(PmsService pmsService, FlaskQuoteClient quotes, PriceTable prices, RefreshSchedule schedule,
+                          MeterRegistry registry,
+                          @Value("${pms.refresh.tick-ms:5000}") long tickMs,
+                          @Value("${pms.refresh.batch-size:50}") int batchSize,
+                          @Value("${pms.refresh.max-concurrency:4}") int maxConcurrency,
+                          @Value("${pms.refresh.jitter-ms:30000}") long jitterMs,
+                          @Value("${pms.refresh.retry-ms:60000}") long retryMs) {
+        this(pmsService, quotes, prices, schedule, registry, Clock.systemUTC(), new Random(),
+                tickMs, batchSize, maxConcurrency, jitterMs, retryMs);
+    }
+
+    PriceRefresher(PmsService pmsService, FlaskQuoteClient quotes, PriceTable prices, RefreshSchedule schedule,
+                   MeterRegistry registry, Clock clock, Random random,
+                   long tickMs, int batchSize, int maxConcurrency, long jitterMs, long retryMs) {
+        this.pmsService = pmsService;
+        this.quotes = quotes;
+        this.prices = prices;
+        this.schedule = schedule;
+        this.clock = clock;
+        this.random = random;
+        this.tickMs = tickMs;
+        this.batchSize = batchSize;
+        this.permits = new Semaphore(maxConcurrency);
+        this.jitterMs = jitterMs;
+        this.retryMs = retryMs;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "price-refresh-scheduler");
+            t.setDaemon(true);
+            return t;
+        });
+        this.refreshed = registry.counter("pms.refresh.quotes", "result", "success");
+        this.failed = registry.counter("pms.refresh.quotes", "result", "failure");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (tickMs > 0) {
+            scheduler.scheduleWithFixedDelay(this::tickQuietly, 0, tickMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @EventListener
+    public void onHoldingChanged(HoldingChangedEvent event) {
+        if (event.symbol() == null || event.quantityDelta() == 0) {
+            return;
+        }
+        String symbol = event.symbol().toUpperCase(Locale.ROOT);
+        entries.compute(symbol, (key, existing) -> {
+            long quantity = (existing != null ? existing.quantity : 0) + event.quantityDelta();
+            if (quantity <= 0) {
+                return null;
+            }
+            if (existing != null) {
+                existing.quantity = quantity;
+                return existing;
+            }
+            return new Entry(symbol, prices.intern(symbol), AssetClass.of(event.assetType()), quantity,
+                    jittered(clock.millis()));
+        });
+    }
+
+    /**
+     * Fetches the symbols due now, waiting until they are done.
+     *
+     * @return the number of symbols fetched, successfully or not
+     */
+    int tick() throws InterruptedException {
+        if (resync.getAndSet(false)) {
+            try {
+                loadHoldings();
+            } catch (RuntimeException e) {
+                resync.set(true);
+                throw e;
+            }
+        }
+        long now = clock.millis();
+        List<Entry> due = entries.values().stream()
+                .filter(entry -> entry.dueAt <= now)
+                .sorted(Comparator.comparingLong(entry -> entry.dueAt))
+                .limit(batchSize)
+                .toList();
+        if (due.isEmpty()) {
+            return 0;
+        }
+        List<Callable<Void>> tasks = new ArrayList<>(due.size());
+        for (Entry entry : due) {
+            tasks.add(() -> {
+                permits.acquire();
+                try {
+                    refresh(entry);
+                } finally {
+                    permits.release();
+                }
+                return null;
+            });
+        }
+        fetchers.invokeAll(tasks);
+        return due.size();
+    }
+
+    private void refresh(Entry entry) {
+        try {
+            PriceTick tick = quotes.fetch(entry.symbol, entry.assetClass);
+            prices.update(entry.id, tick.price(), tick.timestamp());
+            refreshed.increment();
+            entry.dueAt = jittered(schedule.nextRefresh(entry.assetClass, clock.instant()).toEpochMilli());
+        } catch (Exception e) {
+            failed.increment();
+            log.debug("Price refresh for {} failed: {}", entry.symbol, e.getMessage());
+            entry.dueAt = jittered(clock.millis() + retryMs);
+        }
+    }
+
+    private void loadHoldings() {
+        Map<String, AssetClass> classes = new HashMap<>();
+        Map<String, Long> quantities = new HashMap<>();
+        for (PmsEntity asset : pmsService.getAllAssets()) {
+            if (asset.getSymbol() != null) {
+                String symbol = asset.getSymbol().toUpperCase(Locale.ROOT);
+                classes.put(symbol, AssetClass.of(asset.getAssetType()));
+                quantities.merge(symbol, (long) asset.getQuantity(), Long::sum);
+            }
+        }
+        quantities.values().removeIf(quantity -> quantity <= 0);
+        entries.keySet().retainAll(quantities.keySet());
+        long now = clock.millis();
+        quantities.forEach((symbol, quantity) -> entries.compute(symbol, (key, existing) -> {
+            AssetClass assetClass = classes.get(symbol);
+            if (existing != null && existing.assetClass == assetClass) {
+                existing.quantity = quantity;
+                return existing;
+            }
+            return new Entry(symbol, prices.intern(symbol), assetClass, quantity, jittered(now));
+        }));
+    }
+
+    private long jittered(long dueAt) {
+        return jitterMs > 0 ? dueAt + (long) (random.nextDouble() * jitterMs) : dueAt;
+    }
+
+    private void tickQuietly() {
+        try {
+            tick();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("Price refresh failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Symbols currently refreshed in the background.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        fetchers.shutdownNow();
+    }
+
+    private static final class Entry {
+
+        final String symbol;
+        final int id;
+        final AssetClass assetClass;
+        // Only changed inside entries.compute, which serialises updates per symbol
+        long quantity;
+        volatile long dueAt;
+
+        Entry(String symbol, int id, AssetClass assetClass, long quantity, long dueAt) {
+            this.symbol = symbol;
+            this.id = id;
+            this.assetClass = assetClass;
+            this.quantity = quantity;
+            this.dueAt = dueAt;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package org.hsbc.market;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.hsbc.entity.PmsEntity;
+import org.hsbc.repo.PmsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Multiplexes live prices: one upstream feed per symbol, however many subscribers it has. A feed
+ * polls {@link FlaskQuoteClient} while at least one subscriber wants the symbol and is stopped when
+ * the last one leaves. Every new quote is also written to the {@link PriceTable}.
+ * <p>
+ * A feed is quoted from the endpoint for its holding's {@link AssetClass}, looked up on the first
+ * poll; a symbol that is not held is polled as a stock.
+ * <p>
+ * Broadcasting takes no locks: a feed iterates a copy-on-write array of subscriber slots and swaps
+ * the tick into each (see {@link PriceSubscription}). Writes to clients happen on virtual threads,
+ * one drain at a time per subscriber.
+ */
+@Component
+public class PriceStreamHub {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceStreamHub.class);
+
+    private final FlaskQuoteClient quotes;
+    private final PriceTable prices;
+    private final PmsRepository holdings;
+    private final long pollIntervalMs;
+    private final ConcurrentHashMap<String, Feed> feeds = new ConcurrentHashMap<>();
+    private final Set<PriceSubscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService dispatcher = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("price-stream-", 0).factory());
+    private final Counter conflated;
+
+    public PriceStreamHub(FlaskQuoteClient quotes, PriceTable prices, PmsRepository holdings, MeterRegistry registry,
+                          @Value("${pms.stream.poll-interval-ms:10000}") long pollIntervalMs,
+                          @Value("${pms.stream.heartbeat-ms:15000}") long heartbeatMs) {
+        this.quotes = quotes;
+        this.prices = prices;
+        this.holdings = holdings;
+        this.pollIntervalMs = pollIntervalMs;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "price-stream-scheduler");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleAtFixedRate(this::heartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+        Gauge.builder("pms.stream.feeds", feeds, ConcurrentHashMap::size)
+                .description("Symbols with an active upstream price feed")
+                .register(registry);
+        Gauge.builder("pms.stream.subscribers", subscriptions, Set::size)
+                .description("Open price stream subscriptions")
+                .register(registry);
+        this.conflated = Counter.builder("pms.stream.ticks.conflated")
+                .description("Ticks replaced by a newer one before a slow subscriber received them")
+                .register(registry);
+    }
+
+    /**
+     * Subscribes {@code sink} to {@code symbols}, starting any feed that is not already running. The
+     * last known price of each symbol is delivered straight away.
+     */
+    public PriceSubscription subscribe(List<String> symbols, TickSink sink) {
+        PriceSubscription subscription = new PriceSubscription(this, symbols, sink, dispatcher);
+        subscriptions.add(subscription);
+        try {
+            for (PriceSubscription.Slot slot : subscription.slots()) {
+                int id = prices.intern(slot.symbol);
+                Feed feed = feeds.compute(slot.symbol, (symbol, existing) -> {
+                    Feed f = existing != null ? existing : new Feed(symbol, id);
+                    f.slots.add(slot);
+                    return f;
+                });
+                PriceTick last = feed.last;
+                if (last != null) {
+                    slot.offer(last);
+                }
+            }
+        } catch (RuntimeException e) {
+            // Release the slots already registered so their feeds do not outlive a failed subscribe
+            unsubscribe(subscription);
+            throw e;
+        }
+        return subscription;
+    }
+
+    void unsubscribe(PriceSubscription subscription) {
+        subscriptions.remove(subscription);
+        for (PriceSubscription.Slot slot : subscription.slots()) {
+            feeds.computeIfPresent(slot.symbol, (symbol, feed) -> {
+                feed.slots.remove(slot);
+                if (feed.slots.isEmpty()) {
+                    feed.stop();
+                    return null;
+                }
+                return feed;
+            });
+        }
+    }
+
+    /**
+     * Broadcasts {@code tick} to the symbol's subscribers, unless it repeats the last quote.
+     */
+    void publish(PriceTick tick) {
+        Feed feed = feeds.get(tick.symbol());
+        if (feed != null) {
+            feed.publish(tick);
+        }
+    }
+
+    private void heartbeat() {
+        subscriptions.forEach(PriceSubscription::heartbeat);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        List.copyOf(subscriptions).forEach(PriceSubscription::close);
+        dispatcher.shutdownNow();
+    }
+
+    private final class Feed {
+
+        private final String symbol;
+        private final int id;
+        private final CopyOnWriteArraySet<PriceSubscription.Slot> slots = new CopyOnWriteArraySet<>();
+        private final AtomicBoolean polling = new AtomicBoolean();
+        private final ScheduledFuture<?> poller;
+        private volatile PriceTick last;
+        private AssetClass assetClass;
+        private boolean failing;
+
+        Feed(String symbol, int id) {
+            this.symbol = symbol;
+            this.id = id;
+            this.poller = scheduler.scheduleWithFixedDelay(this::schedulePoll, 0, pollIntervalMs, TimeUnit.MILLISECONDS);
+            log.info("Started price feed for {}", symbol);
+        }
+
+        private void schedulePoll() {
+            // The HTTP call runs off the scheduler thread; a slow Flask skips polls rather than queueing them
+            if (polling.compareAndSet(false, true)) {
+                dispatcher.execute(this::poll);
+            }
+        }
+
+        private void poll() {
+            try {
+                if (assetClass == null) {
+                    assetClass = holdings.findBySymbol(symbol)
+                            .map(PmsEntity::getAssetType)
+                            .map(AssetClass::of)
+                            .orElse(AssetClass.STOCK);
+                }
+                publish(quotes.fetch(symbol, assetClass));
+                if (failing) {
+                    failing = false;
+                    log.info("Price feed for {} recovered", symbol);
+                }
+            } catch (Exception e) {
+                if (!failing) {
+                    failing = true;
+                    log.warn("Price feed for {} failed: {}", symbol, e.getMessage());
+                }
+            } finally {
+                polling.set(false);
+            }
+        }
+
+        void publish(PriceTick tick) {
+            if (tick.sameQuote(last)) {
+                return;
+            }
+            last = tick;
+            prices.update(id, tick.price(), tick.timestamp());
+            for (PriceSubscription.Slot slot : slots) {
+                if (slot.offer(tick)) {
+                    conflated.increment();
+                }
+            }
+        }
+
+        void stop() {
+            poller.cancel(false);
+            log.info("Stopped price feed for {}", symbol);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.hsbc.market;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * One subscriber's view of a set of symbols. Each symbol has a single-tick slot: the feed swaps the
+ * newest tick in and, if the slot was empty, schedules a drain. A subscriber that cannot keep up
+ * therefore only ever skips intermediate ticks (conflation) and never holds back the feed or the
+ * other subscribers.
+ */
+public class PriceSubscription implements AutoCloseable {
+
+    private final PriceStreamHub hub;
+    private final TickSink sink;
+    private final Executor dispatcher;
+    private final List<Slot> slots;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean heartbeatDue = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    PriceSubscription(PriceStreamHub hub, List<String> symbols, TickSink sink, Executor dispatcher) {
+        this.hub = hub;
+        this.sink = sink;
+        this.dispatcher = dispatcher;
+        this.slots = symbols.stream().map(Slot::new).toList();
+    }
+
+    List<Slot> slots() {
+        return slots;
+    }
+
+    public List<String> getSymbols() {
+        return slots.stream().map(slot -> slot.symbol).toList();
+    }
+
+    void heartbeat() {
+        heartbeatDue.set(true);
+        signal();
+    }
+
+    private void signal() {
+        if (!closed.get() && draining.compareAndSet(false, true)) {
+            dispatcher.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        do {
+            try {
+                boolean sent = false;
+                for (Slot slot : slots) {
+                    PriceTick tick = slot.pending.getAndSet(null);
+                    // The replay of the feed's last tick on subscribe can race a publish of that same tick
+                    if (tick != null && tick != slot.sent && !closed.get()) {
+                        slot.sent = tick;
+                        sink.send(tick);
+                        sent = true;
+                    }
+                }
+                if (heartbeatDue.getAndSet(false) && !sent && !closed.get()) {
+                    sink.heartbeat();
+                }
+            } catch (IOException | RuntimeException e) {
+                // The client has gone away
+                close();
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // A tick that arrived after its slot was drained but before the flag was cleared
+        } while (hasPending() && draining.compareAndSet(false, true));
+    }
+
+    private boolean hasPending() {
+        for (Slot slot : slots) {
+            if (slot.pending.get() != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            hub.unsubscribe(this);
+            sink.closed();
+        }
+    }
+
+    final class Slot {
+
+        final String symbol;
+        final AtomicReference<PriceTick> pending = new AtomicReference<>();
+        // Only read and written by the drain, which runs one at a time
+        PriceTick sent;
+
+        Slot(String symbol) {
+            this.symbol = symbol;
+        }
+
+        /**
+         * @return whether an undelivered tick was replaced
+         */
+        boolean offer(PriceTick tick) {
+            boolean conflated = pending.getAndSet(tick) != null;
+            signal();
+            return conflated;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package org.hsbc.market;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latest known price per symbol, shared by everything that values holdings. Symbols are interned to
+ * dense int ids on first use; prices and their update times live in primitive arrays indexed by id.
+ * <p>
+ * Each entry is guarded by a sequence number (a seqlock): writers make it odd, store price and time,
+ * then make it even again; readers retry if it was odd or changed under them. Reads take no lock and
+ * allocate nothing, and {@link #priceIfUpdatedSince} never pairs the price of one update with the
+ * time of another. {@link PriceListener}s are called after each update; {@link PriceWriteBehindBuffer}
+ * is one, and writes changed prices back to the database.
+ * <p>
+ * Entries live in fixed-size segments of {@code pms.prices.capacity} symbols (rounded up to a power
+ * of two). When the last one fills, a new segment is added and the segment directory is replaced by
+ * a longer copy; existing entries never move, so readers and writers of them are unaffected. Ids are
+ * never reused.
+ */
+@Component
+public class PriceTable {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceTable.class);
+
+    private static final VarHandle DOUBLES = MethodHandles.arrayElementVarHandle(double[].class);
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private final int segmentShift;
+    private final int segmentMask;
+    private volatile Segment[] segments;
+    private volatile int size;
+    private volatile PriceListener[] listeners = new PriceListener[0];
+
+    public PriceTable(@Value("${pms.prices.capacity:4096}") int capacity) {
+        int segmentSize = capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.segmentShift = Integer.numberOfTrailingZeros(segmentSize);
+        this.segmentMask = segmentSize - 1;
+        this.segments = new Segment[]{new Segment(segmentSize)};
+    }
+
+    /**
+     * Returns the id of {@code symbol}, assigning the next free one if it is new.
+     */
+    public int intern(String symbol) {
+        String key = symbol.toUpperCase(Locale.ROOT);
+        Integer id = ids.get(key);
+        if (id != null) {
+            return id;
+        }
+        // New symbols are rare; assigning ids one at a time keeps them dense
+        synchronized (ids) {
+            id = ids.get(key);
+            if (id != null) {
+                return id;
+            }
+            int next = size;
+            Segment[] current = segments;
+            if (next >>> segmentShift == current.length) {
+                Segment[] grown = Arrays.copyOf(current, current.length + 1);
+                grown[current.length] = new Segment(segmentMask + 1);
+                segments = grown;
+            }
+            Segment segment = segments[next >>> segmentShift];
+            segment.symbols[next & segmentMask] = key;
+            segment.prices[next & segmentMask] = Double.NaN;
+            // Publishes the slot: readers only look at ids below size
+            size = next + 1;
+            ids.put(key, next);
+            return next;
+        }
+    }
+
+    /**
+     * @return the id of {@code symbol}, or -1 if it has never been interned
+     */
+    public int idOf(String symbol) {
+        // toUpperCase returns the same instance when nothing changes, so this does not allocate for
+        // symbols already stored in upper case
+        Integer id = ids.get(symbol.toUpperCase(Locale.ROOT));
+        return id != null ? id : -1;
+    }
+
+    public String symbolOf(int id) {
+        return segment(id).symbols[id & segmentMask];
+    }
+
+    /**
+     * Number of ids the table can hand out before it adds another segment.
+     */
+    public int capacity() {
+        return segments.length << segmentShift;
+    }
+
+    /**
+     * Number of interned symbols; ids run from 0 to {@code size() - 1}.
+     */
+    public int size() {
+        return size;
+    }
+
+    public void update(String symbol, double price) {
+        update(intern(symbol), price, System.currentTimeMillis());
+    }
+
+    /**
+     * Stores {@code price} and notifies the listeners. A listener that throws is logged and skipped,
+     * so a failing cache or write-behind never fails the caller (typically a committed trade).
+     */
+    public void update(int id, double price, long timestamp) {
+        Segment segment = segment(id);
+        int i = id & segmentMask;
+        long seq;
+        do {
+            seq = (long) LONGS.getVolatile(segment.sequences, i);
+        } while ((seq & 1) != 0 || !LONGS.compareAndSet(segment.sequences, i, seq, seq + 1));
+        DOUBLES.setOpaque(segment.prices, i, price);
+        LONGS.setOpaque(segment.updatedAt, i, timestamp);
+        LONGS.setRelease(segment.sequences, i, seq + 2);
+        for (PriceListener listener : listeners) {
+            try {
+                listener.onPrice(id, price);
+            } catch (RuntimeException e) {
+                log.warn("Price listener {} failed for {}: {}", listener.getClass().getSimpleName(),
+                        segment.symbols[i], e.toString());
+            }
+        }
+    }
+
+    public synchronized void addListener(PriceListener listener) {
+        PriceListener[] current = listeners;
+        PriceListener[] next = Arrays.copyOf(current, current.length + 1);
+        next[current.length] = listener;
+        listeners = next;
+    }
+
+    /**
+     * @return the latest price, or NaN if the symbol has no price yet
+     */
+    public double price(int id) {
+        Segment segment = segment(id);
+        int i = id & segmentMask;
+        while (true) {
+            long before = (long) LONGS.getAcquire(segment.sequences, i);
+            double price = (double) DOUBLES.getOpaque(segment.prices, i);
+            VarHandle.loadLoadFence();
+            if ((before & 1) == 0 && before == (long) LONGS.getOpaque(segment.sequences, i)) {
+                return price;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * @return epoch millis of the latest price, or 0 if the symbol has no price yet
+     */
+    public long updatedAt(int id) {
+        Segment segment = segment(id);
+        int i = id & segmentMask;
+        while (true) {
+            long before = (long) LONGS.getAcquire(segment.sequences, i);
+            long timestamp = (long) LONGS.getOpaque(segment.updatedAt, i);
+            VarHandle.loadLoadFence();
+            if ((before & 1) == 0 && before == (long) LONGS.getOpaque(segment.sequences, i)) {
+                return timestamp;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * @return the latest price if it was set at or after {@code sinceMillis}, otherwise NaN
+     */
+    public double priceIfUpdatedSince(int id, long sinceMillis) {
+        Segment segment = segment(id);
+        int i = id & segmentMask;
+        while (true) {
+            long before = (long) LONGS.getAcquire(segment.sequences, i);
+            double price = (double) DOUBLES.getOpaque(segment.prices, i);
+            long timestamp = (long) LONGS.getOpaque(segment.updatedAt, i);
+            VarHandle.loadLoadFence();
+            if ((before & 1) == 0 && before == (long) LONGS.getOpaque(segment.sequences, i)) {
+                return timestamp >= sinceMillis ? price : Double.NaN;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Sequence number of the entry: even and increasing by 2 per update, 0 if never updated.
+     */
+    public long sequence(int id) {
+        return (long) LONGS.getAcquire(segment(id).sequences, id & segmentMask);
+    }
+
+    /**
+     * The latest price of {@code symbol}, or {@code fallback} (typically the persisted
+     * {@code currentPrice}) if the table has none.
+     */
+    public double priceOrElse(String symbol, double fallback) {
+        if (symbol == null) {
+            return fallback;
+        }
+        int id = idOf(symbol);
+        if (id < 0) {
+            return fallback;
+        }
+        double price = price(id);
+        return Double.isNaN(price) ? fallback : price;
+    }
+
+    private Segment segment(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("No symbol with id " + id);
+        }
+        // size is written after segments, so the directory read here already covers id
+        return segments[id >>> segmentShift];
+    }
+
+    private static final class Segment {
+
+        final String[] symbols;
+        final double[] prices;
+        final long[] updatedAt;
+        final long[] sequences;
+
+        Segment(int size) {
+            this.symbols = new String[size];
+            this.prices = new double[size];
+            this.updatedAt = new long[size];
+            this.sequences = new long[size];
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package org.hsbc.market;
+
+/**
+ * Latest quote for one symbol, as pushed to {@code /api/yfdata/stream} subscribers.
+ *
+ * @param timestamp epoch millis when the quote was fetched from Flask
+ */
+public record PriceTick(String symbol, double price, double previousClose, double changePercent, String currency,
+                        long timestamp) {
+
+    /**
+     * Whether the quoted values differ, ignoring the fetch time. Unchanged polls are not re-broadcast.
+     */
+    public boolean sameQuote(PriceTick other) {
+        return other != null && symbol.equals(other.symbol)
+                && Double.compare(price, other.price) == 0
+                && Double.compare(previousClose, other.previousClose) == 0;
+    }
+}
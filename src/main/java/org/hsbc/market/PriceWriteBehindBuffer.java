@@ -0,0 +1,199 @@
+package org.hsbc.market;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Writes {@link PriceTable} updates back to {@code pms_entity.current_price} behind the caller.
+ * An update only marks its symbol dirty; a flush writes every dirty symbol's latest price in one
+ * UPDATE statement and one transaction. A flush runs every {@code pms.prices.flush-interval-ms},
+ * as soon as {@code pms.prices.flush-threshold} symbols are dirty, and on shutdown.
+ * <p>
+ * Durability: a price counts as accepted once it is in the table. It reaches the database within
+ * one interval, or sooner if the threshold is reached. Prices not yet flushed are lost if the
+ * process dies; they are re-fetched from Flask, and the persisted value is only a fallback for
+ * symbols the table has not seen yet. If a flush fails, its symbols are marked dirty again and
+ * retried on the next one.
+ * <p>
+ * Ordering: per symbol, the last write wins. A flush writes the table's price at flush time, so
+ * intermediate prices never reach the database. Symbols are not ordered against each other, but
+ * one flush commits all of its prices or none. After a row is inserted, this buffer is the only
+ * writer of its price: {@code PmsEntity.currentPrice} is not updatable, so a trade or quantity
+ * change that saves the whole entity cannot overwrite a flush with the price it loaded.
+ */
+@Component
+public class PriceWriteBehindBuffer implements PriceListener {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceWriteBehindBuffer.class);
+
+    // Three parameters per row; stays well under MySQL's 65535 placeholders per statement
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+    // Dirty flags grow with the table in segments of 1024 ids; a segment is never copied, so a mark
+    // made while the directory grows is not lost
+    private static final int DIRTY_SEGMENT_BITS = 10;
+    private static final int DIRTY_SEGMENT_MASK = (1 << DIRTY_SEGMENT_BITS) - 1;
+
+    private final PriceTable table;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionOperations transactions;
+    private final int flushThreshold;
+    private volatile AtomicIntegerArray[] dirty = new AtomicIntegerArray[0];
+    private final Object dirtyGrowth = new Object();
+    private final AtomicInteger dirtyCount = new AtomicInteger();
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private int[] batchIds = new int[0];
+    private final ScheduledExecutorService scheduler;
+
+    public PriceWriteBehindBuffer(PriceTable table, JdbcTemplate jdbcTemplate, TransactionOperations transactions,
+                                  @Value("${pms.prices.flush-interval-ms:30000}") long flushIntervalMs,
+                                  @Value("${pms.prices.flush-threshold:256}") int flushThreshold) {
+        this.table = table;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactions = transactions;
+        this.flushThreshold = flushThreshold;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "price-write-behind");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        table.addListener(this);
+    }
+
+    @Override
+    public void onPrice(int id, double price) {
+        // Only the first update since the last flush counts; later ones just replace the price
+        if (markDirty(id) && dirtyCount.incrementAndGet() >= flushThreshold
+                && flushQueued.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(this::flushQuietly);
+            } catch (RejectedExecutionException e) {
+                // Shutting down; the final flush picks it up
+            }
+        }
+    }
+
+    /**
+     * Number of symbols updated since they were last written.
+     */
+    public int dirtyCount() {
+        return dirtyCount.get();
+    }
+
+    /**
+     * @return the number of prices written
+     */
+    public synchronized int flush() {
+        flushQueued.set(false);
+        int count = 0;
+        AtomicIntegerArray[] segments = dirty;
+        // Ids past the last segment have never been marked
+        int size = Math.min(table.size(), segments.length << DIRTY_SEGMENT_BITS);
+        if (batchIds.length < size) {
+            batchIds = new int[segments.length << DIRTY_SEGMENT_BITS];
+        }
+        for (int id = 0; id < size; id++) {
+            // Cleared before the price is read, so an update racing this flush marks it dirty again
+            if (segments[id >>> DIRTY_SEGMENT_BITS].getAndSet(id & DIRTY_SEGMENT_MASK, 0) == 1) {
+                batchIds[count++] = id;
+            }
+        }
+        if (count == 0) {
+            return 0;
+        }
+        dirtyCount.addAndGet(-count);
+        int rows = count;
+        try {
+            transactions.executeWithoutResult(status -> {
+                for (int from = 0; from < rows; from += MAX_ROWS_PER_STATEMENT) {
+                    write(from, Math.min(rows, from + MAX_ROWS_PER_STATEMENT));
+                }
+            });
+        } catch (RuntimeException e) {
+            for (int i = 0; i < count; i++) {
+                if (markDirty(batchIds[i])) {
+                    dirtyCount.incrementAndGet();
+                }
+            }
+            throw e;
+        }
+        log.debug("Flushed {} prices to the database", count);
+        return count;
+    }
+
+    /**
+     * Compares the bare column so the lookup uses {@code idx_pms_entity_symbol}. The table keys symbols
+     * in upper case, and the column's case-insensitive collation still matches the spelling stored
+     * in the row.
+     */
+    private void write(int from, int to) {
+        int rows = to - from;
+        StringBuilder sql = new StringBuilder("UPDATE pms_entity SET current_price = CASE symbol");
+        StringBuilder in = new StringBuilder(" END WHERE symbol IN (");
+        Object[] args = new Object[rows * 3];
+        for (int i = 0; i < rows; i++) {
+            int id = batchIds[from + i];
+            String symbol = table.symbolOf(id);
+            sql.append(" WHEN ? THEN ?");
+            in.append(i == 0 ? "?" : ", ?");
+            args[2 * i] = symbol;
+            args[2 * i + 1] = table.price(id);
+            args[2 * rows + i] = symbol;
+        }
+        jdbcTemplate.update(sql.append(in).append(')').toString(), args);
+    }
+
+    /**
+     * @return true if {@code id} was clean
+     */
+    private boolean markDirty(int id) {
+        return dirtySegment(id).compareAndSet(id & DIRTY_SEGMENT_MASK, 0, 1);
+    }
+
+    private AtomicIntegerArray dirtySegment(int id) {
+        int index = id >>> DIRTY_SEGMENT_BITS;
+        AtomicIntegerArray[] segments = dirty;
+        if (index < segments.length) {
+            return segments[index];
+        }
+        synchronized (dirtyGrowth) {
+            segments = dirty;
+            if (index >= segments.length) {
+                AtomicIntegerArray[] grown = Arrays.copyOf(segments, index + 1);
+                for (int i = segments.length; i < grown.length; i++) {
+                    grown[i] = new AtomicIntegerArray(1 << DIRTY_SEGMENT_BITS);
+                }
+                dirty = segments = grown;
+            }
+            return segments[index];
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Price write-behind flush failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        flushQuietly();
+    }
+}
@@ -0,0 +1,87 @@
+package org.hsbc.market;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+/**
+ * When a held symbol's price is next worth fetching, by asset class:
+ * <ul>
+ *     <li>crypto every {@code pms.refresh.crypto-interval-ms}, around the clock;</li>
+ *     <li>stocks and commodities every {@code pms.refresh.stock-interval-ms} while the exchange is
+ *     open, once more at the close, then not until the next open;</li>
+ *     <li>mutual funds once a day, after the NAV is published at {@code pms.refresh.nav-time}.</li>
+ * </ul>
+ * Exchange days are Monday to Friday in {@code pms.refresh.exchange-zone}; holidays are not
+ * modelled, so they cost a few redundant fetches of an unchanged price.
+ */
+@Component
+public class RefreshSchedule {
+
+    private final long cryptoIntervalMs;
+    private final long stockIntervalMs;
+    private final ZoneId zone;
+    private final LocalTime open;
+    private final LocalTime close;
+    private final LocalTime navTime;
+
+    public RefreshSchedule(@Value("${pms.refresh.crypto-interval-ms:60000}") long cryptoIntervalMs,
+                           @Value("${pms.refresh.stock-interval-ms:300000}") long stockIntervalMs,
+                           @Value("${pms.refresh.exchange-zone:America/New_York}") String zone,
+                           @Value("${pms.refresh.exchange-open:09:30}") String open,
+                           @Value("${pms.refresh.exchange-close:16:00}") String close,
+                           @Value("${pms.refresh.nav-time:18:00}") String navTime) {
+        this.cryptoIntervalMs = cryptoIntervalMs;
+        this.stockIntervalMs = stockIntervalMs;
+        this.zone = ZoneId.of(zone);
+        this.open = LocalTime.parse(open);
+        this.close = LocalTime.parse(close);
+        this.navTime = LocalTime.parse(navTime);
+    }
+
+    /**
+     * The earliest time after a refresh at {@code now} that the next one is due, before jitter.
+     */
+    public Instant nextRefresh(AssetClass assetClass, Instant now) {
+        return switch (assetClass) {
+            case CRYPTO -> now.plusMillis(cryptoIntervalMs);
+            case MUTUAL_FUND -> nextWeekdayAt(now, navTime);
+            case STOCK, COMMODITY -> {
+                if (!isOpen(now)) {
+                    yield nextWeekdayAt(now, open);
+                }
+                Instant closing = now.atZone(zone).with(close).toInstant();
+                Instant next = now.plusMillis(stockIntervalMs);
+                yield next.isBefore(closing) ? next : closing;
+            }
+        };
+    }
+
+    public boolean isOpen(Instant now) {
+        ZonedDateTime local = now.atZone(zone);
+        LocalTime time = local.toLocalTime();
+        return isWeekday(local) && !time.isBefore(open) && time.isBefore(close);
+    }
+
+    private Instant nextWeekdayAt(Instant now, LocalTime time) {
+        ZonedDateTime local = now.atZone(zone);
+        ZonedDateTime candidate = local.with(time);
+        if (!candidate.isAfter(local)) {
+            candidate = candidate.plusDays(1);
+        }
+        while (!isWeekday(candidate)) {
+            candidate = candidate.plusDays(1);
+        }
+        return candidate.toInstant();
+    }
+
+    private static boolean isWeekday(ZonedDateTime time) {
+        DayOfWeek day = time.getDayOfWeek();
+        return day != DayOfWeek.SATURDAY && day != DayOfWeek.SUNDAY;
+    }
+}
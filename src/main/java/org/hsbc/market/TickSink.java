@@ -0,0 +1,22 @@
+package org.hsbc.market;
+
+import java.io.IOException;
+
+/**
+ * Where a subscription's ticks are written, typically one SSE connection. Calls may block on a slow
+ * client; they are made from a dispatch thread, never from the upstream feed.
+ */
+public interface TickSink {
+
+    void send(PriceTick tick) throws IOException;
+
+    /**
+     * Sent when there was nothing to deliver for a while, so dead connections are noticed.
+     */
+    void heartbeat() throws IOException;
+
+    /**
+     * The subscription has ended, either by {@link PriceSubscription#close()} or a failed write.
+     */
+    void closed();
+}
@@ -0,0 +1,79 @@
+package org.hsbc.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Times every call to the Flask data API as {@code flask.client.requests}, tagged with the
+ * Flask route template (symbols stripped, so the tag stays low-cardinality), method and status.
+ */
+public class FlaskClientMetricsInterceptor implements ClientHttpRequestInterceptor {
+
+    public static final String METRIC = "flask.client.requests";
+
+    private static final List<Route> ROUTES = List.of(
+            new Route("^/api/stocks/[^/]+$", "/api/stocks/{symbol}"),
+            new Route("^/api/crypto/[^/]+$", "/api/crypto/{symbol}"),
+            new Route("^/api/mutual-funds/[^/]+$", "/api/mutual-funds/{symbol}"),
+            new Route("^/api/commodities/[^/]+$", "/api/commodities/{symbol}"),
+            new Route("^/api/history/[^/]+$", "/api/history/{symbol}"),
+            new Route("^/api/news/[^/]+$", "/api/news/{symbol}"),
+            new Route("^/api/stock/[^/]+/analysis$", "/api/stock/{symbol}/analysis"),
+            new Route("^/api/search$", "/api/search"),
+            new Route("^/api/portfolio/performers$", "/api/portfolio/performers"),
+            new Route("^/api/portfolio/recommendations$", "/api/portfolio/recommendations"),
+            new Route("^/health$", "/health"));
+
+    private final MeterRegistry registry;
+
+    public FlaskClientMetricsInterceptor(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        String path = normalize(request.getURI().getPath());
+        long start = System.nanoTime();
+        String status = "IO_ERROR";
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            status = Integer.toString(response.getStatusCode().value());
+            return response;
+        } finally {
+            Timer.builder(METRIC)
+                    .description("Calls from the Java tier to the Flask data API")
+                    .tag("path", path)
+                    .tag("method", request.getMethod().name())
+                    .tag("status", status)
+                    .publishPercentileHistogram()
+                    .register(registry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /** Maps a Flask request path to its route template, or {@code "other"}. */
+    public static String normalize(String path) {
+        for (Route route : ROUTES) {
+            if (route.pattern().matcher(path).matches()) {
+                return route.template();
+            }
+        }
+        return "other";
+    }
+
+    private record Route(Pattern pattern, String template) {
+        Route(String regex, String template) {
+            this(Pattern.compile(regex), template);
+        }
+    }
+}
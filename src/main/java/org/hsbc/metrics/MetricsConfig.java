@@ -0,0 +1,20 @@
+package org.hsbc.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.web.client.RestTemplateCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Adds the Flask upstream timer to every {@code RestTemplate} built from Boot's
+ * {@code RestTemplateBuilder}. Controller, repository and JVM metrics come from Actuator itself;
+ * percentile histograms and SLO buckets are configured in application.properties.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public RestTemplateCustomizer flaskClientMetricsCustomizer(MeterRegistry registry) {
+        return restTemplate -> restTemplate.getInterceptors().add(new FlaskClientMetricsInterceptor(registry));
+    }
+}
@@ -0,0 +1,18 @@
+package org.hsbc.performance;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Portfolio returns net of deposits and withdrawals, see {@link PerformanceService}. Returns are
+ * fractions (0.05 is 5%), null where undefined.
+ *
+ * @param since                        first day of the time-weighted window
+ * @param timeWeightedReturn           cumulative from {@code since} to today
+ * @param annualisedTimeWeightedReturn the same per year, if the window is at least a year long
+ * @param moneyWeightedReturn          annualised XIRR over the whole transaction log
+ */
+public record PerformanceReport(long asOf, LocalDate since, double marketValue, double netInvested,
+                                Double timeWeightedReturn, Double annualisedTimeWeightedReturn,
+                                Double moneyWeightedReturn, int transactionDays, List<SymbolPerformance> symbols) {
+}
@@ -0,0 +1,357 @@
+package org.hsbc.performance;
+
+import jakarta.annotation.PreDestroy;
+import org.hsbc.entity.PmsEntity;
+import org.hsbc.entity.TransactionEntity;
+import org.hsbc.market.PriceHistory;
+import org.hsbc.market.PriceHistoryClient;
+import org.hsbc.market.PriceTable;
+import org.hsbc.service.PmsService;
+import org.hsbc.service.TransactionService;
+import org.hsbc.valuation.HoldingChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Time-weighted and money-weighted returns of the portfolio and of each symbol, from the
+ * transaction log (see {@link ReturnMath}).
+ * <ul>
+ *     <li>Each symbol's transactions are folded into a {@link SymbolLedger} of daily net flows. The
+ *     log is read once; after that only the ledger of a symbol named by a
+ *     {@link TransactionRecordedEvent} is re-read, so a trade costs one query for that symbol
+ *     however long the log is.</li>
+ *     <li>A holding with more units than its transactions explain (added directly rather than
+ *     bought) is taken as bought at its recorded buy price on its purchase date.</li>
+ *     <li>Daily values over the last {@code pms.performance.lookback-days} use the cached daily
+ *     closes, carried over days without one, falling back to trade prices; today uses the live
+ *     price.</li>
+ * </ul>
+ * A report is cached until a holding or transaction changes, or for {@code pms.performance.cache-ttl-ms}
+ * so the live prices in it do not go stale. {@link #report()} waits for a stale report to be
+ * recomputed; {@link #cachedReport()} returns it at once and recomputes it in the background.
+ */
+@Component
+public class PerformanceService {
+
+    private static final Logger log = LoggerFactory.getLogger(PerformanceService.class);
+
+    private final TransactionService transactions;
+    private final PmsService pmsService;
+    private final PriceTable prices;
+    private final PriceHistoryClient histories;
+    private final int lookbackDays;
+    private final long cacheTtlMs;
+    private final Clock clock;
+
+    // Keyed by upper-case symbol; guarded by this
+    private final Map<String, SymbolLedger> ledgers = new HashMap<>();
+    private boolean loaded;
+    // Last XIRR per symbol ("" for the portfolio), to start Newton from; guarded by this
+    private final Map<String, Double> lastRates = new HashMap<>();
+    // Upper-case symbol to the symbol as recorded, for the query
+    private final ConcurrentHashMap<String, String> stale = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Cached cached;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "performance-refresh");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @Autowired
+    public PerformanceService(TransactionService transactions, PmsService pmsService, PriceTable prices,
+                              PriceHistoryClient histories,
+                              @Value("${pms.performance.lookback-days:365}") int lookbackDays,
+                              @Value("${pms.performance.cache-ttl-ms:60000}") long cacheTtlMs) {
+        this(transactions, pmsService, prices, histories, lookbackDays, cacheTtlMs, Clock.systemDefaultZone());
+    }
+
+    PerformanceService(TransactionService transactions, PmsService pmsService, PriceTable prices,
+                       PriceHistoryClient histories, int lookbackDays, long cacheTtlMs, Clock clock) {
+        this.transactions = transactions;
+        this.pmsService = pmsService;
+        this.prices = prices;
+        this.histories = histories;
+        this.lookbackDays = lookbackDays;
+        this.cacheTtlMs = cacheTtlMs;
+        this.clock = clock;
+    }
+
+    @EventListener
+    public void onTransactionRecorded(TransactionRecordedEvent event) {
+        if (event.symbol() != null) {
+            stale.put(key(event.symbol()), event.symbol());
+        }
+        generation.incrementAndGet();
+    }
+
+    @EventListener
+    public void onHoldingChanged(HoldingChangedEvent event) {
+        generation.incrementAndGet();
+    }
+
+    public PerformanceReport report() throws InterruptedException {
+        long current = generation.get();
+        Cached hit = cached;
+        if (fresh(hit, current)) {
+            return hit.report;
+        }
+        synchronized (this) {
+            hit = cached;
+            if (fresh(hit, current)) {
+                return hit.report;
+            }
+            long start = System.nanoTime();
+            PerformanceReport report = compute();
+            cached = new Cached(current, report);
+            log.debug("Computed returns for {} symbols over {} transaction days in {} µs", report.symbols().size(),
+                    report.transactionDays(), (System.nanoTime() - start) / 1000);
+            return report;
+        }
+    }
+
+    /**
+     * The last report computed, without waiting for a new one; {@code null} before the first. If it
+     * is stale, it is still returned, and a recompute starts in the background.
+     */
+    public PerformanceReport cachedReport() {
+        Cached hit = cached;
+        if (!fresh(hit, generation.get()) && refreshing.compareAndSet(false, true)) {
+            try {
+                refresher.execute(this::refresh);
+            } catch (RejectedExecutionException e) {
+                refreshing.set(false);
+            }
+        }
+        return hit == null ? null : hit.report;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private void refresh() {
+        try {
+            report();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("Background returns refresh failed: {}", e.getMessage());
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    private boolean fresh(Cached hit, long current) {
+        return hit != null && hit.generation == current && clock.millis() - hit.report.asOf() < cacheTtlMs;
+    }
+
+    private void refreshLedgers() {
+        if (!loaded) {
+            stale.clear();
+            Map<String, List<TransactionEntity>> bySymbol = transactions.getAllTransactions().stream()
+                    .filter(t -> t.getSymbol() != null)
+                    .collect(Collectors.groupingBy(t -> key(t.getSymbol())));
+            bySymbol.forEach((symbol, list) -> ledgers.put(symbol, SymbolLedger.of(list)));
+            loaded = true;
+            log.debug("Loaded the transaction log for {} symbols", bySymbol.size());
+            return;
+        }
+        for (String symbol : stale.keySet()) {
+            String recorded = stale.remove(symbol);
+            ledgers.put(symbol, SymbolLedger.of(transactions.getTransactionsBySymbol(recorded)));
+        }
+    }
+
+    private PerformanceReport compute() throws InterruptedException {
+        long asOf = clock.millis();
+        int today = (int) LocalDate.now(clock).toEpochDay();
+        refreshLedgers();
+
+        Map<String, SymbolLedger> positions = new TreeMap<>();
+        ledgers.forEach((symbol, ledger) -> {
+            if (ledger.days.length > 0) {
+                positions.put(symbol, ledger);
+            }
+        });
+        for (PmsEntity asset : pmsService.getAllAssets()) {
+            if (asset.getSymbol() == null) {
+                continue;
+            }
+            String symbol = key(asset.getSymbol());
+            SymbolLedger ledger = positions.getOrDefault(symbol, SymbolLedger.EMPTY);
+            double unexplained = asset.getQuantity() - ledger.quantity;
+            if (unexplained > 0) {
+                int day = asset.getPurchaseDate() == null ? today
+                        : (int) Math.min(today, asset.getPurchaseDate().toEpochDay());
+                positions.put(symbol, ledger.withOpening(day, unexplained, asset.getBuyPrice()));
+            }
+        }
+        if (positions.isEmpty()) {
+            return new PerformanceReport(asOf, LocalDate.ofEpochDay(today), 0, 0, null, null, null, 0, List.of());
+        }
+
+        int first = positions.values().stream().mapToInt(SymbolLedger::firstDay).min().orElse(today);
+        int start = Math.min(today, Math.max(first, today - lookbackDays));
+        Map<String, PriceHistory> closes = histories.daily(positions.keySet());
+        int length = today - start + 1;
+        double opening = 0;
+        double[] values = new double[length];
+        double[] flows = new double[length];
+        double marketValue = 0;
+        double netInvested = 0;
+        // Net cash put in per day since the first flow, densely; a few thousand days at most
+        double[] dailyInvested = new double[today - Math.min(first, today) + 1];
+        int origin = today - dailyInvested.length + 1;
+        List<SymbolPerformance> symbols = new ArrayList<>(positions.size());
+        for (Map.Entry<String, SymbolLedger> entry : positions.entrySet()) {
+            String symbol = entry.getKey();
+            SymbolLedger ledger = entry.getValue();
+            Series series = series(ledger, closes.get(symbol), start, today, prices.priceOrElse(symbol, Double.NaN));
+            opening += series.opening;
+            for (int d = 0; d < length; d++) {
+                values[d] += series.values[d];
+                flows[d] += series.flows[d];
+            }
+            double value = series.values[length - 1];
+            double invested = 0;
+            for (int i = 0; i < ledger.days.length && ledger.days[i] <= today; i++) {
+                invested += ledger.invested[i];
+                dailyInvested[ledger.days[i] - origin] += ledger.invested[i];
+            }
+            marketValue += value;
+            netInvested += invested;
+            symbols.add(new SymbolPerformance(symbol, ledger.quantity, value, invested,
+                    defined(ReturnMath.timeWeighted(series.opening, series.values, series.flows)),
+                    defined(moneyWeighted(symbol, ledger.days, ledger.invested, today, value))));
+        }
+
+        int count = 0;
+        for (double amount : dailyInvested) {
+            count += amount != 0 ? 1 : 0;
+        }
+        int[] days = new int[count];
+        double[] invested = new double[count];
+        count = 0;
+        for (int d = 0; d < dailyInvested.length; d++) {
+            if (dailyInvested[d] != 0) {
+                days[count] = origin + d;
+                invested[count++] = dailyInvested[d];
+            }
+        }
+        double timeWeighted = ReturnMath.timeWeighted(opening, values, flows);
+        return new PerformanceReport(asOf, LocalDate.ofEpochDay(start), marketValue, netInvested,
+                defined(timeWeighted), defined(ReturnMath.annualise(timeWeighted, length)),
+                defined(moneyWeighted("", days, invested, today, marketValue)), days.length, symbols);
+    }
+
+    private double moneyWeighted(String key, int[] days, double[] invested, int today, double marketValue) {
+        double rate = moneyWeighted(days, invested, today, marketValue, lastRates.getOrDefault(key, 0.1));
+        if (!Double.isNaN(rate)) {
+            lastRates.put(key, rate);
+        }
+        return rate;
+    }
+
+    /**
+     * XIRR of the ledger's flows from the investor's side (money put in is negative) with the
+     * market value received today.
+     */
+    static double moneyWeighted(int[] days, double[] invested, int today, double marketValue, double guess) {
+        int n = 0;
+        while (n < days.length && days[n] <= today) {
+            n++;
+        }
+        boolean sameDay = n > 0 && days[n - 1] == today;
+        int[] flowDays = Arrays.copyOf(days, sameDay ? n : n + 1);
+        double[] amounts = new double[flowDays.length];
+        for (int i = 0; i < n; i++) {
+            amounts[i] = -invested[i];
+        }
+        flowDays[flowDays.length - 1] = today;
+        amounts[amounts.length - 1] += marketValue;
+        return ReturnMath.xirr(flowDays, amounts, guess);
+    }
+
+    /**
+     * Daily values of one symbol from {@code start} to {@code today} and the cash put in each day.
+     * A price is the close of the day, else that day's last trade, else the last one before; days
+     * before any price is known take the first one.
+     */
+    static Series series(SymbolLedger ledger, PriceHistory history, int start, int today, double livePrice) {
+        int[] closeDays = history == null ? new int[0] : history.days();
+        double[] closes = history == null ? new double[0] : history.closes();
+        int[] days = ledger.days;
+        double price = 0;
+        if (days.length > 0 && (closeDays.length == 0 || days[0] < closeDays[0])) {
+            price = ledger.tradePrice[0];
+        } else if (closeDays.length > 0) {
+            price = closes[0];
+        }
+        double quantity = 0;
+        int i = 0;
+        int h = 0;
+        int priceDay = Integer.MIN_VALUE;
+        for (; i < days.length && days[i] < start; i++) {
+            quantity += ledger.quantityChange[i];
+            price = ledger.tradePrice[i];
+            priceDay = days[i];
+        }
+        for (; h < closeDays.length && closeDays[h] < start; h++) {
+            if (closeDays[h] >= priceDay) {
+                price = closes[h];
+            }
+        }
+        double opening = quantity * price;
+        int length = today - start + 1;
+        double[] values = new double[length];
+        double[] flows = new double[length];
+        for (int d = 0; d < length; d++) {
+            int day = start + d;
+            for (; i < days.length && days[i] == day; i++) {
+                quantity += ledger.quantityChange[i];
+                flows[d] += ledger.invested[i];
+                price = ledger.tradePrice[i];
+            }
+            for (; h < closeDays.length && closeDays[h] == day; h++) {
+                price = closes[h];
+            }
+            values[d] = quantity * price;
+        }
+        if (livePrice > 0) {
+            values[length - 1] = quantity * livePrice;
+        }
+        return new Series(opening, values, flows);
+    }
+
+    record Series(double opening, double[] values, double[] flows) {
+    }
+
+    private static Double defined(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+    private static String key(String symbol) {
+        return symbol.toUpperCase(Locale.ROOT);
+    }
+
+    private record Cached(long generation, PerformanceReport report) {
+    }
+}
@@ -0,0 +1,223 @@
+package org.hsbc.performance;
+
+/**
+ * Money-weighted (XIRR) and time-weighted returns.
+ * <p>
+ * XIRR solves {@code Σ aᵢ·(1+r)^(-tᵢ) = 0}, with {@code tᵢ} in years of 365 days since the first
+ * flow, by Newton's method from 10% (or a given guess). Newton converges in a handful of steps
+ * on ordinary portfolios but can overshoot below -100% or cycle when flows are large and of mixed
+ * sign; it then falls back to Brent's method on a bracket found by scanning outwards, which always
+ * converges once the NPV changes sign.
+ */
+public final class ReturnMath {
+
+    static final double TOLERANCE = 1e-10;
+    private static final int NEWTON_ITERATIONS = 50;
+    private static final int BRENT_ITERATIONS = 200;
+    private static final double DAYS_PER_YEAR = 365;
+
+    private ReturnMath() {
+    }
+
+    /**
+     * Annualised internal rate of return of dated flows (negative paid in, positive paid out).
+     *
+     * @param days   epoch days, ascending
+     * @param amounts one flow per day
+     * @return the rate, or NaN if there is none (the flows do not change sign)
+     */
+    public static double xirr(int[] days, double[] amounts) {
+        return xirr(days, amounts, 0.1);
+    }
+
+    /**
+     * {@link #xirr(int[], double[])} starting Newton from {@code guess}, e.g. the rate before the
+     * latest price move, which usually converges in two or three steps.
+     */
+    public static double xirr(int[] days, double[] amounts, double guess) {
+        int n = days.length;
+        if (n < 2 || !changesSign(amounts)) {
+            return Double.NaN;
+        }
+        double[] years = new double[n];
+        for (int i = 0; i < n; i++) {
+            years[i] = (days[i] - days[0]) / DAYS_PER_YEAR;
+        }
+        double rate = newton(years, amounts, guess > -1 && Double.isFinite(guess) ? guess : 0.1);
+        return Double.isNaN(rate) ? brent(years, amounts) : rate;
+    }
+
+    private static boolean changesSign(double[] amounts) {
+        boolean negative = false;
+        boolean positive = false;
+        for (double amount : amounts) {
+            negative |= amount < 0;
+            positive |= amount > 0;
+        }
+        return negative && positive;
+    }
+
+    /**
+     * @return the root, or NaN if Newton leaves {@code r > -1} or does not converge
+     */
+    static double newton(double[] years, double[] amounts, double guess) {
+        double rate = guess;
+        for (int iteration = 0; iteration < NEWTON_ITERATIONS; iteration++) {
+            double logGrowth = Math.log1p(rate);
+            double npv = 0;
+            double derivative = 0;
+            for (int i = 0; i < years.length; i++) {
+                double discounted = amounts[i] * Math.exp(-years[i] * logGrowth);
+                npv += discounted;
+                derivative -= years[i] * discounted;
+            }
+            derivative /= 1 + rate;
+            if (derivative == 0 || !Double.isFinite(npv)) {
+                return Double.NaN;
+            }
+            double next = rate - npv / derivative;
+            if (!(next > -1) || !Double.isFinite(next)) {
+                return Double.NaN;
+            }
+            if (Math.abs(next - rate) < TOLERANCE * Math.max(1, Math.abs(rate))) {
+                return next;
+            }
+            rate = next;
+        }
+        return Double.NaN;
+    }
+
+    static double npv(double[] years, double[] amounts, double rate) {
+        double logGrowth = Math.log1p(rate);
+        double npv = 0;
+        for (int i = 0; i < years.length; i++) {
+            npv += amounts[i] * Math.exp(-years[i] * logGrowth);
+        }
+        return npv;
+    }
+
+    /**
+     * Brent's method on the first sign change found from 0 outwards: up to 1e6 and down towards
+     * -100%.
+     */
+    static double brent(double[] years, double[] amounts) {
+        double a = 0;
+        double fa = npv(years, amounts, a);
+        double b = Double.NaN;
+        double fb = Double.NaN;
+        for (double hi = 0.5; hi <= 1e6; hi *= 2) {
+            double f = npv(years, amounts, hi);
+            if (Math.signum(f) != Math.signum(fa)) {
+                b = hi;
+                fb = f;
+                break;
+            }
+        }
+        if (Double.isNaN(b)) {
+            for (double lo = -0.5; lo > -1 + 1e-12; lo = -1 + (lo + 1) / 2) {
+                double f = npv(years, amounts, lo);
+                if (Double.isFinite(f) && Math.signum(f) != Math.signum(fa)) {
+                    b = lo;
+                    fb = f;
+                    break;
+                }
+            }
+        }
+        if (Double.isNaN(b) || fa == 0) {
+            return fa == 0 ? a : Double.NaN;
+        }
+        double c = a;
+        double fc = fa;
+        double d = b - a;
+        double e = d;
+        for (int iteration = 0; iteration < BRENT_ITERATIONS; iteration++) {
+            if (Math.signum(fb) == Math.signum(fc)) {
+                c = a;
+                fc = fa;
+                d = b - a;
+                e = d;
+            }
+            if (Math.abs(fc) < Math.abs(fb)) {
+                a = b;
+                b = c;
+                c = a;
+                fa = fb;
+                fb = fc;
+                fc = fa;
+            }
+            double tolerance = 2 * Math.ulp(b) + 0.5 * TOLERANCE;
+            double m = (c - b) / 2;
+            if (Math.abs(m) <= tolerance || fb == 0) {
+                return b;
+            }
+            if (Math.abs(e) >= tolerance && Math.abs(fa) > Math.abs(fb)) {
+                // Inverse quadratic interpolation, or secant when only two points differ
+                double s = fb / fa;
+                double p;
+                double q;
+                if (a == c) {
+                    p = 2 * m * s;
+                    q = 1 - s;
+                } else {
+                    double r = fb / fc;
+                    double t = fa / fc;
+                    p = s * (2 * m * t * (t - r) - (b - a) * (r - 1));
+                    q = (t - 1) * (r - 1) * (s - 1);
+                }
+                if (p > 0) {
+                    q = -q;
+                } else {
+                    p = -p;
+                }
+                if (2 * p < Math.min(3 * m * q - Math.abs(tolerance * q), Math.abs(e * q))) {
+                    e = d;
+                    d = p / q;
+                } else {
+                    d = m;
+                    e = m;
+                }
+            } else {
+                d = m;
+                e = m;
+            }
+            a = b;
+            fa = fb;
+            b += Math.abs(d) > tolerance ? d : Math.copySign(tolerance, m);
+            fb = npv(years, amounts, b);
+        }
+        return b;
+    }
+
+    /**
+     * Chain-links daily returns {@code V[d] / (V[d-1] + F[d]) - 1}, with flows {@code F} (money put
+     * in, negative for money taken out) counted at the start of their day. Days with nothing
+     * invested at their start are skipped.
+     *
+     * @param opening the value before the first day
+     * @return the cumulative time-weighted return, or NaN if nothing was ever invested
+     */
+    public static double timeWeighted(double opening, double[] values, double[] flows) {
+        double growth = 1;
+        boolean invested = false;
+        double previous = opening;
+        for (int d = 0; d < values.length; d++) {
+            double base = previous + flows[d];
+            if (base > 1e-9) {
+                growth *= values[d] / base;
+                invested = true;
+            }
+            previous = values[d];
+        }
+        return invested ? growth - 1 : Double.NaN;
+    }
+
+    /**
+     * {@code (1 + r)^(365 / days) - 1}; returns over less than a year are left as they are.
+     */
+    public static double annualise(double cumulative, int days) {
+        if (Double.isNaN(cumulative) || days < DAYS_PER_YEAR) {
+            return cumulative;
+        }
+        return Math.pow(1 + cumulative, DAYS_PER_YEAR / days) - 1;
+    }
+}
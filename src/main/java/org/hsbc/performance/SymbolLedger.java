@@ -0,0 +1,97 @@
+package org.hsbc.performance;
+
+import org.hsbc.entity.TransactionEntity;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * One symbol's transactions folded into trading days: per day, the net cash put in (buys minus
+ * sales), the net change in quantity and the last trade price. Immutable; rebuilt from the
+ * symbol's transactions when one is recorded.
+ */
+final class SymbolLedger {
+
+    static final SymbolLedger EMPTY = new SymbolLedger(new int[0], new double[0], new double[0], new double[0]);
+
+    final int[] days;
+    final double[] invested;
+    final double[] quantityChange;
+    final double[] tradePrice;
+    final double quantity;
+
+    private SymbolLedger(int[] days, double[] invested, double[] quantityChange, double[] tradePrice) {
+        this.days = days;
+        this.invested = invested;
+        this.quantityChange = quantityChange;
+        this.tradePrice = tradePrice;
+        double total = 0;
+        for (double change : quantityChange) {
+            total += change;
+        }
+        this.quantity = total;
+    }
+
+    static SymbolLedger of(List<TransactionEntity> transactions) {
+        TransactionEntity[] sorted = transactions.stream()
+                .filter(t -> t.getTransactionDate() != null && t.getQuantity() > 0)
+                .sorted(Comparator.comparing(TransactionEntity::getTransactionDate))
+                .toArray(TransactionEntity[]::new);
+        int[] days = new int[sorted.length];
+        double[] invested = new double[sorted.length];
+        double[] quantityChange = new double[sorted.length];
+        double[] tradePrice = new double[sorted.length];
+        int count = 0;
+        for (TransactionEntity transaction : sorted) {
+            int day = (int) transaction.getTransactionDate().toLocalDate().toEpochDay();
+            double sign = "SELL".equalsIgnoreCase(transaction.getTransactionType()) ? -1 : 1;
+            if (count == 0 || days[count - 1] != day) {
+                days[count++] = day;
+            }
+            invested[count - 1] += sign * transaction.getQuantity() * transaction.getBuyPrice();
+            quantityChange[count - 1] += sign * transaction.getQuantity();
+            tradePrice[count - 1] = transaction.getBuyPrice();
+        }
+        return new SymbolLedger(Arrays.copyOf(days, count), Arrays.copyOf(invested, count),
+                Arrays.copyOf(quantityChange, count), Arrays.copyOf(tradePrice, count));
+    }
+
+    /**
+     * This ledger with {@code quantity} more bought at {@code price} on {@code day}: a holding that
+     * was added directly rather than traded.
+     */
+    SymbolLedger withOpening(int day, double quantity, double price) {
+        int at = Arrays.binarySearch(days, day);
+        int n = days.length;
+        if (at >= 0) {
+            double[] invested = this.invested.clone();
+            double[] quantityChange = this.quantityChange.clone();
+            invested[at] += quantity * price;
+            quantityChange[at] += quantity;
+            return new SymbolLedger(days, invested, quantityChange, tradePrice);
+        }
+        int insert = -at - 1;
+        int[] days = new int[n + 1];
+        double[] invested = new double[n + 1];
+        double[] quantityChange = new double[n + 1];
+        double[] tradePrice = new double[n + 1];
+        System.arraycopy(this.days, 0, days, 0, insert);
+        System.arraycopy(this.invested, 0, invested, 0, insert);
+        System.arraycopy(this.quantityChange, 0, quantityChange, 0, insert);
+        System.arraycopy(this.tradePrice, 0, tradePrice, 0, insert);
+        days[insert] = day;
+        invested[insert] = quantity * price;
+        quantityChange[insert] = quantity;
+        tradePrice[insert] = price;
+        System.arraycopy(this.days, insert, days, insert + 1, n - insert);
+        System.arraycopy(this.invested, insert, invested, insert + 1, n - insert);
+        System.arraycopy(this.quantityChange, insert, quantityChange, insert + 1, n - insert);
+        System.arraycopy(this.tradePrice, insert, tradePrice, insert + 1, n - insert);
+        return new SymbolLedger(days, invested, quantityChange, tradePrice);
+    }
+
+    int firstDay() {
+        return days.length == 0 ? Integer.MAX_VALUE : days[0];
+    }
+}
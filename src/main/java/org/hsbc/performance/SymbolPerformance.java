@@ -0,0 +1,13 @@
+package org.hsbc.performance;
+
+/**
+ * One symbol's returns; null where a return is undefined (nothing invested, or flows that never
+ * change sign).
+ *
+ * @param netInvested         cash put into the symbol over all its transactions, less sale proceeds
+ * @param timeWeightedReturn  cumulative over the report's window
+ * @param moneyWeightedReturn annualised internal rate of return of every flow and the market value
+ */
+public record SymbolPerformance(String symbol, double quantity, double marketValue, double netInvested,
+                                Double timeWeightedReturn, Double moneyWeightedReturn) {
+}
@@ -0,0 +1,17 @@
+package org.hsbc.performance;
+
+import org.hsbc.entity.TransactionEntity;
+
+/**
+ * Published by {@code TransactionSeviceimp} once a transaction has been saved, changed or deleted,
+ * so the symbol's ledger is re-read only after the change is visible.
+ *
+ * @param transaction the new transaction as saved; null when one was changed or deleted, and the
+ *                    symbol's history has to be read again
+ */
+public record TransactionRecordedEvent(String symbol, TransactionEntity transaction) {
+
+    public TransactionRecordedEvent(String symbol) {
+        this(symbol, null);
+    }
+}
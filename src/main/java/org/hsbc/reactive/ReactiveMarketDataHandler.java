@@ -0,0 +1,182 @@
+package org.hsbc.reactive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.util.UriBuilder;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Non-blocking counterpart of {@code StockDataController}: the same {@code /api/yfdata} routes,
+ * status codes and error bodies, but the upstream body is relayed as a stream of {@link DataBuffer}s
+ * rather than read into a {@code String}, and no thread waits on Flask.
+ * <p>
+ * The client's {@code Accept-Encoding} is forwarded upstream and Flask's {@code Content-Encoding}
+ * is passed back, so compressed bodies are relayed without being decoded.
+ */
+public class ReactiveMarketDataHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveMarketDataHandler.class);
+
+    private final WebClient webClient;
+
+    public ReactiveMarketDataHandler(WebClient webClient) {
+        this.webClient = webClient;
+    }
+
+    public RouterFunction<ServerResponse> routes() {
+        return RouterFunctions.route()
+                .path("/api/yfdata", builder -> builder
+                        .GET("/stocks/{symbol}", request -> get(request, path("/api/stocks/{symbol}", symbol(request)),
+                                notFound("Stock not found"), "Error fetching stock data"))
+                        .GET("/crypto/{symbol}", request -> get(request, path("/api/crypto/{symbol}", symbol(request)),
+                                notFound("Cryptocurrency not found"), "Error fetching crypto data"))
+                        .GET("/mutual-funds/{symbol}", request -> get(request, path("/api/mutual-funds/{symbol}", symbol(request)),
+                                notFound("Mutual fund not found"), "Error fetching mutual fund data"))
+                        .GET("/commodities/{symbol}", request -> get(request, path("/api/commodities/{symbol}", symbol(request)),
+                                notFound("Commodity not found"), "Error fetching commodity data"))
+                        .GET("/history/{symbol}", this::history)
+                        .GET("/news/{symbol}", request -> get(request, path("/api/news/{symbol}", symbol(request)),
+                                notFound("News not found"), "Error fetching news"))
+                        .GET("/search", this::search)
+                        .POST("/portfolio/performers", request -> post(request, "/api/portfolio/performers",
+                                "Error analyzing portfolio performers"))
+                        .POST("/portfolio/recommendations", request -> post(request, "/api/portfolio/recommendations",
+                                "Error generating recommendations"))
+                        .GET("/stock/{symbol}/analysis", this::analysis)
+                        .GET("/health", this::health))
+                .build();
+    }
+
+    private Mono<ServerResponse> history(ServerRequest request) {
+        String period = request.queryParam("period").orElse("1MO").toUpperCase();
+        Optional<String> interval = request.queryParam("interval").filter(i -> !i.isEmpty()).map(String::toLowerCase);
+        return get(request, uri -> {
+            uri.path("/api/history/{symbol}").queryParam("period", "{period}");
+            interval.ifPresent(i -> uri.queryParam("interval", "{interval}"));
+            return uri.build(Map.of("symbol", symbol(request), "period", period, "interval", interval.orElse("")));
+        }, notFound("History not found"), "Error fetching history");
+    }
+
+    private Mono<ServerResponse> search(ServerRequest request) {
+        Optional<String> q = request.queryParam("q").map(String::trim).filter(s -> !s.isEmpty());
+        if (q.isEmpty()) {
+            return error(HttpStatus.BAD_REQUEST, "Query parameter 'q' is required");
+        }
+        return get(request, uri -> uri.path("/api/search").queryParam("q", "{q}").build(q.get()),
+                e -> null, "Error searching assets");
+    }
+
+    private Mono<ServerResponse> analysis(ServerRequest request) {
+        boolean inPortfolio = request.queryParam("inPortfolio").map(Boolean::parseBoolean).orElse(false);
+        return Mono.fromCallable(() -> request.queryParam("buyPrice").map(Double::valueOf))
+                .flatMap(buyPrice -> {
+                    if (inPortfolio && buyPrice.isEmpty()) {
+                        return error(HttpStatus.BAD_REQUEST, "buyPrice is required when inPortfolio=true");
+                    }
+                    return get(request, uri -> {
+                        uri.path("/api/stock/{symbol}/analysis").queryParam("inPortfolio", inPortfolio);
+                        buyPrice.ifPresent(p -> uri.queryParam("buyPrice", p));
+                        return uri.build(symbol(request));
+                    }, notFound("Unable to analyze stock"), "Error analyzing stock");
+                })
+                .onErrorResume(NumberFormatException.class,
+                        e -> error(HttpStatus.BAD_REQUEST, "buyPrice must be a number"));
+    }
+
+    private Mono<ServerResponse> health(ServerRequest request) {
+        return relay(request, webClient.get().uri("/health"))
+                .onErrorResume(e -> {
+                    logger.error("Health check failed: Flask API is not reachable - {}", e.getMessage());
+                    return ServerResponse.status(HttpStatus.SERVICE_UNAVAILABLE)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .bodyValue(Map.of("status", "unhealthy", "error", "Flask API is not reachable: " + e.getMessage()));
+                });
+    }
+
+    /**
+     * Relays a GET built from {@code uri}; user input goes in as template variables so it is encoded
+     * rather than parsed as part of the template.
+     */
+    private Mono<ServerResponse> get(ServerRequest request, Function<UriBuilder, URI> uri,
+                                     Function<WebClientResponseException, String> clientError, String errorPrefix) {
+        return handleErrors(relay(request, webClient.get().uri(uri)), clientError, errorPrefix);
+    }
+
+    private Mono<ServerResponse> post(ServerRequest request, String uri, String errorPrefix) {
+        WebClient.RequestHeadersSpec<?> upstream = webClient.post().uri(uri)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromDataBuffers(request.bodyToFlux(DataBuffer.class)));
+        return handleErrors(relay(request, upstream),
+                e -> e.getStatusCode().value() == 400 ? "Invalid request: " + e.getMessage() : null, errorPrefix);
+    }
+
+    /** Streams a successful upstream response back; error statuses surface as WebClientResponseException. */
+    private Mono<ServerResponse> relay(ServerRequest request, WebClient.RequestHeadersSpec<?> upstream) {
+        String acceptEncoding = request.headers().firstHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding != null) {
+            upstream.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return upstream.retrieve()
+                .toEntityFlux(DataBuffer.class)
+                .flatMap(entity -> {
+                    ServerResponse.BodyBuilder response = ServerResponse.ok().contentType(MediaType.APPLICATION_JSON);
+                    String contentEncoding = entity.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+                    if (contentEncoding != null) {
+                        response.header(HttpHeaders.CONTENT_ENCODING, contentEncoding);
+                    }
+                    return response.body(BodyInserters.fromDataBuffers(entity.getBody()));
+                });
+    }
+
+    private Mono<ServerResponse> handleErrors(Mono<ServerResponse> response,
+                                              Function<WebClientResponseException, String> clientError,
+                                              String errorPrefix) {
+        return response
+                .onErrorResume(WebClientResponseException.class, e -> {
+                    String message = clientError.apply(e);
+                    if (message != null) {
+                        logger.warn("{}: {}", message, e.getMessage());
+                        return error(HttpStatus.valueOf(e.getStatusCode().value()), message);
+                    }
+                    return Mono.error(e);
+                })
+                .onErrorResume(e -> {
+                    logger.error("{}: {}", errorPrefix, e.getMessage());
+                    return error(HttpStatus.INTERNAL_SERVER_ERROR, errorPrefix + ": " + e.getMessage());
+                });
+    }
+
+    private static Function<UriBuilder, URI> path(String template, String symbol) {
+        return uri -> uri.path(template).build(symbol);
+    }
+
+    private static Function<WebClientResponseException, String> notFound(String message) {
+        return e -> e.getStatusCode().value() == 404 ? message : null;
+    }
+
+    private static String symbol(ServerRequest request) {
+        return request.pathVariable("symbol").toUpperCase();
+    }
+
+    private static Mono<ServerResponse> error(HttpStatus status, String message) {
+        return ServerResponse.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("error", message));
+    }
+}
@@ -0,0 +1,65 @@
+package org.hsbc.reactive;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.reactive.CorsWebFilter;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Starts the non-blocking {@code /api/yfdata} proxy on {@code pms.reactive-proxy.port} next to the
+ * servlet application. Enabled with the {@code reactive-proxy} profile.
+ */
+@Configuration
+@Profile("reactive-proxy")
+public class ReactiveProxyConfig {
+
+    @Bean
+    public ReactiveMarketDataHandler reactiveMarketDataHandler(
+            ObjectProvider<WebClient.Builder> webClientBuilder,
+            @Value("${flask.api.url:http://localhost:5000}") String flaskApiUrl,
+            @Value("${pms.reactive-proxy.max-connections:500}") int maxConnections,
+            @Value("${pms.reactive-proxy.response-timeout-seconds:30}") long responseTimeoutSeconds) {
+        ConnectionProvider connections = ConnectionProvider.builder("flask")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        HttpClient httpClient = HttpClient.create(connections)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 5000)
+                .responseTimeout(Duration.ofSeconds(responseTimeoutSeconds));
+        WebClient webClient = webClientBuilder.getIfAvailable(WebClient::builder)
+                .baseUrl(flaskApiUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+        return new ReactiveMarketDataHandler(webClient);
+    }
+
+    @Bean
+    public ReactiveProxyServer reactiveProxyServer(ReactiveMarketDataHandler handler,
+                                                   @Value("${pms.reactive-proxy.port:8081}") int port) {
+        CorsConfiguration cors = new CorsConfiguration();
+        cors.setAllowedOriginPatterns(List.of("*"));
+        cors.setAllowedHeaders(List.of("*"));
+        cors.setAllowedMethods(List.of("GET", "POST", "OPTIONS"));
+        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+        source.registerCorsConfiguration("/**", cors);
+
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .webFilter(new CorsWebFilter(source))
+                .build();
+        return new ReactiveProxyServer(RouterFunctions.toHttpHandler(handler.routes(), strategies), port);
+    }
+}
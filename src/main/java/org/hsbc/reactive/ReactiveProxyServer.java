@@ -0,0 +1,53 @@
+package org.hsbc.reactive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * A Reactor Netty server, separate from Tomcat, serving an {@link HttpHandler} on its own port.
+ */
+public class ReactiveProxyServer implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveProxyServer.class);
+
+    private final HttpHandler handler;
+    private final int port;
+    private volatile DisposableServer server;
+
+    public ReactiveProxyServer(HttpHandler handler, int port) {
+        this.handler = handler;
+        this.port = port;
+    }
+
+    @Override
+    public void start() {
+        server = HttpServer.create()
+                .port(port)
+                .handle(new ReactorHttpHandlerAdapter(handler))
+                .bindNow();
+        log.info("Reactive market-data proxy listening on port {}", server.port());
+    }
+
+    @Override
+    public void stop() {
+        DisposableServer s = server;
+        server = null;
+        if (s != null) {
+            s.disposeNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    public int getPort() {
+        return server.port();
+    }
+}
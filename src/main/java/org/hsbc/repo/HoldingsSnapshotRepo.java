@@ -0,0 +1,22 @@
+package org.hsbc.repo;
+
+import org.hsbc.entity.HoldingsSnapshotEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface HoldingsSnapshotRepo extends JpaRepository<HoldingsSnapshotEntity, Long> {
+
+    // The latest snapshot taken at or before asOf
+    Optional<HoldingsSnapshotEntity> findTopByAsOfLessThanEqualOrderByAsOfDescIdDesc(LocalDateTime asOf);
+
+    Optional<HoldingsSnapshotEntity> findTopByOrderByAsOfDescIdDesc();
+
+    // Snapshots a back-dated transaction has made wrong
+    @Transactional
+    long deleteByAsOfGreaterThanEqual(LocalDateTime from);
+}
@@ -0,0 +1,20 @@
+package org.hsbc.repo;
+
+import org.hsbc.entity.PortfolioValuationEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface PortfolioValuationRepo extends JpaRepository<PortfolioValuationEntity, Long> {
+
+    // A range scan of the unique index on valuationDate
+    List<PortfolioValuationEntity> findByValuationDateBetweenOrderByValuationDate(LocalDate from, LocalDate to);
+
+    // Rows a backfill is about to rewrite
+    @Transactional
+    long deleteByValuationDateBetween(LocalDate from, LocalDate to);
+}
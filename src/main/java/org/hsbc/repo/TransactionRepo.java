@@ -2,11 +2,23 @@ package org.hsbc.repo;
 
 import org.hsbc.entity.TransactionEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface TransactionRepo extends JpaRepository<TransactionEntity, Long> {
     List<TransactionEntity> findBySymbol(String symbol);
+
+    // In the order they are replayed
+    @Query("SELECT t FROM TransactionEntity t WHERE t.transactionDate <= :until "
+            + "ORDER BY t.transactionDate, t.transactionId")
+    List<TransactionEntity> findUntil(@Param("until") LocalDateTime until);
+
+    @Query("SELECT t FROM TransactionEntity t WHERE t.transactionDate > :after AND t.transactionDate <= :until "
+            + "ORDER BY t.transactionDate, t.transactionId")
+    List<TransactionEntity> findBetween(@Param("after") LocalDateTime after, @Param("until") LocalDateTime until);
 }
@@ -0,0 +1,11 @@
+package org.hsbc.risk;
+
+import org.hsbc.market.AssetClass;
+
+/**
+ * @param tradeValue market value to buy (positive) or sell (negative) to move from the current to
+ *                   the target weight
+ */
+public record Allocation(String symbol, AssetClass assetClass, double currentWeight, double targetWeight,
+                         double tradeValue) {
+}
@@ -0,0 +1,15 @@
+package org.hsbc.risk;
+
+import java.util.List;
+
+/**
+ * @param kind         "correlation" or "covariance" (of daily log returns)
+ * @param observations daily returns the matrix is based on
+ * @param firstDay     first day of the window, ISO date
+ * @param lastDay      last day of the window, ISO date
+ * @param matrix       rows and columns follow {@code symbols}
+ * @param excluded     held symbols left out for lack of price history
+ */
+public record CorrelationReport(long asOf, String kind, int observations, String firstDay, String lastDay,
+                                List<String> symbols, List<String> excluded, double[][] matrix) {
+}
@@ -0,0 +1,129 @@
+package org.hsbc.risk;
+
+import org.hsbc.exception.InvalidRequestException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Covariance and correlation of the holdings' daily log returns, kept up to date incrementally by
+ * a {@link CovarianceTracker}.
+ * <p>
+ * Each request aligns the current {@link Exposure} (histories come from the
+ * {@link org.hsbc.market.PriceHistoryClient} cache). If the symbols are unchanged, new daily bars
+ * are rolled into the tracker and the oldest dropped; otherwise it is rebuilt. The matrices are
+ * cached until the tracker next changes, so repeated requests within a day only pay for the
+ * alignment.
+ */
+@Component
+public class CorrelationService {
+
+    private static final Logger log = LoggerFactory.getLogger(CorrelationService.class);
+
+    private final ExposureService exposures;
+    private CovarianceTracker tracker;
+    private List<String> excluded = List.of();
+    private CorrelationReport correlation;
+    private CorrelationReport covariance;
+    private ReturnStatistics statistics;
+
+    public CorrelationService(ExposureService exposures) {
+        this.exposures = exposures;
+    }
+
+    /**
+     * @param kind "correlation" or "covariance" (case-insensitive), null for correlation
+     * @throws InvalidRequestException for any other kind
+     */
+    public CorrelationReport matrix(String kind) throws InterruptedException {
+        boolean wantCovariance = kind(kind);
+        Exposure exposure = exposures.current();
+        synchronized (this) {
+            sync(exposure);
+            if (wantCovariance) {
+                return covarianceReport();
+            }
+            if (correlation == null) {
+                correlation = report("correlation", tracker.correlation());
+            }
+            return correlation;
+        }
+    }
+
+    /**
+     * Mean and covariance of the columns of {@code exposure}'s returns, brought up to date with it
+     * first. The same instance is returned until the tracker next changes.
+     */
+    public synchronized ReturnStatistics statistics(Exposure exposure) {
+        sync(exposure);
+        if (statistics == null) {
+            CorrelationReport covariance = covarianceReport();
+            statistics = new ReturnStatistics(tracker.symbols(), tracker.observations(), tracker.mean(),
+                    covariance.matrix());
+        }
+        return statistics;
+    }
+
+    private CorrelationReport covarianceReport() {
+        if (covariance == null) {
+            covariance = report("covariance", tracker.covariance());
+        }
+        return covariance;
+    }
+
+    private void sync(Exposure exposure) {
+        ReturnMatrix returns = exposure.returns();
+        if (!excluded.equals(exposure.excluded())) {
+            excluded = exposure.excluded();
+            correlation = null;
+            covariance = null;
+        }
+        if (tracker != null && tracker.lastDay() == lastDay(returns) && tracker.firstDay() == firstDay(returns)
+                && tracker.symbols().equals(returns.symbols())) {
+            return;
+        }
+        long start = System.nanoTime();
+        if (tracker != null && tracker.advance(returns)) {
+            log.debug("Rolled correlation window to {} in {} µs", tracker.lastDay(),
+                    (System.nanoTime() - start) / 1000);
+        } else {
+            tracker = CovarianceTracker.build(returns);
+            log.debug("Rebuilt correlation of {} symbols over {} days in {} µs", returns.assets(),
+                    returns.observations(), (System.nanoTime() - start) / 1000);
+        }
+        correlation = null;
+        covariance = null;
+        statistics = null;
+    }
+
+    private CorrelationReport report(String kind, double[][] matrix) {
+        return new CorrelationReport(System.currentTimeMillis(), kind, tracker.observations(),
+                isoDate(tracker.firstDay()), isoDate(tracker.lastDay()), tracker.symbols(), excluded, matrix);
+    }
+
+    private static int firstDay(ReturnMatrix returns) {
+        return returns.observations() == 0 ? 0 : returns.days()[0];
+    }
+
+    private static int lastDay(ReturnMatrix returns) {
+        return returns.observations() == 0 ? 0 : returns.days()[returns.observations() - 1];
+    }
+
+    private static String isoDate(int epochDay) {
+        return epochDay == 0 ? null : LocalDate.ofEpochDay(epochDay).toString();
+    }
+
+    private static boolean kind(String kind) {
+        if (kind == null || kind.equalsIgnoreCase("correlation")) {
+            return false;
+        }
+        if (kind.toLowerCase(Locale.ROOT).equals("covariance")) {
+            return true;
+        }
+        throw new InvalidRequestException("kind must be correlation or covariance");
+    }
+}
@@ -0,0 +1,271 @@
+package org.hsbc.risk;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Running mean and co-moment of daily log returns over a sliding window of days, so covariance and
+ * correlation matrices follow new daily bars without going back to the whole history.
+ * <p>
+ * Adding or dropping a day is a Welford rank-1 update, O(n²) instead of the O(n²·T) of a rebuild.
+ * A rebuild centres the window and forms the co-moment in {@value #TILE}×{@value #TILE} tiles of
+ * the lower triangle, in parallel over tiles; each tile is accumulated row by row as contiguous
+ * axpys so it stays in cache. Only the lower triangle of the co-moment is kept (row-major in a
+ * flat n×n array).
+ * <p>
+ * Rolling updates slowly accumulate rounding error, so {@link #advance} asks for a rebuild once
+ * as many days have been added as the window holds. Not thread-safe.
+ */
+public final class CovarianceTracker {
+
+    static final int TILE = 64;
+    private static final int PARALLEL_ASSETS = 256;
+
+    private final List<String> symbols;
+    private final int n;
+    private final ArrayDeque<Day> window = new ArrayDeque<>();
+    private final double[] mean;
+    private final double[] comoment;
+    private final double[] scratch;
+    private int updatesSinceBuild;
+
+    private CovarianceTracker(List<String> symbols) {
+        this.symbols = symbols;
+        this.n = symbols.size();
+        this.mean = new double[n];
+        this.comoment = new double[n * n];
+        this.scratch = new double[n];
+    }
+
+    public static CovarianceTracker build(ReturnMatrix returns) {
+        CovarianceTracker tracker = new CovarianceTracker(returns.symbols());
+        int t = returns.observations();
+        int n = tracker.n;
+        double[][] centred = new double[t][];
+        for (int d = 0; d < t; d++) {
+            double[] row = returns.row(d);
+            tracker.window.addLast(new Day(returns.days()[d], row));
+            for (int i = 0; i < n; i++) {
+                tracker.mean[i] += row[i];
+            }
+        }
+        for (int i = 0; i < n && t > 0; i++) {
+            tracker.mean[i] /= t;
+        }
+        for (int d = 0; d < t; d++) {
+            double[] row = returns.row(d);
+            double[] c = new double[n];
+            for (int i = 0; i < n; i++) {
+                c[i] = row[i] - tracker.mean[i];
+            }
+            centred[d] = c;
+        }
+        tiles(n, (rowFrom, rowTo, colFrom, colTo) ->
+                tracker.accumulateTile(centred, rowFrom, rowTo, colFrom, colTo));
+        return tracker;
+    }
+
+    /**
+     * Runs {@code action} over the lower-triangle tiles of an n×n matrix, in parallel if it is large.
+     */
+    private static void tiles(int n, TileAction action) {
+        int blocks = (n + TILE - 1) / TILE;
+        int[][] pairs = new int[blocks * (blocks + 1) / 2][];
+        int p = 0;
+        for (int bi = 0; bi < blocks; bi++) {
+            for (int bj = 0; bj <= bi; bj++) {
+                pairs[p++] = new int[]{bi, bj};
+            }
+        }
+        IntStream indices = IntStream.range(0, pairs.length);
+        (n >= PARALLEL_ASSETS ? indices.parallel() : indices).forEach(i -> {
+            int bi = pairs[i][0];
+            int bj = pairs[i][1];
+            action.run(bi * TILE, Math.min(n, (bi + 1) * TILE), bj * TILE, Math.min(n, (bj + 1) * TILE));
+        });
+    }
+
+    private void accumulateTile(double[][] centred, int rowFrom, int rowTo, int colFrom, int colTo) {
+        for (double[] x : centred) {
+            for (int i = rowFrom; i < rowTo; i++) {
+                double xi = x[i];
+                int base = i * n;
+                int to = Math.min(colTo, i + 1);
+                for (int j = colFrom; j < to; j++) {
+                    comoment[base + j] += xi * x[j];
+                }
+            }
+        }
+    }
+
+    /**
+     * Brings the window in line with {@code returns} (same symbols, the latest lookback) by adding
+     * the days after the last one tracked and dropping those before its first.
+     *
+     * @return false if the windows do not line up, or enough days have rolled through that the
+     * tracker should be rebuilt; nothing is changed then
+     */
+    public boolean advance(ReturnMatrix returns) {
+        int[] days = returns.days();
+        if (!returns.symbols().equals(symbols) || days.length < 2 || window.isEmpty()) {
+            return false;
+        }
+        // The tracked days from days[0] on must be a prefix of days
+        int k = 0;
+        for (Day day : window) {
+            if (day.day < days[0]) {
+                continue;
+            }
+            if (k >= days.length || days[k] != day.day) {
+                return false;
+            }
+            k++;
+        }
+        if (k == 0 || updatesSinceBuild + days.length - k > window.size()) {
+            return false;
+        }
+        for (int t = k; t < days.length; t++) {
+            add(days[t], returns.row(t));
+        }
+        while (window.peekFirst().day < days[0]) {
+            removeOldest();
+        }
+        return true;
+    }
+
+    /**
+     * Welford: with {@code δ = x - mean} before and {@code ε = x - mean} after the mean moves,
+     * {@code M += δ·εᵀ}.
+     */
+    void add(int day, double[] x) {
+        window.addLast(new Day(day, x));
+        int count = window.size();
+        double[] before = scratch;
+        for (int i = 0; i < n; i++) {
+            before[i] = x[i] - mean[i];
+            mean[i] += before[i] / count;
+        }
+        rankOneUpdate(before, x, 1);
+        updatesSinceBuild++;
+    }
+
+    /**
+     * The inverse of {@link #add}: {@code mean' = (count·mean - x) / (count - 1)} and
+     * {@code M -= (x - mean')·(x - mean)ᵀ}.
+     */
+    void removeOldest() {
+        double[] x = window.removeFirst().returns;
+        int count = window.size();
+        double[] after = scratch;
+        for (int i = 0; i < n; i++) {
+            double previous = count == 0 ? 0 : ((count + 1) * mean[i] - x[i]) / count;
+            after[i] = x[i] - previous;
+        }
+        // M -= (x - mean')(x - mean)ᵀ, with mean still the value before removal
+        rankOneUpdate(after, x, -1);
+        for (int i = 0; i < n; i++) {
+            mean[i] = x[i] - after[i];
+        }
+    }
+
+    /**
+     * {@code M[i][j] += sign · u[i] · (x[j] - mean[j])} over the lower triangle.
+     */
+    private void rankOneUpdate(double[] u, double[] x, double sign) {
+        IntStream rows = IntStream.range(0, n);
+        (n >= PARALLEL_ASSETS ? rows.parallel() : rows).forEach(i -> {
+            double ui = sign * u[i];
+            int base = i * n;
+            for (int j = 0; j <= i; j++) {
+                comoment[base + j] += ui * (x[j] - mean[j]);
+            }
+        });
+    }
+
+    public List<String> symbols() {
+        return symbols;
+    }
+
+    public int observations() {
+        return window.size();
+    }
+
+    public int firstDay() {
+        return window.isEmpty() ? 0 : window.peekFirst().day;
+    }
+
+    public int lastDay() {
+        return window.isEmpty() ? 0 : window.peekLast().day;
+    }
+
+    /**
+     * Mean daily log return per symbol (a copy).
+     */
+    public double[] mean() {
+        return mean.clone();
+    }
+
+    /**
+     * Sample covariance of daily log returns, zero if fewer than two days are tracked.
+     */
+    public double[][] covariance() {
+        int count = window.size();
+        double scale = count > 1 ? 1.0 / (count - 1) : 0;
+        double[][] out = new double[n][n];
+        IntStream rows = IntStream.range(0, n);
+        (n >= PARALLEL_ASSETS ? rows.parallel() : rows).forEach(i -> {
+            int base = i * n;
+            for (int j = 0; j <= i; j++) {
+                out[i][j] = comoment[base + j] * scale;
+            }
+        });
+        mirror(out);
+        return out;
+    }
+
+    /**
+     * Pearson correlation; a symbol whose price never moved correlates 0 with everything but
+     * itself.
+     */
+    public double[][] correlation() {
+        double[] sd = new double[n];
+        for (int i = 0; i < n; i++) {
+            sd[i] = Math.sqrt(Math.max(comoment[i * n + i], 0));
+        }
+        double[][] out = new double[n][n];
+        IntStream rows = IntStream.range(0, n);
+        (n >= PARALLEL_ASSETS ? rows.parallel() : rows).forEach(i -> {
+            int base = i * n;
+            for (int j = 0; j < i; j++) {
+                double denominator = sd[i] * sd[j];
+                out[i][j] = denominator > 0 ? Math.max(-1, Math.min(1, comoment[base + j] / denominator)) : 0;
+            }
+            out[i][i] = 1;
+        });
+        mirror(out);
+        return out;
+    }
+
+    /**
+     * Copies the lower triangle onto the upper one, a tile at a time so the transposed writes stay
+     * within a few cache lines per row.
+     */
+    private void mirror(double[][] lower) {
+        tiles(n, (rowFrom, rowTo, colFrom, colTo) -> {
+            for (int i = rowFrom; i < rowTo; i++) {
+                int to = Math.min(colTo, i);
+                for (int j = colFrom; j < to; j++) {
+                    lower[j][i] = lower[i][j];
+                }
+            }
+        });
+    }
+
+    private interface TileAction {
+        void run(int rowFrom, int rowTo, int colFrom, int colTo);
+    }
+
+    private record Day(int day, double[] returns) {
+    }
+}
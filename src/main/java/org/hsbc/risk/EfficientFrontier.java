@@ -0,0 +1,21 @@
+package org.hsbc.risk;
+
+import org.hsbc.market.AssetClass;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @param portfolioValue  market value of the positions optimised over
+ * @param maxAssetWeight  largest weight allowed in any one holding
+ * @param maxClassWeights largest total weight allowed per asset class
+ * @param current         where the current weights sit
+ * @param points          frontier from the minimum-variance to the highest-return portfolio
+ * @param excluded        held symbols left out for lack of price history
+ */
+public record EfficientFrontier(long asOf, int observations, double portfolioValue, double riskFreeRate,
+                                double maxAssetWeight, Map<AssetClass, Double> maxClassWeights,
+                                FrontierPoint current, List<FrontierPoint> points,
+                                OptimizedPortfolio minimumVariance, OptimizedPortfolio maximumSharpe,
+                                List<String> excluded) {
+}
@@ -0,0 +1,23 @@
+package org.hsbc.risk;
+
+import org.hsbc.market.AssetClass;
+
+import java.util.List;
+
+/**
+ * Current positions alongside their aligned price history.
+ *
+ * @param values       market value per column of {@code returns}
+ * @param assetClasses asset class per column of {@code returns}
+ * @param excluded     held symbols left out for lack of price history
+ */
+public record Exposure(double[] values, List<AssetClass> assetClasses, ReturnMatrix returns, List<String> excluded) {
+
+    public double total() {
+        double total = 0;
+        for (double value : values) {
+            total += value;
+        }
+        return total;
+    }
+}
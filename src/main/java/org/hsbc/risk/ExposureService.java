@@ -0,0 +1,75 @@
+package org.hsbc.risk;
+
+import org.hsbc.entity.PmsEntity;
+import org.hsbc.market.AssetClass;
+import org.hsbc.market.PriceHistory;
+import org.hsbc.market.PriceHistoryClient;
+import org.hsbc.market.PriceTable;
+import org.hsbc.service.PmsService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Builds the {@link Exposure} the risk calculations run on: market value per held symbol at the
+ * latest table price, and the symbols' daily history aligned over the latest
+ * {@code pms.risk.lookback-days} returns.
+ */
+@Component
+public class ExposureService {
+
+    private final PmsService pmsService;
+    private final PriceTable prices;
+    private final PriceHistoryClient history;
+    private final int lookback;
+
+    public ExposureService(PmsService pmsService, PriceTable prices, PriceHistoryClient history,
+                           @Value("${pms.risk.lookback-days:250}") int lookback) {
+        this.pmsService = pmsService;
+        this.prices = prices;
+        this.history = history;
+        this.lookback = lookback;
+    }
+
+    public Exposure current() throws InterruptedException {
+        Map<String, AssetClass> classes = new LinkedHashMap<>();
+        Map<String, Double> positions = positions(classes);
+        Map<String, PriceHistory> histories = history.daily(positions.keySet());
+        List<PriceHistory> covered = new ArrayList<>();
+        List<String> excluded = new ArrayList<>();
+        for (String symbol : positions.keySet()) {
+            PriceHistory h = histories.get(symbol);
+            if (h != null && h.size() > 1) {
+                covered.add(h);
+            } else {
+                excluded.add(symbol);
+            }
+        }
+        double[] values = new double[covered.size()];
+        List<AssetClass> assetClasses = new ArrayList<>(covered.size());
+        for (int i = 0; i < values.length; i++) {
+            values[i] = positions.get(covered.get(i).symbol());
+            assetClasses.add(classes.get(covered.get(i).symbol()));
+        }
+        return new Exposure(values, assetClasses, ReturnMatrix.align(covered, lookback), excluded);
+    }
+
+    private Map<String, Double> positions(Map<String, AssetClass> classes) {
+        Map<String, Double> positions = new LinkedHashMap<>();
+        for (PmsEntity asset : pmsService.getAllAssets()) {
+            if (asset.getSymbol() == null || asset.getQuantity() == 0) {
+                continue;
+            }
+            String symbol = asset.getSymbol().toUpperCase(Locale.ROOT);
+            double value = prices.priceOrElse(symbol, asset.getCurrentPrice()) * asset.getQuantity();
+            positions.merge(symbol, value, Double::sum);
+            classes.putIfAbsent(symbol, AssetClass.of(asset.getAssetType()));
+        }
+        return positions;
+    }
+}
@@ -0,0 +1,7 @@
+package org.hsbc.risk;
+
+/**
+ * A portfolio on (or, for the current one, off) the efficient frontier, annualised.
+ */
+public record FrontierPoint(double expectedReturn, double volatility, double sharpeRatio) {
+}
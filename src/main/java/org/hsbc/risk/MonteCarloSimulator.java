@@ -0,0 +1,266 @@
+package org.hsbc.risk;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Simulates the value of a set of positions {@code horizon} trading days ahead.
+ * <ul>
+ *     <li>{@link Method#GBM}: correlated geometric Brownian motion with the mean and covariance of
+ *     the historical daily log returns. The horizon's log return is drawn in one step (mean
+ *     {@code h·μ}, covariance {@code h·Σ}). Normals are correlated by a Cholesky factor of Σ, or,
+ *     when there are more assets than it pays for, by the centred return matrix itself (rank
+ *     {@code T}, same covariance), whichever is cheaper.</li>
+ *     <li>{@link Method#BOOTSTRAP}: each path sums {@code horizon} historical days drawn with
+ *     replacement, keeping the cross-section of every day intact.</li>
+ * </ul>
+ * Paths are split into fork-join tasks down to {@value #LEAF_PATHS} paths. Each task owns a
+ * {@link SplittableRandom} split from its parent's, so results depend on the seed but not on the
+ * number of threads. Leaves reuse per-thread scratch buffers and write into disjoint slices of one
+ * result array, so there is nothing shared to contend on.
+ */
+public final class MonteCarloSimulator {
+
+    public enum Method { GBM, BOOTSTRAP }
+
+    static final int LEAF_PATHS = 4096;
+
+    private static final ThreadLocal<double[]> SCRATCH = ThreadLocal.withInitial(() -> new double[0]);
+
+    private MonteCarloSimulator() {
+    }
+
+    /**
+     * @return the simulated portfolio value of each path, unsorted
+     */
+    public static double[] simulate(double[] values, ReturnMatrix returns, Method method, int paths, int horizon,
+                                    long seed, ForkJoinPool pool) {
+        if (returns.observations() < 2) {
+            throw new IllegalArgumentException("At least two days of returns are needed to simulate");
+        }
+        Model model = method == Method.GBM ? gbm(values, returns, horizon) : new Bootstrap(values, returns, horizon);
+        double[] out = new double[paths];
+        pool.invoke(new PathTask(model, out, 0, paths, new SplittableRandom(seed)));
+        return out;
+    }
+
+    private static Model gbm(double[] values, ReturnMatrix returns, int horizon) {
+        int n = values.length;
+        int t = returns.observations();
+        double[] mean = new double[n];
+        for (int d = 0; d < t; d++) {
+            double[] row = returns.row(d);
+            for (int i = 0; i < n; i++) {
+                mean[i] += row[i];
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            mean[i] /= t;
+        }
+        // Rows (r_d - μ) / √(T-1): their cross-products sum to the sample covariance
+        double[][] factor = new double[t][n];
+        double scale = 1 / Math.sqrt(t - 1);
+        for (int d = 0; d < t; d++) {
+            double[] row = returns.row(d);
+            for (int i = 0; i < n; i++) {
+                factor[d][i] = (row[i] - mean[i]) * scale;
+            }
+        }
+        double[] drift = new double[n];
+        for (int i = 0; i < n; i++) {
+            drift[i] = mean[i] * horizon;
+        }
+        double volatilityScale = Math.sqrt(horizon);
+        if ((n + 1) / 2.0 < t) {
+            double[] cholesky = cholesky(factor, n);
+            if (cholesky != null) {
+                return new CholeskyGbm(values, drift, volatilityScale, byColumn(cholesky, n));
+            }
+        }
+        return new FactorGbm(values, drift, volatilityScale, factor);
+    }
+
+    /**
+     * Packed lower-triangular Cholesky factor of {@code factorᵀ·factor}, or null if it is not
+     * positive definite (e.g. two assets moved identically).
+     */
+    static double[] cholesky(double[][] factor, int n) {
+        double[] covariance = new double[n * (n + 1) / 2];
+        for (double[] row : factor) {
+            int k = 0;
+            for (int i = 0; i < n; i++) {
+                double ri = row[i];
+                for (int j = 0; j <= i; j++) {
+                    covariance[k++] += ri * row[j];
+                }
+            }
+        }
+        double[] l = new double[covariance.length];
+        for (int i = 0; i < n; i++) {
+            int rowI = i * (i + 1) / 2;
+            for (int j = 0; j <= i; j++) {
+                int rowJ = j * (j + 1) / 2;
+                double sum = covariance[rowI + j];
+                for (int k = 0; k < j; k++) {
+                    sum -= l[rowI + k] * l[rowJ + k];
+                }
+                if (i == j) {
+                    if (sum <= 1e-18) {
+                        return null;
+                    }
+                    l[rowI + i] = Math.sqrt(sum);
+                } else {
+                    l[rowI + j] = sum / l[rowJ + j];
+                }
+            }
+        }
+        return l;
+    }
+
+    private static double[] byColumn(double[] rowPacked, int n) {
+        double[] columns = new double[rowPacked.length];
+        int k = 0;
+        for (int j = 0; j < n; j++) {
+            for (int i = j; i < n; i++) {
+                columns[k++] = rowPacked[i * (i + 1) / 2 + j];
+            }
+        }
+        return columns;
+    }
+
+    private interface Model {
+
+        int assets();
+
+        /**
+         * One path's value; {@code scratch} holds at least {@link #assets()} doubles.
+         */
+        double path(SplittableRandom random, double[] scratch);
+    }
+
+    /**
+     * @param columns Cholesky factor packed by column: column {@code j} holds rows {@code j..n-1}, so
+     *                each normal is added into the path as one contiguous axpy
+     */
+    private record CholeskyGbm(double[] values, double[] drift, double volatilityScale, double[] columns)
+            implements Model {
+
+        @Override
+        public int assets() {
+            return values.length;
+        }
+
+        @Override
+        public double path(SplittableRandom random, double[] x) {
+            int n = values.length;
+            Arrays.fill(x, 0, n, 0.0);
+            int k = 0;
+            for (int j = 0; j < n; j++) {
+                double z = random.nextGaussian();
+                for (int i = j; i < n; i++) {
+                    x[i] += columns[k++] * z;
+                }
+            }
+            double total = 0;
+            for (int i = 0; i < n; i++) {
+                total += values[i] * Math.exp(drift[i] + volatilityScale * x[i]);
+            }
+            return total;
+        }
+    }
+
+    private record FactorGbm(double[] values, double[] drift, double volatilityScale, double[][] factor)
+            implements Model {
+
+        @Override
+        public int assets() {
+            return values.length;
+        }
+
+        @Override
+        public double path(SplittableRandom random, double[] x) {
+            int n = values.length;
+            Arrays.fill(x, 0, n, 0.0);
+            for (double[] row : factor) {
+                double w = random.nextGaussian();
+                for (int i = 0; i < n; i++) {
+                    x[i] += w * row[i];
+                }
+            }
+            double total = 0;
+            for (int i = 0; i < n; i++) {
+                total += values[i] * Math.exp(drift[i] + volatilityScale * x[i]);
+            }
+            return total;
+        }
+    }
+
+    private record Bootstrap(double[] values, ReturnMatrix returns, int horizon) implements Model {
+
+        @Override
+        public int assets() {
+            return values.length;
+        }
+
+        @Override
+        public double path(SplittableRandom random, double[] sum) {
+            int n = values.length;
+            int days = returns.observations();
+            Arrays.fill(sum, 0, n, 0.0);
+            for (int h = 0; h < horizon; h++) {
+                double[] row = returns.row(random.nextInt(days));
+                for (int i = 0; i < n; i++) {
+                    sum[i] += row[i];
+                }
+            }
+            double total = 0;
+            for (int i = 0; i < n; i++) {
+                total += values[i] * Math.exp(sum[i]);
+            }
+            return total;
+        }
+    }
+
+    private static final class PathTask extends RecursiveAction {
+
+        private final Model model;
+        private final double[] out;
+        private final int from;
+        private final int to;
+        private final SplittableRandom random;
+
+        PathTask(Model model, double[] out, int from, int to, SplittableRandom random) {
+            this.model = model;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+            this.random = random;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_PATHS) {
+                double[] scratch = scratch(model.assets());
+                for (int p = from; p < to; p++) {
+                    out[p] = model.path(random, scratch);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            // Split before either half draws, so the streams do not depend on scheduling
+            SplittableRandom right = random.split();
+            invokeAll(new PathTask(model, out, from, mid, random), new PathTask(model, out, mid, to, right));
+        }
+    }
+
+    private static double[] scratch(int size) {
+        double[] buffer = SCRATCH.get();
+        if (buffer.length < size) {
+            buffer = new double[size];
+            SCRATCH.set(buffer);
+        }
+        return buffer;
+    }
+}
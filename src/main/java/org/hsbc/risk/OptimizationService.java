@@ -0,0 +1,209 @@
+package org.hsbc.risk;
+
+import org.hsbc.exception.InvalidRequestException;
+import org.hsbc.market.AssetClass;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Mean-variance rebalancing advice for the current holdings (see {@link PortfolioOptimizer}):
+ * the efficient frontier and the minimum-variance and maximum-Sharpe target weights, long-only,
+ * with at most {@code pms.optimizer.max-asset-weight} in any one holding and
+ * {@code pms.optimizer.max-class-weight.*} in any asset class.
+ * <p>
+ * Return statistics come from {@link CorrelationService}, which keeps them current incrementally;
+ * the covariance is shrunk towards its diagonal by {@code pms.optimizer.shrinkage} first.
+ * Solutions are cached per statistics snapshot and constraints, so page loads between daily bars
+ * only recompute the current weights and the trades.
+ */
+@Component
+public class OptimizationService {
+
+    private static final Logger log = LoggerFactory.getLogger(OptimizationService.class);
+
+    private final ExposureService exposures;
+    private final CorrelationService correlations;
+    private final double riskFreeRate;
+    private final double shrinkage;
+    private final double maxAssetWeight;
+    private final Map<AssetClass, Double> maxClassWeights = new EnumMap<>(AssetClass.class);
+    private final int defaultPoints;
+    private final int maxPoints;
+    private volatile Solved cached;
+
+    public OptimizationService(ExposureService exposures, CorrelationService correlations,
+                               @Value("${pms.optimizer.risk-free-rate:0.0}") double riskFreeRate,
+                               @Value("${pms.optimizer.shrinkage:0.2}") double shrinkage,
+                               @Value("${pms.optimizer.max-asset-weight:1.0}") double maxAssetWeight,
+                               @Value("${pms.optimizer.max-class-weight.stock:1.0}") double maxStock,
+                               @Value("${pms.optimizer.max-class-weight.crypto:1.0}") double maxCrypto,
+                               @Value("${pms.optimizer.max-class-weight.mutual-fund:1.0}") double maxMutualFund,
+                               @Value("${pms.optimizer.max-class-weight.commodity:1.0}") double maxCommodity,
+                               @Value("${pms.optimizer.frontier-points:20}") int defaultPoints,
+                               @Value("${pms.optimizer.max-frontier-points:100}") int maxPoints) {
+        this.exposures = exposures;
+        this.correlations = correlations;
+        this.riskFreeRate = riskFreeRate;
+        this.shrinkage = shrinkage;
+        this.maxAssetWeight = maxAssetWeight;
+        maxClassWeights.put(AssetClass.STOCK, maxStock);
+        maxClassWeights.put(AssetClass.CRYPTO, maxCrypto);
+        maxClassWeights.put(AssetClass.MUTUAL_FUND, maxMutualFund);
+        maxClassWeights.put(AssetClass.COMMODITY, maxCommodity);
+        this.defaultPoints = defaultPoints;
+        this.maxPoints = maxPoints;
+    }
+
+    /**
+     * @param points    frontier points, null for {@code pms.optimizer.frontier-points}
+     * @param maxWeight per-holding cap overriding {@code pms.optimizer.max-asset-weight}, or null
+     * @throws InvalidRequestException if a parameter is out of range or the caps cannot be met
+     */
+    public EfficientFrontier frontier(Integer points, Double maxWeight) throws InterruptedException {
+        int p = points != null ? points : defaultPoints;
+        if (p < 3 || p > maxPoints) {
+            throw new InvalidRequestException("points must be between 3 and " + maxPoints);
+        }
+        Exposure exposure = exposures.current();
+        Solved solved = solve(exposure, p, maxWeight(maxWeight));
+        double[] current = weights(exposure);
+        PortfolioOptimizer.Solution now = solved.optimizer.evaluate(current, riskFreeRate);
+        List<FrontierPoint> frontier = solved.frontier.stream()
+                .map(OptimizationService::point)
+                .toList();
+        return new EfficientFrontier(System.currentTimeMillis(), solved.statistics.observations(), exposure.total(),
+                riskFreeRate, solved.maxWeight, Map.copyOf(maxClassWeights), point(now), frontier,
+                portfolio("min-variance", solved.minimumVariance, exposure, current),
+                portfolio("max-sharpe", solved.maximumSharpe, exposure, current), exposure.excluded());
+    }
+
+    /**
+     * @param objective "min-variance" or "max-sharpe" (case-insensitive), null for min-variance
+     * @param maxWeight per-holding cap overriding {@code pms.optimizer.max-asset-weight}, or null
+     * @throws InvalidRequestException if a parameter is out of range or the caps cannot be met
+     */
+    public OptimizedPortfolio optimize(String objective, Double maxWeight) throws InterruptedException {
+        boolean sharpe = objective(objective);
+        Exposure exposure = exposures.current();
+        Solved solved = solve(exposure, defaultPoints, maxWeight(maxWeight));
+        double[] current = weights(exposure);
+        return sharpe
+                ? portfolio("max-sharpe", solved.maximumSharpe, exposure, current)
+                : portfolio("min-variance", solved.minimumVariance, exposure, current);
+    }
+
+    private Solved solve(Exposure exposure, int points, double maxWeight) {
+        ReturnStatistics statistics = correlations.statistics(exposure);
+        Solved current = cached;
+        if (current != null && current.statistics == statistics && current.points == points
+                && current.maxWeight == maxWeight) {
+            return current;
+        }
+        if (statistics.observations() < 2) {
+            throw new InvalidRequestException("Not enough price history to optimise the portfolio");
+        }
+        long start = System.nanoTime();
+        List<AssetClass> classes = exposure.assetClasses();
+        int[] group = new int[classes.size()];
+        for (int i = 0; i < group.length; i++) {
+            group[i] = classes.get(i).ordinal();
+        }
+        double[] groupCap = new double[AssetClass.values().length];
+        for (AssetClass assetClass : AssetClass.values()) {
+            groupCap[assetClass.ordinal()] = maxClassWeights.get(assetClass);
+        }
+        PortfolioOptimizer optimizer;
+        try {
+            optimizer = new PortfolioOptimizer(statistics.mean(),
+                    shrink(statistics.covariance(), shrinkage), group, groupCap, maxWeight);
+        } catch (IllegalArgumentException e) {
+            // The only documented failure is caps that leave the portfolio underinvested
+            throw new InvalidRequestException(e.getMessage());
+        }
+        // The frontier starts at λ = 0, the minimum-variance portfolio, and brackets the max-Sharpe one
+        List<PortfolioOptimizer.Solution> frontier = optimizer.frontier(points, riskFreeRate);
+        Solved solved = new Solved(statistics, points, maxWeight, optimizer, frontier, frontier.get(0),
+                optimizer.maximumSharpe(frontier, riskFreeRate));
+        cached = solved;
+        log.debug("Optimised {} symbols ({} frontier points) in {} ms", group.length, points,
+                (System.nanoTime() - start) / 1_000_000);
+        return solved;
+    }
+
+    /**
+     * {@code (1 - δ)·S + δ·diag(S)}: keeps the variances and pulls the correlations towards zero.
+     * A year of returns on hundreds of assets gives a singular sample covariance whose smallest
+     * directions are noise; optimising against it both overfits and converges slowly.
+     */
+    public static double[][] shrink(double[][] covariance, double shrinkage) {
+        double[][] shrunk = new double[covariance.length][];
+        for (int i = 0; i < covariance.length; i++) {
+            shrunk[i] = covariance[i].clone();
+            for (int j = 0; j < shrunk[i].length; j++) {
+                if (i != j) {
+                    shrunk[i][j] *= 1 - shrinkage;
+                }
+            }
+        }
+        return shrunk;
+    }
+
+    private static double[] weights(Exposure exposure) {
+        double total = exposure.total();
+        double[] values = exposure.values();
+        double[] weights = new double[values.length];
+        for (int i = 0; i < values.length && total > 0; i++) {
+            weights[i] = values[i] / total;
+        }
+        return weights;
+    }
+
+    private static OptimizedPortfolio portfolio(String objective, PortfolioOptimizer.Solution solution,
+                                                Exposure exposure, double[] current) {
+        List<String> symbols = exposure.returns().symbols();
+        double total = exposure.total();
+        double[] target = solution.weights();
+        List<Allocation> allocations = new ArrayList<>(symbols.size());
+        for (int i = 0; i < symbols.size(); i++) {
+            allocations.add(new Allocation(symbols.get(i), exposure.assetClasses().get(i), current[i], target[i],
+                    (target[i] - current[i]) * total));
+        }
+        return new OptimizedPortfolio(objective, solution.expectedReturn(), solution.volatility(),
+                solution.sharpeRatio(), solution.iterations(), allocations);
+    }
+
+    private static FrontierPoint point(PortfolioOptimizer.Solution solution) {
+        return new FrontierPoint(solution.expectedReturn(), solution.volatility(), solution.sharpeRatio());
+    }
+
+    private double maxWeight(Double override) {
+        double weight = override != null ? override : maxAssetWeight;
+        if (!(weight > 0 && weight <= 1)) {
+            throw new InvalidRequestException("maxAssetWeight must be in (0, 1]");
+        }
+        return weight;
+    }
+
+    private static boolean objective(String objective) {
+        if (objective == null || objective.equalsIgnoreCase("min-variance")) {
+            return false;
+        }
+        if (objective.toLowerCase(Locale.ROOT).equals("max-sharpe")) {
+            return true;
+        }
+        throw new InvalidRequestException("objective must be min-variance or max-sharpe");
+    }
+
+    private record Solved(ReturnStatistics statistics, int points, double maxWeight, PortfolioOptimizer optimizer,
+                          List<PortfolioOptimizer.Solution> frontier, PortfolioOptimizer.Solution minimumVariance,
+                          PortfolioOptimizer.Solution maximumSharpe) {
+    }
+}
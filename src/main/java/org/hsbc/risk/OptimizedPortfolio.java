@@ -0,0 +1,13 @@
+package org.hsbc.risk;
+
+import java.util.List;
+
+/**
+ * Target weights for one objective. Returns and volatility are annualised.
+ *
+ * @param objective  "min-variance" or "max-sharpe"
+ * @param iterations solver iterations of the final solve
+ */
+public record OptimizedPortfolio(String objective, double expectedReturn, double volatility, double sharpeRatio,
+                                 int iterations, List<Allocation> allocations) {
+}
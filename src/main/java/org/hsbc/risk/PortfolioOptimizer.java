@@ -0,0 +1,418 @@
+package org.hsbc.risk;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Long-only mean-variance optimisation under a per-asset weight cap and per-group (asset class)
+ * caps: minimises {@code f(w) = wᵀΣw - λ·μᵀw} over fully invested portfolios, for a risk aversion
+ * {@code 1/λ}.
+ * <p>
+ * The solver is accelerated projected gradient (FISTA) with adaptive restart, stepping
+ * {@code 1/L} with {@code L} twice the largest eigenvalue of Σ (found once by power iteration).
+ * The feasible set is the simplex cut by nested upper bounds (asset ⊂ group ⊂ total), so the
+ * Euclidean projection onto it is a shift per group found by bisection, O(n) per probe. Every
+ * {@value #CHECK_EVERY} iterations the Frank-Wolfe gap {@code gᵀ(w - s)}, with {@code s} the
+ * greedy vertex minimising {@code gᵀs}, bounds the distance to the optimum and decides when to
+ * stop. An iteration costs one Σ·y product, O(n²).
+ * <p>
+ * Returns and volatilities are reported annualised over {@value #TRADING_DAYS} trading days.
+ */
+public final class PortfolioOptimizer {
+
+    public static final int TRADING_DAYS = 252;
+
+    private static final int MAX_ITERATIONS = 5_000;
+    private static final int CHECK_EVERY = 10;
+    private static final double TOLERANCE = 1e-7;
+    private static final double GOLDEN = (Math.sqrt(5) - 1) / 2;
+
+    private final double[] mean;
+    private final double[][] covariance;
+    private final double[] assetCap;
+    private final int[] group;
+    private final double[] groupCap;
+    private final double[] groupReach;
+    private final int[][] members;
+    private final int n;
+    private final double lipschitz;
+
+    /**
+     * @param mean       mean daily return per asset
+     * @param covariance daily covariance
+     * @param group      group of each asset, {@code 0..groupCap.length-1}
+     * @param groupCap   largest total weight per group
+     * @param maxWeight  largest weight of any one asset
+     * @throws IllegalArgumentException if no fully invested portfolio meets the caps
+     */
+    public PortfolioOptimizer(double[] mean, double[][] covariance, int[] group, double[] groupCap,
+                              double maxWeight) {
+        this.n = mean.length;
+        if (n == 0) {
+            throw new IllegalArgumentException("No holdings with price history to optimise");
+        }
+        this.mean = mean;
+        this.covariance = covariance;
+        this.group = group;
+        this.groupCap = groupCap;
+        this.assetCap = new double[n];
+        Arrays.fill(assetCap, Math.min(1, maxWeight));
+        this.groupReach = new double[groupCap.length];
+        for (int i = 0; i < n; i++) {
+            groupReach[group[i]] += assetCap[i];
+        }
+        int[] sizes = new int[groupCap.length];
+        for (int g : group) {
+            sizes[g]++;
+        }
+        this.members = new int[groupCap.length][];
+        for (int g = 0; g < groupCap.length; g++) {
+            members[g] = new int[sizes[g]];
+            sizes[g] = 0;
+        }
+        for (int i = 0; i < n; i++) {
+            members[group[i]][sizes[group[i]]++] = i;
+        }
+        double total = 0;
+        for (int g = 0; g < groupCap.length; g++) {
+            total += Math.min(groupReach[g], groupCap[g]);
+        }
+        if (total < 1 - 1e-12) {
+            throw new IllegalArgumentException(String.format(
+                    "Weight caps allow at most %.1f%% of the portfolio to be invested", total * 100));
+        }
+        // Power iteration approaches the eigenvalue from below; the margin keeps the step stable
+        this.lipschitz = 2 * largestEigenvalue() * 1.05 + Double.MIN_NORMAL;
+    }
+
+    /**
+     * A solution with its annualised return, volatility and Sharpe ratio.
+     *
+     * @param riskAversion the {@code λ} it was solved for
+     */
+    public record Solution(double[] weights, double riskAversion, double expectedReturn, double volatility,
+                           double sharpeRatio, int iterations) {
+    }
+
+    /**
+     * Annualised statistics of {@code weights} (e.g. the current portfolio).
+     */
+    public Solution evaluate(double[] weights, double riskFreeRate) {
+        return solution(weights, 0, multiply(weights, new double[n]), riskFreeRate, 0);
+    }
+
+    public Solution minimumVariance(double riskFreeRate) {
+        return solve(0, null, riskFreeRate);
+    }
+
+    /**
+     * The efficient frontier from the minimum-variance portfolio (λ = 0) to the highest-return one,
+     * at {@code points} risk aversions spread geometrically, each solve warm-started from the last.
+     * Points that coincide with the previous one are dropped.
+     */
+    public List<Solution> frontier(int points, double riskFreeRate) {
+        List<Solution> frontier = new ArrayList<>(points);
+        double[] start = null;
+        for (double lambda : lambdas(points)) {
+            Solution solution = solve(lambda, start, riskFreeRate);
+            start = solution.weights();
+            Solution previous = frontier.isEmpty() ? null : frontier.get(frontier.size() - 1);
+            if (previous == null || solution.volatility() - previous.volatility() > 1e-9
+                    || solution.expectedReturn() - previous.expectedReturn() > 1e-9) {
+                frontier.add(solution);
+            }
+        }
+        return frontier;
+    }
+
+    public Solution maximumSharpe(double riskFreeRate) {
+        return maximumSharpe(frontier(16, riskFreeRate), riskFreeRate);
+    }
+
+    /**
+     * The frontier portfolio with the best Sharpe ratio: the best point of {@code frontier},
+     * refined by golden-section search on log λ between its neighbours (the ratio is unimodal along
+     * the frontier).
+     */
+    public Solution maximumSharpe(List<Solution> frontier, double riskFreeRate) {
+        int best = 0;
+        for (int k = 1; k < frontier.size(); k++) {
+            if (frontier.get(k).sharpeRatio() > frontier.get(best).sharpeRatio()) {
+                best = k;
+            }
+        }
+        Solution top = frontier.get(best);
+        if (frontier.size() < 2) {
+            return top;
+        }
+        // λ = 0 has no log; below the first positive λ the frontier barely moves
+        double first = frontier.get(1).riskAversion();
+        double lo = Math.log(best >= 2 ? frontier.get(best - 1).riskAversion() : first / 100);
+        double hi = Math.log(best + 1 < frontier.size() ? frontier.get(best + 1).riskAversion()
+                : top.riskAversion() * 10);
+        double a = hi - GOLDEN * (hi - lo);
+        double b = lo + GOLDEN * (hi - lo);
+        Solution sa = solve(Math.exp(a), top.weights(), riskFreeRate);
+        Solution sb = solve(Math.exp(b), top.weights(), riskFreeRate);
+        for (int k = 0; k < 30 && hi - lo > 1e-2; k++) {
+            if (sa.sharpeRatio() >= sb.sharpeRatio()) {
+                hi = b;
+                b = a;
+                sb = sa;
+                a = hi - GOLDEN * (hi - lo);
+                sa = solve(Math.exp(a), sb.weights(), riskFreeRate);
+            } else {
+                lo = a;
+                a = b;
+                sa = sb;
+                b = lo + GOLDEN * (hi - lo);
+                sb = solve(Math.exp(b), sa.weights(), riskFreeRate);
+            }
+        }
+        for (Solution candidate : new Solution[]{sa, sb}) {
+            if (candidate.sharpeRatio() > top.sharpeRatio()) {
+                top = candidate;
+            }
+        }
+        return top;
+    }
+
+    /**
+     * 0, then geometric up to where the return term dominates the variance term of the gradient.
+     */
+    private double[] lambdas(int points) {
+        double variance = 0;
+        double drift = 0;
+        for (int i = 0; i < n; i++) {
+            variance += covariance[i][i];
+            drift += Math.abs(mean[i]);
+        }
+        double scale = drift > 0 && variance > 0 ? 2 * variance / drift : 1;
+        double[] lambdas = new double[Math.max(points, 3)];
+        double from = Math.log(scale * 1e-3);
+        double to = Math.log(scale * 1e3);
+        for (int k = 1; k < lambdas.length; k++) {
+            lambdas[k] = Math.exp(from + (to - from) * (k - 1) / (lambdas.length - 2));
+        }
+        return lambdas;
+    }
+
+    /**
+     * Minimises {@code wᵀΣw - λ·μᵀw} from {@code start}, or from equal weights projected onto the
+     * caps.
+     */
+    Solution solve(double lambda, double[] start, double riskFreeRate) {
+        double[] x = new double[n];
+        if (start != null) {
+            System.arraycopy(start, 0, x, 0, n);
+        } else {
+            double[] equal = new double[n];
+            Arrays.fill(equal, 1.0 / n);
+            project(equal, x);
+        }
+        double[] y = x.clone();
+        double[] previous = new double[n];
+        double[] sigma = new double[n];
+        double[] gradient = new double[n];
+        double[] shifted = new double[n];
+        long[] order = new long[n];
+        double momentum = 1;
+
+        int iteration = 0;
+        for (; iteration < MAX_ITERATIONS; iteration++) {
+            if (iteration % CHECK_EVERY == 0 && converged(x, lambda, sigma, gradient, order)) {
+                break;
+            }
+            multiply(y, sigma);
+            for (int i = 0; i < n; i++) {
+                shifted[i] = y[i] - (2 * sigma[i] - lambda * mean[i]) / lipschitz;
+            }
+            System.arraycopy(x, 0, previous, 0, n);
+            project(shifted, x);
+
+            // Restart the momentum when it points against the last step (O'Donoghue & Candès)
+            double alignment = 0;
+            for (int i = 0; i < n; i++) {
+                alignment += (y[i] - x[i]) * (x[i] - previous[i]);
+            }
+            double next = alignment > 0 ? 1 : (1 + Math.sqrt(1 + 4 * momentum * momentum)) / 2;
+            double beta = alignment > 0 ? 0 : (momentum - 1) / next;
+            momentum = next;
+            for (int i = 0; i < n; i++) {
+                y[i] = x[i] + beta * (x[i] - previous[i]);
+            }
+        }
+        return solution(x, lambda, multiply(x, sigma), riskFreeRate, iteration);
+    }
+
+    /**
+     * Whether the Frank-Wolfe gap at {@code x} is within tolerance of the objective's scale.
+     */
+    private boolean converged(double[] x, double lambda, double[] sigma, double[] gradient, long[] order) {
+        multiply(x, sigma);
+        double variance = 0;
+        double drift = 0;
+        for (int i = 0; i < n; i++) {
+            gradient[i] = 2 * sigma[i] - lambda * mean[i];
+            variance += x[i] * sigma[i];
+            drift += x[i] * mean[i];
+        }
+        double gap = dot(gradient, x) - vertexValue(gradient, order);
+        return gap <= TOLERANCE * (Math.abs(variance) + Math.abs(lambda * drift));
+    }
+
+    /**
+     * {@code min gᵀs} over the feasible set: fill the assets with the lowest gradient first, each up
+     * to the smallest of its cap, its group's remaining cap and the weight still to place.
+     */
+    private double vertexValue(double[] gradient, long[] order) {
+        for (int i = 0; i < n; i++) {
+            // Sortable bits of the gradient with the index in the low 20 bits: one primitive sort,
+            // ties closer than ~1e-10 relative broken by index
+            long bits = Double.doubleToRawLongBits(gradient[i]);
+            bits ^= (bits >> 63) & Long.MAX_VALUE;
+            order[i] = (bits & ~0xFFFFFL) | i;
+        }
+        Arrays.sort(order);
+        double[] groupLeft = groupCap.clone();
+        double left = 1;
+        double value = 0;
+        for (long key : order) {
+            int i = (int) (key & 0xFFFFF);
+            double amount = Math.min(assetCap[i], Math.min(groupLeft[group[i]], left));
+            if (amount > 0) {
+                value += amount * gradient[i];
+                groupLeft[group[i]] -= amount;
+                left -= amount;
+                if (left <= 1e-15) {
+                    break;
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Euclidean projection of {@code y} onto the feasible set, into {@code out}.
+     * <p>
+     * The KKT conditions give {@code w_i = clip(y_i - τ - ν_g, 0, cap)}: one shift {@code τ} for the
+     * budget, plus a non-negative one per group that binds. For a given {@code τ} a group's total
+     * shift is {@code max(τ, t_g)}, where {@code t_g} is the shift that fills it exactly to its cap,
+     * so both are found by bisection on non-increasing sums.
+     */
+    void project(double[] y, double[] out) {
+        int groups = groupCap.length;
+        double[] groupShift = new double[groups];
+        for (int g = 0; g < groups; g++) {
+            if (groupReach[g] <= groupCap[g]) {
+                groupShift[g] = Double.NEGATIVE_INFINITY;
+                continue;
+            }
+            int target = g;
+            groupShift[g] = bisect(y, shift -> groupSum(y, target, shift), groupCap[g]);
+        }
+        double tau = bisect(y, shift -> {
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += clip(y[i] - Math.max(shift, groupShift[group[i]]), assetCap[i]);
+            }
+            return sum;
+        }, 1);
+        for (int i = 0; i < n; i++) {
+            out[i] = clip(y[i] - Math.max(tau, groupShift[group[i]]), assetCap[i]);
+        }
+    }
+
+    private double groupSum(double[] y, int g, double shift) {
+        double sum = 0;
+        for (int i : members[g]) {
+            sum += clip(y[i] - shift, assetCap[i]);
+        }
+        return sum;
+    }
+
+    private interface Sum {
+        double at(double shift);
+    }
+
+    /**
+     * The shift at which the non-increasing {@code sum} equals {@code target}, searched between
+     * {@code min(y - cap)} (everything at its cap) and {@code max(y)} (everything at zero).
+     */
+    private double bisect(double[] y, Sum sum, double target) {
+        double lo = Double.POSITIVE_INFINITY;
+        double hi = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            lo = Math.min(lo, y[i] - assetCap[i]);
+            hi = Math.max(hi, y[i]);
+        }
+        for (int k = 0; k < 100; k++) {
+            double mid = (lo + hi) / 2;
+            if (mid <= lo || mid >= hi) {
+                break;
+            }
+            if (sum.at(mid) > target) {
+                lo = mid;
+            } else {
+                hi = mid;
+            }
+        }
+        return (lo + hi) / 2;
+    }
+
+    private static double clip(double value, double cap) {
+        return value <= 0 ? 0 : Math.min(value, cap);
+    }
+
+    private double largestEigenvalue() {
+        double[] v = new double[n];
+        double[] next = new double[n];
+        Arrays.fill(v, 1 / Math.sqrt(n));
+        double eigenvalue = 0;
+        for (int k = 0; k < 100; k++) {
+            multiply(v, next);
+            double norm = Math.sqrt(dot(next, next));
+            if (norm == 0) {
+                return 0;
+            }
+            for (int i = 0; i < n; i++) {
+                v[i] = next[i] / norm;
+            }
+            if (Math.abs(norm - eigenvalue) <= 1e-6 * norm) {
+                return norm;
+            }
+            eigenvalue = norm;
+        }
+        return eigenvalue;
+    }
+
+    private double[] multiply(double[] w, double[] out) {
+        Arrays.fill(out, 0);
+        for (int j = 0; j < n; j++) {
+            double weight = w[j];
+            if (weight != 0) {
+                double[] row = covariance[j];
+                for (int i = 0; i < n; i++) {
+                    out[i] += weight * row[i];
+                }
+            }
+        }
+        return out;
+    }
+
+    private Solution solution(double[] w, double lambda, double[] sigmaW, double riskFreeRate, int iterations) {
+        double expected = dot(mean, w) * TRADING_DAYS;
+        double volatility = Math.sqrt(Math.max(dot(w, sigmaW), 0) * TRADING_DAYS);
+        double sharpe = volatility > 0 ? (expected - riskFreeRate) / volatility : 0;
+        return new Solution(w, lambda, expected, volatility, sharpe, iterations);
+    }
+
+    private static double dot(double[] a, double[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,143 @@
+package org.hsbc.risk;
+
+import org.hsbc.market.PriceHistory;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Daily prices and returns of several symbols, aligned on the days every one of them has a close.
+ * A return spans consecutive common days, so a crypto weekend move shows up in Monday's return
+ * rather than being dropped. Rows are days (oldest first), columns follow {@link #symbols()}.
+ * <p>
+ * Log returns are only computed if asked for; revaluing positions needs just price ratios.
+ */
+public final class ReturnMatrix {
+
+    private final List<String> symbols;
+    private final int[] days;
+    private final double[][] prices;
+    private volatile double[][] logReturns;
+
+    private ReturnMatrix(List<String> symbols, int[] days, double[][] prices) {
+        this.symbols = symbols;
+        this.days = days;
+        this.prices = prices;
+    }
+
+    /**
+     * Aligns {@code histories}, keeping at most the latest {@code maxObservations} returns.
+     */
+    public static ReturnMatrix align(List<PriceHistory> histories, int maxObservations) {
+        List<String> symbols = histories.stream().map(PriceHistory::symbol).toList();
+        if (histories.isEmpty()) {
+            return new ReturnMatrix(symbols, new int[0], new double[0][]);
+        }
+        int[] common = histories.get(0).days();
+        for (int i = 1; i < histories.size(); i++) {
+            common = intersect(common, histories.get(i).days());
+        }
+        if (common.length > maxObservations + 1) {
+            common = Arrays.copyOfRange(common, common.length - maxObservations - 1, common.length);
+        }
+        if (common.length < 2) {
+            return new ReturnMatrix(symbols, new int[0], new double[0][]);
+        }
+        double[][] prices = new double[common.length][histories.size()];
+        for (int asset = 0; asset < histories.size(); asset++) {
+            PriceHistory history = histories.get(asset);
+            int[] days = history.days();
+            double[] closes = history.closes();
+            int j = 0;
+            for (int t = 0; t < common.length; t++) {
+                while (days[j] != common[t]) {
+                    j++;
+                }
+                prices[t][asset] = closes[j];
+            }
+        }
+        return new ReturnMatrix(symbols, Arrays.copyOfRange(common, 1, common.length), prices);
+    }
+
+    /**
+     * Builds a matrix from log returns already aligned, {@code [day][asset]}; prices start at 1.
+     */
+    public static ReturnMatrix of(List<String> symbols, int[] days, double[][] logReturns) {
+        int assets = symbols.size();
+        double[][] prices = new double[logReturns.length == 0 ? 0 : logReturns.length + 1][];
+        if (prices.length > 0) {
+            prices[0] = new double[assets];
+            Arrays.fill(prices[0], 1.0);
+            for (int t = 0; t < logReturns.length; t++) {
+                prices[t + 1] = new double[assets];
+                for (int i = 0; i < assets; i++) {
+                    prices[t + 1][i] = prices[t][i] * Math.exp(logReturns[t][i]);
+                }
+            }
+        }
+        ReturnMatrix matrix = new ReturnMatrix(List.copyOf(symbols), days, prices);
+        matrix.logReturns = logReturns;
+        return matrix;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    public List<String> symbols() {
+        return symbols;
+    }
+
+    /**
+     * Epoch day each return ends on.
+     */
+    public int[] days() {
+        return days;
+    }
+
+    public int observations() {
+        return days.length;
+    }
+
+    public int assets() {
+        return symbols.size();
+    }
+
+    /**
+     * Closes on the common day before return {@code t}; {@code price(t + 1)} is the day it ends on.
+     * Not a copy.
+     */
+    public double[] price(int t) {
+        return prices[t];
+    }
+
+    /**
+     * Log returns of day {@code t} (not a copy), one per symbol.
+     */
+    public double[] row(int t) {
+        double[][] returns = logReturns;
+        if (returns == null) {
+            returns = new double[observations()][assets()];
+            for (int d = 0; d < returns.length; d++) {
+                for (int i = 0; i < returns[d].length; i++) {
+                    returns[d][i] = Math.log(prices[d + 1][i] / prices[d][i]);
+                }
+            }
+            logReturns = returns;
+        }
+        return returns[t];
+    }
+}
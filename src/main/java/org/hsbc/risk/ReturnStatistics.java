@@ -0,0 +1,13 @@
+package org.hsbc.risk;
+
+import java.util.List;
+
+/**
+ * Mean and sample covariance of daily log returns over the tracked window. Shared between
+ * callers: the arrays must not be modified.
+ *
+ * @param mean       mean daily log return per symbol
+ * @param covariance rows and columns follow {@code symbols}
+ */
+public record ReturnStatistics(List<String> symbols, int observations, double[] mean, double[][] covariance) {
+}
@@ -0,0 +1,122 @@
+package org.hsbc.risk;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * VaR and expected shortfall of a set of positions over a {@link ReturnMatrix}.
+ * <ul>
+ *     <li>Historical simulation revalues today's positions under each past day's returns (for an
+ *     h-day horizon, each overlapping h-day window's) and reads the loss quantile off the sorted
+ *     P&amp;L; the shortfall is the mean of the losses at or beyond it.</li>
+ *     <li>Parametric (delta-normal) fits a normal distribution to the 1-day P&amp;L and scales it
+ *     to h days by {@code h} for the mean and {@code √h} for the volatility.</li>
+ * </ul>
+ * Scenario P&amp;L is computed in parallel over days on primitive arrays, as price ratios between
+ * the ends of each window, so no horizon needs a log or exp per day and asset.
+ */
+public final class RiskCalculator {
+
+    private RiskCalculator() {
+    }
+
+    public static List<RiskMeasure> measures(double[] values, ReturnMatrix returns, double[] confidenceLevels,
+                                             int[] horizons) {
+        List<RiskMeasure> measures = new ArrayList<>();
+        double[] daily = scenarioPnl(values, returns, 1);
+        double mean = Arrays.stream(daily).average().orElse(0);
+        double sd = standardDeviation(daily, mean);
+        for (int horizon : horizons) {
+            double[] pnl = horizon == 1 ? daily.clone() : scenarioPnl(values, returns, horizon);
+            Arrays.sort(pnl);
+            for (double confidence : confidenceLevels) {
+                if (pnl.length > 0) {
+                    measures.add(historical(pnl, confidence, horizon));
+                }
+                measures.add(parametric(mean * horizon, sd * Math.sqrt(horizon), confidence, horizon));
+            }
+        }
+        return measures;
+    }
+
+    /**
+     * Change in value of {@code values} (one per matrix column) over each overlapping
+     * {@code horizon}-day window.
+     */
+    public static double[] scenarioPnl(double[] values, ReturnMatrix returns, int horizon) {
+        int windows = Math.max(returns.observations() - horizon + 1, 0);
+        double[] pnl = new double[windows];
+        IntStream.range(0, windows).parallel().forEach(t -> {
+            double[] from = returns.price(t);
+            double[] to = returns.price(t + horizon);
+            double total = 0;
+            for (int i = 0; i < values.length; i++) {
+                total += values[i] * (to[i] / from[i] - 1);
+            }
+            pnl[t] = total;
+        });
+        return pnl;
+    }
+
+    /**
+     * @param sortedPnl scenario P&amp;L, ascending
+     */
+    static RiskMeasure historical(double[] sortedPnl, double confidence, int horizon) {
+        int tail = Math.max(1, (int) Math.ceil(sortedPnl.length * (1 - confidence) - 1e-9));
+        double sum = 0;
+        for (int i = 0; i < tail; i++) {
+            sum += sortedPnl[i];
+        }
+        return new RiskMeasure("historical", horizon, confidence, -sortedPnl[tail - 1], -sum / tail);
+    }
+
+    static RiskMeasure parametric(double mean, double sd, double confidence, int horizon) {
+        double z = inverseNormal(confidence);
+        double density = Math.exp(-z * z / 2) / Math.sqrt(2 * Math.PI);
+        return new RiskMeasure("parametric", horizon, confidence, z * sd - mean,
+                sd * density / (1 - confidence) - mean);
+    }
+
+    private static double standardDeviation(double[] values, double mean) {
+        if (values.length < 2) {
+            return 0;
+        }
+        double squares = 0;
+        for (double v : values) {
+            squares += (v - mean) * (v - mean);
+        }
+        return Math.sqrt(squares / (values.length - 1));
+    }
+
+    /**
+     * Standard normal quantile (Acklam's rational approximation, relative error below 1.2e-9).
+     */
+    static double inverseNormal(double p) {
+        if (p <= 0 || p >= 1) {
+            throw new IllegalArgumentException("Probability must be in (0, 1): " + p);
+        }
+        double[] a = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+                1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+        double[] b = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+                6.680131188771972e+01, -1.328068155288572e+01};
+        double[] c = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+                -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+        double[] d = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+                3.754408661907416e+00};
+        double low = 0.02425;
+        if (p < low) {
+            double q = Math.sqrt(-2 * Math.log(p));
+            return (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                    / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        if (p > 1 - low) {
+            return -inverseNormal(1 - p);
+        }
+        double q = p - 0.5;
+        double r = q * q;
+        return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q
+                / (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+    }
+}
@@ -0,0 +1,90 @@
+package org.hsbc.risk;
+
+import org.hsbc.market.PriceHistoryClient;
+import org.hsbc.valuation.ValuationEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Portfolio VaR and expected shortfall over the current {@link Exposure} (see {@link RiskCalculator}).
+ * <p>
+ * A report is cached until the {@link ValuationEngine} version moves (a price tick or a trade) or
+ * it is older than {@code pms.risk.cache-ttl-ms}. Price histories are cached separately by
+ * {@link PriceHistoryClient}, so a recomputation after a tick only revalues the scenarios.
+ */
+@Component
+public class RiskEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(RiskEngine.class);
+
+    private final ExposureService exposures;
+    private final ValuationEngine valuation;
+    private final double[] confidenceLevels;
+    private final int[] horizons;
+    private final long cacheTtlMs;
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile Cached cached;
+
+    public RiskEngine(ExposureService exposures, ValuationEngine valuation,
+                      @Value("${pms.risk.confidence-levels:0.95,0.99}") double[] confidenceLevels,
+                      @Value("${pms.risk.horizons:1,10}") int[] horizons,
+                      @Value("${pms.risk.cache-ttl-ms:3600000}") long cacheTtlMs) {
+        this.exposures = exposures;
+        this.valuation = valuation;
+        this.confidenceLevels = confidenceLevels;
+        this.horizons = horizons;
+        this.cacheTtlMs = cacheTtlMs;
+    }
+
+    public RiskReport report() throws InterruptedException {
+        long version = valuation.snapshot().version();
+        Cached current = cached;
+        if (current != null && current.version == version
+                && System.currentTimeMillis() - current.report.asOf() < cacheTtlMs) {
+            return current.report;
+        }
+        // Not a monitor: compute() blocks on HTTP history fetches, and a virtual thread waiting on or
+        // holding a ReentrantLock unmounts instead of pinning its carrier
+        lock.lockInterruptibly();
+        try {
+            current = cached;
+            if (current != null && current.version == version
+                    && System.currentTimeMillis() - current.report.asOf() < cacheTtlMs) {
+                return current.report;
+            }
+            long start = System.nanoTime();
+            RiskReport report = compute();
+            cached = new Cached(version, report);
+            log.debug("Computed risk for {} symbols over {} days in {} µs", report.symbols().size(),
+                    report.observations(), (System.nanoTime() - start) / 1000);
+            return report;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops the cached report, e.g. after price histories were corrected.
+     */
+    public void invalidate() {
+        cached = null;
+    }
+
+    private RiskReport compute() throws InterruptedException {
+        Exposure exposure = exposures.current();
+        ReturnMatrix returns = exposure.returns();
+        List<RiskMeasure> measures = returns.observations() > 1
+                ? RiskCalculator.measures(exposure.values(), returns, confidenceLevels, horizons)
+                : List.of();
+        return new RiskReport(System.currentTimeMillis(), exposure.total(), returns.observations(),
+                returns.symbols(), exposure.excluded(), measures);
+    }
+
+    private record Cached(long version, RiskReport report) {
+    }
+}
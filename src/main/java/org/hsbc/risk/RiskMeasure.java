@@ -0,0 +1,15 @@
+package org.hsbc.risk;
+
+/**
+ * Value-at-risk and expected shortfall (CVaR) of the portfolio, both as positive losses in the
+ * portfolio currency.
+ *
+ * @param method             {@code historical} or {@code parametric}
+ * @param horizonDays        holding period the loss is measured over
+ * @param confidence         e.g. 0.99: the loss is exceeded on 1% of days
+ * @param valueAtRisk        the loss not exceeded with {@code confidence}
+ * @param expectedShortfall  the average loss beyond {@code valueAtRisk}
+ */
+public record RiskMeasure(String method, int horizonDays, double confidence, double valueAtRisk,
+                          double expectedShortfall) {
+}
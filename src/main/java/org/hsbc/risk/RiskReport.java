@@ -0,0 +1,12 @@
+package org.hsbc.risk;
+
+import java.util.List;
+
+/**
+ * @param portfolioValue market value of the positions the measures cover
+ * @param observations   daily returns the measures are based on
+ * @param excluded       held symbols left out for lack of price history
+ */
+public record RiskReport(long asOf, double portfolioValue, int observations, List<String> symbols,
+                         List<String> excluded, List<RiskMeasure> measures) {
+}
@@ -0,0 +1,20 @@
+package org.hsbc.risk;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Distribution of the portfolio's value {@code horizonDays} ahead over simulated paths.
+ *
+ * @param initialValue      market value of the simulated positions today
+ * @param mean              mean terminal value
+ * @param probabilityOfLoss share of paths ending below {@code initialValue}
+ * @param percentiles       terminal value by percentile ("1", "5", "50", ...)
+ * @param measures          VaR / expected shortfall of the simulated P&amp;L, as positive losses
+ * @param excluded          held symbols left out for lack of price history
+ */
+public record SimulationResult(String method, int paths, int horizonDays, long seed, double initialValue,
+                               double mean, double standardDeviation, double probabilityOfLoss,
+                               Map<String, Double> percentiles, List<RiskMeasure> measures,
+                               List<String> symbols, List<String> excluded, long elapsedMs) {
+}
@@ -0,0 +1,141 @@
+package org.hsbc.risk;
+
+import jakarta.annotation.PreDestroy;
+import org.hsbc.exception.InvalidRequestException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Monte Carlo simulation of the current {@link Exposure} (see {@link MonteCarloSimulator}).
+ * <p>
+ * Runs on a dedicated fork-join pool of {@code pms.simulation.parallelism} workers (0 for one per
+ * core), so a large request does not starve the common pool the rest of the application uses.
+ * Requests above {@code pms.simulation.max-paths} or {@code pms.simulation.max-horizon-days} are
+ * rejected rather than clipped.
+ */
+@Component
+public class SimulationService {
+
+    private static final Logger log = LoggerFactory.getLogger(SimulationService.class);
+
+    private static final double[] PERCENTILES = {1, 5, 25, 50, 75, 95, 99};
+    private static final double[] CONFIDENCE_LEVELS = {0.95, 0.99};
+
+    private final ExposureService exposures;
+    private final ForkJoinPool pool;
+    private final int defaultPaths;
+    private final int maxPaths;
+    private final int defaultHorizon;
+    private final int maxHorizon;
+
+    public SimulationService(ExposureService exposures,
+                             @Value("${pms.simulation.parallelism:0}") int parallelism,
+                             @Value("${pms.simulation.default-paths:100000}") int defaultPaths,
+                             @Value("${pms.simulation.max-paths:1000000}") int maxPaths,
+                             @Value("${pms.simulation.default-horizon-days:10}") int defaultHorizon,
+                             @Value("${pms.simulation.max-horizon-days:1260}") int maxHorizon) {
+        this.exposures = exposures;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.defaultPaths = defaultPaths;
+        this.maxPaths = maxPaths;
+        this.defaultHorizon = defaultHorizon;
+        this.maxHorizon = maxHorizon;
+    }
+
+    /**
+     * @param method  "gbm" or "bootstrap" (case-insensitive), null for gbm
+     * @param paths   null for {@code pms.simulation.default-paths}
+     * @param horizon trading days, null for {@code pms.simulation.default-horizon-days}
+     * @param seed    null for a random seed; the same seed reproduces the same result
+     * @throws InvalidRequestException if a parameter is out of range or there is too little history
+     */
+    public SimulationResult simulate(String method, Integer paths, Integer horizon, Long seed)
+            throws InterruptedException {
+        MonteCarloSimulator.Method m = method(method);
+        int n = paths != null ? paths : defaultPaths;
+        int h = horizon != null ? horizon : defaultHorizon;
+        if (n < 100 || n > maxPaths) {
+            throw new InvalidRequestException("paths must be between 100 and " + maxPaths);
+        }
+        if (h < 1 || h > maxHorizon) {
+            throw new InvalidRequestException("horizonDays must be between 1 and " + maxHorizon);
+        }
+        long s = seed != null ? seed : ThreadLocalRandom.current().nextLong();
+
+        Exposure exposure = exposures.current();
+        if (exposure.returns().observations() < 2) {
+            throw new InvalidRequestException("Not enough price history to simulate the portfolio");
+        }
+        long start = System.nanoTime();
+        double[] terminal = MonteCarloSimulator.simulate(exposure.values(), exposure.returns(), m, n, h, s, pool);
+        SimulationResult result = summarize(m, h, s, exposure, terminal, (System.nanoTime() - start) / 1_000_000);
+        log.debug("Simulated {} {} paths over {} days for {} symbols in {} ms", n, m, h,
+                exposure.values().length, result.elapsedMs());
+        return result;
+    }
+
+    private SimulationResult summarize(MonteCarloSimulator.Method method, int horizon, long seed, Exposure exposure,
+                                       double[] terminal, long elapsedMs) {
+        double initial = exposure.total();
+        double sum = 0;
+        int losses = 0;
+        for (double v : terminal) {
+            sum += v;
+            if (v < initial) {
+                losses++;
+            }
+        }
+        double mean = sum / terminal.length;
+        double squares = 0;
+        for (double v : terminal) {
+            squares += (v - mean) * (v - mean);
+        }
+        Arrays.parallelSort(terminal);
+
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        for (double p : PERCENTILES) {
+            int index = Math.min(terminal.length - 1, (int) Math.floor(p / 100 * terminal.length));
+            percentiles.put(String.valueOf((int) p), terminal[index]);
+        }
+        double[] pnl = new double[terminal.length];
+        for (int i = 0; i < pnl.length; i++) {
+            pnl[i] = terminal[i] - initial;
+        }
+        String label = "monte-carlo-" + method.name().toLowerCase(Locale.ROOT);
+        List<RiskMeasure> measures = Arrays.stream(CONFIDENCE_LEVELS)
+                .mapToObj(c -> {
+                    RiskMeasure m = RiskCalculator.historical(pnl, c, horizon);
+                    return new RiskMeasure(label, horizon, c, m.valueAtRisk(), m.expectedShortfall());
+                })
+                .toList();
+        return new SimulationResult(method.name().toLowerCase(Locale.ROOT), terminal.length, horizon, seed, initial,
+                mean, Math.sqrt(squares / (terminal.length - 1)), (double) losses / terminal.length, percentiles,
+                measures, exposure.returns().symbols(), exposure.excluded(), elapsedMs);
+    }
+
+    private static MonteCarloSimulator.Method method(String method) {
+        if (method == null) {
+            return MonteCarloSimulator.Method.GBM;
+        }
+        try {
+            return MonteCarloSimulator.Method.valueOf(method.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("method must be gbm or bootstrap");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
@@ -4,10 +4,15 @@ package org.hsbc.service;
 import org.hsbc.entity.PmsEntity;
 import org.hsbc.entity.TransactionEntity;
 import org.hsbc.exception.InvalidPmsIdException;
+import org.hsbc.jfr.TradeEvent;
+import org.hsbc.market.PriceTable;
 import org.hsbc.repo.PmsRepository;
+import org.hsbc.valuation.HoldingChangedEvent;
+import org.hsbc.valuation.ValuationEngine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
@@ -15,6 +20,7 @@ import org.springframework.web.server.ResponseStatusException;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 @Service
 public class PmsServiceimp implements PmsService {
@@ -28,6 +34,12 @@ public class PmsServiceimp implements PmsService {
     @Autowired
     private TransactionService transactionService;
 
+    @Autowired
+    private PriceTable priceTable;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
     // 1️⃣ Add Asset
     @Override
     public PmsEntity addAsset(PmsEntity asset) {
@@ -42,25 +54,33 @@ public class PmsServiceimp implements PmsService {
         asset.setPurchaseDate(LocalDate.now());
         asset.setBuyingValue(totalCost);
 
-        return repository.save(asset);
+        PmsEntity saved = repository.save(asset);
+        holdingChanged(asset, asset.getQuantity(), ValuationEngine.investedValue(asset), asset.getCurrentPrice());
+        return saved;
     }
 
     // 2️⃣ Remove Asset
     @Override
     public void removeAsset(Long id) throws InvalidPmsIdException {
-        getAssetById(id);
+        PmsEntity asset = getAssetById(id);
         repository.deleteById(id);
+        holdingChanged(asset, -asset.getQuantity(), -ValuationEngine.investedValue(asset), asset.getCurrentPrice());
     }
 
     // 3️⃣ Update Quantity
     @Override
     public PmsEntity updateQuantity(Long id, int newQuantity) throws InvalidPmsIdException {
         PmsEntity asset = getAssetById(id);
+        int oldQuantity = asset.getQuantity();
+        double oldInvested = ValuationEngine.investedValue(asset);
 
         asset.setQuantity(newQuantity);
         asset.setBuyingValue(asset.getBuyPrice() * newQuantity);
 
-        return repository.save(asset);
+        PmsEntity saved = repository.save(asset);
+        holdingChanged(asset, newQuantity - oldQuantity, ValuationEngine.investedValue(asset) - oldInvested,
+                asset.getCurrentPrice());
+        return saved;
     }
 
     // 4️⃣ Calculate Profit / Loss
@@ -69,7 +89,7 @@ public class PmsServiceimp implements PmsService {
         PmsEntity asset = getAssetById(id);
 
         double buyingValue = asset.getBuyPrice() * asset.getQuantity();
-        double currentValue = asset.getCurrentPrice() * asset.getQuantity();
+        double currentValue = currentPrice(asset) * asset.getQuantity();
 
         return currentValue - buyingValue;
     }
@@ -93,7 +113,7 @@ public class PmsServiceimp implements PmsService {
     public double getTotalPortfolioValue() {
         return repository.findAll()
                 .stream()
-                .mapToDouble(a -> a.getCurrentPrice() * a.getQuantity())
+                .mapToDouble(a -> currentPrice(a) * a.getQuantity())
                 .sum();
     }
 
@@ -115,14 +135,19 @@ public class PmsServiceimp implements PmsService {
         return optAsset.get();
     }
 
+    /**
+     * Updates the shared {@link PriceTable}; the row's current_price is written by the next
+     * {@link org.hsbc.market.PriceWriteBehindBuffer} flush rather than here.
+     */
     @Override
     public PmsEntity updateCurrentPrice(String symbol, double newPrice) {
         List<PmsEntity> assets = repository.findAll();
         for (PmsEntity asset : assets) {
             if (asset.getSymbol().equalsIgnoreCase(symbol)) {
+                priceTable.update(asset.getSymbol(), newPrice);
                 asset.setCurrentPrice(newPrice);
-                System.out.println("Updated " + symbol + " price to: " + newPrice);
-                return repository.save(asset);
+                log.debug("Updated {} price to: {}", symbol, newPrice);
+                return asset;
             }
         }
         throw new org.hsbc.exception.ResourceNotFoundException("Asset not found with symbol " + symbol);
@@ -130,99 +155,148 @@ public class PmsServiceimp implements PmsService {
 
     @Override
     public PmsEntity buyAsset(String symbol, String companyName, int quantity, double price, String assetType) {
-        // Calculate total cost and deduct from wallet
-        double totalCost = price * quantity;
-        walletService.deductMoney(totalCost);
-        
-        // Check if asset already exists
-        Optional<PmsEntity> existingAsset = repository.findBySymbol(symbol);
-        
-        PmsEntity asset;
-        if (existingAsset.isPresent()) {
-            // Update existing asset
-            asset = existingAsset.get();
-            int newQuantity = asset.getQuantity() + quantity;
-            
-            // Calculate weighted average buy price
-            double totalValue = (asset.getBuyPrice() * asset.getQuantity()) + (price * quantity);
-            double avgBuyPrice = totalValue / newQuantity;
-            
-            asset.setQuantity(newQuantity);
-            asset.setBuyPrice(avgBuyPrice);
-            asset.setBuyingValue(totalValue);
-            asset.setCurrentPrice(price);
-        } else {
-            // Create new asset
-            asset = new PmsEntity();
-            asset.setSymbol(symbol);
-            asset.setCompanyName(companyName);
-            asset.setQuantity(quantity);
-            asset.setBuyPrice(price);
-            asset.setCurrentPrice(price);
-            asset.setBuyingValue(price * quantity);
-            asset.setAssetType(assetType);
-            asset.setPurchaseDate(LocalDate.now());
+        TradeEvent event = TradeEvent.begin("BUY", symbol, quantity);
+        try {
+            // Interned before any money moves, so nothing after the wallet deduction can fail on the price table
+            int priceId = priceTable.intern(symbol);
+
+            // Calculate total cost and deduct from wallet
+            double totalCost = price * quantity;
+            timed(event, () -> walletService.deductMoney(totalCost));
+
+            // Check if asset already exists
+            Optional<PmsEntity> existingAsset = timed(event, () -> repository.findBySymbol(symbol));
+
+            PmsEntity asset;
+            double oldInvested = 0;
+            if (existingAsset.isPresent()) {
+                // Update existing asset
+                asset = existingAsset.get();
+                oldInvested = ValuationEngine.investedValue(asset);
+                int newQuantity = asset.getQuantity() + quantity;
+
+                // Calculate weighted average buy price
+                double totalValue = (asset.getBuyPrice() * asset.getQuantity()) + (price * quantity);
+                double avgBuyPrice = totalValue / newQuantity;
+
+                asset.setQuantity(newQuantity);
+                asset.setBuyPrice(avgBuyPrice);
+                asset.setBuyingValue(totalValue);
+                asset.setCurrentPrice(price);
+            } else {
+                // Create new asset
+                asset = new PmsEntity();
+                asset.setSymbol(symbol);
+                asset.setCompanyName(companyName);
+                asset.setQuantity(quantity);
+                asset.setBuyPrice(price);
+                asset.setCurrentPrice(price);
+                asset.setBuyingValue(price * quantity);
+                asset.setAssetType(assetType);
+                asset.setPurchaseDate(LocalDate.now());
+            }
+
+            PmsEntity savedAsset = timed(event, () -> repository.save(asset));
+            priceTable.update(priceId, price, System.currentTimeMillis());
+            holdingChanged(asset, quantity, ValuationEngine.investedValue(asset) - oldInvested, price);
+
+            // Record transaction
+            TransactionEntity transaction = new TransactionEntity(
+                symbol,
+                quantity,
+                price,
+                java.time.LocalDateTime.now(),
+                "BUY"
+            );
+            timed(event, () -> transactionService.addTransaction(transaction));
+
+            return savedAsset;
+        } finally {
+            event.complete();
         }
-        
-        PmsEntity savedAsset = repository.save(asset);
-        
-        // Record transaction
-        TransactionEntity transaction = new TransactionEntity(
-            symbol,
-            quantity,
-            price,
-            java.time.LocalDateTime.now(),
-            "BUY"
-        );
-        transactionService.addTransaction(transaction);
-        
-        return savedAsset;
     }
 
     @Override
     public PmsEntity sellAsset(String symbol, int quantity) {
-        Optional<PmsEntity> optAsset = repository.findBySymbol(symbol);
-        
-        if (optAsset.isEmpty()) {
-            throw new ResponseStatusException(
-                HttpStatus.NOT_FOUND,
-                "Asset not found with symbol " + symbol
-            );
-        }
-        
-        PmsEntity asset = optAsset.get();
-        
-        if (quantity > asset.getQuantity()) {
-            throw new ResponseStatusException(
-                HttpStatus.BAD_REQUEST,
-                "Cannot sell more than owned quantity. Available: " + asset.getQuantity()
+        TradeEvent event = TradeEvent.begin("SELL", symbol, quantity);
+        try {
+            Optional<PmsEntity> optAsset = timed(event, () -> repository.findBySymbol(symbol));
+
+            if (optAsset.isEmpty()) {
+                throw new ResponseStatusException(
+                    HttpStatus.NOT_FOUND,
+                    "Asset not found with symbol " + symbol
+                );
+            }
+
+            PmsEntity asset = optAsset.get();
+            double oldInvested = ValuationEngine.investedValue(asset);
+
+            if (quantity > asset.getQuantity()) {
+                throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "Cannot sell more than owned quantity. Available: " + asset.getQuantity()
+                );
+            }
+
+            // Calculate sale proceeds and add to wallet
+            double salePrice = currentPrice(asset);
+            double saleProceeds = salePrice * quantity;
+            timed(event, () -> walletService.addMoney(saleProceeds));
+
+            // Record transaction
+            TransactionEntity transaction = new TransactionEntity(
+                symbol,
+                quantity,
+                salePrice,
+                java.time.LocalDateTime.now(),
+                "SELL"
             );
+            timed(event, () -> transactionService.addTransaction(transaction));
+
+            if (quantity == asset.getQuantity()) {
+                // Sell entire position
+                timed(event, () -> {
+                    repository.delete(asset);
+                    return null;
+                });
+                holdingChanged(asset, -quantity, -oldInvested, salePrice);
+                return null;
+            } else {
+                // Reduce quantity
+                int newQuantity = asset.getQuantity() - quantity;
+                asset.setQuantity(newQuantity);
+                asset.setBuyingValue(asset.getBuyPrice() * newQuantity);
+                PmsEntity savedAsset = timed(event, () -> repository.save(asset));
+                holdingChanged(asset, -quantity, ValuationEngine.investedValue(asset) - oldInvested, salePrice);
+                return savedAsset;
+            }
+        } finally {
+            event.complete();
         }
-        
-        // Calculate sale proceeds and add to wallet
-        double saleProceeds = asset.getCurrentPrice() * quantity;
-        walletService.addMoney(saleProceeds);
-        
-        // Record transaction
-        TransactionEntity transaction = new TransactionEntity(
-            symbol,
-            quantity,
-            asset.getCurrentPrice(),
-            java.time.LocalDateTime.now(),
-            "SELL"
-        );
-        transactionService.addTransaction(transaction);
-        
-        if (quantity == asset.getQuantity()) {
-            // Sell entire position
-            repository.delete(asset);
-            return null;
-        } else {
-            // Reduce quantity
-            int newQuantity = asset.getQuantity() - quantity;
-            asset.setQuantity(newQuantity);
-            asset.setBuyingValue(asset.getBuyPrice() * newQuantity);
-            return repository.save(asset);
+    }
+
+    /**
+     * Tells the {@link ValuationEngine} (and anyone else listening) how a holding moved.
+     */
+    private void holdingChanged(PmsEntity asset, int quantityDelta, double investedDelta, double price) {
+        events.publishEvent(new HoldingChangedEvent(asset.getSymbol(), asset.getAssetType(), asset.getIndustry(),
+                quantityDelta, investedDelta, price));
+    }
+
+    /**
+     * Latest price from the shared table, or the persisted one if the table has not seen the symbol.
+     */
+    private double currentPrice(PmsEntity asset) {
+        return priceTable.priceOrElse(asset.getSymbol(), asset.getCurrentPrice());
+    }
+
+    private static <T> T timed(TradeEvent event, Supplier<T> call) {
+        long start = System.nanoTime();
+        try {
+            return call.get();
+        } finally {
+            event.databaseTime += System.nanoTime() - start;
         }
     }
 
@@ -3,6 +3,7 @@ package org.hsbc.service;
 import org.hsbc.entity.TransactionEntity;
 import org.hsbc.exception.InvalidTransactionIdException;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface TransactionService {
@@ -12,6 +13,12 @@ public interface TransactionService {
 
     List<TransactionEntity> getTransactionsBySymbol(String symbol);
 
+    /**
+     * Transactions dated after {@code after} (from the first, if null) up to and including
+     * {@code until}, oldest first.
+     */
+    List<TransactionEntity> getTransactionsBetween(LocalDateTime after, LocalDateTime until);
+
     TransactionEntity getTransactionById(Long id) throws InvalidTransactionIdException;
 
     TransactionEntity updateTransaction(TransactionEntity transaction) throws InvalidTransactionIdException;
@@ -2,11 +2,14 @@ package org.hsbc.service;
 
 import org.hsbc.entity.TransactionEntity;
 import org.hsbc.exception.InvalidTransactionIdException;
+import org.hsbc.performance.TransactionRecordedEvent;
 import org.hsbc.repo.TransactionRepo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,14 +19,18 @@ public class TransactionSeviceimp implements TransactionService {
             LoggerFactory.getLogger(TransactionSeviceimp.class);
 
     private final TransactionRepo repository;
+    private final ApplicationEventPublisher events;
 
-    public TransactionSeviceimp(TransactionRepo repository) {
+    public TransactionSeviceimp(TransactionRepo repository, ApplicationEventPublisher events) {
         this.repository = repository;
+        this.events = events;
     }
 
     @Override
     public TransactionEntity addTransaction(TransactionEntity transaction) {
-        return repository.save(transaction);
+        TransactionEntity saved = repository.save(transaction);
+        events.publishEvent(new TransactionRecordedEvent(transaction.getSymbol(), saved));
+        return saved;
     }
 
     @Override
@@ -36,6 +43,11 @@ public class TransactionSeviceimp implements TransactionService {
         return repository.findBySymbol(symbol);
     }
 
+    @Override
+    public List<TransactionEntity> getTransactionsBetween(LocalDateTime after, LocalDateTime until) {
+        return after == null ? repository.findUntil(until) : repository.findBetween(after, until);
+    }
+
     @Override
     public TransactionEntity getTransactionById(Long id) throws InvalidTransactionIdException {
         Optional<TransactionEntity> optTransaction = repository.findById(id);
@@ -47,13 +59,20 @@ public class TransactionSeviceimp implements TransactionService {
 
     @Override
     public TransactionEntity updateTransaction(TransactionEntity transaction) throws InvalidTransactionIdException {
-        getTransactionById(transaction.getTransactionId()); // Validate existence
-        return repository.save(transaction);
+        TransactionEntity existing = getTransactionById(transaction.getTransactionId()); // Validate existence
+        String previousSymbol = existing.getSymbol();
+        TransactionEntity saved = repository.save(transaction);
+        events.publishEvent(new TransactionRecordedEvent(transaction.getSymbol()));
+        if (previousSymbol != null && !previousSymbol.equals(transaction.getSymbol())) {
+            events.publishEvent(new TransactionRecordedEvent(previousSymbol));
+        }
+        return saved;
     }
 
     @Override
     public void deleteTransaction(Long id) throws InvalidTransactionIdException {
-        getTransactionById(id); // Validate existence
+        TransactionEntity existing = getTransactionById(id); // Validate existence
         repository.deleteById(id);
+        events.publishEvent(new TransactionRecordedEvent(existing.getSymbol()));
     }
 }
\ No newline at end of file
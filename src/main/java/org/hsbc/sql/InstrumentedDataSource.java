@@ -0,0 +1,157 @@
+package org.hsbc.sql;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wraps a {@link DataSource} so every executed statement is timed and counted against the current
+ * {@link SqlStats} scope, rows read through returned result sets are counted, and statements slower
+ * than the threshold are logged at WARN.
+ */
+public class InstrumentedDataSource extends DelegatingDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(InstrumentedDataSource.class);
+    private static final int MAX_LOGGED_SQL_LENGTH = 500;
+
+    private final long slowQueryNanos;
+
+    public InstrumentedDataSource(DataSource target, long slowQueryMs) {
+        super(target);
+        this.slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryMs);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrapConnection(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrapConnection(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection wrapConnection(Connection connection) {
+        return proxy(Connection.class, new ConnectionHandler(connection));
+    }
+
+    private void recordStatement(String sql, long nanos) {
+        SqlStats stats = SqlStats.current();
+        if (stats != null) {
+            stats.recordStatement(nanos);
+        }
+        if (nanos >= slowQueryNanos && log.isWarnEnabled()) {
+            String text = sql == null ? "<batch>" : sql.length() > MAX_LOGGED_SQL_LENGTH
+                    ? sql.substring(0, MAX_LOGGED_SQL_LENGTH) + "..." : sql;
+            log.warn("Slow SQL ({} ms): {}", nanos / 1_000_000.0, text);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(InstrumentedDataSource.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = InstrumentedDataSource.invoke(target, method, args);
+            String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+            if (result instanceof CallableStatement statement) {
+                return proxy(CallableStatement.class, new StatementHandler(statement, (Connection) proxy, sql));
+            }
+            if (result instanceof PreparedStatement statement) {
+                return proxy(PreparedStatement.class, new StatementHandler(statement, (Connection) proxy, sql));
+            }
+            if (result instanceof Statement statement) {
+                return proxy(Statement.class, new StatementHandler(statement, (Connection) proxy, null));
+            }
+            return result;
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private final Connection connection;
+        private final String preparedSql;
+
+        StatementHandler(Statement target, Connection connection, String preparedSql) {
+            this.target = target;
+            this.connection = connection;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("getConnection")) {
+                return connection;
+            }
+            Object result;
+            if (name.startsWith("execute")) {
+                long start = System.nanoTime();
+                try {
+                    result = InstrumentedDataSource.invoke(target, method, args);
+                } finally {
+                    String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+                    recordStatement(sql, System.nanoTime() - start);
+                }
+            } else {
+                result = InstrumentedDataSource.invoke(target, method, args);
+            }
+            if (result instanceof ResultSet resultSet) {
+                return proxy(ResultSet.class, new ResultSetHandler(resultSet, SqlStats.current()));
+            }
+            return result;
+        }
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+
+        private final ResultSet target;
+        private final SqlStats stats;
+
+        ResultSetHandler(ResultSet target, SqlStats stats) {
+            this.target = target;
+            this.stats = stats;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = InstrumentedDataSource.invoke(target, method, args);
+            if (stats != null && method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                stats.recordRow();
+            }
+            return result;
+        }
+    }
+}
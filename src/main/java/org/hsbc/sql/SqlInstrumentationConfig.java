@@ -0,0 +1,38 @@
+package org.hsbc.sql;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application {@link DataSource} in an {@link InstrumentedDataSource} and registers the
+ * per-request {@link SqlStatsFilter}. Disable with {@code pms.sql.instrumentation.enabled=false}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "pms.sql.instrumentation.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlInstrumentationConfig {
+
+    @Bean
+    public static BeanPostProcessor instrumentedDataSourcePostProcessor(Environment environment) {
+        long slowQueryMs = environment.getProperty("pms.sql.slow-query-ms", Long.class, 200L);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof InstrumentedDataSource)) {
+                    return new InstrumentedDataSource(dataSource, slowQueryMs);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public SqlStatsFilter sqlStatsFilter(MeterRegistry registry) {
+        return new SqlStatsFilter(registry);
+    }
+}
@@ -0,0 +1,79 @@
+package org.hsbc.sql;
+
+/**
+ * SQL statement count, time and rows read on the current thread within a scope, normally one
+ * HTTP request (see {@link SqlStatsFilter}). Tests can open their own scope to assert a query
+ * budget:
+ * <pre>
+ * try (SqlStats stats = SqlStats.start()) {
+ *     service.getAllAssets();
+ *     assertTrue(stats.getStatementCount() &lt;= 1);
+ * }
+ * </pre>
+ * Statements run on other threads (async work, schedulers) are not attributed to the scope.
+ */
+public final class SqlStats implements AutoCloseable {
+
+    private static final ThreadLocal<SqlStats> CURRENT = new ThreadLocal<>();
+
+    private final SqlStats previous;
+    private int statementCount;
+    private long statementNanos;
+    private long rowCount;
+
+    private SqlStats(SqlStats previous) {
+        this.previous = previous;
+    }
+
+    /** Opens a scope on this thread; closing it restores the enclosing scope, if any. */
+    public static SqlStats start() {
+        SqlStats stats = new SqlStats(CURRENT.get());
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /** The innermost open scope on this thread, or {@code null}. */
+    public static SqlStats current() {
+        return CURRENT.get();
+    }
+
+    void recordStatement(long nanos) {
+        statementCount++;
+        statementNanos += nanos;
+        if (previous != null) {
+            previous.recordStatement(nanos);
+        }
+    }
+
+    void recordRow() {
+        rowCount++;
+        if (previous != null) {
+            previous.recordRow();
+        }
+    }
+
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    public long getStatementNanos() {
+        return statementNanos;
+    }
+
+    public double getStatementMillis() {
+        return statementNanos / 1_000_000.0;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public void close() {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
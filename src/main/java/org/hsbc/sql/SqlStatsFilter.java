@@ -0,0 +1,53 @@
+package org.hsbc.sql;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens a {@link SqlStats} scope per request and records the totals as
+ * {@code pms.sql.request.statements}, {@code pms.sql.request.rows} and {@code pms.sql.request.time},
+ * tagged with the matched controller route.
+ */
+public class SqlStatsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry registry;
+
+    public SqlStatsFilter(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try (SqlStats stats = SqlStats.start()) {
+            chain.doFilter(request, response);
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+            DistributionSummary.builder("pms.sql.request.statements")
+                    .description("SQL statements executed per HTTP request")
+                    .tag("uri", uri)
+                    .register(registry)
+                    .record(stats.getStatementCount());
+            DistributionSummary.builder("pms.sql.request.rows")
+                    .description("Result set rows read per HTTP request")
+                    .tag("uri", uri)
+                    .register(registry)
+                    .record(stats.getRowCount());
+            Timer.builder("pms.sql.request.time")
+                    .description("Time spent executing SQL per HTTP request")
+                    .tag("uri", uri)
+                    .register(registry)
+                    .record(stats.getStatementNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.hsbc.sql;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.Locale;
+
+/**
+ * Adds {@code X-SQL-Count}, {@code X-SQL-Time-Ms} and {@code X-SQL-Rows} to controller responses,
+ * taken from the request's {@link SqlStats} scope just before the body is written. SQL run while
+ * the body is being serialised (lazy loading) is only visible in the metrics.
+ */
+@ControllerAdvice
+public class SqlStatsResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String COUNT_HEADER = "X-SQL-Count";
+    public static final String TIME_HEADER = "X-SQL-Time-Ms";
+    public static final String ROWS_HEADER = "X-SQL-Rows";
+
+    @Value("${pms.sql.response-headers:true}")
+    private boolean enabled = true;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return enabled;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        SqlStats stats = SqlStats.current();
+        if (stats != null) {
+            response.getHeaders().set(COUNT_HEADER, Integer.toString(stats.getStatementCount()));
+            response.getHeaders().set(TIME_HEADER, String.format(Locale.ROOT, "%.3f", stats.getStatementMillis()));
+            response.getHeaders().set(ROWS_HEADER, Long.toString(stats.getRowCount()));
+        }
+        return body;
+    }
+}
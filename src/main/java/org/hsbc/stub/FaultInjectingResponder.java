@@ -0,0 +1,60 @@
+package org.hsbc.stub;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wraps another responder with injected latency and errors.
+ * Latency is {@code latencyMs} plus a uniform jitter in {@code [0, jitterMs)}; a fraction
+ * {@code errorRate} of requests is answered with {@code errorStatus} instead of the real body.
+ * Decisions are drawn from {@code seed}, the request and how many times that request has been
+ * seen, so the n-th call to a given URL behaves the same in every run regardless of interleaving.
+ */
+public class FaultInjectingResponder implements StubResponder {
+
+    private final StubResponder delegate;
+    private final long seed;
+    private final long latencyMs;
+    private final long jitterMs;
+    private final double errorRate;
+    private final int errorStatus;
+    private final ConcurrentHashMap<String, AtomicLong> occurrences = new ConcurrentHashMap<>();
+
+    public FaultInjectingResponder(StubResponder delegate, long seed, long latencyMs, long jitterMs,
+                                   double errorRate, int errorStatus) {
+        if (errorRate < 0 || errorRate > 1) {
+            throw new IllegalArgumentException("errorRate must be between 0 and 1");
+        }
+        this.delegate = delegate;
+        this.seed = seed;
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        this.errorRate = errorRate;
+        this.errorStatus = errorStatus;
+    }
+
+    @Override
+    public StubResponse respond(String method, String pathAndQuery, byte[] body) throws IOException {
+        String key = method + " " + pathAndQuery;
+        long occurrence = occurrences.computeIfAbsent(key, k -> new AtomicLong()).getAndIncrement();
+        SplittableRandom random = new SplittableRandom(seed ^ (key.hashCode() * 0x9E3779B97F4A7C15L) ^ occurrence);
+
+        long delay = latencyMs + (jitterMs > 0 ? random.nextLong(jitterMs) : 0);
+        boolean fail = errorRate > 0 && random.nextDouble() < errorRate;
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted during injected latency");
+            }
+        }
+        if (fail) {
+            return StubResponse.json(errorStatus, "{\"error\":\"Injected upstream failure\"}");
+        }
+        return delegate.respond(method, pathAndQuery, body);
+    }
+}
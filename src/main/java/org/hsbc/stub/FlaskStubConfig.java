@@ -0,0 +1,55 @@
+package org.hsbc.stub;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/**
+ * Starts the in-process Flask stub when the {@code flask-stub} profile is active.
+ * The profile's properties point {@code flask.api.url} at the stub's port.
+ * <ul>
+ *   <li>{@code flask.stub.mode=synthetic} (default) serves seeded synthetic market data</li>
+ *   <li>{@code flask.stub.mode=record} proxies to {@code flask.stub.upstream-url} and saves every response</li>
+ *   <li>{@code flask.stub.mode=replay} serves only saved responses, never touching the network</li>
+ * </ul>
+ * Latency and error injection ({@code flask.stub.latency-ms}, {@code latency-jitter-ms},
+ * {@code error-rate}, {@code error-status}) apply in every mode.
+ */
+@Configuration
+@Profile("flask-stub")
+public class FlaskStubConfig {
+
+    @Bean(destroyMethod = "close")
+    public FlaskStubServer flaskStubServer(@Value("${flask.stub.port:5001}") int port,
+                                           @Value("${flask.stub.mode:synthetic}") String mode,
+                                           @Value("${flask.stub.recordings-dir:flask-recordings}") String recordingsDir,
+                                           @Value("${flask.stub.upstream-url:http://localhost:5000}") String upstreamUrl,
+                                           @Value("${flask.stub.replay-fallback-synthetic:false}") boolean syntheticFallback,
+                                           @Value("${flask.stub.latency-ms:0}") long latencyMs,
+                                           @Value("${flask.stub.latency-jitter-ms:0}") long jitterMs,
+                                           @Value("${flask.stub.error-rate:0}") double errorRate,
+                                           @Value("${flask.stub.error-status:503}") int errorStatus,
+                                           @Value("${datagen.seed:42}") long seed) throws IOException {
+        StubResponder responder = responder(mode, Path.of(recordingsDir), upstreamUrl, syntheticFallback, seed);
+        if (latencyMs > 0 || jitterMs > 0 || errorRate > 0) {
+            responder = new FaultInjectingResponder(responder, seed, latencyMs, jitterMs, errorRate, errorStatus);
+        }
+        return new FlaskStubServer(port, responder).start();
+    }
+
+    static StubResponder responder(String mode, Path recordingsDir, String upstreamUrl,
+                                   boolean syntheticFallback, long seed) {
+        StubResponder synthetic = new SyntheticMarketDataResponder(seed, LocalDate::now);
+        return switch (mode.toLowerCase()) {
+            case "synthetic" -> synthetic;
+            case "record" -> new RecordingResponder(upstreamUrl, new RecordingStore(recordingsDir));
+            case "replay" -> new ReplayResponder(new RecordingStore(recordingsDir), syntheticFallback ? synthetic : null);
+            default -> throw new IllegalArgumentException("Unknown flask.stub.mode: " + mode);
+        };
+    }
+}
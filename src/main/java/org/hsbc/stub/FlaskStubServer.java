@@ -0,0 +1,88 @@
+package org.hsbc.stub;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Minimal in-process HTTP server standing in for the Flask data API.
+ * Point {@code flask.api.url} at it and the Java tier runs without Flask, yfinance or network.
+ * Every exchange is handled on its own virtual thread.
+ */
+public class FlaskStubServer implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(FlaskStubServer.class);
+    // Deep enough for load tests that open hundreds of connections at once
+    private static final int BACKLOG = 1024;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final StubResponder responder;
+
+    public FlaskStubServer(int port, StubResponder responder) throws IOException {
+        this.responder = responder;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), BACKLOG);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    public FlaskStubServer start() {
+        server.start();
+        log.info("Flask stub server listening on {}", getBaseUrl());
+        return this;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            byte[] requestBody;
+            try (InputStream in = exchange.getRequestBody()) {
+                requestBody = in.readAllBytes();
+            }
+            String pathAndQuery = exchange.getRequestURI().getRawPath();
+            if (exchange.getRequestURI().getRawQuery() != null) {
+                pathAndQuery += "?" + exchange.getRequestURI().getRawQuery();
+            }
+
+            StubResponse response;
+            try {
+                response = responder.respond(exchange.getRequestMethod(), pathAndQuery, requestBody);
+            } catch (Exception e) {
+                log.error("Stub failed to answer {} {}: {}", exchange.getRequestMethod(), pathAndQuery, e.getMessage(), e);
+                response = StubResponse.json(500, "{\"error\":\"Stub error\"}");
+            }
+
+            exchange.getResponseHeaders().set("Content-Type", response.contentType());
+            byte[] body = response.body();
+            exchange.sendResponseHeaders(response.status(), body.length == 0 ? -1 : body.length);
+            if (body.length > 0) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        log.info("Flask stub server stopped");
+    }
+}
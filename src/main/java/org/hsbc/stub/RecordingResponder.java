@@ -0,0 +1,59 @@
+package org.hsbc.stub;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Record mode: forwards every request to the real Flask API, saves the response in the
+ * {@link RecordingStore} and returns it unchanged.
+ */
+public class RecordingResponder implements StubResponder {
+
+    private static final Logger log = LoggerFactory.getLogger(RecordingResponder.class);
+
+    private final String upstreamUrl;
+    private final RecordingStore store;
+    private final HttpClient client;
+
+    public RecordingResponder(String upstreamUrl, RecordingStore store) {
+        this.upstreamUrl = upstreamUrl;
+        this.store = store;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    @Override
+    public StubResponse respond(String method, String pathAndQuery, byte[] body) throws IOException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(upstreamUrl + pathAndQuery))
+                .timeout(Duration.ofSeconds(60));
+        if (body.length > 0) {
+            request.header("Content-Type", StubResponse.JSON);
+        }
+        request.method(method, body.length > 0
+                ? HttpRequest.BodyPublishers.ofByteArray(body)
+                : HttpRequest.BodyPublishers.noBody());
+
+        HttpResponse<byte[]> upstream;
+        try {
+            upstream = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while calling " + pathAndQuery, e);
+        }
+
+        StubResponse response = new StubResponse(upstream.statusCode(),
+                upstream.headers().firstValue("Content-Type").orElse(StubResponse.JSON),
+                upstream.body());
+        store.save(method, pathAndQuery, body, response);
+        log.debug("Recorded {} {} -> {} ({} bytes)", method, pathAndQuery, response.status(), response.body().length);
+        return response;
+    }
+}
@@ -0,0 +1,94 @@
+package org.hsbc.stub;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * Recorded upstream responses on disk, one pair of files per request:
+ * {@code <key>.properties} (method, path, status, content type) and {@code <key>.body} (raw bytes).
+ * The key is readable (method + path) with a short hash of the full URL and request body appended,
+ * so different query strings or POST bodies never collide.
+ */
+public class RecordingStore {
+
+    private static final int MAX_READABLE_KEY = 80;
+
+    private final Path directory;
+
+    public RecordingStore(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create recordings directory " + directory, e);
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public void save(String method, String pathAndQuery, byte[] requestBody, StubResponse response) throws IOException {
+        String key = key(method, pathAndQuery, requestBody);
+        Properties meta = new Properties();
+        meta.setProperty("method", method);
+        meta.setProperty("path", pathAndQuery);
+        meta.setProperty("status", Integer.toString(response.status()));
+        meta.setProperty("contentType", response.contentType());
+
+        // Write to temp files and move, so a concurrent replay never sees half a recording
+        Path body = directory.resolve(key + ".body");
+        Path bodyTmp = Files.createTempFile(directory, key, ".tmp");
+        Files.write(bodyTmp, response.body());
+        Files.move(bodyTmp, body, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        Path metaTmp = Files.createTempFile(directory, key, ".tmp");
+        try (OutputStream out = Files.newOutputStream(metaTmp)) {
+            meta.store(out, "Recorded Flask response");
+        }
+        Files.move(metaTmp, directory.resolve(key + ".properties"),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public Optional<StubResponse> load(String method, String pathAndQuery, byte[] requestBody) throws IOException {
+        String key = key(method, pathAndQuery, requestBody);
+        Path metaFile = directory.resolve(key + ".properties");
+        if (!Files.exists(metaFile)) {
+            return Optional.empty();
+        }
+        Properties meta = new Properties();
+        try (InputStream in = Files.newInputStream(metaFile)) {
+            meta.load(in);
+        }
+        byte[] body = Files.readAllBytes(directory.resolve(key + ".body"));
+        return Optional.of(new StubResponse(Integer.parseInt(meta.getProperty("status")),
+                meta.getProperty("contentType", StubResponse.JSON), body));
+    }
+
+    static String key(String method, String pathAndQuery, byte[] requestBody) {
+        String readable = (method + pathAndQuery).replaceAll("[^A-Za-z0-9._=-]+", "_");
+        if (readable.length() > MAX_READABLE_KEY) {
+            readable = readable.substring(0, MAX_READABLE_KEY);
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(method.getBytes(StandardCharsets.UTF_8));
+            digest.update(pathAndQuery.getBytes(StandardCharsets.UTF_8));
+            digest.update(requestBody);
+            return readable + "-" + HexFormat.of().formatHex(digest.digest(), 0, 6);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package org.hsbc.stub;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Replay mode: answers only from the {@link RecordingStore}. Requests that were never recorded
+ * get a 404 (or go to the optional fallback, e.g. the synthetic responder) so a replay run
+ * never reaches the network.
+ */
+public class ReplayResponder implements StubResponder {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplayResponder.class);
+
+    private final RecordingStore store;
+    private final StubResponder fallback;
+
+    public ReplayResponder(RecordingStore store, StubResponder fallback) {
+        this.store = store;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public StubResponse respond(String method, String pathAndQuery, byte[] body) throws IOException {
+        Optional<StubResponse> recorded = store.load(method, pathAndQuery, body);
+        if (recorded.isPresent()) {
+            return recorded.get();
+        }
+        if (fallback != null) {
+            return fallback.respond(method, pathAndQuery, body);
+        }
+        log.warn("No recording for {} {}", method, pathAndQuery);
+        return StubResponse.notFound("No recording for " + pathAndQuery);
+    }
+}
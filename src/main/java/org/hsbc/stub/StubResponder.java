@@ -0,0 +1,17 @@
+package org.hsbc.stub;
+
+import java.io.IOException;
+
+/**
+ * Produces the response the stub server sends for one upstream request.
+ */
+@FunctionalInterface
+public interface StubResponder {
+
+    /**
+     * @param method      HTTP method, e.g. GET
+     * @param pathAndQuery request path including the raw query string, e.g. {@code /api/history/AAPL?period=1Y}
+     * @param body        request body, empty for GET
+     */
+    StubResponse respond(String method, String pathAndQuery, byte[] body) throws IOException;
+}
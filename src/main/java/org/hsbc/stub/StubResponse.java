@@ -0,0 +1,19 @@
+package org.hsbc.stub;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A canned upstream response: status, content type and raw body bytes.
+ */
+public record StubResponse(int status, String contentType, byte[] body) {
+
+    public static final String JSON = "application/json";
+
+    public static StubResponse json(int status, String body) {
+        return new StubResponse(status, JSON, body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static StubResponse notFound(String message) {
+        return json(404, "{\"error\":\"" + message + "\"}");
+    }
+}
@@ -0,0 +1,129 @@
+package org.hsbc.stub;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.hsbc.datagen.SyntheticAssetType;
+import org.hsbc.datagen.SyntheticPriceHistory;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Answers the Flask data API routes from {@link SyntheticPriceHistory}, so quotes and history
+ * line up with the rows written by the synthetic data generator for the same seed.
+ */
+public class SyntheticMarketDataResponder implements StubResponder {
+
+    private final long seed;
+    private final Supplier<LocalDate> today;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public SyntheticMarketDataResponder(long seed, Supplier<LocalDate> today) {
+        this.seed = seed;
+        this.today = today;
+    }
+
+    @Override
+    public StubResponse respond(String method, String pathAndQuery, byte[] body) {
+        int q = pathAndQuery.indexOf('?');
+        String path = q >= 0 ? pathAndQuery.substring(0, q) : pathAndQuery;
+        Map<String, String> query = parseQuery(q >= 0 ? pathAndQuery.substring(q + 1) : "");
+
+        if (path.equals("/health")) {
+            return StubResponse.json(200, "{\"status\":\"healthy\",\"service\":\"Synthetic Flask stub\"}");
+        }
+        if (path.startsWith("/api/history/")) {
+            return history(lastSegment(path), query.getOrDefault("period", "1MO"));
+        }
+        if (path.startsWith("/api/news/")) {
+            return StubResponse.json(200, "[]");
+        }
+        if (path.equals("/api/search")) {
+            return StubResponse.json(200, "[]");
+        }
+        if (path.startsWith("/api/stocks/") || path.startsWith("/api/crypto/")
+                || path.startsWith("/api/commodities/") || path.startsWith("/api/mutual-funds/")) {
+            return quote(lastSegment(path));
+        }
+        return StubResponse.notFound("Resource not found");
+    }
+
+    private StubResponse quote(String symbol) {
+        SyntheticPriceHistory history = SyntheticPriceHistory.of(seed, symbol);
+        LocalDate day = today.get();
+        double price = history.closeOn(day);
+        double previousClose = history.closeOn(day.minusDays(1));
+        double change = previousClose > 0 ? (price - previousClose) / previousClose * 100 : 0;
+
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("tickerSymbol", symbol.toUpperCase());
+        node.put("name", "Synthetic " + history.getAssetType().label() + " " + symbol);
+        if (history.getAssetType() == SyntheticAssetType.MUTUAL_FUNDS) {
+            node.put("nav", price);
+        }
+        node.put("currentPrice", price);
+        node.put("previousClose", previousClose);
+        node.put("dayChangePercent", Math.round(change * 100.0) / 100.0);
+        node.put("currency", "USD");
+        node.put("exchange", history.getAssetType().exchange());
+        return StubResponse.json(200, node.toString());
+    }
+
+    private StubResponse history(String symbol, String period) {
+        LocalDate to = today.get();
+        LocalDate from = switch (period.toUpperCase()) {
+            case "1D" -> to.minusDays(1);
+            case "5D" -> to.minusDays(5);
+            case "1W" -> to.minusWeeks(1);
+            case "1MO" -> to.minusMonths(1);
+            case "3MO" -> to.minusMonths(3);
+            case "6MO" -> to.minusMonths(6);
+            case "2Y" -> to.minusYears(2);
+            case "5Y" -> to.minusYears(5);
+            case "MAX" -> SyntheticPriceHistory.EPOCH;
+            default -> to.minusYears(1);
+        };
+        List<SyntheticPriceHistory.Bar> bars = SyntheticPriceHistory.of(seed, symbol).bars(from, to);
+
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("ticker", symbol.toUpperCase());
+        node.put("period", period);
+        node.put("interval", "1d");
+        ArrayNode data = node.putArray("data");
+        for (SyntheticPriceHistory.Bar bar : bars) {
+            data.addObject()
+                    .put("time", bar.date().toString())
+                    .put("open", bar.open())
+                    .put("high", bar.high())
+                    .put("low", bar.low())
+                    .put("close", bar.close())
+                    .put("volume", bar.volume());
+        }
+        return StubResponse.json(200, node.toString());
+    }
+
+    private static String lastSegment(String path) {
+        return URLDecoder.decode(path.substring(path.lastIndexOf('/') + 1), StandardCharsets.UTF_8);
+    }
+
+    static Map<String, String> parseQuery(String query) {
+        Map<String, String> params = new HashMap<>();
+        if (query.isEmpty()) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+}
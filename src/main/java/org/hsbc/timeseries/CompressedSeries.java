@@ -0,0 +1,280 @@
+package org.hsbc.timeseries;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable series of (timestamp, double) points compressed as in Facebook's Gorilla: each
+ * timestamp is stored as the change in its gap from the previous one (delta-of-delta), and each
+ * value as its XOR with the previous value, keeping only the bits between the leading and trailing
+ * zeros. A regular timestamp then takes one bit and an unchanged value one bit.
+ * <p>
+ * Prices are decimals (187.15), whose doubles differ from their neighbours in most mantissa bits,
+ * so XOR on the raw bits saves little. A block whose values all have at most
+ * {@value #MAX_SCALE} decimal places is therefore XOR-coded as integers ({@code 18715}), which
+ * differ only in their low bits; other blocks use the raw bits. Either way values round-trip bit
+ * for bit, including NaN and -0.0.
+ * <p>
+ * Points are cut into blocks of {@value #BLOCK_POINTS}, each a {@code long[]} bit stream starting
+ * from a raw timestamp and value, so {@link #cursor(long)} starts decoding at the right block
+ * rather than the beginning. Timestamps are in any unit (epoch days, millis, ...) and strictly
+ * increasing.
+ */
+public final class CompressedSeries {
+
+    static final int BLOCK_POINTS = 1024;
+    static final int MAX_SCALE = 6;
+    // Scale code of a block coding the raw bits of its values
+    static final int RAW = 7;
+    static final double[] POWERS_OF_TEN = {1, 10, 100, 1e3, 1e4, 1e5, 1e6};
+
+    private static final CompressedSeries EMPTY = new CompressedSeries(new long[0], new long[0][], 0, 0);
+    // Largest integer a double holds exactly
+    private static final long MAX_EXACT = 1L << 53;
+
+    // First timestamp of each block, ascending
+    private final long[] blockStarts;
+    private final long[][] blocks;
+    private final int size;
+    private final long lastTimestamp;
+
+    private CompressedSeries(long[] blockStarts, long[][] blocks, int size, long lastTimestamp) {
+        this.blockStarts = blockStarts;
+        this.blocks = blocks;
+        this.size = size;
+        this.lastTimestamp = lastTimestamp;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static CompressedSeries empty() {
+        return EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long firstTimestamp() {
+        if (size == 0) {
+            throw new NoSuchElementException("Empty series");
+        }
+        return blockStarts[0];
+    }
+
+    public long lastTimestamp() {
+        if (size == 0) {
+            throw new NoSuchElementException("Empty series");
+        }
+        return lastTimestamp;
+    }
+
+    /**
+     * Bytes held by the bit streams and block index, not counting object headers.
+     */
+    public long compressedBytes() {
+        long bytes = blockStarts.length * 8L;
+        for (long[] block : blocks) {
+            bytes += block.length * 8L;
+        }
+        return bytes;
+    }
+
+    /**
+     * A cursor before the first point.
+     */
+    public SeriesCursor cursor() {
+        return new SeriesCursor(blockStarts, blocks, size);
+    }
+
+    /**
+     * A cursor before the first point at or after {@code from}; only the block containing it is
+     * decoded up to there.
+     */
+    public SeriesCursor cursor(long from) {
+        int block = Arrays.binarySearch(blockStarts, from);
+        if (block < 0) {
+            block = Math.max(0, -block - 2);
+        }
+        SeriesCursor cursor = new SeriesCursor(blockStarts, blocks, size);
+        cursor.seek(block, from);
+        return cursor;
+    }
+
+    /**
+     * Collects up to a block of points, then compresses them. Not thread-safe.
+     */
+    public static final class Builder {
+
+        private long[][] blocks = new long[4][];
+        private long[] blockStarts = new long[4];
+        private int blockCount;
+        private int size;
+
+        // The block being collected
+        private final long[] timestamps = new long[BLOCK_POINTS];
+        private final double[] values = new double[BLOCK_POINTS];
+        private int inBlock;
+        private long lastTimestamp;
+
+        // The bit stream being written
+        private long[] words = new long[64];
+        private int bits;
+
+        private Builder() {
+        }
+
+        /**
+         * @throws IllegalArgumentException if {@code timestamp} is not after the previous one
+         */
+        public Builder append(long timestamp, double value) {
+            if (size > 0 && timestamp <= lastTimestamp) {
+                throw new IllegalArgumentException(
+                        "Timestamps must increase: " + timestamp + " after " + lastTimestamp);
+            }
+            if (inBlock == BLOCK_POINTS) {
+                seal();
+            }
+            timestamps[inBlock] = timestamp;
+            values[inBlock++] = value;
+            lastTimestamp = timestamp;
+            size++;
+            return this;
+        }
+
+        public CompressedSeries build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+            if (inBlock > 0) {
+                seal();
+            }
+            return new CompressedSeries(Arrays.copyOf(blockStarts, blockCount), Arrays.copyOf(blocks, blockCount),
+                    size, lastTimestamp);
+        }
+
+        private void seal() {
+            int scale = scale(values, inBlock);
+            double power = scale == RAW ? 1 : POWERS_OF_TEN[scale];
+            Arrays.fill(words, 0);
+            bits = 0;
+            write(scale, 3);
+            long previousValue = encoded(values[0], scale, power);
+            write(previousValue, 64);
+            long previousTimestamp = timestamps[0];
+            long previousDelta = 0;
+            int previousLeading = Integer.MAX_VALUE;
+            int previousTrailing = 0;
+            for (int i = 1; i < inBlock; i++) {
+                long delta = timestamps[i] - previousTimestamp;
+                writeDeltaOfDelta(delta - previousDelta);
+                previousTimestamp = timestamps[i];
+                previousDelta = delta;
+
+                long value = encoded(values[i], scale, power);
+                long xor = value ^ previousValue;
+                previousValue = value;
+                if (xor == 0) {
+                    write(0, 1);
+                    continue;
+                }
+                int leading = Long.numberOfLeadingZeros(xor);
+                int trailing = Long.numberOfTrailingZeros(xor);
+                if (leading >= previousLeading && trailing >= previousTrailing) {
+                    // Fits in the previous window
+                    write(0b10, 2);
+                    write(xor >>> previousTrailing, 64 - previousLeading - previousTrailing);
+                    continue;
+                }
+                int meaningful = 64 - leading - trailing;
+                write(0b11, 2);
+                write(leading, 6);
+                write(meaningful - 1, 6);
+                write(xor >>> trailing, meaningful);
+                previousLeading = leading;
+                previousTrailing = trailing;
+            }
+            if (blockCount == blockStarts.length) {
+                blockStarts = Arrays.copyOf(blockStarts, blockCount * 2);
+                blocks = Arrays.copyOf(blocks, blockCount * 2);
+            }
+            blockStarts[blockCount] = timestamps[0];
+            // One spare word, so the reader can always look at the word after
+            blocks[blockCount++] = Arrays.copyOf(words, (bits >>> 6) + 2);
+            inBlock = 0;
+        }
+
+        /**
+         * The fewest decimal places that hold every value exactly, or {@link #RAW}.
+         */
+        private static int scale(double[] values, int count) {
+            int scale = 0;
+            for (int i = 0; i < count; i++) {
+                while (scale <= MAX_SCALE && !exact(values[i], POWERS_OF_TEN[scale])) {
+                    scale++;
+                }
+                if (scale > MAX_SCALE) {
+                    return RAW;
+                }
+            }
+            return scale;
+        }
+
+        // Whether the value decodes back from its scaled integer; -0.0 and NaN never do
+        private static boolean exact(double value, double power) {
+            double scaled = Math.rint(value * power);
+            return Math.abs(scaled) < MAX_EXACT
+                    && Double.doubleToRawLongBits((long) scaled / power) == Double.doubleToRawLongBits(value);
+        }
+
+        private static long encoded(double value, int scale, double power) {
+            return scale == RAW ? Double.doubleToRawLongBits(value) : (long) Math.rint(value * power);
+        }
+
+        private void writeDeltaOfDelta(long dod) {
+            if (dod == 0) {
+                write(0, 1);
+            } else if (dod >= -64 && dod <= 63) {
+                write(0b10, 2);
+                write(dod, 7);
+            } else if (dod >= -256 && dod <= 255) {
+                write(0b110, 3);
+                write(dod, 9);
+            } else if (dod >= -2048 && dod <= 2047) {
+                write(0b1110, 4);
+                write(dod, 12);
+            } else {
+                write(0b1111, 4);
+                write(dod, 64);
+            }
+        }
+
+        /**
+         * Writes the low {@code count} bits of {@code value}, most significant first.
+         */
+        private void write(long value, int count) {
+            if (((bits + count) >>> 6) + 1 >= words.length) {
+                words = Arrays.copyOf(words, words.length * 2);
+            }
+            if (count < 64) {
+                value &= (1L << count) - 1;
+            }
+            int offset = bits & 63;
+            int index = bits >>> 6;
+            int free = 64 - offset;
+            if (count <= free) {
+                words[index] |= value << (free - count);
+            } else {
+                words[index] |= value >>> (count - free);
+                words[index + 1] |= value << (64 - (count - free));
+            }
+            bits += count;
+        }
+    }
+}
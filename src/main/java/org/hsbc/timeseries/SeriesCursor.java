@@ -0,0 +1,182 @@
+package org.hsbc.timeseries;
+
+import java.util.Arrays;
+
+/**
+ * Decodes a {@link CompressedSeries} forwards one point at a time:
+ * <pre>{@code
+ * SeriesCursor cursor = series.cursor();
+ * while (cursor.next()) {
+ *     use(cursor.timestamp(), cursor.value());
+ * }
+ * }</pre>
+ * A whole block is decoded at once into primitive buffers, in one tight loop, so {@link #next()}
+ * only steps through them. Not thread-safe; take one cursor per reader.
+ */
+public final class SeriesCursor {
+
+    private final long[] blockStarts;
+    private final long[][] blocks;
+    private final int size;
+
+    private final long[] timestamps;
+    private final long[] bits;
+    private final double[] values;
+    private int block = -1;
+    // Points in the decoded block, and the current one
+    private int count;
+    private int position = -1;
+
+    SeriesCursor(long[] blockStarts, long[][] blocks, int size) {
+        this.blockStarts = blockStarts;
+        this.blocks = blocks;
+        this.size = size;
+        int buffer = Math.min(size, CompressedSeries.BLOCK_POINTS);
+        this.timestamps = new long[buffer];
+        this.bits = new long[buffer];
+        this.values = new double[buffer];
+    }
+
+    /**
+     * Moves to the next point.
+     *
+     * @return false past the last point
+     */
+    public boolean next() {
+        if (++position < count) {
+            return true;
+        }
+        if (block + 1 == blocks.length) {
+            position = count;
+            return false;
+        }
+        decode(block + 1);
+        position = 0;
+        return true;
+    }
+
+    public long timestamp() {
+        return timestamps[position];
+    }
+
+    public double value() {
+        return values[position];
+    }
+
+    /**
+     * Decodes into {@code timestamps} and {@code values} from the current position.
+     *
+     * @return the number of points decoded, at most the arrays' length
+     */
+    public int read(long[] timestamps, double[] values) {
+        int limit = Math.min(timestamps.length, values.length);
+        int read = 0;
+        while (read < limit && next()) {
+            int n = Math.min(limit - read, count - position);
+            System.arraycopy(this.timestamps, position, timestamps, read, n);
+            System.arraycopy(this.values, position, values, read, n);
+            read += n;
+            position += n - 1;
+        }
+        return read;
+    }
+
+    /**
+     * Positions before the first point at or after {@code from}, searching from block {@code first}.
+     */
+    void seek(int first, long from) {
+        if (size == 0) {
+            return;
+        }
+        decode(first);
+        int i = Arrays.binarySearch(timestamps, 0, count, from);
+        position = (i < 0 ? -i - 1 : i) - 1;
+    }
+
+    private void decode(int next) {
+        block = next;
+        count = next == blocks.length - 1 ? size - next * CompressedSeries.BLOCK_POINTS : CompressedSeries.BLOCK_POINTS;
+        decodeBlock(blocks[next], blockStarts[next], count, timestamps, bits, values);
+    }
+
+    /**
+     * The block's points, in the layout written by {@code CompressedSeries.Builder}. Each field is
+     * parsed from a 64-bit window of the stream rather than bit by bit, and a one-bit
+     * delta-of-delta shares its window with the XOR header that follows. The coded values land in
+     * {@code bits} first and are turned into doubles in a separate loop, which the JIT can
+     * vectorise.
+     */
+    static void decodeBlock(long[] words, long start, int count, long[] timestamps, long[] bits, double[] values) {
+        int scale = (int) (words[0] >>> 61);
+        long value = window(words, 3);
+        int bit = 67;
+        long timestamp = start;
+        long delta = 0;
+        int meaningful = 64;
+        int trailing = 0;
+        timestamps[0] = timestamp;
+        bits[0] = value;
+        for (int i = 1; i < count; i++) {
+            // Delta-of-delta: 0, 10, 110, 1110 or 1111, then its bits
+            long w = window(words, bit);
+            if (w >= 0) {
+                bit += 1;
+                w <<= 1;
+            } else {
+                if (w << 1 >= 0) {
+                    delta += w << 2 >> 57;
+                    bit += 9;
+                } else if (w << 2 >= 0) {
+                    delta += w << 3 >> 55;
+                    bit += 12;
+                } else if (w << 3 >= 0) {
+                    delta += w << 4 >> 52;
+                    bit += 16;
+                } else {
+                    delta += window(words, bit + 4);
+                    bit += 68;
+                }
+                w = window(words, bit);
+            }
+            timestamp += delta;
+            timestamps[i] = timestamp;
+
+            // XOR: 0 (same), 10 (previous window) or 11 (new window), then the meaningful bits
+            if (w >= 0) {
+                bit += 1;
+            } else {
+                int header = 2;
+                if (w << 1 < 0) {
+                    meaningful = ((int) (w >>> 50) & 0x3f) + 1;
+                    trailing = 64 - ((int) (w >>> 56) & 0x3f) - meaningful;
+                    header = 14;
+                }
+                // The window holds at least 63 bits of the stream, usually enough for the payload too
+                long payload = header + meaningful <= 63 ? w << header : window(words, bit + header);
+                value ^= payload >>> (64 - meaningful) << trailing;
+                bit += header + meaningful;
+            }
+            bits[i] = value;
+        }
+        if (scale == CompressedSeries.RAW) {
+            for (int i = 0; i < count; i++) {
+                values[i] = Double.longBitsToDouble(bits[i]);
+            }
+        } else {
+            double power = CompressedSeries.POWERS_OF_TEN[scale];
+            for (int i = 0; i < count; i++) {
+                values[i] = bits[i] / power;
+            }
+        }
+    }
+
+    /**
+     * The 64 bits from {@code bit} on; the builder leaves a spare word at the end for this.
+     */
+    private static long window(long[] words, int bit) {
+        int index = bit >>> 6;
+        int offset = bit & 63;
+        // Shifting twice keeps an offset of 0 from shifting the next word in whole
+        return words[index] << offset | words[index + 1] >>> 1 >>> (63 - offset);
+    }
+}
@@ -0,0 +1,306 @@
+package org.hsbc.valuation;
+
+import jakarta.annotation.PreDestroy;
+import org.hsbc.entity.PmsEntity;
+import org.hsbc.entity.PortfolioValuationEntity;
+import org.hsbc.exception.InvalidRequestException;
+import org.hsbc.ledger.HeldPosition;
+import org.hsbc.ledger.HoldingsAsOf;
+import org.hsbc.ledger.HoldingsHistory;
+import org.hsbc.market.AssetClass;
+import org.hsbc.market.PriceHistory;
+import org.hsbc.market.PriceHistoryClient;
+import org.hsbc.market.PriceTable;
+import org.hsbc.performance.TransactionRecordedEvent;
+import org.hsbc.repo.PortfolioValuationRepo;
+import org.hsbc.service.PmsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * End-of-day portfolio values, one {@link PortfolioValuationEntity} per trading day, so the
+ * performance chart is a range scan rather than a history download per holding.
+ * <p>
+ * A day's row values the positions held at its close (from {@link HoldingsHistory}) at that day's
+ * closes, carrying the last close over days a symbol did not trade. Units of a holding that its
+ * transactions do not explain (added directly) count from its purchase date at its buy price.
+ * Trading days are those on which any of the symbols has a close.
+ * <p>
+ * Every night at {@code pms.eod.run-at} the last {@code pms.eod.catch-up-days} are revalued, reaching
+ * further back if a transaction was recorded with an earlier date since. On startup an empty table
+ * is backfilled over {@code pms.eod.backfill-days}. No run values more than
+ * {@code pms.eod.max-span-days}, and each replaces its rows in one transaction.
+ */
+@Component
+public class EodValuationService {
+
+    private static final Logger log = LoggerFactory.getLogger(EodValuationService.class);
+
+    private final PmsService pmsService;
+    private final HoldingsHistory holdingsHistory;
+    private final PriceHistoryClient histories;
+    private final PriceTable prices;
+    private final PortfolioValuationRepo valuations;
+    private final TransactionOperations transactions;
+    private final LocalTime runAt;
+    private final int catchUpDays;
+    private final int backfillDays;
+    private final int maxSpanDays;
+    private final Clock clock;
+    // Earliest day a transaction recorded since the last run was dated
+    private final AtomicReference<LocalDate> dirtyFrom = new AtomicReference<>();
+    private final ScheduledExecutorService scheduler;
+
+    @Autowired
+    public EodValuationService(PmsService pmsService, HoldingsHistory holdingsHistory, PriceHistoryClient histories,
+                               PriceTable prices, PortfolioValuationRepo valuations,
+                               TransactionOperations transactions,
+                               @Value("${pms.eod.run-at:23:30}") String runAt,
+                               @Value("${pms.eod.catch-up-days:7}") int catchUpDays,
+                               @Value("${pms.eod.backfill-days:365}") int backfillDays,
+                               @Value("${pms.eod.max-span-days:1830}") int maxSpanDays) {
+        this(pmsService, holdingsHistory, histories, prices, valuations, transactions,
+                runAt.isBlank() ? null : LocalTime.parse(runAt), catchUpDays, backfillDays, maxSpanDays,
+                Clock.systemDefaultZone());
+    }
+
+    EodValuationService(PmsService pmsService, HoldingsHistory holdingsHistory, PriceHistoryClient histories,
+                        PriceTable prices, PortfolioValuationRepo valuations, TransactionOperations transactions,
+                        LocalTime runAt, int catchUpDays, int backfillDays, int maxSpanDays, Clock clock) {
+        this.pmsService = pmsService;
+        this.holdingsHistory = holdingsHistory;
+        this.histories = histories;
+        this.prices = prices;
+        this.valuations = valuations;
+        this.transactions = transactions;
+        this.runAt = runAt;
+        this.catchUpDays = catchUpDays;
+        this.backfillDays = Math.min(backfillDays, maxSpanDays);
+        this.maxSpanDays = maxSpanDays;
+        this.clock = clock;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "eod-valuation");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (runAt == null) {
+            return;
+        }
+        if (valuations.count() == 0) {
+            LocalDate today = LocalDate.now(clock);
+            scheduler.execute(() -> backfillQuietly(today.minusDays(backfillDays), today));
+        }
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime next = now.toLocalDate().atTime(runAt);
+        if (!next.isAfter(now)) {
+            next = next.plusDays(1);
+        }
+        scheduler.scheduleAtFixedRate(this::runNightly, Duration.between(now, next).toMillis(),
+                TimeUnit.DAYS.toMillis(1), TimeUnit.MILLISECONDS);
+    }
+
+    @EventListener
+    public void onTransactionRecorded(TransactionRecordedEvent event) {
+        LocalDate today = LocalDate.now(clock);
+        LocalDate day = event.transaction() == null || event.transaction().getTransactionDate() == null
+                ? today.minusDays(backfillDays)
+                : event.transaction().getTransactionDate().toLocalDate();
+        if (day.isBefore(today)) {
+            dirtyFrom.accumulateAndGet(day, (a, b) -> a == null || b.isBefore(a) ? b : a);
+        }
+    }
+
+    /**
+     * Stored values from {@code from} to {@code to}, oldest first.
+     */
+    public List<PortfolioValuationEntity> series(LocalDate from, LocalDate to) {
+        return valuations.findByValuationDateBetweenOrderByValuationDate(from, to);
+    }
+
+    /**
+     * Values every trading day from {@code from} to {@code to} and replaces their rows in one
+     * transaction, so a failed write leaves the old rows in place.
+     *
+     * @return the number of rows written
+     * @throws InvalidRequestException if the range is reversed or spans more than
+     *                                 {@code pms.eod.max-span-days}
+     */
+    public synchronized int backfill(LocalDate from, LocalDate to) throws InterruptedException {
+        if (from.isAfter(to)) {
+            throw new InvalidRequestException("from must not be after to");
+        }
+        if (from.plusDays(maxSpanDays).isBefore(to)) {
+            throw new InvalidRequestException("A backfill spans at most " + maxSpanDays + " days");
+        }
+        long start = System.nanoTime();
+        List<PortfolioValuationEntity> rows = value(from, to);
+        transactions.executeWithoutResult(status -> {
+            valuations.deleteByValuationDateBetween(from, to);
+            valuations.saveAll(rows);
+        });
+        log.info("Valued {} trading days from {} to {} in {} ms", rows.size(), from, to,
+                (System.nanoTime() - start) / 1_000_000);
+        return rows.size();
+    }
+
+    void runNightly() {
+        LocalDate today = LocalDate.now(clock);
+        LocalDate from = today.minusDays(catchUpDays);
+        LocalDate dirty = dirtyFrom.getAndSet(null);
+        if (dirty != null && dirty.isBefore(from)) {
+            // A transaction dated further back than the span is left to an explicit backfill
+            from = dirty.isBefore(today.minusDays(maxSpanDays)) ? today.minusDays(maxSpanDays) : dirty;
+        }
+        backfillQuietly(from, today);
+    }
+
+    private void backfillQuietly(LocalDate from, LocalDate to) {
+        try {
+            backfill(from, to);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("End-of-day valuation from {} to {} failed: {}", from, to, e.getMessage(), e);
+        }
+    }
+
+    private List<PortfolioValuationEntity> value(LocalDate from, LocalDate to) throws InterruptedException {
+        Map<String, PmsEntity> holdings = new HashMap<>();
+        for (PmsEntity asset : pmsService.getAllAssets()) {
+            if (asset.getSymbol() != null) {
+                holdings.merge(key(asset.getSymbol()), asset, EodValuationService::combine);
+            }
+        }
+        // Units held now beyond what the transactions explain
+        Map<String, Long> unexplained = new HashMap<>();
+        Map<String, Long> logged = new HashMap<>();
+        for (HeldPosition position : holdingsHistory.asOf(LocalDateTime.now(clock)).positions()) {
+            logged.put(position.symbol(), position.quantity());
+        }
+        holdings.forEach((symbol, asset) -> {
+            long extra = asset.getQuantity() - logged.getOrDefault(symbol, 0L);
+            if (extra > 0) {
+                unexplained.put(symbol, extra);
+            }
+        });
+
+        List<HoldingsAsOf> days = holdingsHistory.daily(from, to);
+        Set<String> symbols = new TreeSet<>(unexplained.keySet());
+        for (HoldingsAsOf day : days) {
+            for (HeldPosition position : day.positions()) {
+                symbols.add(position.symbol());
+            }
+        }
+        Map<String, PriceHistory> closes = histories.daily(symbols);
+        BitSet tradingDays = new BitSet();
+        int first = (int) from.toEpochDay();
+        for (PriceHistory history : closes.values()) {
+            for (int day : history.days()) {
+                if (day >= first && day <= to.toEpochDay()) {
+                    tradingDays.set(day - first);
+                }
+            }
+        }
+
+        List<PortfolioValuationEntity> rows = new ArrayList<>(tradingDays.cardinality());
+        for (int d = tradingDays.nextSetBit(0); d >= 0; d = tradingDays.nextSetBit(d + 1)) {
+            LocalDate date = from.plusDays(d);
+            Map<String, Long> quantities = new HashMap<>();
+            double invested = 0;
+            for (HeldPosition position : days.get(d).positions()) {
+                quantities.put(position.symbol(), position.quantity());
+                invested += position.costBasis();
+            }
+            for (Map.Entry<String, Long> entry : unexplained.entrySet()) {
+                PmsEntity asset = holdings.get(entry.getKey());
+                if (asset.getPurchaseDate() == null || !asset.getPurchaseDate().isAfter(date)) {
+                    quantities.merge(entry.getKey(), entry.getValue(), Long::sum);
+                    invested += entry.getValue() * asset.getBuyPrice();
+                }
+            }
+            double[] byClass = new double[AssetClass.values().length];
+            int positions = 0;
+            for (Map.Entry<String, Long> entry : quantities.entrySet()) {
+                long quantity = entry.getValue();
+                if (quantity <= 0) {
+                    continue;
+                }
+                PmsEntity asset = holdings.get(entry.getKey());
+                double price = close(closes.get(entry.getKey()), first + d);
+                if (Double.isNaN(price)) {
+                    price = prices.priceOrElse(entry.getKey(), asset != null ? asset.getBuyPrice() : 0);
+                }
+                byClass[AssetClass.of(asset != null ? asset.getAssetType() : null).ordinal()] += quantity * price;
+                positions++;
+            }
+            double marketValue = 0;
+            for (double value : byClass) {
+                marketValue += value;
+            }
+            rows.add(new PortfolioValuationEntity(date, marketValue, invested,
+                    byClass[AssetClass.STOCK.ordinal()], byClass[AssetClass.MUTUAL_FUND.ordinal()],
+                    byClass[AssetClass.CRYPTO.ordinal()], byClass[AssetClass.COMMODITY.ordinal()], positions));
+        }
+        return rows;
+    }
+
+    /**
+     * The close on {@code day} or the last one before it; the first close for days before any.
+     *
+     * @return NaN if there is no history
+     */
+    static double close(PriceHistory history, int day) {
+        if (history == null || history.size() == 0) {
+            return Double.NaN;
+        }
+        int i = Arrays.binarySearch(history.days(), day);
+        if (i < 0) {
+            i = Math.max(0, -i - 2);
+        }
+        return history.closes()[i];
+    }
+
+    // Several rows of one symbol count as one holding
+    private static PmsEntity combine(PmsEntity a, PmsEntity b) {
+        PmsEntity combined = new PmsEntity();
+        combined.setSymbol(a.getSymbol());
+        combined.setAssetType(a.getAssetType());
+        combined.setQuantity(a.getQuantity() + b.getQuantity());
+        combined.setBuyPrice(a.getQuantity() + b.getQuantity() > 0
+                ? (a.getBuyPrice() * a.getQuantity() + b.getBuyPrice() * b.getQuantity())
+                / (a.getQuantity() + b.getQuantity()) : a.getBuyPrice());
+        combined.setPurchaseDate(a.getPurchaseDate() == null || b.getPurchaseDate() == null ? null
+                : (a.getPurchaseDate().isBefore(b.getPurchaseDate()) ? a : b).getPurchaseDate());
+        return combined;
+    }
+
+    private static String key(String symbol) {
+        return symbol.toUpperCase(Locale.ROOT);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
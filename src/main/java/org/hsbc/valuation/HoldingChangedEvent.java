@@ -0,0 +1,11 @@
+package org.hsbc.valuation;
+
+/**
+ * Published by {@code PmsServiceimp} after a holding is added, traded, resized or removed. Carries
+ * the change rather than the new state, so several rows for one symbol add up.
+ *
+ * @param price the price the change happened at; used only if the price table has none
+ */
+public record HoldingChangedEvent(String symbol, String assetType, String industry, int quantityDelta,
+                                  double investedDelta, double price) {
+}
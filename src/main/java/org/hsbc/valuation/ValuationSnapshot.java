@@ -0,0 +1,24 @@
+package org.hsbc.valuation;
+
+import java.util.Map;
+
+/**
+ * Portfolio totals at one point in time.
+ *
+ * @param version increases with every price tick or holding change applied
+ */
+public record ValuationSnapshot(double marketValue, double investedValue, int positions,
+                                Map<String, Subtotal> byAssetType, Map<String, Subtotal> byIndustry,
+                                long version, long asOf) {
+
+    public double gain() {
+        return marketValue - investedValue;
+    }
+
+    public double gainPercentage() {
+        return investedValue > 0 ? gain() / investedValue * 100 : 0;
+    }
+
+    public record Subtotal(double marketValue, double investedValue) {
+    }
+}
@@ -0,0 +1,111 @@
+package org.hsbc.valuation;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes {@link ValuationEngine} snapshots to subscribers as the totals change. A change only marks
+ * each subscriber dirty; a virtual thread then sends it the snapshot current at that moment, so a
+ * subscriber slower than the tick rate receives fewer, always up-to-date snapshots.
+ */
+@Component
+public class ValuationStream {
+
+    private final ValuationEngine engine;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final ExecutorService dispatcher = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("valuation-stream-", 0).factory());
+
+    public ValuationStream(ValuationEngine engine) {
+        this.engine = engine;
+        engine.addChangeListener(this::changed);
+    }
+
+    /**
+     * Subscribes {@code sink}; the current snapshot is sent straight away.
+     */
+    public Subscription subscribe(SnapshotSink sink) {
+        Subscription subscription = new Subscription(sink);
+        subscriptions.add(subscription);
+        subscription.signal();
+        return subscription;
+    }
+
+    private void changed() {
+        for (Subscription subscription : subscriptions) {
+            subscription.signal();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        List.copyOf(subscriptions).forEach(Subscription::close);
+        dispatcher.shutdownNow();
+    }
+
+    public interface SnapshotSink {
+
+        void send(ValuationSnapshot snapshot) throws IOException;
+
+        void closed();
+    }
+
+    public final class Subscription implements AutoCloseable {
+
+        private final SnapshotSink sink;
+        private final AtomicBoolean dirty = new AtomicBoolean();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private long sentVersion = -1;
+
+        private Subscription(SnapshotSink sink) {
+            this.sink = sink;
+        }
+
+        private void signal() {
+            dirty.set(true);
+            if (!closed.get() && draining.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                try {
+                    while (dirty.getAndSet(false) && !closed.get()) {
+                        ValuationSnapshot snapshot = engine.snapshot();
+                        if (snapshot.version() != sentVersion) {
+                            sink.send(snapshot);
+                            sentVersion = snapshot.version();
+                        }
+                    }
+                } catch (IOException | RuntimeException e) {
+                    close();
+                    return;
+                } finally {
+                    draining.set(false);
+                }
+            } while (dirty.get() && draining.compareAndSet(false, true));
+        }
+
+        public boolean isClosed() {
+            return closed.get();
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                subscriptions.remove(this);
+                sink.closed();
+            }
+        }
+    }
+}
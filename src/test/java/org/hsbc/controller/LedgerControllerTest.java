@@ -0,0 +1,95 @@
+package org.hsbc.controller;
+
+import org.hsbc.exception.InvalidRequestException;
+import org.hsbc.exception.ResourceNotFoundException;
+import org.hsbc.ledger.GainsReport;
+import org.hsbc.ledger.HeldPosition;
+import org.hsbc.ledger.HoldingsAsOf;
+import org.hsbc.ledger.HoldingsHistory;
+import org.hsbc.ledger.LotEngine;
+import org.hsbc.ledger.LotReport;
+import org.hsbc.ledger.OpenLot;
+import org.hsbc.ledger.SymbolGains;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(LedgerController.class)
+class LedgerControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private LotEngine lotEngine;
+
+    @MockBean
+    private HoldingsHistory holdingsHistory;
+
+    private static final SymbolGains AAPL = new SymbolGains("AAPL", 5, 1000, 1250, 250, 2000, 1500, 500, 0);
+
+    @Test
+    void testGetGains() throws Exception {
+        when(lotEngine.gains("lifo")).thenReturn(new GainsReport("lifo", 1000, 1250, 250, 2000, 1500, 500,
+                List.of(AAPL)));
+
+        mockMvc.perform(get("/api/portfolio/gains").param("method", "lifo"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.method").value("lifo"))
+                .andExpect(jsonPath("$.realizedGain").value(2000.0))
+                .andExpect(jsonPath("$.symbols[0].longTermGain").value(500.0));
+    }
+
+    @Test
+    void testGetLots() throws Exception {
+        when(lotEngine.lots("AAPL", null)).thenReturn(new LotReport("fifo",
+                List.of(new OpenLot(LocalDate.of(2024, 1, 12), 5, 200)), AAPL));
+
+        mockMvc.perform(get("/api/portfolio/lots/AAPL"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lots[0].acquired").value("2024-01-12"))
+                .andExpect(jsonPath("$.lots[0].unitCost").value(200.0))
+                .andExpect(jsonPath("$.gains.unrealizedGain").value(250.0));
+    }
+
+    @Test
+    void testInvalidMethodAndUnknownSymbol() throws Exception {
+        when(lotEngine.gains("hifo")).thenThrow(new InvalidRequestException("method must be fifo, lifo or average"));
+        when(lotEngine.lots(eq("NVDA"), any())).thenThrow(
+                new ResourceNotFoundException("No transactions for symbol NVDA"));
+
+        mockMvc.perform(get("/api/portfolio/gains").param("method", "hifo"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("method must be fifo, lifo or average"));
+        mockMvc.perform(get("/api/portfolio/lots/NVDA"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testGetHoldingsAsOf() throws Exception {
+        LocalDateTime endOfQuarter = LocalDate.of(2025, 3, 31).atTime(LocalTime.MAX);
+        when(holdingsHistory.asOf(endOfQuarter)).thenReturn(new HoldingsAsOf(endOfQuarter,
+                LocalDateTime.of(2025, 3, 31, 0, 5), 3, List.of(new HeldPosition("AAPL", 10, 1500))));
+
+        mockMvc.perform(get("/api/portfolio/holdings").param("asOf", "2025-03-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.replayedTransactions").value(3))
+                .andExpect(jsonPath("$.positions[0].symbol").value("AAPL"))
+                .andExpect(jsonPath("$.positions[0].costBasis").value(1500.0));
+        mockMvc.perform(get("/api/portfolio/holdings").param("asOf", "last tuesday"))
+                .andExpect(status().isBadRequest());
+    }
+}
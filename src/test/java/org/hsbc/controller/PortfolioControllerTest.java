@@ -1,29 +1,44 @@
 package org.hsbc.controller;
 
 import org.hsbc.entity.PmsEntity;
+import org.hsbc.entity.PortfolioValuationEntity;
+import org.hsbc.market.PriceTable;
+import org.hsbc.performance.PerformanceReport;
+import org.hsbc.performance.PerformanceService;
+import org.hsbc.performance.SymbolPerformance;
 import org.hsbc.service.PmsService;
+import org.hsbc.valuation.EodValuationService;
+import org.hsbc.valuation.ValuationEngine;
+import org.hsbc.valuation.ValuationStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
 import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(PortfolioController.class)
+@Import({PriceTable.class, ValuationEngine.class, ValuationStream.class})
 class PortfolioControllerTest {
 
     @Autowired
@@ -32,15 +47,26 @@ class PortfolioControllerTest {
     @MockBean
     private PmsService pmsService;
 
+    @MockBean
+    private PerformanceService performanceService;
+
+    @MockBean
+    private EodValuationService eodValuationService;
+
     @Autowired
     private PortfolioController portfolioController;
 
+    @Autowired
+    private ValuationEngine valuationEngine;
+
     private RestTemplate restTemplateMock;
 
     @BeforeEach
     void setUp() {
         restTemplateMock = mock(RestTemplate.class);
         ReflectionTestUtils.setField(portfolioController, "restTemplate", restTemplateMock);
+        // Rebuilt from this test's pmsService stubs on first read
+        valuationEngine.invalidate();
     }
 
     @Test
@@ -61,6 +87,32 @@ class PortfolioControllerTest {
                 .andExpect(jsonPath("$.gainPercentage").value(20.0));
     }
 
+    @Test
+    void testGetPortfolioSummaryWithReturns() throws Exception {
+        when(pmsService.getAllAssets()).thenReturn(Collections.emptyList());
+        when(performanceService.cachedReport()).thenReturn(new PerformanceReport(0, LocalDate.of(2025, 1, 2), 1200,
+                1000, 0.25, null, 0.1, 2, List.of()));
+
+        mockMvc.perform(get("/api/portfolio/summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.twrPercentage").value(25.0))
+                .andExpect(jsonPath("$.xirrPercentage").value(10.0));
+        verify(performanceService, never()).report();
+    }
+
+    @Test
+    void testGetPortfolioReturns() throws Exception {
+        when(performanceService.report()).thenReturn(new PerformanceReport(0, LocalDate.of(2025, 1, 2), 1200, 1000,
+                0.25, null, null, 2, List.of(new SymbolPerformance("AAPL", 10, 1200, 1000, 0.25, null))));
+
+        mockMvc.perform(get("/api/portfolio/returns"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.since").value("2025-01-02"))
+                .andExpect(jsonPath("$.timeWeightedReturn").value(0.25))
+                .andExpect(jsonPath("$.moneyWeightedReturn").doesNotExist())
+                .andExpect(jsonPath("$.symbols[0].symbol").value("AAPL"));
+    }
+
     @Test
     void testGetPortfolioPerformance() throws Exception {
         PmsEntity asset = new PmsEntity();
@@ -157,4 +209,29 @@ class PortfolioControllerTest {
                 .andExpect(jsonPath("$.topPerformers[0].symbol").value("WIN"))
                 .andExpect(jsonPath("$.lowestPerformers[0].symbol").value("LOSE"));
     }
+
+    @Test
+    void testGetPortfolioPerformanceFromStoredValuations() throws Exception {
+        LocalDate day = LocalDate.of(2025, 3, 31);
+        when(eodValuationService.series(any(), any()))
+                .thenReturn(List.of(new PortfolioValuationEntity(day, 1200.4, 1000, 1200.4, 0, 0, 0, 1)));
+
+        mockMvc.perform(get("/api/portfolio/performance"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].date").value("2025-03-31"))
+                .andExpect(jsonPath("$[0].value").value(1200))
+                .andExpect(jsonPath("$[0].invested").value(1000));
+    }
+
+    @Test
+    void testBackfillPerformance() throws Exception {
+        when(eodValuationService.backfill(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 3, 31))).thenReturn(61);
+
+        mockMvc.perform(post("/api/portfolio/performance/backfill").param("from", "2025-01-01").param("to", "2025-03-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(61));
+        mockMvc.perform(post("/api/portfolio/performance/backfill").param("from", "January"))
+                .andExpect(status().isBadRequest());
+    }
 }
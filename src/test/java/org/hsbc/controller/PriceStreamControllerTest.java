@@ -0,0 +1,63 @@
+package org.hsbc.controller;
+
+import org.hsbc.market.PriceStreamHub;
+import org.hsbc.market.PriceSubscription;
+import org.hsbc.market.PriceTick;
+import org.hsbc.market.TickSink;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(PriceStreamController.class)
+class PriceStreamControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private PriceStreamHub hub;
+
+    @Test
+    void testStreamSendsPriceUpdates() throws Exception {
+        when(hub.subscribe(any(), any())).thenReturn(mock(PriceSubscription.class));
+
+        MvcResult result = mockMvc.perform(get("/api/yfdata/stream?symbols=aapl, msft,AAPL"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        ArgumentCaptor<TickSink> sink = ArgumentCaptor.forClass(TickSink.class);
+        verify(hub).subscribe(eq(List.of("AAPL", "MSFT")), sink.capture());
+        sink.getValue().send(new PriceTick("AAPL", 150.5, 148.0, 1.69, "USD", 0));
+        sink.getValue().closed();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("event:price_update")))
+                .andExpect(content().string(containsString("\"price\":150.5")));
+    }
+
+    @Test
+    void testInvalidSymbolsRejected() throws Exception {
+        mockMvc.perform(get("/api/yfdata/stream?symbols= ,"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/yfdata/stream?symbols=AAPL;DROP"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").exists());
+
+        verifyNoInteractions(hub);
+    }
+}
@@ -0,0 +1,118 @@
+package org.hsbc.controller;
+
+import org.hsbc.exception.InvalidRequestException;
+import org.hsbc.market.AssetClass;
+import org.hsbc.risk.Allocation;
+import org.hsbc.risk.CorrelationReport;
+import org.hsbc.risk.CorrelationService;
+import org.hsbc.risk.OptimizationService;
+import org.hsbc.risk.OptimizedPortfolio;
+import org.hsbc.risk.RiskEngine;
+import org.hsbc.risk.RiskMeasure;
+import org.hsbc.risk.RiskReport;
+import org.hsbc.risk.SimulationResult;
+import org.hsbc.risk.SimulationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(RiskController.class)
+class RiskControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private RiskEngine riskEngine;
+
+    @MockBean
+    private SimulationService simulationService;
+
+    @MockBean
+    private CorrelationService correlationService;
+
+    @MockBean
+    private OptimizationService optimizationService;
+
+    @Test
+    void testGetRisk() throws Exception {
+        when(riskEngine.report()).thenReturn(new RiskReport(0, 10_000, 249, List.of("AAPL"), List.of("NEW"),
+                List.of(new RiskMeasure("historical", 1, 0.99, 412.5, 530.1))));
+
+        mockMvc.perform(get("/api/portfolio/risk"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.portfolioValue").value(10_000.0))
+                .andExpect(jsonPath("$.excluded[0]").value("NEW"))
+                .andExpect(jsonPath("$.measures[0].method").value("historical"))
+                .andExpect(jsonPath("$.measures[0].valueAtRisk").value(412.5))
+                .andExpect(jsonPath("$.measures[0].expectedShortfall").value(530.1));
+    }
+
+    @Test
+    void testSimulate() throws Exception {
+        when(simulationService.simulate("bootstrap", 200_000, 20, 7L)).thenReturn(new SimulationResult(
+                "bootstrap", 200_000, 20, 7, 10_000, 10_050, 600, 0.45, Map.of("5", 9_100.0), List.of(),
+                List.of("AAPL"), List.of(), 120));
+
+        mockMvc.perform(get("/api/portfolio/simulate?method=bootstrap&paths=200000&horizonDays=20&seed=7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.paths").value(200_000))
+                .andExpect(jsonPath("$.probabilityOfLoss").value(0.45))
+                .andExpect(jsonPath("$.percentiles.5").value(9_100.0));
+    }
+
+    @Test
+    void testSimulate_BadRequest() throws Exception {
+        when(simulationService.simulate(any(), any(), any(), any()))
+                .thenThrow(new InvalidRequestException("paths must be between 100 and 1000000"));
+
+        mockMvc.perform(get("/api/portfolio/simulate?paths=5000000"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("paths must be between 100 and 1000000"));
+    }
+
+    @Test
+    void testSimulate_InternalIllegalArgumentIsServerError() throws Exception {
+        when(simulationService.simulate(any(), any(), any(), any()))
+                .thenThrow(new IllegalArgumentException("Probability must be in (0, 1): 1.5"));
+
+        mockMvc.perform(get("/api/portfolio/simulate"))
+                .andExpect(status().isInternalServerError());
+    }
+
+    @Test
+    void testGetCorrelation() throws Exception {
+        when(correlationService.matrix("covariance")).thenReturn(new CorrelationReport(0, "covariance", 249,
+                "2025-10-20", "2026-10-16", List.of("AAPL", "MSFT"), List.of(),
+                new double[][]{{0.0004, 0.0001}, {0.0001, 0.0003}}));
+
+        mockMvc.perform(get("/api/portfolio/correlation?kind=covariance"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.kind").value("covariance"))
+                .andExpect(jsonPath("$.symbols[1]").value("MSFT"))
+                .andExpect(jsonPath("$.matrix[0][1]").value(0.0001));
+    }
+
+    @Test
+    void testOptimize() throws Exception {
+        when(optimizationService.optimize("max-sharpe", 0.5)).thenReturn(new OptimizedPortfolio("max-sharpe", 0.12,
+                0.18, 0.67, 42, List.of(new Allocation("AAPL", AssetClass.STOCK, 0.8, 0.5, -3_000))));
+
+        mockMvc.perform(get("/api/portfolio/optimize?objective=max-sharpe&maxAssetWeight=0.5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.objective").value("max-sharpe"))
+                .andExpect(jsonPath("$.allocations[0].assetClass").value("STOCK"))
+                .andExpect(jsonPath("$.allocations[0].targetWeight").value(0.5))
+                .andExpect(jsonPath("$.allocations[0].tradeValue").value(-3_000.0));
+    }
+}
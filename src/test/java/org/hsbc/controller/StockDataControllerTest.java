@@ -4,14 +4,26 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -40,8 +52,7 @@ class StockDataControllerTest {
         @Test
         void testGetStock_Success() throws Exception {
                 String json = "{\"symbol\":\"AAPL\",\"price\":150.0}";
-                when(restTemplate.getForEntity(anyString(), eq(String.class)))
-                                .thenReturn(ResponseEntity.ok(json));
+                upstreamReturns(json);
 
                 mockMvc.perform(get("/api/yfdata/stocks/AAPL"))
                                 .andExpect(status().isOk())
@@ -50,8 +61,7 @@ class StockDataControllerTest {
 
         @Test
         void testGetStock_NotFound() throws Exception {
-                when(restTemplate.getForEntity(anyString(), eq(String.class)))
-                                .thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND));
+                upstreamThrows(new HttpClientErrorException(HttpStatus.NOT_FOUND));
 
                 mockMvc.perform(get("/api/yfdata/stocks/UNKNOWN"))
                                 .andExpect(status().isNotFound())
@@ -61,8 +71,7 @@ class StockDataControllerTest {
         @Test
         void testGetCrypto_Success() throws Exception {
                 String json = "{\"symbol\":\"BTC\",\"price\":40000.0}";
-                when(restTemplate.getForEntity(anyString(), eq(String.class)))
-                                .thenReturn(ResponseEntity.ok(json));
+                upstreamReturns(json);
 
                 mockMvc.perform(get("/api/yfdata/crypto/BTC"))
                                 .andExpect(status().isOk())
@@ -71,8 +80,7 @@ class StockDataControllerTest {
 
         @Test
         void testGetCrypto_NotFound() throws Exception {
-                when(restTemplate.getForEntity(anyString(), eq(String.class)))
-                                .thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND));
+                upstreamThrows(new HttpClientErrorException(HttpStatus.NOT_FOUND));
 
                 mockMvc.perform(get("/api/yfdata/crypto/UNKNOWN"))
                                 .andExpect(status().isNotFound());
@@ -81,8 +89,7 @@ class StockDataControllerTest {
         @Test
         void testGetMutualFund_Success() throws Exception {
                 String json = "{\"symbol\":\"VFIAX\",\"nav\":400.0}";
-                when(restTemplate.getForEntity(anyString(), eq(String.class)))
-                                .thenReturn(ResponseEntity.ok(json));
+                upstreamReturns(json);
 
                 mockMvc.perform(get("/api/yfdata/mutual-funds/VFIAX"))
                                 .andExpect(status().isOk())
@@ -91,8 +98,7 @@ class StockDataControllerTest {
 
         @Test
         void testGetMutualFund_NotFound() throws Exception {
-                when(restTemplate.getForEntity(anyString(), eq(String.class)))
-                                .thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND));
+                upstreamThrows(new HttpClientErrorException(HttpStatus.NOT_FOUND));
 
                 mockMvc.perform(get("/api/yfdata/mutual-funds/UNKNOWN"))
                                 .andExpect(status().isNotFound());
@@ -101,8 +107,7 @@ class StockDataControllerTest {
         @Test
         void testGetCommodity_Success() throws Exception {
                 String json = "{\"symbol\":\"GC=F\",\"price\":1800.0}";
-                when(restTemplate.getForEntity(anyString(), eq(String.class)))
-                                .thenReturn(ResponseEntity.ok(json));
+                upstreamReturns(json);
 
                 mockMvc.perform(get("/api/yfdata/commodities/GC=F"))
                                 .andExpect(status().isOk())
@@ -111,8 +116,7 @@ class StockDataControllerTest {
 
         @Test
         void testGetCommodity_NotFound() throws Exception {
-                when(restTemplate.getForEntity(anyString(), eq(String.class)))
-                                .thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND));
+                upstreamThrows(new HttpClientErrorException(HttpStatus.NOT_FOUND));
 
                 mockMvc.perform(get("/api/yfdata/commodities/UNKNOWN"))
                                 .andExpect(status().isNotFound());
@@ -121,8 +125,7 @@ class StockDataControllerTest {
         @Test
         void testGetHistory_Success() throws Exception {
                 String json = "{\"date\":\"2023-01-01\",\"close\":150.0}";
-                when(restTemplate.getForEntity(anyString(), eq(String.class)))
-                                .thenReturn(ResponseEntity.ok(json));
+                upstreamReturns(json);
 
                 mockMvc.perform(get("/api/yfdata/history/AAPL?period=1MO&interval=1d"))
                                 .andExpect(status().isOk())
@@ -131,8 +134,7 @@ class StockDataControllerTest {
 
         @Test
         void testGetHistory_NotFound() throws Exception {
-                when(restTemplate.getForEntity(anyString(), eq(String.class)))
-                                .thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND));
+                upstreamThrows(new HttpClientErrorException(HttpStatus.NOT_FOUND));
 
                 mockMvc.perform(get("/api/yfdata/history/UNKNOWN"))
                                 .andExpect(status().isNotFound());
@@ -141,8 +143,7 @@ class StockDataControllerTest {
         @Test
         void testGetNews_Success() throws Exception {
                 String json = "[{\"title\":\"News 1\"}]";
-                when(restTemplate.getForEntity(anyString(), eq(String.class)))
-                                .thenReturn(ResponseEntity.ok(json));
+                upstreamReturns(json);
 
                 mockMvc.perform(get("/api/yfdata/news/AAPL"))
                                 .andExpect(status().isOk())
@@ -151,8 +152,7 @@ class StockDataControllerTest {
 
         @Test
         void testGetNews_NotFound() throws Exception {
-                when(restTemplate.getForEntity(anyString(), eq(String.class)))
-                                .thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND));
+                upstreamThrows(new HttpClientErrorException(HttpStatus.NOT_FOUND));
 
                 mockMvc.perform(get("/api/yfdata/news/UNKNOWN"))
                                 .andExpect(status().isNotFound());
@@ -161,8 +161,7 @@ class StockDataControllerTest {
         @Test
         void testSearchAssets_Success() throws Exception {
                 String json = "[{\"symbol\":\"AAPL\"}]";
-                when(restTemplate.getForEntity(anyString(), eq(String.class)))
-                                .thenReturn(ResponseEntity.ok(json));
+                upstreamReturns(json);
 
                 mockMvc.perform(get("/api/yfdata/search?q=Apple"))
                                 .andExpect(status().isOk())
@@ -180,8 +179,7 @@ class StockDataControllerTest {
                 String requestBody = "[{\"symbol\":\"AAPL\",\"buyPrice\":100}]";
                 String responseBody = "{\"top\":[]}";
 
-                when(restTemplate.postForEntity(anyString(), any(), eq(String.class)))
-                                .thenReturn(ResponseEntity.ok(responseBody));
+                upstreamReturns(responseBody);
 
                 mockMvc.perform(post("/api/yfdata/portfolio/performers")
                                 .contentType(MediaType.APPLICATION_JSON)
@@ -192,8 +190,7 @@ class StockDataControllerTest {
 
         @Test
         void testGetPortfolioPerformers_BadRequest() throws Exception {
-                when(restTemplate.postForEntity(anyString(), any(), eq(String.class)))
-                                .thenThrow(new HttpClientErrorException(HttpStatus.BAD_REQUEST));
+                upstreamThrows(new HttpClientErrorException(HttpStatus.BAD_REQUEST));
 
                 mockMvc.perform(post("/api/yfdata/portfolio/performers")
                                 .contentType(MediaType.APPLICATION_JSON)
@@ -206,8 +203,7 @@ class StockDataControllerTest {
                 String requestBody = "[{\"symbol\":\"AAPL\"}]";
                 String responseBody = "{\"recommendations\":[]}";
 
-                when(restTemplate.postForEntity(anyString(), any(), eq(String.class)))
-                                .thenReturn(ResponseEntity.ok(responseBody));
+                upstreamReturns(responseBody);
 
                 mockMvc.perform(post("/api/yfdata/portfolio/recommendations")
                                 .contentType(MediaType.APPLICATION_JSON)
@@ -219,8 +215,7 @@ class StockDataControllerTest {
         @Test
         void testGetStockAnalysis_Success() throws Exception {
                 String json = "{\"sentiment\":\"Bullish\"}";
-                when(restTemplate.getForEntity(anyString(), eq(String.class)))
-                                .thenReturn(ResponseEntity.ok(json));
+                upstreamReturns(json);
 
                 mockMvc.perform(get("/api/yfdata/stock/AAPL/analysis?inPortfolio=true&buyPrice=150.0"))
                                 .andExpect(status().isOk())
@@ -236,8 +231,7 @@ class StockDataControllerTest {
         @Test
         void testHealthCheck_Success() throws Exception {
                 String json = "{\"status\":\"healthy\"}";
-                when(restTemplate.getForEntity(anyString(), eq(String.class)))
-                                .thenReturn(ResponseEntity.ok(json));
+                upstreamReturns(json);
 
                 mockMvc.perform(get("/api/yfdata/health"))
                                 .andExpect(status().isOk())
@@ -246,10 +240,51 @@ class StockDataControllerTest {
 
         @Test
         void testHealthCheck_Failure() throws Exception {
-                when(restTemplate.getForEntity(anyString(), eq(String.class)))
-                                .thenThrow(new RuntimeException("Connection refused"));
+                upstreamThrows(new RuntimeException("Connection refused"));
 
                 mockMvc.perform(get("/api/yfdata/health"))
                                 .andExpect(status().isServiceUnavailable());
         }
-}
\ No newline at end of file
+
+        @Test
+        void testGzipBodyIsRelayedUntouched() throws Exception {
+                ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+                try (GZIPOutputStream gzip = new GZIPOutputStream(gzipped)) {
+                        gzip.write("{\"symbol\":\"AAPL\"}".getBytes(StandardCharsets.UTF_8));
+                }
+                MockClientHttpRequest upstreamRequest = new MockClientHttpRequest();
+                when(restTemplate.execute(any(URI.class), any(HttpMethod.class), any(RequestCallback.class),
+                                anyExtractor())).thenAnswer(invocation -> {
+                                        invocation.<RequestCallback>getArgument(2).doWithRequest(upstreamRequest);
+                                        MockClientHttpResponse upstream = new MockClientHttpResponse(
+                                                        gzipped.toByteArray(), HttpStatus.OK);
+                                        upstream.getHeaders().set(HttpHeaders.CONTENT_ENCODING, "gzip");
+                                        return invocation.<ResponseExtractor<?>>getArgument(3).extractData(upstream);
+                                });
+
+                byte[] body = mockMvc.perform(get("/api/yfdata/stocks/AAPL").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                                .andReturn().getResponse().getContentAsByteArray();
+
+                assertArrayEquals(gzipped.toByteArray(), body);
+                assertEquals("gzip", upstreamRequest.getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING));
+        }
+
+        private void upstreamReturns(String json) {
+                when(restTemplate.execute(any(URI.class), any(HttpMethod.class), any(RequestCallback.class),
+                                anyExtractor())).thenAnswer(invocation -> invocation
+                                                .<ResponseExtractor<?>>getArgument(3)
+                                                .extractData(new MockClientHttpResponse(
+                                                                json.getBytes(StandardCharsets.UTF_8), HttpStatus.OK)));
+        }
+
+        private void upstreamThrows(RuntimeException e) {
+                when(restTemplate.execute(any(URI.class), any(HttpMethod.class), any(RequestCallback.class),
+                                anyExtractor())).thenThrow(e);
+        }
+
+        private static ResponseExtractor<Object> anyExtractor() {
+                return any();
+        }
+}
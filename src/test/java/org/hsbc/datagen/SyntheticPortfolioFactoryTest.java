@@ -0,0 +1,74 @@
+package org.hsbc.datagen;
+
+import org.hsbc.datagen.SyntheticPortfolioFactory.SyntheticPosition;
+import org.hsbc.entity.PmsEntity;
+import org.hsbc.entity.TransactionEntity;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyntheticPortfolioFactoryTest {
+
+    private static final LocalDate AS_OF = LocalDate.of(2025, 6, 30);
+
+    @Test
+    void testSameSeedProducesSameData() {
+        SyntheticPosition first = new SyntheticPortfolioFactory(7, AS_OF, 3).position(12, 25);
+        SyntheticPosition second = new SyntheticPortfolioFactory(7, AS_OF, 3).position(12, 25);
+
+        assertEquals(first.holding().toString(), second.holding().toString());
+        assertEquals(first.transactions().toString(), second.transactions().toString());
+    }
+
+    @Test
+    void testDifferentSeedProducesDifferentPrices() {
+        PmsEntity a = new SyntheticPortfolioFactory(1, AS_OF, 3).holdings(1).get(0);
+        PmsEntity b = new SyntheticPortfolioFactory(2, AS_OF, 3).holdings(1).get(0);
+
+        assertNotEquals(a.getCurrentPrice(), b.getCurrentPrice());
+    }
+
+    @Test
+    void testHoldingsCoverAllFourAssetTypes() {
+        List<PmsEntity> holdings = new SyntheticPortfolioFactory(42, AS_OF, 1).holdings(200);
+
+        Set<String> types = holdings.stream().map(PmsEntity::getAssetType).collect(Collectors.toSet());
+        assertEquals(Set.of("Stocks", "Mutual Funds", "Crypto", "Commodities"), types);
+        assertEquals(200, holdings.stream().map(PmsEntity::getSymbol).distinct().count());
+    }
+
+    @Test
+    void testPositionMatchesItsTransactions() {
+        SyntheticPosition position = new SyntheticPortfolioFactory(42, AS_OF, 5).position(3, 100);
+
+        int net = 0;
+        LocalDate previous = null;
+        for (TransactionEntity t : position.transactions()) {
+            net += "BUY".equals(t.getTransactionType()) ? t.getQuantity() : -t.getQuantity();
+            assertTrue(net > 0, "position must never go flat or short");
+            LocalDate day = t.getTransactionDate().toLocalDate();
+            assertTrue(previous == null || !day.isBefore(previous), "transactions must be chronological");
+            previous = day;
+        }
+        assertEquals(100, position.transactions().size());
+        assertEquals("BUY", position.transactions().get(0).getTransactionType());
+        assertEquals(net, position.holding().getQuantity());
+        assertEquals(position.holding().getBuyPrice() * net, position.holding().getBuyingValue(), 1e-6);
+    }
+
+    @Test
+    void testTradePricesMatchPriceHistory() {
+        SyntheticPosition position = new SyntheticPortfolioFactory(42, AS_OF, 2).position(5, 10);
+        SyntheticPriceHistory history = SyntheticPriceHistory.of(42, position.holding().getSymbol());
+
+        for (TransactionEntity t : position.transactions()) {
+            assertEquals(history.closeOn(t.getTransactionDate().toLocalDate()), t.getBuyPrice(), 1e-9);
+        }
+        assertEquals(history.closeOn(AS_OF), position.holding().getCurrentPrice(), 1e-9);
+    }
+}
@@ -0,0 +1,111 @@
+package org.hsbc.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.hsbc.entity.PmsEntity;
+import org.hsbc.market.PriceTable;
+import org.hsbc.repo.PmsRepository;
+import org.hsbc.service.PmsServiceimp;
+import org.hsbc.service.TransactionService;
+import org.hsbc.service.WalletService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class JfrEventsTest {
+
+    @TempDir
+    Path dumpDir;
+
+    private JfrRecordingService recordings;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        recordings = new JfrRecordingService(dumpDir.toString());
+        recordings.start("default", Duration.ofMinutes(5));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (Boolean.TRUE.equals(recordings.status().get("running"))) {
+            recordings.stop();
+        }
+    }
+
+    @Test
+    void testTradeEventRecordedForBuy() throws Exception {
+        PmsRepository repository = mock(PmsRepository.class);
+        when(repository.findBySymbol("AAPL")).thenReturn(Optional.empty());
+        when(repository.save(any(PmsEntity.class))).thenAnswer(inv -> inv.getArgument(0));
+        PmsServiceimp service = new PmsServiceimp(repository);
+        ReflectionTestUtils.setField(service, "walletService", mock(WalletService.class));
+        ReflectionTestUtils.setField(service, "transactionService", mock(TransactionService.class));
+        ReflectionTestUtils.setField(service, "priceTable", new PriceTable(16));
+        ReflectionTestUtils.setField(service, "events", mock(ApplicationEventPublisher.class));
+
+        service.buyAsset("AAPL", "Apple Inc.", 5, 150.0, "Stocks");
+
+        RecordedEvent trade = single(recordings.stop(), "org.hsbc.Trade");
+        assertEquals("BUY", trade.getString("side"));
+        assertEquals("AAPL", trade.getString("symbol"));
+        assertEquals(5, trade.getInt("quantity"));
+        assertTrue(trade.getDuration("databaseTime").toNanos() > 0);
+    }
+
+    @Test
+    void testFlaskCallEventRecordsRouteStatusAndBytes() throws Exception {
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.getInterceptors().add(new FlaskCallJfrInterceptor());
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+        server.expect(requestTo("http://flask/api/history/MSFT?period=1Y"))
+                .andRespond(withSuccess("{\"data\":[]}", MediaType.APPLICATION_JSON));
+
+        restTemplate.getForObject("http://flask/api/history/MSFT?period=1Y", String.class);
+
+        RecordedEvent call = single(recordings.stop(), "org.hsbc.FlaskCall");
+        assertEquals("/api/history/{symbol}", call.getString("route"));
+        assertEquals("/api/history/MSFT?period=1Y", call.getString("uri"));
+        assertEquals(200, call.getInt("status"));
+        assertEquals(11, call.getLong("bytes"));
+    }
+
+    @Test
+    void testAggregationEventAndDumpWhileRunning() throws Exception {
+        AggregationEvent.begin("summary").complete(42);
+
+        RecordedEvent aggregation = single(recordings.dump(), "org.hsbc.PortfolioAggregation");
+        assertEquals("summary", aggregation.getString("endpoint"));
+        assertEquals(42, aggregation.getInt("assetCount"));
+        assertEquals(true, recordings.status().get("running"));
+    }
+
+    @Test
+    void testSecondStartIsRejected() {
+        assertThrows(IllegalStateException.class, () -> recordings.start("default", Duration.ofMinutes(1)));
+    }
+
+    private static RecordedEvent single(Path file, String eventName) throws Exception {
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().equals(eventName))
+                .toList();
+        assertEquals(1, events.size(), eventName);
+        return events.get(0);
+    }
+}
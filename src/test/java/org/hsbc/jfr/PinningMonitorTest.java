@@ -0,0 +1,46 @@
+package org.hsbc.jfr;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PinningMonitorTest {
+
+    private final Object monitor = new Object();
+
+    @Test
+    void testPinnedVirtualThreadIsCountedAtApplicationFrame() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PinningMonitor pinningMonitor = new PinningMonitor(10, registry);
+        pinningMonitor.start();
+        try {
+            Thread.ofVirtual().start(this::sleepWhileHoldingMonitor).join();
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (registry.find("pms.vthreads.pinned").counter() == null && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+        } finally {
+            pinningMonitor.stop();
+        }
+
+        Counter pinned = registry.find("pms.vthreads.pinned").counter();
+        assertNotNull(pinned, "no pinning event was reported");
+        assertTrue(pinned.getId().getTag("site").startsWith(PinningMonitorTest.class.getName() + ".sleepWhileHoldingMonitor"));
+        assertFalse(pinningMonitor.isRunning());
+    }
+
+    private void sleepWhileHoldingMonitor() {
+        synchronized (monitor) {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package org.hsbc.ledger;
+
+import org.hsbc.entity.HoldingsSnapshotEntity;
+import org.hsbc.entity.TransactionEntity;
+import org.hsbc.repo.HoldingsSnapshotRepo;
+import org.hsbc.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+class HoldingsHistoryTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 1, 2, 10, 0);
+    private static final Clock CLOCK = Clock.fixed(DAY.plusDays(30).toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+
+    private final TransactionService transactions = mock(TransactionService.class);
+    private final HoldingsSnapshotRepo snapshots = mock(HoldingsSnapshotRepo.class);
+    private final HoldingsHistory history = new HoldingsHistory(transactions, snapshots, 0, null, CLOCK);
+
+    @Test
+    void testCodecRoundTrip() {
+        List<HeldPosition> positions = List.of(
+                new HeldPosition("AAPL", 10, 1500.25),
+                new HeldPosition("AAPL.L", -3, 0),
+                new HeldPosition("MSFT", 1L << 40, 1e12),
+                new HeldPosition("MSFTÜ", 7, 70));
+
+        byte[] payload = HoldingsCodec.encode(positions);
+
+        assertEquals(positions, HoldingsCodec.decode(payload));
+        // "AAPL.L" stores only ".L" after the shared prefix
+        assertTrue(payload.length < 4 * 16, "payload of " + payload.length + " bytes");
+        payload[0] = 9;
+        assertThrows(IllegalStateException.class, () -> HoldingsCodec.decode(payload));
+    }
+
+    @Test
+    void testSnapshotStoresReplayedPositions() {
+        when(snapshots.findTopByOrderByAsOfDescIdDesc()).thenReturn(Optional.empty());
+        when(transactions.getTransactionsBetween(isNull(), any())).thenReturn(List.of(
+                trade(1, "AAPL", 10, 100, DAY, "BUY"),
+                trade(2, "AAPL", 10, 200, DAY.plusDays(1), "BUY"),
+                trade(3, "AAPL", 5, 300, DAY.plusDays(2), "SELL"),
+                trade(4, "MSFT", 2, 50, DAY.plusDays(3), "BUY"),
+                trade(5, "MSFT", 2, 60, DAY.plusDays(4), "SELL")));
+        when(snapshots.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        HoldingsSnapshotEntity snapshot = history.snapshot();
+
+        assertEquals(DAY.plusDays(4), snapshot.getAsOf());
+        assertEquals(5L, snapshot.getLastTransactionId());
+        assertEquals(5, snapshot.getTransactionCount());
+        // MSFT was sold out; AAPL keeps 15 units at the average cost of 150
+        assertEquals(List.of(new HeldPosition("AAPL", 15, 2250)), HoldingsCodec.decode(snapshot.getPayload()));
+    }
+
+    @Test
+    void testAsOfReplaysOnlyTransactionsAfterSnapshot() {
+        LocalDateTime snapshotAsOf = DAY.plusDays(4);
+        HoldingsSnapshotEntity snapshot = new HoldingsSnapshotEntity(snapshotAsOf, 5L, 5, 1,
+                HoldingsCodec.encode(List.of(new HeldPosition("AAPL", 15, 2250))));
+        LocalDateTime asOf = DAY.plusDays(10);
+        when(snapshots.findTopByAsOfLessThanEqualOrderByAsOfDescIdDesc(asOf)).thenReturn(Optional.of(snapshot));
+        when(transactions.getTransactionsBetween(snapshotAsOf, asOf)).thenReturn(List.of(
+                trade(6, "aapl", 5, 100, DAY.plusDays(5), "sell"),
+                trade(7, "IBM", 4, 25, DAY.plusDays(6), "BUY")));
+
+        HoldingsAsOf holdings = history.asOf(asOf);
+
+        assertEquals(snapshotAsOf, holdings.snapshotAsOf());
+        assertEquals(2, holdings.replayedTransactions());
+        assertEquals(List.of(new HeldPosition("AAPL", 10, 1500), new HeldPosition("IBM", 4, 100)),
+                holdings.positions());
+        verify(transactions, never()).getAllTransactions();
+    }
+
+    @Test
+    void testDailyPositionsFromOneRead() {
+        LocalDate from = DAY.toLocalDate();
+        when(snapshots.findTopByAsOfLessThanEqualOrderByAsOfDescIdDesc(any())).thenReturn(Optional.empty());
+        when(transactions.getTransactionsBetween(isNull(), any())).thenReturn(List.of(
+                trade(1, "AAPL", 10, 100, DAY, "BUY"),
+                trade(2, "AAPL", 4, 120, DAY.plusDays(2), "SELL")));
+
+        List<HoldingsAsOf> days = history.daily(from, from.plusDays(2));
+
+        assertEquals(3, days.size());
+        assertEquals(List.of(new HeldPosition("AAPL", 10, 1000)), days.get(1).positions());
+        assertEquals(List.of(new HeldPosition("AAPL", 6, 600)), days.get(2).positions());
+        assertEquals(2, days.get(2).replayedTransactions());
+        verify(transactions, times(1)).getTransactionsBetween(any(), any());
+    }
+
+    @Test
+    void testNothingNewSkipsSnapshot() {
+        HoldingsSnapshotEntity previous = new HoldingsSnapshotEntity(DAY, 1L, 1, 0, HoldingsCodec.encode(List.of()));
+        when(snapshots.findTopByOrderByAsOfDescIdDesc()).thenReturn(Optional.of(previous));
+        when(transactions.getTransactionsBetween(any(), any())).thenReturn(List.of());
+
+        assertNull(history.snapshot());
+
+        ArgumentCaptor<LocalDateTime> after = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(transactions).getTransactionsBetween(after.capture(), any());
+        assertEquals(DAY, after.getValue());
+        verify(snapshots, never()).save(any());
+    }
+
+    private static TransactionEntity trade(long id, String symbol, int quantity, double price, LocalDateTime date,
+                                           String type) {
+        return new TransactionEntity(id, symbol, quantity, price, date, type);
+    }
+}
@@ -0,0 +1,180 @@
+package org.hsbc.ledger;
+
+import org.hsbc.entity.PmsEntity;
+import org.hsbc.entity.TransactionEntity;
+import org.hsbc.exception.ResourceNotFoundException;
+import org.hsbc.market.PriceTable;
+import org.hsbc.performance.TransactionRecordedEvent;
+import org.hsbc.repo.PmsRepository;
+import org.hsbc.service.PmsService;
+import org.hsbc.service.TransactionService;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class LotEngineTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 1, 2);
+
+    @Test
+    void testSaleConsumesLotsByMethod() {
+        // 10 @ 100, then 10 @ 200; sell 15 @ 300
+        double[] realized = new double[3];
+        double[] open = new double[3];
+        for (LotMethod method : LotMethod.values()) {
+            LotBook book = new LotBook(method);
+            book.buy(DAY, 10, 100);
+            book.buy(DAY.plusDays(10), 10, 200);
+            realized[method.ordinal()] = book.sell(DAY.plusDays(20), 15, 300);
+            open[method.ordinal()] = book.openCost();
+            assertEquals(5, book.openQuantity(), 1e-12);
+            assertEquals(book.realized(), book.shortTerm(), 1e-12);
+        }
+
+        assertEquals(10 * 200 + 5 * 100, realized[LotMethod.FIFO.ordinal()], 1e-9);
+        assertEquals(5 * 200, open[LotMethod.FIFO.ordinal()], 1e-9);
+        assertEquals(10 * 100 + 5 * 200, realized[LotMethod.LIFO.ordinal()], 1e-9);
+        assertEquals(5 * 100, open[LotMethod.LIFO.ordinal()], 1e-9);
+        assertEquals(15 * 150, realized[LotMethod.AVERAGE.ordinal()], 1e-9);
+        assertEquals(5 * 150, open[LotMethod.AVERAGE.ordinal()], 1e-9);
+    }
+
+    @Test
+    void testHoldingPeriodAndUnmatchedUnits() {
+        LotBook book = new LotBook(LotMethod.FIFO);
+        book.buy(DAY, 10, 100);
+        book.buy(DAY.plusMonths(18), 10, 100);
+
+        book.sell(DAY.plusMonths(20), 25, 110);
+
+        assertEquals(100, book.longTerm(), 1e-9);
+        assertEquals(100, book.shortTerm(), 1e-9);
+        assertEquals(5, book.unmatched(), 1e-12);
+        assertEquals(0, book.openQuantity(), 1e-12);
+        assertTrue(book.lots().isEmpty());
+    }
+
+    @Test
+    void testTradesApplyWithoutReplay() {
+        TransactionService transactions = mock(TransactionService.class);
+        List<TransactionEntity> log = new ArrayList<>(List.of(
+                trade(1, "AAPL", 10, 100, DAY, "BUY"), trade(2, "AAPL", 10, 200, DAY.plusDays(10), "BUY")));
+        when(transactions.getAllTransactions()).thenReturn(log);
+        PmsService pmsService = mock(PmsService.class);
+        PmsEntity msft = new PmsEntity("Microsoft", "MSFT", 4, 50, 50, 200, "USD", "NMS", "Technology", "Stocks");
+        msft.setPurchaseDate(DAY);
+        when(pmsService.getAllAssets()).thenReturn(List.of(msft));
+        PmsRepository holdings = mock(PmsRepository.class);
+        when(holdings.findBySymbol("MSFT")).thenReturn(Optional.of(msft));
+        PriceTable prices = new PriceTable(16);
+        prices.update("AAPL", 250.0);
+        prices.update("MSFT", 60.0);
+        LotEngine engine = new LotEngine(transactions, pmsService, holdings, prices, "fifo");
+
+        GainsReport before = engine.gains(null);
+        assertEquals("fifo", before.method());
+        assertEquals(20 * 250 + 4 * 60, before.marketValue(), 1e-9);
+        assertEquals(3000 + 200, before.costBasis(), 1e-9);
+
+        engine.onTransactionRecorded(new TransactionRecordedEvent("AAPL",
+                trade(3, "AAPL", 15, 300, DAY.plusDays(20), "SELL")));
+        // MSFT was added directly: its sale is matched against an opening lot from the holding
+        engine.onTransactionRecorded(new TransactionRecordedEvent("MSFT",
+                trade(4, "MSFT", 4, 60, DAY.plusDays(20), "SELL")));
+        GainsReport after = engine.gains("lifo");
+
+        assertEquals(10 * 100 + 5 * 200 + 4 * 10, after.realizedGain(), 1e-9);
+        assertEquals(5 * 100, after.costBasis(), 1e-9);
+        assertEquals(5 * 250 - 5 * 100, after.unrealizedGain(), 1e-9);
+        assertEquals(0, after.symbols().get(1).unmatchedQuantity(), 1e-12);
+        LotReport lots = engine.lots("aapl", "fifo");
+        assertEquals(List.of(new OpenLot(DAY.plusDays(10), 5, 200)), lots.lots());
+        verify(transactions, times(1)).getAllTransactions();
+        verify(transactions, never()).getTransactionsBySymbol(anyString());
+        verify(pmsService, times(1)).getAllAssets();
+        assertThrows(ResourceNotFoundException.class, () -> engine.lots("NVDA", null));
+        assertThrows(IllegalArgumentException.class, () -> engine.gains("hifo"));
+    }
+
+    @Test
+    void testChangedTransactionReplaysItsSymbol() {
+        TransactionService transactions = mock(TransactionService.class);
+        when(transactions.getAllTransactions()).thenReturn(List.of(
+                trade(1, "AAPL", 10, 100, DAY, "BUY"), trade(2, "AAPL", 5, 150, DAY.plusDays(5), "SELL")));
+        when(transactions.getTransactionsBySymbol("AAPL")).thenReturn(List.of(
+                trade(1, "AAPL", 10, 100, DAY, "BUY"), trade(2, "AAPL", 5, 120, DAY.plusDays(5), "SELL")));
+        LotEngine engine = new LotEngine(transactions, mock(PmsService.class), mock(PmsRepository.class),
+                new PriceTable(16), "average");
+        assertEquals(250, engine.gains(null).realizedGain(), 1e-9);
+
+        engine.onTransactionRecorded(new TransactionRecordedEvent("AAPL"));
+        assertEquals(100, engine.gains(null).realizedGain(), 1e-9);
+
+        // Dated before the last applied trade: replayed rather than applied
+        engine.onTransactionRecorded(new TransactionRecordedEvent("AAPL", trade(3, "AAPL", 1, 1, DAY, "BUY")));
+        verify(transactions, times(2)).getTransactionsBySymbol("AAPL");
+    }
+
+    @Test
+    void testSaleReplayedBeforeItsHoldingIsReduced() {
+        TransactionService transactions = mock(TransactionService.class);
+        List<TransactionEntity> log = List.of(
+                trade(1, "AAPL", 10, 100, DAY, "BUY"), trade(2, "AAPL", 4, 150, DAY.plusDays(5), "SELL"));
+        when(transactions.getAllTransactions()).thenReturn(log);
+        when(transactions.getTransactionsBySymbol("AAPL")).thenReturn(log);
+        // The sale is recorded, but the holding still has all 10 units
+        PmsService pmsService = mock(PmsService.class);
+        PmsEntity aapl = new PmsEntity("Apple", "AAPL", 10, 100, 150, 1000, "USD", "NMS", "Technology", "Stocks");
+        aapl.setPurchaseDate(DAY);
+        when(pmsService.getAllAssets()).thenReturn(List.of(aapl));
+        PmsRepository holdings = mock(PmsRepository.class);
+        when(holdings.findBySymbol("AAPL")).thenReturn(Optional.of(aapl));
+        LotEngine engine = new LotEngine(transactions, pmsService, holdings, new PriceTable(16), "fifo");
+        engine.gains(null);
+
+        // Already applied by the first report, so the sale's event replays the symbol
+        engine.onTransactionRecorded(new TransactionRecordedEvent("AAPL", log.get(1)));
+
+        LotReport lots = engine.lots("AAPL", null);
+        assertEquals(List.of(new OpenLot(DAY, 6, 100)), lots.lots());
+        assertEquals(200, lots.gains().realizedGain(), 1e-9);
+    }
+
+    @Test
+    void testUnitsAddedDirectlyGetOpeningLotOnNextBuy() {
+        TransactionService transactions = mock(TransactionService.class);
+        when(transactions.getAllTransactions()).thenReturn(List.of(trade(1, "AAPL", 10, 100, DAY, "BUY")));
+        PmsService pmsService = mock(PmsService.class);
+        PmsEntity aapl = new PmsEntity("Apple", "AAPL", 10, 100, 100, 1000, "USD", "NMS", "Technology", "Stocks");
+        aapl.setPurchaseDate(DAY);
+        when(pmsService.getAllAssets()).thenReturn(List.of(aapl));
+        PmsRepository holdings = mock(PmsRepository.class);
+        when(holdings.findBySymbol("AAPL")).thenReturn(Optional.of(aapl));
+        LotEngine engine = new LotEngine(transactions, pmsService, holdings, new PriceTable(16), "fifo");
+        engine.gains(null);
+
+        // 5 units added directly at 80, then a recorded buy of 2 @ 120; the holding shows all 17
+        aapl.setQuantity(17);
+        aapl.setBuyPrice(80);
+        engine.onTransactionRecorded(new TransactionRecordedEvent("AAPL",
+                trade(2, "AAPL", 2, 120, DAY.plusDays(3), "BUY")));
+
+        LotReport lots = engine.lots("AAPL", null);
+        assertEquals(List.of(new OpenLot(DAY, 5, 80), new OpenLot(DAY, 10, 100), new OpenLot(DAY.plusDays(3), 2, 120)),
+                lots.lots());
+        assertEquals(17, lots.gains().quantity(), 1e-12);
+        verify(pmsService, times(1)).getAllAssets();
+    }
+
+    private static TransactionEntity trade(long id, String symbol, int quantity, double price, LocalDate day,
+                                           String type) {
+        return new TransactionEntity(id, symbol, quantity, price, day.atTime(10, 0), type);
+    }
+}
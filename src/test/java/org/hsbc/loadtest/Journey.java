@@ -0,0 +1,54 @@
+package org.hsbc.loadtest;
+
+import java.util.List;
+
+/**
+ * A scripted user journey: the HTTP calls one user action makes, executed in order.
+ * Latencies are reported per {@link Step#name()}, so the same endpoint hit from several
+ * journeys lands in one histogram.
+ */
+public record Journey(String name, List<Step> steps) {
+
+    public record Step(String name, String method, String path) {
+
+        static Step get(String name, String path) {
+            return new Step(name, "GET", path);
+        }
+
+        static Step post(String name, String path) {
+            return new Step(name, "POST", path);
+        }
+    }
+
+    /** Home page: everything the dashboard fetches on load. */
+    public static Journey dashboard() {
+        return new Journey("dashboard", List.of(
+                Step.get("GET /api/portfolio/summary", "/api/portfolio/summary"),
+                Step.get("GET /api/portfolio/allocation", "/api/portfolio/allocation"),
+                Step.get("GET /api/portfolio/breakdown", "/api/portfolio/breakdown"),
+                Step.get("GET /api/portfolio/performers", "/api/portfolio/performers"),
+                Step.get("GET /dashboard/wallet-summary", "/dashboard/wallet-summary")));
+    }
+
+    public static Journey holdings() {
+        return new Journey("holdings", List.of(
+                Step.get("GET /api/pms/all", "/api/pms/all"),
+                Step.get("GET /wallet/balance", "/wallet/balance")));
+    }
+
+    public static Journey buy(String symbol, double price) {
+        return new Journey("buy", List.of(
+                Step.post("POST /api/pms/buy", "/api/pms/buy?symbol=" + symbol
+                        + "&companyName=LoadTest&quantity=1&price=" + price + "&assetType=Stocks")));
+    }
+
+    public static Journey sell(String symbol) {
+        return new Journey("sell", List.of(
+                Step.post("POST /api/pms/sell", "/api/pms/sell?symbol=" + symbol + "&quantity=1")));
+    }
+
+    public static Journey history() {
+        return new Journey("history", List.of(
+                Step.get("GET /transactions/all", "/transactions/all")));
+    }
+}
@@ -0,0 +1,99 @@
+package org.hsbc.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-endpoint latency histograms in microseconds.
+ * <p>
+ * Each call is recorded twice: <b>response time</b> is measured from the moment the request
+ * was <i>scheduled</i> to be sent, which corrects for coordinated omission (a stalled server
+ * cannot hide the queueing it causes); <b>service time</b> is measured from the moment it was
+ * actually sent. A large gap between the two means the generator or the server fell behind.
+ */
+public class LatencyRecorder {
+
+    private static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    public void record(String endpoint, long intendedStartNanos, long sentNanos, long completedNanos, boolean ok) {
+        Endpoint e = endpoints.computeIfAbsent(endpoint, k -> new Endpoint());
+        e.responseTime.recordValue(clamp(completedNanos - intendedStartNanos));
+        e.serviceTime.recordValue(clamp(completedNanos - sentNanos));
+        if (!ok) {
+            e.errors.increment();
+        }
+    }
+
+    public void recordDropped(String endpoint) {
+        endpoints.computeIfAbsent(endpoint, k -> new Endpoint()).dropped.increment();
+    }
+
+    public Histogram responseTime(String endpoint) {
+        return endpoints.get(endpoint).responseTime;
+    }
+
+    public Histogram serviceTime(String endpoint) {
+        return endpoints.get(endpoint).serviceTime;
+    }
+
+    public long errors(String endpoint) {
+        return endpoints.get(endpoint).errors.sum();
+    }
+
+    private static long clamp(long nanos) {
+        return Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(nanos), 1), MAX_MICROS);
+    }
+
+    /**
+     * Writes a summary table plus the full percentile distribution of every histogram.
+     */
+    public void writeReport(Path file, String header) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            out.println(header);
+            out.println();
+            out.printf("%-34s %8s %6s %7s | %-44s | %-44s%n", "endpoint", "count", "errors", "dropped",
+                    "response time ms (p50 / p99 / p99.9 / max)", "service time ms (p50 / p99 / p99.9 / max)");
+            Map<String, Endpoint> sorted = new TreeMap<>(endpoints);
+            sorted.forEach((name, e) -> out.printf("%-34s %8d %6d %7d | %-44s | %-44s%n",
+                    name, e.responseTime.getTotalCount(), e.errors.sum(), e.dropped.sum(),
+                    percentiles(e.responseTime), percentiles(e.serviceTime)));
+
+            sorted.forEach((name, e) -> {
+                out.println();
+                out.println("=== " + name + " : response time (coordinated-omission corrected), ms ===");
+                e.responseTime.outputPercentileDistribution(out, 1000.0);
+                out.println("=== " + name + " : service time, ms ===");
+                e.serviceTime.outputPercentileDistribution(out, 1000.0);
+            });
+        }
+    }
+
+    private static String percentiles(Histogram h) {
+        if (h.getTotalCount() == 0) {
+            return "-";
+        }
+        return String.format("%.2f / %.2f / %.2f / %.2f",
+                h.getValueAtPercentile(50) / 1000.0, h.getValueAtPercentile(99) / 1000.0,
+                h.getValueAtPercentile(99.9) / 1000.0, h.getMaxValue() / 1000.0);
+    }
+
+    private static final class Endpoint {
+        final Histogram responseTime = new ConcurrentHistogram(MAX_MICROS, 3);
+        final Histogram serviceTime = new ConcurrentHistogram(MAX_MICROS, 3);
+        final LongAdder errors = new LongAdder();
+        final LongAdder dropped = new LongAdder();
+    }
+}
@@ -0,0 +1,212 @@
+package org.hsbc.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model HTTP load generator for a running instance.
+ * <p>
+ * Journeys arrive at a fixed rate (constant or Poisson inter-arrival times) regardless of how
+ * fast the server answers, each one on its own virtual thread, and every call is recorded
+ * against its <i>scheduled</i> start so queueing delay is not hidden (coordinated omission).
+ * <p>
+ * Run with, for example:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.mainClass=org.hsbc.loadtest.LoadTestRunner -Dexec.classpathScope=test \
+ *     -Dloadtest.rate=50 -Dloadtest.duration-seconds=120 -Dloadtest.mix=dashboard=60,holdings=20,buy=10,sell=5,history=5
+ * </pre>
+ * All settings are {@code loadtest.*} system properties, see {@link Settings#fromSystemProperties()}.
+ */
+public class LoadTestRunner {
+
+    private final Settings settings;
+    private final HttpClient client;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public LoadTestRunner(Settings settings) {
+        this.settings = settings;
+        this.client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Settings settings = Settings.fromSystemProperties();
+        Path report = new LoadTestRunner(settings).run();
+        System.out.println(Files.readString(report).lines().limit(20).reduce("", (a, b) -> a + b + "\n"));
+        System.out.println("Full report: " + report.toAbsolutePath());
+    }
+
+    /**
+     * Runs warm-up and measurement and writes the report.
+     *
+     * @return the report file
+     */
+    public Path run() throws IOException, InterruptedException {
+        prepareSellInventory();
+
+        LatencyRecorder warmup = new LatencyRecorder();
+        LatencyRecorder measured = new LatencyRecorder();
+        SplittableRandom random = new SplittableRandom(settings.seed());
+        List<Journey> journeys = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        settings.mix().forEach((name, weight) -> {
+            journeys.add(journey(name));
+            weights.add(weight);
+        });
+        int totalWeight = weights.stream().mapToInt(Integer::intValue).sum();
+
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / settings.rate());
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(settings.warmupSeconds());
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(settings.durationSeconds());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            long next = start;
+            while (next < end) {
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                Journey journey = pick(journeys, weights, totalWeight, random);
+                LatencyRecorder recorder = next < measureFrom ? warmup : measured;
+                long intendedStart = next;
+                if (inFlight.get() >= settings.maxInFlight()) {
+                    recorder.recordDropped(journey.steps().get(0).name());
+                } else {
+                    inFlight.incrementAndGet();
+                    executor.submit(() -> {
+                        try {
+                            execute(journey, intendedStart, recorder);
+                        } finally {
+                            inFlight.decrementAndGet();
+                        }
+                    });
+                }
+                next += settings.poisson()
+                        ? (long) (-Math.log(1.0 - random.nextDouble()) * intervalNanos)
+                        : intervalNanos;
+            }
+        }
+
+        Path report = settings.report();
+        measured.writeReport(report, String.format(
+                "Load test %s against %s%nrate=%.1f journeys/s (%s arrivals), warmup=%ds, duration=%ds, mix=%s",
+                LocalDateTime.now(), settings.baseUrl(), settings.rate(),
+                settings.poisson() ? "poisson" : "constant", settings.warmupSeconds(),
+                settings.durationSeconds(), settings.mix()));
+        return report;
+    }
+
+    void execute(Journey journey, long intendedStart, LatencyRecorder recorder) {
+        long intended = intendedStart;
+        for (Journey.Step step : journey.steps()) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(settings.baseUrl() + step.path()))
+                    .timeout(Duration.ofSeconds(settings.timeoutSeconds()))
+                    .method(step.method(), HttpRequest.BodyPublishers.noBody())
+                    .build();
+            long sent = System.nanoTime();
+            boolean ok;
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                ok = response.statusCode() < 400;
+            } catch (IOException e) {
+                ok = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            long completed = System.nanoTime();
+            recorder.record(step.name(), intended, sent, completed, ok);
+            // The next step of a journey is meant to start as soon as this one finishes
+            intended = completed;
+        }
+    }
+
+    /** Buys enough units up front that the sell journeys have something to sell. */
+    private void prepareSellInventory() throws IOException, InterruptedException {
+        int sellWeight = settings.mix().getOrDefault("sell", 0);
+        if (sellWeight == 0) {
+            return;
+        }
+        int totalWeight = settings.mix().values().stream().mapToInt(Integer::intValue).sum();
+        long expectedSells = (long) Math.ceil(settings.rate() * (settings.warmupSeconds() + settings.durationSeconds())
+                * sellWeight / totalWeight * 1.5) + 1;
+        String path = "/api/pms/buy?symbol=" + settings.symbol() + "&companyName=LoadTest&quantity=" + expectedSells
+                + "&price=" + settings.price() + "&assetType=Stocks";
+        client.send(HttpRequest.newBuilder(URI.create(settings.baseUrl() + path))
+                .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.discarding());
+    }
+
+    private Journey journey(String name) {
+        return switch (name) {
+            case "dashboard" -> Journey.dashboard();
+            case "holdings" -> Journey.holdings();
+            case "buy" -> Journey.buy(settings.symbol(), settings.price());
+            case "sell" -> Journey.sell(settings.symbol());
+            case "history" -> Journey.history();
+            default -> throw new IllegalArgumentException("Unknown journey: " + name);
+        };
+    }
+
+    private static Journey pick(List<Journey> journeys, List<Integer> weights, int totalWeight, SplittableRandom random) {
+        int roll = random.nextInt(totalWeight);
+        for (int i = 0; i < journeys.size(); i++) {
+            roll -= weights.get(i);
+            if (roll < 0) {
+                return journeys.get(i);
+            }
+        }
+        return journeys.get(journeys.size() - 1);
+    }
+
+    public record Settings(String baseUrl, double rate, boolean poisson, int warmupSeconds, int durationSeconds,
+                           Map<String, Integer> mix, String symbol, double price, int maxInFlight,
+                           int timeoutSeconds, long seed, Path report) {
+
+        public static Settings fromSystemProperties() {
+            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+            return new Settings(
+                    System.getProperty("loadtest.base-url", "http://localhost:8080"),
+                    Double.parseDouble(System.getProperty("loadtest.rate", "20")),
+                    "poisson".equalsIgnoreCase(System.getProperty("loadtest.arrivals", "constant")),
+                    Integer.parseInt(System.getProperty("loadtest.warmup-seconds", "10")),
+                    Integer.parseInt(System.getProperty("loadtest.duration-seconds", "60")),
+                    parseMix(System.getProperty("loadtest.mix", "dashboard=50,holdings=20,buy=10,sell=10,history=10")),
+                    System.getProperty("loadtest.symbol", "LOADTEST"),
+                    Double.parseDouble(System.getProperty("loadtest.price", "10.0")),
+                    Integer.parseInt(System.getProperty("loadtest.max-in-flight", "10000")),
+                    Integer.parseInt(System.getProperty("loadtest.timeout-seconds", "30")),
+                    Long.parseLong(System.getProperty("loadtest.seed", "42")),
+                    Path.of(System.getProperty("loadtest.report", "target/loadtest/report-" + timestamp + ".txt")));
+        }
+
+        static Map<String, Integer> parseMix(String mix) {
+            Map<String, Integer> weights = new LinkedHashMap<>();
+            for (String entry : mix.split(",")) {
+                String[] parts = entry.trim().split("=");
+                weights.put(parts[0].trim(), parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1);
+            }
+            return weights;
+        }
+    }
+}
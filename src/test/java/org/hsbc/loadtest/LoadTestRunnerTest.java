@@ -0,0 +1,67 @@
+package org.hsbc.loadtest;
+
+import org.hsbc.stub.FlaskStubServer;
+import org.hsbc.stub.StubResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadTestRunnerTest {
+
+    @TempDir
+    Path reportDir;
+
+    private FlaskStubServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Any HTTP server will do as the target; answer every call with 200 {}
+        server = new FlaskStubServer(0, (method, path, body) -> StubResponse.json(200, "{}")).start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void testResponseTimeIncludesQueueingButServiceTimeDoesNot() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        long intended = 0;
+        long sent = TimeUnit.MILLISECONDS.toNanos(100);
+        long completed = TimeUnit.MILLISECONDS.toNanos(110);
+
+        recorder.record("GET /x", intended, sent, completed, true);
+
+        assertEquals(110, recorder.responseTime("GET /x").getMaxValue() / 1000.0, 1.0);
+        assertEquals(10, recorder.serviceTime("GET /x").getMaxValue() / 1000.0, 1.0);
+        assertEquals(0, recorder.errors("GET /x"));
+    }
+
+    @Test
+    void testOpenModelRunWritesReport() throws Exception {
+        Path report = reportDir.resolve("report.txt");
+        LoadTestRunner.Settings settings = new LoadTestRunner.Settings(server.getBaseUrl(), 50, false, 0, 2,
+                Map.of("dashboard", 1, "history", 1), "LOADTEST", 10.0, 1000, 5, 42, report);
+
+        new LoadTestRunner(settings).run();
+
+        String content = Files.readString(report);
+        assertTrue(content.contains("GET /api/portfolio/summary"));
+        assertTrue(content.contains("GET /transactions/all"));
+        assertTrue(content.contains("response time (coordinated-omission corrected)"));
+    }
+
+    @Test
+    void testParseMix() {
+        assertEquals(Map.of("dashboard", 3, "buy", 1), LoadTestRunner.Settings.parseMix("dashboard=3, buy"));
+    }
+}
@@ -0,0 +1,143 @@
+package org.hsbc.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.hsbc.config.VirtualThreadConfig;
+import org.hsbc.controller.StockDataController;
+import org.hsbc.stub.FaultInjectingResponder;
+import org.hsbc.stub.FlaskStubServer;
+import org.hsbc.stub.SyntheticMarketDataResponder;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares how many concurrent {@code /api/yfdata} requests the Tomcat tier sustains on platform
+ * threads (the default 200-thread pool) and with {@code spring.threads.virtual.enabled=true}.
+ * <p>
+ * Boots only {@link StockDataController} (no database) against an in-process Flask stub with a fixed
+ * upstream latency, then runs closed-loop clients at increasing concurrency and reports throughput
+ * and latency per level. A mode "sustains" a level while p99 stays within twice the upstream latency
+ * and no request fails.
+ * <pre>
+ * mvn test-compile exec:java -Dexec.mainClass=org.hsbc.loadtest.VirtualThreadConcurrencyBenchmark \
+ *     -Dexec.classpathScope=test -Dbench.upstream-latency-ms=200 -Dbench.concurrency=100,200,400,800,1600
+ * </pre>
+ */
+public class VirtualThreadConcurrencyBenchmark {
+
+    private static final String PATH = System.getProperty("bench.path", "/api/yfdata/stocks/STK0001");
+    private static final long UPSTREAM_LATENCY_MS = Long.getLong("bench.upstream-latency-ms", 200);
+    private static final int SECONDS_PER_LEVEL = Integer.getInteger("bench.seconds-per-level", 10);
+    private static final int[] CONCURRENCY = Arrays.stream(
+            System.getProperty("bench.concurrency", "50,100,200,400,800,1600").split(","))
+            .map(String::trim).mapToInt(Integer::parseInt).toArray();
+
+    public static void main(String[] args) throws Exception {
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("%-9s %11s %10s %9s %9s %9s %7s", "mode", "concurrency", "req/s", "p50 ms", "p99 ms",
+                "max ms", "errors"));
+        try (FlaskStubServer stub = new FlaskStubServer(0, new FaultInjectingResponder(
+                new SyntheticMarketDataResponder(42, LocalDate::now), 42, UPSTREAM_LATENCY_MS, 0, 0, 503)).start()) {
+            for (boolean virtual : new boolean[]{false, true}) {
+                String mode = virtual ? "virtual" : "platform";
+                int sustained = 0;
+                try (ConfigurableApplicationContext context = startApplication(stub.getBaseUrl(), virtual)) {
+                    String url = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + PATH;
+                    runLevel(url, 20, 2); // warm-up
+                    for (int concurrency : CONCURRENCY) {
+                        Result result = runLevel(url, concurrency, SECONDS_PER_LEVEL);
+                        lines.add(String.format("%-9s %11d %10.1f %9.1f %9.1f %9.1f %7d", mode, concurrency,
+                                result.throughput(), result.latency().getValueAtPercentile(50) / 1000.0,
+                                result.latency().getValueAtPercentile(99) / 1000.0,
+                                result.latency().getMaxValue() / 1000.0, result.errors()));
+                        if (result.errors() == 0
+                                && result.latency().getValueAtPercentile(99) / 1000.0 <= 2 * UPSTREAM_LATENCY_MS) {
+                            sustained = concurrency;
+                        }
+                    }
+                }
+                lines.add(String.format("%-9s max sustained concurrency: %d", mode, sustained));
+            }
+        }
+        lines.forEach(System.out::println);
+    }
+
+    private static ConfigurableApplicationContext startApplication(String flaskUrl, boolean virtual) {
+        // Command-line arguments, so they take precedence over application.properties
+        return new SpringApplicationBuilder(BenchmarkApplication.class).run(
+                "--server.port=0",
+                "--flask.api.url=" + flaskUrl,
+                "--spring.threads.virtual.enabled=" + virtual,
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--logging.level.org.hsbc=WARN",
+                "--logging.file.name=target/vthreads-benchmark.log");
+    }
+
+    private static Result runLevel(String url, int concurrency, int seconds) throws InterruptedException {
+        Histogram latency = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+        AtomicLong errors = new AtomicLong();
+        AtomicLong completed = new AtomicLong();
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(60)).build();
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        long start = System.nanoTime();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                workers.submit(() -> {
+                    while (System.nanoTime() < end) {
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (IOException e) {
+                            errors.incrementAndGet();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                        long micros = (System.nanoTime() - sent) / 1000;
+                        latency.recordValue(Math.min(micros, latency.getHighestTrackableValue()));
+                        completed.incrementAndGet();
+                    }
+                });
+            }
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        return new Result(completed.get() / elapsedSeconds, latency, errors.get());
+    }
+
+    private record Result(double throughput, Histogram latency, long errors) {
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(exclude = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class})
+    @Import({StockDataController.class, VirtualThreadConfig.class})
+    static class BenchmarkApplication {
+    }
+}
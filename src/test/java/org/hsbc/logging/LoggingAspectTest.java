@@ -0,0 +1,116 @@
+package org.hsbc.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LoggingAspectTest {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(LoggingAspect.class);
+    private Level previousLevel;
+    private LoggingAspect aspect;
+
+    @BeforeEach
+    void setUp() {
+        previousLevel = logger.getLevel();
+        aspect = new LoggingAspect();
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.setLevel(previousLevel);
+    }
+
+    @Test
+    void testNothingFormattedWhenDebugDisabled() throws Throwable {
+        logger.setLevel(Level.INFO);
+        CountingToString arg = new CountingToString();
+        CountingToString result = new CountingToString();
+
+        assertSame(result, aspect.logMethodExecution(joinPoint(new Object[]{arg}, result)));
+
+        assertEquals(0, arg.calls.get());
+        assertEquals(0, result.calls.get());
+    }
+
+    @Test
+    void testNothingFormattedWhenNotSampled() throws Throwable {
+        logger.setLevel(Level.DEBUG);
+        ReflectionTestUtils.setField(aspect, "sampleRate", 0.0);
+        CountingToString arg = new CountingToString();
+
+        aspect.logMethodExecution(joinPoint(new Object[]{arg}, "ok"));
+
+        assertEquals(0, arg.calls.get());
+    }
+
+    @Test
+    void testSampledCallFormatsArguments() throws Throwable {
+        logger.setLevel(Level.DEBUG);
+        CountingToString arg = new CountingToString();
+
+        aspect.logMethodExecution(joinPoint(new Object[]{arg}, "ok"));
+
+        assertEquals(1, arg.calls.get());
+    }
+
+    @Test
+    void testExceptionIsRethrown() throws Throwable {
+        ProceedingJoinPoint joinPoint = joinPoint(new Object[0], null);
+        when(joinPoint.proceed()).thenThrow(new IllegalStateException("boom"));
+
+        assertThrows(IllegalStateException.class, () -> aspect.logMethodExecution(joinPoint));
+    }
+
+    @Test
+    void testAbbreviatedShowsSizeAndFirstElementsOnly() {
+        List<Integer> values = IntStream.range(0, 10_000).boxed().toList();
+
+        String text = new LoggingAspect.Abbreviated(ResponseEntity.ok(values), 200, 3).toString();
+
+        assertEquals("<200,size=10000 [0, 1, 2, ...]>", text);
+    }
+
+    @Test
+    void testAbbreviatedCapsLength() {
+        String text = new LoggingAspect.Abbreviated(new Object[]{"x".repeat(500), Map.of("k", 1)}, 20, 3).toString();
+
+        assertEquals("[" + "x".repeat(19) + "...", text);
+    }
+
+    private static ProceedingJoinPoint joinPoint(Object[] args, Object result) throws Throwable {
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        Signature signature = mock(Signature.class);
+        when(signature.getName()).thenReturn("getAllAssets");
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(joinPoint.getTarget()).thenReturn(new Object());
+        when(joinPoint.getArgs()).thenReturn(args);
+        when(joinPoint.proceed()).thenReturn(result);
+        return joinPoint;
+    }
+
+    private static final class CountingToString {
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public String toString() {
+            calls.incrementAndGet();
+            return "counted";
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package org.hsbc.market;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hsbc.entity.PmsEntity;
+import org.hsbc.service.PmsService;
+import org.hsbc.valuation.HoldingChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class PriceRefresherTest {
+
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+    // Saturday 4 January 2025, noon in New York
+    private static final Instant SATURDAY = at(2025, 1, 4, 12, 0);
+
+    private final RefreshSchedule schedule = new RefreshSchedule(60_000, 300_000, "America/New_York",
+            "09:30", "16:00", "18:00");
+    private final MutableClock clock = new MutableClock(SATURDAY);
+    private final PriceTable prices = new PriceTable(32);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private PmsService pmsService;
+    private FlaskQuoteClient quotes;
+    private PriceRefresher refresher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        pmsService = mock(PmsService.class);
+        quotes = mock(FlaskQuoteClient.class);
+        when(quotes.fetch(anyString(), any(AssetClass.class)))
+                .thenAnswer(inv -> tick(inv.getArgument(0), 100.0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (refresher != null) {
+            refresher.shutdown();
+        }
+    }
+
+    @Test
+    void testCadenceFollowsAssetClass() {
+        Instant mondayMorning = at(2025, 1, 6, 10, 0);
+        Instant mondayBeforeClose = at(2025, 1, 6, 15, 58);
+        Instant mondayClose = at(2025, 1, 6, 16, 0);
+        Instant fridayEvening = at(2025, 1, 10, 18, 30);
+
+        assertEquals(SATURDAY.plusSeconds(60), schedule.nextRefresh(AssetClass.CRYPTO, SATURDAY));
+        assertEquals(at(2025, 1, 6, 10, 5), schedule.nextRefresh(AssetClass.STOCK, mondayMorning));
+        assertEquals(mondayClose, schedule.nextRefresh(AssetClass.STOCK, mondayBeforeClose));
+        assertEquals(at(2025, 1, 7, 9, 30), schedule.nextRefresh(AssetClass.COMMODITY, mondayClose));
+        assertEquals(at(2025, 1, 6, 9, 30), schedule.nextRefresh(AssetClass.STOCK, SATURDAY));
+        assertEquals(at(2025, 1, 6, 18, 0), schedule.nextRefresh(AssetClass.MUTUAL_FUND, mondayMorning));
+        assertEquals(at(2025, 1, 13, 18, 0), schedule.nextRefresh(AssetClass.MUTUAL_FUND, fridayEvening));
+        assertTrue(schedule.isOpen(mondayMorning));
+        assertFalse(schedule.isOpen(mondayClose));
+    }
+
+    @Test
+    void testOnlyDueSymbolsAreFetched() throws Exception {
+        holdings(asset("AAPL", "Stocks"), asset("BTC-USD", "Crypto"), asset("VFIAX", "Mutual Funds"));
+        refresher = refresher(50, 4, 0);
+
+        assertEquals(3, refresher.tick());
+        verify(quotes).fetch("AAPL", AssetClass.STOCK);
+        verify(quotes).fetch("BTC-USD", AssetClass.CRYPTO);
+        verify(quotes).fetch("VFIAX", AssetClass.MUTUAL_FUND);
+        assertEquals(100.0, prices.priceOrElse("VFIAX", Double.NaN));
+
+        // The weekend: only crypto is due again
+        clock.advance(120_000);
+        assertEquals(1, refresher.tick());
+        verify(quotes, times(2)).fetch("BTC-USD", AssetClass.CRYPTO);
+        assertEquals(4.0, registry.get("pms.refresh.quotes").tag("result", "success").counter().count());
+    }
+
+    @Test
+    void testBatchSizeAndConcurrencyAreBounded() throws Exception {
+        List<PmsEntity> assets = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            assets.add(asset("COIN" + i + "-USD", "Crypto"));
+        }
+        holdings(assets.toArray(new PmsEntity[0]));
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(quotes.fetch(anyString(), any(AssetClass.class))).thenAnswer(inv -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(50);
+            inFlight.decrementAndGet();
+            return tick(inv.getArgument(0), 1.0);
+        });
+        refresher = refresher(4, 2, 0);
+
+        assertEquals(4, refresher.tick());
+        assertEquals(4, refresher.tick());
+        assertEquals(2, refresher.tick());
+        assertEquals(0, refresher.tick());
+        assertTrue(maxInFlight.get() <= 2, "max in flight " + maxInFlight.get());
+    }
+
+    @Test
+    void testJitterSpreadsDueTimes() throws Exception {
+        List<PmsEntity> assets = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            assets.add(asset("COIN" + i + "-USD", "Crypto"));
+        }
+        holdings(assets.toArray(new PmsEntity[0]));
+        refresher = refresher(50, 4, 30_000);
+
+        // Loaded on the first tick, then due somewhere in the next 30 s rather than all at once
+        int fetched = refresher.tick();
+        clock.advance(15_000);
+        int firstHalf = refresher.tick();
+        clock.advance(15_000);
+        int secondHalf = refresher.tick();
+
+        assertTrue(fetched < 20);
+        assertTrue(firstHalf > 0 && secondHalf > 0, firstHalf + " then " + secondHalf);
+        assertEquals(20, fetched + firstHalf + secondHalf);
+    }
+
+    @Test
+    void testFailedFetchIsRetriedLater() throws Exception {
+        holdings(asset("AAPL", "Stocks"));
+        when(quotes.fetch("AAPL", AssetClass.STOCK)).thenThrow(new IOException("no quote"))
+                .thenReturn(tick("AAPL", 190.0));
+        refresher = refresher(50, 4, 0);
+
+        assertEquals(1, refresher.tick());
+        clock.advance(30_000);
+        assertEquals(0, refresher.tick());
+        clock.advance(30_000);
+        assertEquals(1, refresher.tick());
+        assertEquals(190.0, prices.priceOrElse("AAPL", Double.NaN));
+        assertEquals(1.0, registry.get("pms.refresh.quotes").tag("result", "failure").counter().count());
+    }
+
+    @Test
+    void testTradesAddAndRemoveOnlyTheirSymbol() throws Exception {
+        holdings(asset("AAPL", "Stocks"));
+        refresher = refresher(50, 4, 0);
+        refresher.tick();
+        assertEquals(1, refresher.size());
+
+        refresher.onHoldingChanged(new HoldingChangedEvent("SOL-USD", "Crypto", null, 3, 450.0, 150.0));
+        refresher.onHoldingChanged(new HoldingChangedEvent("AAPL", "Stocks", "Technology", -4, -400.0, 100.0));
+
+        assertEquals(1, refresher.tick());
+        assertEquals(2, refresher.size());
+        verify(quotes).fetch("SOL-USD", AssetClass.CRYPTO);
+
+        refresher.onHoldingChanged(new HoldingChangedEvent("AAPL", "Stocks", "Technology", -6, -600.0, 100.0));
+        assertEquals(1, refresher.size());
+        verify(pmsService, times(1)).getAllAssets();
+    }
+
+    private PriceRefresher refresher(int batchSize, int maxConcurrency, long jitterMs) {
+        return new PriceRefresher(pmsService, quotes, prices, schedule, registry, clock, new Random(7),
+                0, batchSize, maxConcurrency, jitterMs, 60_000);
+    }
+
+    private void holdings(PmsEntity... assets) {
+        when(pmsService.getAllAssets()).thenReturn(List.of(assets));
+    }
+
+    private static PmsEntity asset(String symbol, String assetType) {
+        return new PmsEntity(symbol, symbol, 10, 100.0, 100.0, 1000.0, "USD", "NMS", "Technology", assetType);
+    }
+
+    private static PriceTick tick(String symbol, double price) {
+        return new PriceTick(symbol, price, price, 0.0, "USD", System.currentTimeMillis());
+    }
+
+    private static Instant at(int year, int month, int day, int hour, int minute) {
+        return ZonedDateTime.of(year, month, day, hour, minute, 0, 0, NEW_YORK).toInstant();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(long millis) {
+            now = now.plusMillis(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package org.hsbc.market;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hsbc.entity.PmsEntity;
+import org.hsbc.repo.PmsRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PriceStreamHubTest {
+
+    private FlaskQuoteClient quotes;
+    private PmsRepository holdings;
+    private SimpleMeterRegistry registry;
+    private PriceTable prices;
+    private PriceStreamHub hub;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        quotes = mock(FlaskQuoteClient.class);
+        when(quotes.fetch("AAPL", AssetClass.STOCK)).thenReturn(tick("AAPL", 150.0));
+        holdings = mock(PmsRepository.class);
+        registry = new SimpleMeterRegistry();
+        prices = spy(new PriceTable(16));
+        // Only the initial poll happens during a test
+        hub = new PriceStreamHub(quotes, prices, holdings, registry, TimeUnit.HOURS.toMillis(1), TimeUnit.HOURS.toMillis(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        hub.shutdown();
+    }
+
+    @Test
+    void testOneUpstreamFeedForManySubscribers() throws Exception {
+        int viewers = 200;
+        CountDownLatch delivered = new CountDownLatch(viewers);
+        List<PriceSubscription> subscriptions = new ArrayList<>();
+        for (int i = 0; i < viewers; i++) {
+            subscriptions.add(hub.subscribe(List.of("AAPL"), new RecordingSink(delivered)));
+        }
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        verify(quotes, times(1)).fetch("AAPL", AssetClass.STOCK);
+        assertEquals(1.0, registry.get("pms.stream.feeds").gauge().value());
+        assertEquals(viewers, registry.get("pms.stream.subscribers").gauge().value());
+
+        subscriptions.forEach(PriceSubscription::close);
+        assertEquals(0.0, registry.get("pms.stream.feeds").gauge().value());
+        assertEquals(0.0, registry.get("pms.stream.subscribers").gauge().value());
+    }
+
+    @Test
+    void testSlowSubscriberOnlyGetsLatestTick() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch firstDelivered = new CountDownLatch(1);
+        RecordingSink slow = new RecordingSink(firstDelivered) {
+            @Override
+            public void send(PriceTick tick) throws IOException {
+                super.send(tick);
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        RecordingSink fast = new RecordingSink(new CountDownLatch(0));
+        hub.subscribe(List.of("AAPL"), slow);
+        hub.subscribe(List.of("AAPL"), fast);
+        assertTrue(firstDelivered.await(5, TimeUnit.SECONDS));
+        waitFor(() -> fast.prices().contains(150.0));
+
+        // The fast subscriber keeps up with every tick while the slow one is stuck in its first write
+        for (double price : new double[]{151.0, 152.0, 153.0}) {
+            hub.publish(tick("AAPL", price));
+            waitFor(() -> fast.prices().contains(price));
+        }
+        release.countDown();
+
+        assertEquals(List.of(150.0, 151.0, 152.0, 153.0), fast.prices());
+        waitFor(() -> slow.prices().size() == 2);
+        assertEquals(List.of(150.0, 153.0), slow.prices());
+        assertEquals(2.0, registry.get("pms.stream.ticks.conflated").counter().count());
+    }
+
+    @Test
+    void testUnchangedQuoteIsNotRebroadcast() throws Exception {
+        CountDownLatch delivered = new CountDownLatch(1);
+        RecordingSink sink = new RecordingSink(delivered);
+        hub.subscribe(List.of("AAPL"), sink);
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+
+        hub.publish(tick("AAPL", 150.0));
+        hub.publish(tick("AAPL", 149.5));
+
+        waitFor(() -> sink.prices().size() == 2);
+        assertEquals(List.of(150.0, 149.5), sink.prices());
+        assertEquals(149.5, prices.priceOrElse("AAPL", 0));
+        assertEquals(4, prices.sequence(prices.idOf("AAPL")));
+    }
+
+    @Test
+    void testFailedWriteClosesSubscriptionAndStopsFeed() throws Exception {
+        CountDownLatch closed = new CountDownLatch(1);
+        PriceSubscription subscription = hub.subscribe(List.of("AAPL"), new RecordingSink(new CountDownLatch(0)) {
+            @Override
+            public void send(PriceTick tick) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public void closed() {
+                closed.countDown();
+            }
+        });
+
+        assertTrue(closed.await(5, TimeUnit.SECONDS));
+        assertTrue(subscription.isClosed());
+        assertEquals(0.0, registry.get("pms.stream.feeds").gauge().value());
+    }
+
+    @Test
+    void testFeedQuotesFromHoldingsAssetClass() throws Exception {
+        PmsEntity fund = new PmsEntity();
+        fund.setSymbol("VFIAX");
+        fund.setAssetType("Mutual Funds");
+        when(holdings.findBySymbol("VFIAX")).thenReturn(Optional.of(fund));
+        when(quotes.fetch("VFIAX", AssetClass.MUTUAL_FUND)).thenReturn(tick("VFIAX", 512.3));
+        CountDownLatch delivered = new CountDownLatch(1);
+        RecordingSink sink = new RecordingSink(delivered);
+
+        hub.subscribe(List.of("VFIAX"), sink);
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(512.3), sink.prices());
+        verify(quotes, never()).fetch("VFIAX", AssetClass.STOCK);
+    }
+
+    @Test
+    void testFailedSubscribeReleasesRegisteredFeeds() {
+        doThrow(new IllegalStateException("boom")).when(prices).intern("MSFT");
+
+        assertThrows(IllegalStateException.class,
+                () -> hub.subscribe(List.of("AAPL", "MSFT"), new RecordingSink(new CountDownLatch(0))));
+        assertEquals(0.0, registry.get("pms.stream.feeds").gauge().value());
+        assertEquals(0.0, registry.get("pms.stream.subscribers").gauge().value());
+    }
+
+    private static PriceTick tick(String symbol, double price) {
+        return new PriceTick(symbol, price, 148.0, 0.0, "USD", System.currentTimeMillis());
+    }
+
+    private static void waitFor(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    private static class RecordingSink implements TickSink {
+
+        private final List<PriceTick> ticks = new CopyOnWriteArrayList<>();
+        private final CountDownLatch delivered;
+
+        RecordingSink(CountDownLatch delivered) {
+            this.delivered = delivered;
+        }
+
+        @Override
+        public void send(PriceTick tick) throws IOException {
+            ticks.add(tick);
+            delivered.countDown();
+        }
+
+        @Override
+        public void heartbeat() {
+        }
+
+        @Override
+        public void closed() {
+        }
+
+        List<Double> prices() {
+            return ticks.stream().map(PriceTick::price).toList();
+        }
+    }
+}
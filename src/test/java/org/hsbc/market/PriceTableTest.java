@@ -0,0 +1,116 @@
+package org.hsbc.market;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceTableTest {
+
+    @Test
+    void testSymbolsGetDenseCaseInsensitiveIds() {
+        PriceTable table = new PriceTable(4);
+
+        assertEquals(0, table.intern("AAPL"));
+        assertEquals(1, table.intern("msft"));
+        assertEquals(0, table.intern("aapl"));
+        assertEquals(1, table.idOf("MSFT"));
+        assertEquals(-1, table.idOf("TSLA"));
+        assertEquals("MSFT", table.symbolOf(1));
+        assertEquals(2, table.size());
+    }
+
+    @Test
+    void testPriceOrElseFallsBackUntilUpdated() {
+        PriceTable table = new PriceTable(4);
+        table.intern("AAPL");
+
+        assertEquals(170.0, table.priceOrElse("AAPL", 170.0));
+        assertEquals(50.0, table.priceOrElse("TSLA", 50.0));
+        assertEquals(0, table.sequence(0));
+
+        table.update("aapl", 181.25);
+
+        assertEquals(181.25, table.priceOrElse("AAPL", 170.0));
+        assertEquals(2, table.sequence(0));
+    }
+
+    @Test
+    void testPriceIfUpdatedSince() {
+        PriceTable table = new PriceTable(4);
+        int id = table.intern("AAPL");
+        table.update(id, 150.0, 1_000);
+
+        assertEquals(150.0, table.priceIfUpdatedSince(id, 1_000));
+        assertTrue(Double.isNaN(table.priceIfUpdatedSince(id, 1_001)));
+    }
+
+    @Test
+    void testFullTableGrowsWithoutMovingEntries() {
+        PriceTable table = new PriceTable(3);
+        assertEquals(4, table.capacity());
+        for (int i = 0; i < 4; i++) {
+            table.update(table.intern("S" + i), i, i);
+        }
+
+        assertEquals(4, table.intern("MSFT"));
+        table.update("MSFT", 412.5);
+
+        assertEquals(8, table.capacity());
+        assertEquals(412.5, table.priceOrElse("MSFT", 0));
+        assertEquals("MSFT", table.symbolOf(4));
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i, table.price(table.idOf("S" + i)));
+            assertEquals(i, table.updatedAt(i));
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> table.price(5));
+    }
+
+    @Test
+    void testFailingListenerDoesNotFailUpdate() {
+        PriceTable table = new PriceTable(4);
+        List<Double> seen = new ArrayList<>();
+        table.addListener((id, price) -> {
+            throw new IllegalStateException("boom");
+        });
+        table.addListener((id, price) -> seen.add(price));
+
+        table.update("AAPL", 150.0);
+
+        assertEquals(150.0, table.priceOrElse("AAPL", 0));
+        assertEquals(List.of(150.0), seen);
+    }
+
+    @Test
+    void testReadersNeverSeeMixedUpdates() throws Exception {
+        PriceTable table = new PriceTable(1);
+        int id = table.intern("AAPL");
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread[] writers = new Thread[2];
+        for (int w = 0; w < writers.length; w++) {
+            long value = w == 0 ? 1 : 1_000_000;
+            // Each writer stores price == time, so a low price next to a high time would be a torn read
+            writers[w] = new Thread(() -> {
+                while (running.get()) {
+                    table.update(id, value, value);
+                }
+            });
+            writers[w].start();
+        }
+        try {
+            for (int i = 0; i < 500_000; i++) {
+                double price = table.priceIfUpdatedSince(id, 1_000_000);
+                assertTrue(Double.isNaN(price) || price == 1_000_000, "torn read: " + price);
+            }
+        } finally {
+            running.set(false);
+            for (Thread writer : writers) {
+                writer.join();
+            }
+        }
+        assertEquals(0, table.sequence(id) & 1);
+    }
+}
@@ -0,0 +1,111 @@
+package org.hsbc.market;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionOperations;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class PriceWriteBehindBufferTest {
+
+    private static final String TWO_ROWS = "UPDATE pms_entity SET current_price = CASE symbol"
+            + " WHEN ? THEN ? WHEN ? THEN ? END WHERE symbol IN (?, ?)";
+
+    private final PriceTable table = new PriceTable(8);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    @Test
+    void testCoalescesUpdatesIntoOneStatement() {
+        PriceWriteBehindBuffer buffer = buffer(100);
+        try {
+            table.intern("TSLA");
+            table.update("AAPL", 150.0);
+            table.update("MSFT", 300.0);
+            table.update("AAPL", 151.0);
+            assertEquals(2, buffer.dirtyCount());
+
+            assertEquals(2, buffer.flush());
+            verify(jdbcTemplate).update(TWO_ROWS, "AAPL", 151.0, "MSFT", 300.0, "AAPL", "MSFT");
+            assertEquals(0, buffer.dirtyCount());
+
+            assertEquals(0, buffer.flush());
+            verifyNoMoreInteractions(jdbcTemplate);
+        } finally {
+            buffer.shutdown();
+        }
+    }
+
+    @Test
+    void testTracksSymbolsBeyondInitialCapacity() {
+        PriceWriteBehindBuffer buffer = buffer(5000);
+        try {
+            for (int i = 0; i < 1500; i++) {
+                table.update("S" + i, i);
+            }
+            assertEquals(1500, buffer.dirtyCount());
+
+            assertEquals(1500, buffer.flush());
+            verify(jdbcTemplate, times(2)).update(anyString(), any(Object[].class));
+            assertEquals(0, buffer.dirtyCount());
+        } finally {
+            buffer.shutdown();
+        }
+    }
+
+    @Test
+    void testThresholdTriggersFlush() {
+        PriceWriteBehindBuffer buffer = buffer(2);
+        try {
+            table.update("AAPL", 150.0);
+            table.update("AAPL", 151.0);
+            verify(jdbcTemplate, after(200).never()).update(anyString(), any(Object[].class));
+
+            table.update("MSFT", 300.0);
+            verify(jdbcTemplate, timeout(5000)).update(TWO_ROWS, "AAPL", 151.0, "MSFT", 300.0, "AAPL", "MSFT");
+        } finally {
+            buffer.shutdown();
+        }
+    }
+
+    @Test
+    void testFailedFlushIsRetried() {
+        PriceWriteBehindBuffer buffer = buffer(100);
+        try {
+            when(jdbcTemplate.update(anyString(), any(Object[].class)))
+                    .thenThrow(new QueryTimeoutException("timeout"))
+                    .thenReturn(2);
+            table.update("AAPL", 150.0);
+            table.update("MSFT", 300.0);
+
+            assertThrows(QueryTimeoutException.class, buffer::flush);
+            assertEquals(2, buffer.dirtyCount());
+
+            table.update("AAPL", 152.0);
+            assertEquals(2, buffer.flush());
+            verify(jdbcTemplate).update(TWO_ROWS, "AAPL", 152.0, "MSFT", 300.0, "AAPL", "MSFT");
+        } finally {
+            buffer.shutdown();
+        }
+    }
+
+    @Test
+    void testShutdownFlushesPendingPrices() {
+        PriceWriteBehindBuffer buffer = buffer(100);
+        table.update("AAPL", 150.0);
+
+        buffer.shutdown();
+
+        verify(jdbcTemplate).update("UPDATE pms_entity SET current_price = CASE symbol"
+                + " WHEN ? THEN ? END WHERE symbol IN (?)", "AAPL", 150.0, "AAPL");
+        assertEquals(0, buffer.dirtyCount());
+    }
+
+    private PriceWriteBehindBuffer buffer(int flushThreshold) {
+        return new PriceWriteBehindBuffer(table, jdbcTemplate, TransactionOperations.withoutTransaction(),
+                3_600_000, flushThreshold);
+    }
+}
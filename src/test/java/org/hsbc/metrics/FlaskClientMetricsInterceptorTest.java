@@ -0,0 +1,67 @@
+package org.hsbc.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class FlaskClientMetricsInterceptorTest {
+
+    private SimpleMeterRegistry registry;
+    private RestTemplate restTemplate;
+    private MockRestServiceServer server;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        restTemplate = new RestTemplate();
+        restTemplate.getInterceptors().add(new FlaskClientMetricsInterceptor(registry));
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+    }
+
+    @Test
+    void testRecordsTimerPerRouteTemplate() {
+        server.expect(requestTo("http://flask/api/history/AAPL?period=1Y")).andExpect(method(HttpMethod.GET))
+                .andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+        server.expect(requestTo("http://flask/api/history/MSFT?period=1Y"))
+                .andRespond(withSuccess("{}", MediaType.APPLICATION_JSON));
+
+        restTemplate.getForEntity("http://flask/api/history/AAPL?period=1Y", String.class);
+        restTemplate.getForEntity("http://flask/api/history/MSFT?period=1Y", String.class);
+
+        Timer timer = registry.get(FlaskClientMetricsInterceptor.METRIC)
+                .tags("path", "/api/history/{symbol}", "method", "GET", "status", "200").timer();
+        assertEquals(2, timer.count());
+        assertEquals(1, registry.find(FlaskClientMetricsInterceptor.METRIC).timers().size());
+    }
+
+    @Test
+    void testRecordsErrorStatus() {
+        server.expect(requestTo("http://flask/api/stocks/NOPE")).andRespond(withStatus(HttpStatus.NOT_FOUND));
+
+        assertThrows(HttpClientErrorException.class,
+                () -> restTemplate.getForEntity("http://flask/api/stocks/NOPE", String.class));
+
+        assertEquals(1, registry.get(FlaskClientMetricsInterceptor.METRIC)
+                .tags("path", "/api/stocks/{symbol}", "status", "404").timer().count());
+    }
+
+    @Test
+    void testNormalize() {
+        assertEquals("/api/stock/{symbol}/analysis", FlaskClientMetricsInterceptor.normalize("/api/stock/AAPL/analysis"));
+        assertEquals("/api/search", FlaskClientMetricsInterceptor.normalize("/api/search"));
+        assertEquals("other", FlaskClientMetricsInterceptor.normalize("/api/unknown/x/y"));
+    }
+}
@@ -0,0 +1,117 @@
+package org.hsbc.performance;
+
+import org.hsbc.entity.PmsEntity;
+import org.hsbc.entity.TransactionEntity;
+import org.hsbc.market.PriceHistory;
+import org.hsbc.market.PriceHistoryClient;
+import org.hsbc.market.PriceTable;
+import org.hsbc.service.PmsService;
+import org.hsbc.service.TransactionService;
+import org.hsbc.valuation.HoldingChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class PerformanceServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 1, 11);
+    private static final int T = (int) TODAY.toEpochDay();
+
+    private TransactionService transactions;
+    private PmsService pmsService;
+    private PerformanceService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        transactions = mock(TransactionService.class);
+        pmsService = mock(PmsService.class);
+        PriceTable prices = new PriceTable(16);
+        prices.update("AAPL", 200.0);
+        prices.update("MSFT", 60.0);
+        PriceHistoryClient histories = mock(PriceHistoryClient.class);
+        // AAPL doubles between the two buys, then stays put
+        when(histories.daily(anyCollection())).thenReturn(Map.of("AAPL", new PriceHistory("AAPL",
+                new int[]{T - 10, T - 6, T - 5}, new double[]{100, 200, 200})));
+        when(transactions.getAllTransactions()).thenReturn(List.of(
+                trade("AAPL", 10, 100, T - 10, "BUY"), trade("AAPL", 10, 200, T - 5, "BUY")));
+        // MSFT was added directly, with no transaction
+        PmsEntity msft = new PmsEntity("Microsoft", "MSFT", 5, 50, 50, 250, "USD", "NMS", "Technology", "Stocks");
+        msft.setPurchaseDate(LocalDate.ofEpochDay(T - 2));
+        PmsEntity aapl = new PmsEntity("Apple", "AAPL", 20, 150, 200, 3000, "USD", "NMS", "Technology", "Stocks");
+        when(pmsService.getAllAssets()).thenReturn(List.of(aapl, msft));
+        Clock clock = Clock.fixed(TODAY.atStartOfDay(ZoneOffset.UTC).toInstant().plusSeconds(43_200), ZoneOffset.UTC);
+        service = new PerformanceService(transactions, pmsService, prices, histories, 365, 3_600_000, clock);
+    }
+
+    @Test
+    void testReturnsAreNetOfDeposits() throws Exception {
+        PerformanceReport report = service.report();
+
+        assertEquals(LocalDate.ofEpochDay(T - 10), report.since());
+        assertEquals(20 * 200 + 5 * 60, report.marketValue(), 1e-9);
+        assertEquals(3000 + 250, report.netInvested(), 1e-9);
+        assertEquals(2 * 4300 / 4250.0 - 1, report.timeWeightedReturn(), 1e-12);
+        assertEquals(ReturnMath.xirr(new int[]{T - 10, T - 5, T - 2, T}, new double[]{-1000, -2000, -250, 4300}),
+                report.moneyWeightedReturn(), 1e-12);
+
+        SymbolPerformance apple = report.symbols().get(0);
+        assertEquals("AAPL", apple.symbol());
+        assertEquals(1.0, apple.timeWeightedReturn(), 1e-12);
+        SymbolPerformance microsoft = report.symbols().get(1);
+        assertEquals(5, microsoft.quantity(), 1e-12);
+        assertEquals(0.2, microsoft.timeWeightedReturn(), 1e-12);
+    }
+
+    @Test
+    void testOnlyTheTradedSymbolIsReloaded() throws Exception {
+        PerformanceReport first = service.report();
+        assertSame(first, service.report());
+
+        when(transactions.getTransactionsBySymbol("AAPL")).thenReturn(List.of(
+                trade("AAPL", 10, 100, T - 10, "BUY"), trade("AAPL", 10, 200, T - 5, "BUY"),
+                trade("AAPL", 5, 200, T, "SELL")));
+        PmsEntity aapl = new PmsEntity("Apple", "AAPL", 15, 150, 200, 2250, "USD", "NMS", "Technology", "Stocks");
+        when(pmsService.getAllAssets()).thenReturn(List.of(aapl));
+        service.onTransactionRecorded(new TransactionRecordedEvent("AAPL"));
+        PerformanceReport second = service.report();
+
+        assertNotSame(first, second);
+        assertEquals(15, second.symbols().get(0).quantity(), 1e-12);
+        assertEquals(3000 - 1000, second.symbols().get(0).netInvested(), 1e-9);
+        // The sale leaves the time-weighted return alone
+        assertEquals(1.0, second.symbols().get(0).timeWeightedReturn(), 1e-12);
+        verify(transactions, times(1)).getAllTransactions();
+        verify(transactions, times(1)).getTransactionsBySymbol(anyString());
+    }
+
+    @Test
+    void testCachedReportNeverWaits() throws Exception {
+        assertNull(service.cachedReport());
+        PerformanceReport report = null;
+        for (int i = 0; i < 500 && report == null; i++) {
+            Thread.sleep(10);
+            report = service.cachedReport();
+        }
+        assertNotNull(report);
+        assertSame(report, service.cachedReport());
+
+        service.onHoldingChanged(new HoldingChangedEvent("AAPL", "Stocks", "Technology", 0, 0, 200));
+        // Stale, so still returned while the recompute runs
+        assertSame(report, service.cachedReport());
+        service.shutdown();
+    }
+
+    private static TransactionEntity trade(String symbol, int quantity, double price, int day, String type) {
+        return new TransactionEntity(symbol, quantity, price, LocalDate.ofEpochDay(day).atTime(10, 0), type);
+    }
+}
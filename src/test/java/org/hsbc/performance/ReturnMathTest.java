@@ -0,0 +1,56 @@
+package org.hsbc.performance;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReturnMathTest {
+
+    @Test
+    void testXirrMatchesSpreadsheet() {
+        // The XIRR example from the Excel documentation
+        int[] days = {day("2008-01-01"), day("2008-03-01"), day("2008-10-30"), day("2009-02-15"), day("2009-04-01")};
+        double[] amounts = {-10000, 2750, 4250, 3250, 2750};
+
+        assertEquals(0.373362535, ReturnMath.xirr(days, amounts), 1e-8);
+    }
+
+    @Test
+    void testXirrOfOneYearIsTheSimpleReturn() {
+        assertEquals(0.1, ReturnMath.xirr(new int[]{0, 365}, new double[]{-100, 110}), 1e-12);
+        assertEquals(-0.5, ReturnMath.xirr(new int[]{0, 365}, new double[]{-100, 50}), 1e-12);
+        assertTrue(Double.isNaN(ReturnMath.xirr(new int[]{0, 365}, new double[]{-100, -10})));
+    }
+
+    @Test
+    void testBrentFindsRootsNewtonMisses() {
+        // Half lost within a month: the first Newton step from 10% lands below -100%
+        int[] days = {0, 30};
+        double[] amounts = {-100, 50};
+        double[] years = {0, 30 / 365.0};
+
+        assertTrue(Double.isNaN(ReturnMath.newton(years, amounts, 0.1)));
+        assertEquals(Math.pow(0.5, 365 / 30.0) - 1, ReturnMath.xirr(days, amounts), 1e-9);
+
+        // Where Newton does converge, both agree
+        double[] gain = {-1000, 1010};
+        assertEquals(ReturnMath.newton(years, gain, 0.1), ReturnMath.brent(years, gain), 1e-9);
+    }
+
+    @Test
+    void testTimeWeightedIgnoresTheSizeOfDeposits() {
+        // 100 grows to 200, then 200 more is put in and the price stays put
+        double twr = ReturnMath.timeWeighted(0, new double[]{100, 200, 400, 400}, new double[]{100, 0, 200, 0});
+
+        assertEquals(1.0, twr, 1e-12);
+        assertTrue(Double.isNaN(ReturnMath.timeWeighted(0, new double[]{0, 0}, new double[]{0, 0})));
+        assertEquals(0.21, ReturnMath.annualise(0.21, 200), 1e-12);
+        assertEquals(0.1, ReturnMath.annualise(0.21, 730), 1e-12);
+    }
+
+    private static int day(String date) {
+        return (int) LocalDate.parse(date).toEpochDay();
+    }
+}
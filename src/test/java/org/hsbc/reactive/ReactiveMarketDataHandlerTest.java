@@ -0,0 +1,117 @@
+package org.hsbc.reactive;
+
+import org.hsbc.stub.FlaskStubServer;
+import org.hsbc.stub.StubResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.Matchers.startsWith;
+
+class ReactiveMarketDataHandlerTest {
+
+    private FlaskStubServer flask;
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        flask = new FlaskStubServer(0, (method, path, body) -> switch (path) {
+            case "/api/stocks/AAPL" -> StubResponse.json(200, "{\"tickerSymbol\":\"AAPL\",\"currentPrice\":150.5}");
+            case "/api/history/MSFT?period=1Y&interval=1d" -> StubResponse.json(200, "{\"data\":[]}");
+            case "/api/search?q=a%7Bb%7D" -> StubResponse.json(200, "{\"results\":[]}");
+            case "/api/stock/AAPL/analysis?inPortfolio=true&buyPrice=120.5" -> StubResponse.json(200, "{\"signal\":\"HOLD\"}");
+            case "/api/portfolio/performers" -> new String(body, StandardCharsets.UTF_8).contains("holdings")
+                    ? StubResponse.json(200, "{\"topPerformers\":[]}")
+                    : StubResponse.json(400, "{\"error\":\"holdings required\"}");
+            case "/health" -> StubResponse.json(200, "{\"status\":\"healthy\"}");
+            default -> StubResponse.notFound("Resource not found");
+        }).start();
+        client = clientFor(flask.getBaseUrl());
+    }
+
+    @AfterEach
+    void tearDown() {
+        flask.close();
+    }
+
+    @Test
+    void testGetStock_Success() {
+        client.get().uri("/api/yfdata/stocks/aapl").exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody().json("{\"tickerSymbol\":\"AAPL\",\"currentPrice\":150.5}");
+    }
+
+    @Test
+    void testGetStock_NotFound() {
+        client.get().uri("/api/yfdata/stocks/NOPE").exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.error").isEqualTo("Stock not found");
+    }
+
+    @Test
+    void testGetHistory_NormalisesQuery() {
+        client.get().uri("/api/yfdata/history/msft?period=1y&interval=1D").exchange()
+                .expectStatus().isOk()
+                .expectBody().json("{\"data\":[]}");
+    }
+
+    @Test
+    void testSearch_MissingQuery() {
+        client.get().uri(uri -> uri.path("/api/yfdata/search").queryParam("q", " ").build()).exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").isEqualTo("Query parameter 'q' is required");
+    }
+
+    @Test
+    void testSearch_EncodesTemplateCharacters() {
+        client.get().uri(uri -> uri.path("/api/yfdata/search").queryParam("q", "{q}").build("a{b}")).exchange()
+                .expectStatus().isOk()
+                .expectBody().json("{\"results\":[]}");
+    }
+
+    @Test
+    void testAnalysis_ForwardsBuyPrice() {
+        client.get().uri("/api/yfdata/stock/aapl/analysis?inPortfolio=true&buyPrice=120.5").exchange()
+                .expectStatus().isOk()
+                .expectBody().json("{\"signal\":\"HOLD\"}");
+    }
+
+    @Test
+    void testAnalysis_InvalidBuyPrice() {
+        client.get().uri("/api/yfdata/stock/aapl/analysis?inPortfolio=true&buyPrice=abc").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").isEqualTo("buyPrice must be a number");
+    }
+
+    @Test
+    void testPortfolioPerformers_ForwardsBody() {
+        client.post().uri("/api/yfdata/portfolio/performers").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"holdings\":[]}").exchange()
+                .expectStatus().isOk()
+                .expectBody().json("{\"topPerformers\":[]}");
+        client.post().uri("/api/yfdata/portfolio/performers").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{}").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.error").value(startsWith("Invalid request"));
+    }
+
+    @Test
+    void testHealth_Unreachable() {
+        flask.close();
+
+        clientFor(flask.getBaseUrl()).get().uri("/api/yfdata/health").exchange()
+                .expectStatus().isEqualTo(503)
+                .expectBody().jsonPath("$.status").isEqualTo("unhealthy");
+    }
+
+    private static WebTestClient clientFor(String flaskUrl) {
+        ReactiveMarketDataHandler handler = new ReactiveMarketDataHandler(WebClient.create(flaskUrl));
+        return WebTestClient.bindToRouterFunction(handler.routes()).build();
+    }
+}
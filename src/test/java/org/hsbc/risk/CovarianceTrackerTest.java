@@ -0,0 +1,134 @@
+package org.hsbc.risk;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CovarianceTrackerTest {
+
+    @Test
+    void testBlockedBuildMatchesNaiveCovariance() {
+        // 70 assets span two tiles; 300 crosses the parallel threshold
+        for (int assets : new int[]{70, 300}) {
+            double[][] returns = randomReturns(40, assets, 1);
+
+            double[][] covariance = CovarianceTracker.build(matrix(returns, 0, 40)).covariance();
+
+            assertMatrixEquals(naiveCovariance(returns, 0, 40), covariance, 1e-15);
+        }
+    }
+
+    @Test
+    void testAdvanceMatchesRebuildOverSlidingWindow() {
+        double[][] returns = randomReturns(120, 5, 2);
+        CovarianceTracker tracker = CovarianceTracker.build(matrix(returns, 0, 100));
+
+        assertTrue(tracker.advance(matrix(returns, 1, 101)));
+        assertTrue(tracker.advance(matrix(returns, 6, 106)));
+
+        assertEquals(100, tracker.observations());
+        assertEquals(6, tracker.firstDay());
+        assertEquals(105, tracker.lastDay());
+        assertMatrixEquals(naiveCovariance(returns, 6, 106), tracker.covariance(), 1e-15);
+        assertMatrixEquals(CovarianceTracker.build(matrix(returns, 6, 106)).correlation(), tracker.correlation(),
+                1e-12);
+    }
+
+    @Test
+    void testAdvanceRefusesWindowsThatDoNotLineUp() {
+        double[][] returns = randomReturns(300, 3, 3);
+        CovarianceTracker tracker = CovarianceTracker.build(matrix(returns, 0, 100));
+
+        // A gap after the last tracked day
+        assertFalse(tracker.advance(matrix(returns, 150, 250)));
+        // Different symbols
+        assertFalse(tracker.advance(ReturnMatrix.of(List.of("X", "Y", "Z"), days(1, 101),
+                Arrays.copyOfRange(returns, 1, 101))));
+        assertEquals(0, tracker.firstDay());
+        assertEquals(99, tracker.lastDay());
+        // Over two advances, more days rolled through than the window holds: time to rebuild
+        assertTrue(tracker.advance(matrix(returns, 60, 160)));
+        assertFalse(tracker.advance(matrix(returns, 101, 201)));
+        assertEquals(159, tracker.lastDay());
+    }
+
+    @Test
+    void testCorrelation() {
+        double[][] returns = new double[50][3];
+        for (int t = 0; t < 50; t++) {
+            double x = Math.sin(t);
+            returns[t] = new double[]{x, -2 * x, 0};
+        }
+
+        double[][] correlation = CovarianceTracker.build(matrix(returns, 0, 50)).correlation();
+
+        assertEquals(1, correlation[0][0], 1e-12);
+        assertEquals(-1, correlation[0][1], 1e-12);
+        assertEquals(-1, correlation[1][0], 1e-12);
+        // A price that never moved has no defined correlation; reported as 0
+        assertEquals(0, correlation[0][2]);
+        assertEquals(1, correlation[2][2]);
+    }
+
+    private static ReturnMatrix matrix(double[][] returns, int from, int to) {
+        List<String> symbols = new ArrayList<>();
+        for (int i = 0; i < returns[0].length; i++) {
+            symbols.add("S" + i);
+        }
+        return ReturnMatrix.of(symbols, days(from, to), Arrays.copyOfRange(returns, from, to));
+    }
+
+    private static int[] days(int from, int to) {
+        int[] days = new int[to - from];
+        for (int t = from; t < to; t++) {
+            days[t - from] = t;
+        }
+        return days;
+    }
+
+    private static double[][] randomReturns(int days, int assets, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[][] returns = new double[days][assets];
+        for (int t = 0; t < days; t++) {
+            double market = random.nextGaussian() * 0.01;
+            for (int i = 0; i < assets; i++) {
+                returns[t][i] = 0.0005 + market + random.nextGaussian() * 0.02;
+            }
+        }
+        return returns;
+    }
+
+    private static double[][] naiveCovariance(double[][] returns, int from, int to) {
+        int n = returns[0].length;
+        int count = to - from;
+        double[] mean = new double[n];
+        for (int t = from; t < to; t++) {
+            for (int i = 0; i < n; i++) {
+                mean[i] += returns[t][i] / count;
+            }
+        }
+        double[][] covariance = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                double sum = 0;
+                for (int t = from; t < to; t++) {
+                    sum += (returns[t][i] - mean[i]) * (returns[t][j] - mean[j]);
+                }
+                covariance[i][j] = sum / (count - 1);
+            }
+        }
+        return covariance;
+    }
+
+    private static void assertMatrixEquals(double[][] expected, double[][] actual, double delta) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertArrayEquals(expected[i], actual[i], delta, "row " + i);
+        }
+    }
+}
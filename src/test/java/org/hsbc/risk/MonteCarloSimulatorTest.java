@@ -0,0 +1,115 @@
+package org.hsbc.risk;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MonteCarloSimulatorTest {
+
+    @Test
+    void testSameSeedGivesSameResultOnAnyParallelism() {
+        ReturnMatrix returns = alternating(2, 60);
+        double[] values = {1000, 500};
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool four = new ForkJoinPool(4);
+        try {
+            for (MonteCarloSimulator.Method method : MonteCarloSimulator.Method.values()) {
+                double[] a = MonteCarloSimulator.simulate(values, returns, method, 20_000, 10, 42, single);
+                double[] b = MonteCarloSimulator.simulate(values, returns, method, 20_000, 10, 42, four);
+                double[] c = MonteCarloSimulator.simulate(values, returns, method, 20_000, 10, 43, four);
+                assertArrayEquals(a, b, method.name());
+                assertFalse(Arrays.equals(a, c), method.name());
+            }
+        } finally {
+            single.shutdown();
+            four.shutdown();
+        }
+    }
+
+    @Test
+    void testGbmMatchesLognormalMoments() {
+        // Daily log returns of ±1%: mean 0, sample sd 0.01 * sqrt(60 / 59)
+        ReturnMatrix returns = alternating(1, 60);
+        double sd = 0.01 * Math.sqrt(60.0 / 59);
+
+        double[] terminal = MonteCarloSimulator.simulate(new double[]{100}, returns, MonteCarloSimulator.Method.GBM,
+                200_000, 25, 7, ForkJoinPool.commonPool());
+
+        double mean = 0;
+        for (double v : terminal) {
+            mean += Math.log(v / 100);
+        }
+        mean /= terminal.length;
+        double squares = 0;
+        for (double v : terminal) {
+            double x = Math.log(v / 100) - mean;
+            squares += x * x;
+        }
+        assertEquals(0, mean, 1e-3);
+        assertEquals(sd * 5, Math.sqrt(squares / terminal.length), 1e-3);
+    }
+
+    @Test
+    void testGbmKeepsPerfectlyCorrelatedAssetsTogether() {
+        // Identical columns have a singular covariance, so the return-matrix factor is used
+        ReturnMatrix returns = alternating(2, 60);
+
+        double[] both = MonteCarloSimulator.simulate(new double[]{100, 100}, returns, MonteCarloSimulator.Method.GBM,
+                10_000, 10, 1, ForkJoinPool.commonPool());
+        double[] one = MonteCarloSimulator.simulate(new double[]{200, 0}, returns, MonteCarloSimulator.Method.GBM,
+                10_000, 10, 1, ForkJoinPool.commonPool());
+
+        for (int p = 0; p < both.length; p++) {
+            assertEquals(one[p], both[p], 1e-9);
+        }
+    }
+
+    @Test
+    void testBootstrapOnlyResamplesObservedDays() {
+        ReturnMatrix returns = alternating(1, 60);
+
+        double[] terminal = MonteCarloSimulator.simulate(new double[]{100}, returns,
+                MonteCarloSimulator.Method.BOOTSTRAP, 1_000, 1, 3, ForkJoinPool.commonPool());
+
+        double up = 100 * Math.exp(0.01);
+        double down = 100 * Math.exp(-0.01);
+        for (double v : terminal) {
+            assertTrue(Math.abs(v - up) < 1e-9 || Math.abs(v - down) < 1e-9, String.valueOf(v));
+        }
+    }
+
+    @Test
+    void testCholesky() {
+        // Rows whose cross-products sum to [[4, 2], [2, 5]]
+        double[][] factor = {{2, 1}, {0, 2}};
+
+        double[] l = MonteCarloSimulator.cholesky(factor, 2);
+
+        assertArrayEquals(new double[]{2, 1, 2}, l, 1e-12);
+        assertNull(MonteCarloSimulator.cholesky(new double[][]{{1, 1}, {2, 2}}, 2));
+    }
+
+    @Test
+    void testTooLittleHistoryIsRejected() {
+        ReturnMatrix returns = alternating(1, 1);
+
+        assertThrows(IllegalArgumentException.class, () -> MonteCarloSimulator.simulate(new double[]{100}, returns,
+                MonteCarloSimulator.Method.GBM, 1_000, 1, 1, ForkJoinPool.commonPool()));
+    }
+
+    // Every asset moves +1% then -1% in log terms, day after day
+    private static ReturnMatrix alternating(int assets, int days) {
+        double[][] logReturns = new double[days][assets];
+        int[] dayNumbers = new int[days];
+        for (int t = 0; t < days; t++) {
+            Arrays.fill(logReturns[t], t % 2 == 0 ? 0.01 : -0.01);
+            dayNumbers[t] = t;
+        }
+        List<String> symbols = assets == 1 ? List.of("A") : List.of("A", "B");
+        return ReturnMatrix.of(symbols, dayNumbers, logReturns);
+    }
+}
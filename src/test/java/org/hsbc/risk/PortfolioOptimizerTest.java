@@ -0,0 +1,98 @@
+package org.hsbc.risk;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PortfolioOptimizerTest {
+
+    @Test
+    void testMinimumVarianceMatchesClosedForm() {
+        double s1 = 0.02, s2 = 0.01, rho = 0.3;
+        double[][] covariance = {{s1 * s1, rho * s1 * s2}, {rho * s1 * s2, s2 * s2}};
+        PortfolioOptimizer optimizer = new PortfolioOptimizer(new double[]{0.001, 0.0002}, covariance,
+                new int[]{0, 0}, new double[]{1}, 1);
+
+        PortfolioOptimizer.Solution solution = optimizer.minimumVariance(0);
+
+        double expected = (s2 * s2 - rho * s1 * s2) / (s1 * s1 + s2 * s2 - 2 * rho * s1 * s2);
+        assertEquals(expected, solution.weights()[0], 1e-3);
+        assertEquals(1, solution.weights()[0] + solution.weights()[1], 1e-12);
+    }
+
+    @Test
+    void testMaximumSharpeMatchesTangencyPortfolio() {
+        // Uncorrelated assets: tangency weights are proportional to μ / σ²
+        double[] mean = {0.0008, 0.0004, 0.0002};
+        double[] variance = {4e-4, 1e-4, 2.5e-5};
+        double[][] covariance = new double[3][3];
+        for (int i = 0; i < 3; i++) {
+            covariance[i][i] = variance[i];
+        }
+        PortfolioOptimizer optimizer = new PortfolioOptimizer(mean, covariance, new int[3], new double[]{1}, 1);
+
+        PortfolioOptimizer.Solution solution = optimizer.maximumSharpe(0);
+
+        double total = 0;
+        for (int i = 0; i < 3; i++) {
+            total += mean[i] / variance[i];
+        }
+        for (int i = 0; i < 3; i++) {
+            assertEquals(mean[i] / variance[i] / total, solution.weights()[i], 5e-3);
+        }
+        for (PortfolioOptimizer.Solution point : optimizer.frontier(20, 0)) {
+            assertTrue(point.sharpeRatio() <= solution.sharpeRatio() + 1e-6);
+        }
+    }
+
+    @Test
+    void testCapsAreRespected() {
+        // Asset 0 alone would be the minimum-variance portfolio; groups {0, 1} and {2, 3}
+        double[][] covariance = {
+                {1e-6, 0, 0, 0},
+                {0, 4e-4, 0, 0},
+                {0, 0, 4e-4, 0},
+                {0, 0, 0, 9e-4}};
+        PortfolioOptimizer optimizer = new PortfolioOptimizer(new double[]{0.001, 0.001, 0.001, 0.001}, covariance,
+                new int[]{0, 0, 1, 1}, new double[]{0.5, 1}, 0.4);
+
+        double[] w = optimizer.minimumVariance(0).weights();
+
+        assertEquals(0.4, w[0], 1e-6);
+        assertTrue(w[0] + w[1] <= 0.5 + 1e-12);
+        assertEquals(0.1, w[1], 1e-6);
+        assertTrue(w[2] <= 0.4 + 1e-12 && w[3] <= 0.4 + 1e-12);
+        assertEquals(1, w[0] + w[1] + w[2] + w[3], 1e-12);
+    }
+
+    @Test
+    void testFrontierRisesFromMinimumVariance() {
+        double[][] covariance = {{4e-4, 1e-4, 0}, {1e-4, 2.25e-4, 0}, {0, 0, 1e-4}};
+        PortfolioOptimizer optimizer = new PortfolioOptimizer(new double[]{0.0009, 0.0005, 0.0001}, covariance,
+                new int[3], new double[]{1}, 1);
+
+        List<PortfolioOptimizer.Solution> frontier = optimizer.frontier(20, 0);
+
+        assertTrue(frontier.size() > 5);
+        assertEquals(optimizer.minimumVariance(0).volatility(), frontier.get(0).volatility(), 1e-6);
+        for (int k = 1; k < frontier.size(); k++) {
+            assertTrue(frontier.get(k).volatility() >= frontier.get(k - 1).volatility() - 1e-9);
+            assertTrue(frontier.get(k).expectedReturn() >= frontier.get(k - 1).expectedReturn() - 1e-9);
+        }
+        // The far end is the highest-return asset alone
+        assertEquals(0.0009 * PortfolioOptimizer.TRADING_DAYS, frontier.get(frontier.size() - 1).expectedReturn(),
+                1e-4);
+    }
+
+    @Test
+    void testInfeasibleCapsAreRejected() {
+        double[][] covariance = {{1e-4, 0}, {0, 1e-4}};
+
+        assertThrows(IllegalArgumentException.class, () -> new PortfolioOptimizer(new double[]{0, 0}, covariance,
+                new int[]{0, 0}, new double[]{1}, 0.4));
+        assertThrows(IllegalArgumentException.class, () -> new PortfolioOptimizer(new double[]{0, 0}, covariance,
+                new int[]{0, 1}, new double[]{0.3, 0.6}, 1));
+    }
+}
@@ -0,0 +1,146 @@
+package org.hsbc.risk;
+
+import org.hsbc.entity.PmsEntity;
+import org.hsbc.market.PriceHistory;
+import org.hsbc.market.PriceHistoryClient;
+import org.hsbc.market.PriceTable;
+import org.hsbc.service.PmsService;
+import org.hsbc.valuation.ValuationEngine;
+import org.hsbc.valuation.ValuationSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class RiskEngineTest {
+
+    @Test
+    void testAlignKeepsCommonDaysOnly() {
+        // Crypto trades on the weekend (days 5 and 6), the stock does not
+        PriceHistory crypto = new PriceHistory("BTC-USD", new int[]{3, 4, 5, 6, 7}, new double[]{100, 110, 90, 95, 121});
+        PriceHistory stock = new PriceHistory("AAPL", new int[]{3, 4, 7}, new double[]{50, 50, 55});
+
+        ReturnMatrix returns = ReturnMatrix.align(List.of(crypto, stock), 250);
+
+        assertEquals(List.of("BTC-USD", "AAPL"), returns.symbols());
+        assertArrayEquals(new int[]{4, 7}, returns.days());
+        assertEquals(Math.log(1.1), returns.row(0)[0], 1e-12);
+        assertEquals(Math.log(121.0 / 110), returns.row(1)[0], 1e-12);
+        assertEquals(Math.log(1.1), returns.row(1)[1], 1e-12);
+        assertEquals(1, ReturnMatrix.align(List.of(crypto, stock), 1).observations());
+    }
+
+    @Test
+    void testHistoricalVarAndExpectedShortfall() {
+        // 100 days whose P&L on a 1000 position is -50, -49, ..., 49
+        ReturnMatrix returns = singleAsset(100, t -> (t - 50) / 1000.0);
+
+        double[] pnl = RiskCalculator.scenarioPnl(new double[]{1000}, returns, 1);
+        Arrays.sort(pnl);
+        RiskMeasure at95 = RiskCalculator.historical(pnl, 0.95, 1);
+        RiskMeasure at99 = RiskCalculator.historical(pnl, 0.99, 1);
+
+        assertEquals(46, at95.valueAtRisk(), 1e-9);
+        assertEquals(48, at95.expectedShortfall(), 1e-9);
+        assertEquals(50, at99.valueAtRisk(), 1e-9);
+        assertEquals(50, at99.expectedShortfall(), 1e-9);
+    }
+
+    @Test
+    void testParametricVarAndExpectedShortfall() {
+        assertEquals(1.6448536270, RiskCalculator.inverseNormal(0.95), 1e-8);
+        assertEquals(2.3263478740, RiskCalculator.inverseNormal(0.99), 1e-8);
+        assertEquals(-2.3263478740, RiskCalculator.inverseNormal(0.01), 1e-8);
+
+        RiskMeasure measure = RiskCalculator.parametric(0, 1000, 0.95, 1);
+        assertEquals(1644.854, measure.valueAtRisk(), 1e-3);
+        assertEquals(2062.713, measure.expectedShortfall(), 1e-3);
+    }
+
+    @Test
+    void testTenDayHorizonUsesOverlappingWindows() {
+        ReturnMatrix returns = singleAsset(30, t -> 0.01);
+        double[] values = {1000};
+
+        double[] pnl = RiskCalculator.scenarioPnl(values, returns, 10);
+        List<RiskMeasure> measures = RiskCalculator.measures(values, returns, new double[]{0.99}, new int[]{1, 10});
+
+        assertEquals(21, pnl.length);
+        assertEquals(1000 * (Math.pow(1.01, 10) - 1), pnl[0], 1e-9);
+        assertEquals(4, measures.size());
+        RiskMeasure parametric10 = measures.get(3);
+        assertEquals("parametric", parametric10.method());
+        assertEquals(10, parametric10.horizonDays());
+        // No volatility: the loss is minus the drift
+        assertEquals(-100, parametric10.valueAtRisk(), 1e-9);
+    }
+
+    @Test
+    void testReportIsCachedUntilValuationChanges() throws Exception {
+        PmsService pmsService = mock(PmsService.class);
+        when(pmsService.getAllAssets()).thenReturn(List.of(
+                asset("AAPL", 10, 150.0), asset("MSFT", 5, 300.0), asset("NEW", 1, 10.0)));
+        PriceTable prices = new PriceTable(16);
+        prices.update("AAPL", 160.0);
+        PriceHistoryClient history = mock(PriceHistoryClient.class);
+        when(history.daily(anyCollection())).thenReturn(Map.of(
+                "AAPL", trending("AAPL", 0.01),
+                "MSFT", trending("MSFT", -0.005)));
+        ValuationEngine valuation = mock(ValuationEngine.class);
+        when(valuation.snapshot()).thenReturn(snapshot(1), snapshot(1), snapshot(2));
+        RiskEngine engine = new RiskEngine(new ExposureService(pmsService, prices, history, 250), valuation,
+                new double[]{0.95, 0.99}, new int[]{1, 10}, 3_600_000);
+
+        RiskReport report = engine.report();
+        assertSame(report, engine.report());
+        assertNotSame(report, engine.report());
+
+        verify(history, times(2)).daily(anyCollection());
+        assertEquals(10 * 160.0 + 5 * 300.0, report.portfolioValue(), 1e-9);
+        assertEquals(List.of("AAPL", "MSFT"), report.symbols());
+        assertEquals(List.of("NEW"), report.excluded());
+        assertEquals(59, report.observations());
+        assertEquals(8, report.measures().size());
+    }
+
+    private interface DailyReturn {
+        double on(int t);
+    }
+
+    private static ReturnMatrix singleAsset(int days, DailyReturn simpleReturn) {
+        double[][] returns = new double[days][1];
+        int[] dayNumbers = new int[days];
+        for (int t = 0; t < days; t++) {
+            returns[t][0] = Math.log1p(simpleReturn.on(t));
+            dayNumbers[t] = t;
+        }
+        return ReturnMatrix.of(List.of("X"), dayNumbers, returns);
+    }
+
+    // 60 closes alternating around a drift, so returns have some spread
+    private static PriceHistory trending(String symbol, double drift) {
+        int[] days = new int[60];
+        double[] closes = new double[60];
+        double close = 100;
+        for (int t = 0; t < 60; t++) {
+            days[t] = 20_000 + t;
+            close *= 1 + drift + (t % 2 == 0 ? 0.02 : -0.02);
+            closes[t] = close;
+        }
+        return new PriceHistory(symbol, days, closes);
+    }
+
+    private static PmsEntity asset(String symbol, int quantity, double price) {
+        return new PmsEntity(symbol, symbol, quantity, price, price, quantity * price, "USD", "NMS", "Technology",
+                "Stocks");
+    }
+
+    private static ValuationSnapshot snapshot(long version) {
+        return new ValuationSnapshot(0, 0, 0, Map.of(), Map.of(), version, 0);
+    }
+}
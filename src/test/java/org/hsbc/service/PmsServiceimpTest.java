@@ -9,6 +9,7 @@ import java.util.Optional;
 
 import org.hsbc.entity.PmsEntity;
 import org.hsbc.exception.InvalidPmsIdException;
+import org.hsbc.market.PriceTable;
 import org.hsbc.repo.PmsRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,6 +17,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
 
 @ExtendWith(MockitoExtension.class)
 public class PmsServiceimpTest {
@@ -33,6 +36,9 @@ public class PmsServiceimpTest {
 
     @BeforeEach
     void setUp() {
+        ReflectionTestUtils.setField(service, "priceTable", new PriceTable(16));
+        ReflectionTestUtils.setField(service, "events", mock(ApplicationEventPublisher.class));
+
         // Setup dummy data
         asset1 = new PmsEntity();
         asset1.setId(1L);
@@ -137,11 +143,13 @@ public class PmsServiceimpTest {
     @Test
     void testUpdateCurrentPrice_Success() {
         when(repository.findAll()).thenReturn(Arrays.asList(asset1));
-        when(repository.save(any(PmsEntity.class))).thenReturn(asset1);
 
         service.updateCurrentPrice("AAPL", 180.0);
 
         assertEquals(180.0, asset1.getCurrentPrice());
+        // Valued from the price table; the row itself is written by the periodic flush
+        assertEquals(1800.0, service.getTotalPortfolioValue());
+        verify(repository, never()).save(any(PmsEntity.class));
     }
 
     @Test
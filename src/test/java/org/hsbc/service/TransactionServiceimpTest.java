@@ -2,6 +2,7 @@ package org.hsbc.service;
 
 import org.hsbc.entity.TransactionEntity;
 import org.hsbc.exception.InvalidTransactionIdException;
+import org.hsbc.performance.TransactionRecordedEvent;
 import org.hsbc.repo.TransactionRepo;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,6 +10,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -24,6 +26,9 @@ class TransactionSeviceimpTest {
     @Mock
     private TransactionRepo repository;
 
+    @Mock
+    private ApplicationEventPublisher events;
+
     @InjectMocks
     private TransactionSeviceimp service;
 
@@ -50,6 +55,7 @@ class TransactionSeviceimpTest {
         assertNotNull(saved);
         assertEquals("AAPL", saved.getSymbol());
         verify(repository, times(1)).save(transaction);
+        verify(events).publishEvent(new TransactionRecordedEvent("AAPL", transaction));
     }
 
     // 2️⃣ getAllTransactions()
@@ -0,0 +1,111 @@
+package org.hsbc.sql;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class SqlInstrumentationTest {
+
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.next()).thenReturn(true, true, true, false);
+        PreparedStatement prepared = mock(PreparedStatement.class);
+        when(prepared.executeQuery()).thenReturn(resultSet);
+        when(prepared.executeUpdate()).thenReturn(1);
+        Statement statement = mock(Statement.class);
+        when(statement.execute(anyString())).thenReturn(false);
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenReturn(prepared);
+        when(connection.createStatement()).thenReturn(statement);
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenReturn(connection);
+
+        dataSource = new InstrumentedDataSource(target, 200);
+    }
+
+    @Test
+    void testCountsStatementsAndRowsWithinScope() throws Exception {
+        try (SqlStats stats = SqlStats.start()) {
+            Connection connection = dataSource.getConnection();
+            try (ResultSet rs = connection.prepareStatement("select * from pms_entity").executeQuery()) {
+                while (rs.next()) {
+                    // consume
+                }
+            }
+            connection.prepareStatement("update wallet set balance = ?").executeUpdate();
+            connection.createStatement().execute("delete from transactions");
+
+            assertEquals(3, stats.getStatementCount());
+            assertEquals(3, stats.getRowCount());
+            assertTrue(stats.getStatementNanos() > 0);
+        }
+        assertNull(SqlStats.current());
+    }
+
+    @Test
+    void testNestedScopeAlsoCountsTowardsOuter() throws Exception {
+        try (SqlStats outer = SqlStats.start()) {
+            dataSource.getConnection().prepareStatement("select 1").executeUpdate();
+            try (SqlStats inner = SqlStats.start()) {
+                dataSource.getConnection().prepareStatement("select 2").executeUpdate();
+                assertEquals(1, inner.getStatementCount());
+            }
+            assertSame(outer, SqlStats.current());
+            assertEquals(2, outer.getStatementCount());
+        }
+    }
+
+    @Test
+    void testStatementsOutsideScopeAreNotCounted() throws Exception {
+        dataSource.getConnection().prepareStatement("select 1").executeUpdate();
+
+        assertNull(SqlStats.current());
+    }
+
+    @Test
+    void testFilterRecordsPerRouteMetricsAndAdviceSetsHeaders() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SqlStatsFilter filter = new SqlStatsFilter(registry);
+        SqlStatsResponseAdvice advice = new SqlStatsResponseAdvice();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/dashboard/summary");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> {
+            try {
+                dataSource.getConnection().prepareStatement("select 1").executeUpdate();
+                dataSource.getConnection().prepareStatement("select 2").executeUpdate();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/dashboard/summary");
+            ServletServerHttpResponse serverResponse = new ServletServerHttpResponse(response);
+            advice.beforeBodyWrite("body", null, null, null, new ServletServerHttpRequest(request), serverResponse);
+            serverResponse.flush();
+        });
+
+        // The query budget for this request
+        assertEquals("2", response.getHeader(SqlStatsResponseAdvice.COUNT_HEADER));
+        assertNotNull(response.getHeader(SqlStatsResponseAdvice.TIME_HEADER));
+        assertEquals("0", response.getHeader(SqlStatsResponseAdvice.ROWS_HEADER));
+        assertEquals(2.0, registry.get("pms.sql.request.statements").tag("uri", "/dashboard/summary")
+                .summary().totalAmount());
+    }
+}
@@ -0,0 +1,67 @@
+package org.hsbc.stub;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hsbc.datagen.SyntheticPriceHistory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlaskStubServerTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 30);
+
+    private FlaskStubServer server;
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new FlaskStubServer(0, new SyntheticMarketDataResponder(42, () -> TODAY)).start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(server.getBaseUrl() + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void testQuoteMatchesSyntheticHistory() throws Exception {
+        HttpResponse<String> response = get("/api/stocks/STK000001");
+
+        assertEquals(200, response.statusCode());
+        JsonNode quote = objectMapper.readTree(response.body());
+        assertEquals(SyntheticPriceHistory.of(42, "STK000001").closeOn(TODAY), quote.get("currentPrice").asDouble());
+    }
+
+    @Test
+    void testHistoryUsesFlaskFormat() throws Exception {
+        HttpResponse<String> response = get("/api/history/CR000002-USD?period=1MO&interval=1d");
+
+        assertEquals(200, response.statusCode());
+        JsonNode data = objectMapper.readTree(response.body()).get("data");
+        assertTrue(data.isArray());
+        // crypto trades every day: 2025-05-30 .. 2025-06-30 inclusive
+        assertEquals(32, data.size());
+        assertEquals(TODAY.toString(), data.get(data.size() - 1).get("time").asText());
+        assertTrue(data.get(0).has("close"));
+    }
+
+    @Test
+    void testUnknownRouteReturns404() throws Exception {
+        assertEquals(404, get("/api/unknown").statusCode());
+    }
+}
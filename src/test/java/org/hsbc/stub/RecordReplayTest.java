@@ -0,0 +1,104 @@
+package org.hsbc.stub;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordReplayTest {
+
+    @TempDir
+    Path recordings;
+
+    private final List<FlaskStubServer> servers = new ArrayList<>();
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @AfterEach
+    void tearDown() {
+        servers.forEach(FlaskStubServer::close);
+    }
+
+    private FlaskStubServer start(StubResponder responder) throws Exception {
+        FlaskStubServer server = new FlaskStubServer(0, responder).start();
+        servers.add(server);
+        return server;
+    }
+
+    private HttpResponse<String> get(FlaskStubServer server, String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(server.getBaseUrl() + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void testRecordedResponseIsReplayedWithoutUpstream() throws Exception {
+        FlaskStubServer upstream = start(new SyntheticMarketDataResponder(42, () -> LocalDate.of(2025, 6, 30)));
+        RecordingStore store = new RecordingStore(recordings);
+        FlaskStubServer recorder = start(new RecordingResponder(upstream.getBaseUrl(), store));
+
+        HttpResponse<String> recorded = get(recorder, "/api/history/STK000001?period=1Y&interval=1d");
+        upstream.close();
+        servers.remove(upstream);
+
+        FlaskStubServer replay = start(new ReplayResponder(store, null));
+        HttpResponse<String> replayed = get(replay, "/api/history/STK000001?period=1Y&interval=1d");
+
+        assertEquals(200, replayed.statusCode());
+        assertEquals(recorded.body(), replayed.body());
+    }
+
+    @Test
+    void testReplayOfUnrecordedRequestIs404() throws Exception {
+        FlaskStubServer replay = start(new ReplayResponder(new RecordingStore(recordings), null));
+
+        assertEquals(404, get(replay, "/api/stocks/AAPL").statusCode());
+    }
+
+    @Test
+    void testQueryStringAndBodyAreDistinctKeys() {
+        byte[] none = new byte[0];
+        assertNotEquals(RecordingStore.key("GET", "/api/history/A?period=1Y", none),
+                RecordingStore.key("GET", "/api/history/A?period=2Y", none));
+        assertNotEquals(RecordingStore.key("POST", "/api/portfolio/performers", "{\"a\":1}".getBytes(StandardCharsets.UTF_8)),
+                RecordingStore.key("POST", "/api/portfolio/performers", "{\"a\":2}".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void testInjectedErrorsAreDeterministic() throws Exception {
+        StubResponder ok = (method, path, body) -> StubResponse.json(200, "{}");
+        List<Integer> first = statuses(new FaultInjectingResponder(ok, 7, 0, 0, 0.3, 503));
+        List<Integer> second = statuses(new FaultInjectingResponder(ok, 7, 0, 0, 0.3, 503));
+
+        assertEquals(first, second);
+        long failures = first.stream().filter(s -> s == 503).count();
+        assertTrue(failures > 30 && failures < 90, "about 30% of 200 calls should fail, got " + failures);
+    }
+
+    @Test
+    void testInjectedLatency() throws Exception {
+        StubResponder ok = (method, path, body) -> StubResponse.json(200, "{}");
+        FaultInjectingResponder slow = new FaultInjectingResponder(ok, 7, 30, 0, 0, 503);
+
+        long start = System.nanoTime();
+        slow.respond("GET", "/health", new byte[0]);
+        assertTrue(System.nanoTime() - start >= 30_000_000L);
+    }
+
+    private List<Integer> statuses(FaultInjectingResponder responder) throws Exception {
+        List<Integer> statuses = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            statuses.add(responder.respond("GET", "/api/stocks/AAPL", new byte[0]).status());
+        }
+        return statuses;
+    }
+}
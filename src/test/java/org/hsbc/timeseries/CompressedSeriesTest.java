@@ -0,0 +1,82 @@
+package org.hsbc.timeseries;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedSeriesTest {
+
+    @Test
+    void testRoundTripsIrregularTimestampsAndSpecialValues() {
+        long[] timestamps = {-5, 0, 1, 2, 3, 10, 11, 400, 401, 5_000, 5_001, 1L << 40, (1L << 40) + 1,
+                Long.MAX_VALUE - 1, Long.MAX_VALUE};
+        double[] values = {100.25, 100.25, 100.26, -0.0, 0.0, Double.NaN, Double.NaN, Double.POSITIVE_INFINITY,
+                Double.MIN_VALUE, Double.MAX_VALUE, 1e-300, 42, 42, -42, 7};
+        CompressedSeries.Builder builder = CompressedSeries.builder();
+        for (int i = 0; i < timestamps.length; i++) {
+            builder.append(timestamps[i], values[i]);
+        }
+
+        CompressedSeries series = builder.build();
+
+        assertEquals(timestamps.length, series.size());
+        assertEquals(-5, series.firstTimestamp());
+        assertEquals(Long.MAX_VALUE, series.lastTimestamp());
+        SeriesCursor cursor = series.cursor();
+        for (int i = 0; i < timestamps.length; i++) {
+            assertTrue(cursor.next());
+            assertEquals(timestamps[i], cursor.timestamp());
+            assertEquals(Double.doubleToRawLongBits(values[i]), Double.doubleToRawLongBits(cursor.value()));
+        }
+        assertFalse(cursor.next());
+        assertThrows(IllegalArgumentException.class, () -> builder.append(Long.MAX_VALUE, 1));
+    }
+
+    @Test
+    void testDailyClosesCompressAndSeekAcrossBlocks() {
+        int points = CompressedSeries.BLOCK_POINTS * 3 + 17;
+        long[] days = new long[points];
+        double[] closes = new double[points];
+        SplittableRandom random = new SplittableRandom(7);
+        long day = 19_000;
+        double close = 150;
+        CompressedSeries.Builder builder = CompressedSeries.builder();
+        for (int i = 0; i < points; i++) {
+            // Weekdays only; prices to the cent
+            day += i % 5 == 0 ? 3 : 1;
+            close = Math.round(close * (1 + random.nextGaussian() * 0.01) * 100) / 100.0;
+            days[i] = day;
+            closes[i] = close;
+            builder.append(day, close);
+        }
+        CompressedSeries series = builder.build();
+
+        long[] decodedDays = new long[points];
+        double[] decodedCloses = new double[points];
+        assertEquals(points, series.cursor().read(decodedDays, decodedCloses));
+        assertArrayEquals(days, decodedDays);
+        assertArrayEquals(closes, decodedCloses);
+        // Versus 12 bytes per point as int[] days and double[] closes
+        assertTrue(series.compressedBytes() < points * 8L, series.compressedBytes() + " bytes");
+
+        int target = CompressedSeries.BLOCK_POINTS * 2 + 5;
+        SeriesCursor from = series.cursor(days[target - 1] + 1);
+        assertTrue(from.next());
+        assertEquals(days[target], from.timestamp());
+        assertEquals(closes[target], from.value());
+        assertEquals(points - target - 1, from.read(new long[points], new double[points]));
+        assertFalse(series.cursor(day + 1).next());
+        assertTrue(series.cursor(Long.MIN_VALUE).next());
+    }
+
+    @Test
+    void testEmptySeries() {
+        CompressedSeries series = CompressedSeries.builder().build();
+
+        assertTrue(series.isEmpty());
+        assertFalse(series.cursor().next());
+        assertFalse(series.cursor(0).next());
+    }
+}
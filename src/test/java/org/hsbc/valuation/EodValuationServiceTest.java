@@ -0,0 +1,133 @@
+package org.hsbc.valuation;
+
+import org.hsbc.entity.PmsEntity;
+import org.hsbc.entity.PortfolioValuationEntity;
+import org.hsbc.entity.TransactionEntity;
+import org.hsbc.ledger.HeldPosition;
+import org.hsbc.ledger.HoldingsAsOf;
+import org.hsbc.ledger.HoldingsHistory;
+import org.hsbc.market.PriceHistory;
+import org.hsbc.market.PriceHistoryClient;
+import org.hsbc.market.PriceTable;
+import org.hsbc.performance.TransactionRecordedEvent;
+import org.hsbc.repo.PortfolioValuationRepo;
+import org.hsbc.service.PmsService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+class EodValuationServiceTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2024, 1, 1);
+    private static final Clock CLOCK = Clock.fixed(MONDAY.plusDays(30).atTime(23, 30).toInstant(ZoneOffset.UTC),
+            ZoneOffset.UTC);
+
+    private final PmsService pmsService = mock(PmsService.class);
+    private final HoldingsHistory holdingsHistory = mock(HoldingsHistory.class);
+    private final PriceHistoryClient histories = mock(PriceHistoryClient.class);
+    private final PortfolioValuationRepo valuations = mock(PortfolioValuationRepo.class);
+    private final EodValuationService service = new EodValuationService(pmsService, holdingsHistory, histories,
+            new PriceTable(16), valuations, TransactionOperations.withoutTransaction(), LocalTime.of(23, 30), 7, 365,
+            1000, CLOCK);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testBackfillValuesEachTradingDay() throws Exception {
+        // 5 AAPL units were added directly on Wednesday, on top of the 10 bought
+        when(pmsService.getAllAssets()).thenReturn(List.of(
+                asset("AAPL", "Stocks", 15, 90, MONDAY.plusDays(2)),
+                asset("BTC", "Crypto", 1, 30000, MONDAY)));
+        HeldPosition apple = new HeldPosition("AAPL", 10, 1000);
+        HeldPosition bitcoin = new HeldPosition("BTC", 1, 30000);
+        when(holdingsHistory.asOf(any())).thenReturn(new HoldingsAsOf(null, null, 2, List.of(apple, bitcoin)));
+        List<HoldingsAsOf> days = new ArrayList<>();
+        days.add(new HoldingsAsOf(null, null, 1, List.of(apple)));
+        for (int d = 1; d < 5; d++) {
+            days.add(new HoldingsAsOf(null, null, 2, List.of(apple, bitcoin)));
+        }
+        when(holdingsHistory.daily(MONDAY, MONDAY.plusDays(4))).thenReturn(days);
+        int day = (int) MONDAY.toEpochDay();
+        when(histories.daily(anyCollection())).thenReturn(Map.of(
+                "AAPL", new PriceHistory("AAPL", new int[]{day + 1, day + 2, day + 4}, new double[]{100, 110, 120}),
+                "BTC", new PriceHistory("BTC", new int[]{day + 3}, new double[]{42000})));
+
+        assertEquals(4, service.backfill(MONDAY, MONDAY.plusDays(4)));
+
+        ArgumentCaptor<List<PortfolioValuationEntity>> saved = ArgumentCaptor.forClass(List.class);
+        verify(valuations).deleteByValuationDateBetween(MONDAY, MONDAY.plusDays(4));
+        verify(valuations).saveAll(saved.capture());
+        List<PortfolioValuationEntity> rows = saved.getValue();
+        // No close on Monday; Thursday carries AAPL's Wednesday close
+        assertEquals(List.of(MONDAY.plusDays(1), MONDAY.plusDays(2), MONDAY.plusDays(3), MONDAY.plusDays(4)),
+                rows.stream().map(PortfolioValuationEntity::getValuationDate).toList());
+        assertRow(rows.get(0), 10 * 100, 42000, 31000);
+        assertRow(rows.get(1), 15 * 110, 42000, 31000 + 5 * 90);
+        assertRow(rows.get(2), 15 * 110, 42000, 31000 + 5 * 90);
+        assertRow(rows.get(3), 15 * 120, 42000, 31000 + 5 * 90);
+        assertEquals(2, rows.get(3).getPositions());
+    }
+
+    @Test
+    void testNightlyRunReachesBackToBackdatedTransactions() throws Exception {
+        LocalDate today = LocalDate.now(CLOCK);
+        when(holdingsHistory.asOf(any())).thenReturn(new HoldingsAsOf(null, null, 0, List.of()));
+        when(holdingsHistory.daily(any(), any())).thenReturn(List.of());
+
+        service.onTransactionRecorded(new TransactionRecordedEvent("AAPL",
+                new TransactionEntity(1L, "AAPL", 1, 100, today.minusDays(20).atTime(10, 0), "BUY")));
+        service.onTransactionRecorded(new TransactionRecordedEvent("AAPL",
+                new TransactionEntity(2L, "AAPL", 1, 100, LocalDateTime.now(CLOCK), "BUY")));
+        service.runNightly();
+        service.runNightly();
+
+        verify(holdingsHistory).daily(today.minusDays(20), today);
+        verify(holdingsHistory).daily(today.minusDays(7), today);
+    }
+
+    @Test
+    void testBackfillSpanIsCapped() throws Exception {
+        LocalDate today = LocalDate.now(CLOCK);
+
+        assertThrows(IllegalArgumentException.class, () -> service.backfill(today.minusDays(1001), today));
+        verifyNoInteractions(holdingsHistory, valuations);
+
+        // A transaction dated 1900 reaches back no further than the span
+        when(holdingsHistory.asOf(any())).thenReturn(new HoldingsAsOf(null, null, 0, List.of()));
+        when(holdingsHistory.daily(any(), any())).thenReturn(List.of());
+        service.onTransactionRecorded(new TransactionRecordedEvent("AAPL",
+                new TransactionEntity(1L, "AAPL", 1, 100, LocalDate.of(1900, 1, 1).atTime(10, 0), "BUY")));
+        service.runNightly();
+        verify(holdingsHistory).daily(today.minusDays(1000), today);
+    }
+
+    private static void assertRow(PortfolioValuationEntity row, double stocks, double crypto, double invested) {
+        assertEquals(stocks, row.getStockValue(), 1e-9);
+        assertEquals(crypto, row.getCryptoValue(), 1e-9);
+        assertEquals(stocks + crypto, row.getMarketValue(), 1e-9);
+        assertEquals(invested, row.getInvestedValue(), 1e-9);
+    }
+
+    private static PmsEntity asset(String symbol, String type, int quantity, double buyPrice, LocalDate purchased) {
+        PmsEntity asset = new PmsEntity();
+        asset.setSymbol(symbol);
+        asset.setAssetType(type);
+        asset.setQuantity(quantity);
+        asset.setBuyPrice(buyPrice);
+        asset.setPurchaseDate(purchased);
+        return asset;
+    }
+}
@@ -0,0 +1,221 @@
+package org.hsbc.valuation;
+
+import org.hsbc.entity.PmsEntity;
+import org.hsbc.market.PriceTable;
+import org.hsbc.service.PmsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ValuationEngineTest {
+
+    private PmsService pmsService;
+    private PriceTable prices;
+    private ValuationEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        pmsService = mock(PmsService.class);
+        prices = new PriceTable(64);
+        engine = new ValuationEngine(pmsService, prices);
+    }
+
+    @Test
+    void testSnapshotBuiltFromHoldings() {
+        when(pmsService.getAllAssets()).thenReturn(List.of(
+                holding("AAPL", "Stocks", "Technology", 10, 100.0, 120.0),
+                holding("MSFT", "Stocks", "Technology", 5, 200.0, 180.0),
+                holding("BTC-USD", "Crypto", null, 2, 1000.0, 1500.0)));
+
+        ValuationSnapshot snapshot = engine.snapshot();
+
+        assertEquals(1200 + 900 + 3000, snapshot.marketValue(), 1e-9);
+        assertEquals(1000 + 1000 + 2000, snapshot.investedValue(), 1e-9);
+        assertEquals(3, snapshot.positions());
+        assertEquals(2100, snapshot.byAssetType().get("Stocks").marketValue(), 1e-9);
+        assertEquals(3000, snapshot.byIndustry().get("Unknown").marketValue(), 1e-9);
+        assertSame(snapshot, engine.snapshot());
+        verify(pmsService, times(1)).getAllAssets();
+    }
+
+    @Test
+    void testTickMovesTotalsByQuantityTimesDelta() {
+        when(pmsService.getAllAssets()).thenReturn(List.of(
+                holding("AAPL", "Stocks", "Technology", 10, 100.0, 120.0)));
+        long version = engine.snapshot().version();
+
+        prices.update("AAPL", 125.0);
+        prices.update("TSLA", 250.0); // not held
+
+        ValuationSnapshot snapshot = engine.snapshot();
+        assertEquals(1250, snapshot.marketValue(), 1e-9);
+        assertEquals(1250, snapshot.byIndustry().get("Technology").marketValue(), 1e-9);
+        assertEquals(version + 1, snapshot.version());
+    }
+
+    @Test
+    void testLateListenerCallDoesNotRevertPrice() {
+        when(pmsService.getAllAssets()).thenReturn(List.of(
+                holding("AAPL", "Stocks", "Technology", 10, 100.0, 120.0)));
+        engine.snapshot();
+        int id = prices.idOf("AAPL");
+
+        prices.update(id, 125.0, 1_000);
+        prices.update(id, 130.0, 2_000);
+        // The listener call for the first update arrives after the second one's
+        engine.onPrice(id, 125.0);
+
+        assertEquals(1300, engine.snapshot().marketValue(), 1e-9);
+    }
+
+    @Test
+    void testPositionsGrowWithPriceTable() {
+        PriceTable small = new PriceTable(2);
+        ValuationEngine growing = new ValuationEngine(pmsService, small);
+        when(pmsService.getAllAssets()).thenReturn(List.of(
+                holding("S0", "Stocks", null, 1, 10.0, 10.0),
+                holding("S1", "Stocks", null, 1, 10.0, 10.0),
+                holding("S2", "Stocks", null, 1, 10.0, 10.0),
+                holding("S3", "Stocks", null, 1, 10.0, 10.0),
+                holding("S4", "Stocks", null, 1, 10.0, 10.0)));
+        growing.snapshot();
+
+        small.update("S4", 20.0);
+
+        ValuationSnapshot snapshot = growing.snapshot();
+        assertEquals(5, snapshot.positions());
+        assertEquals(60, snapshot.marketValue(), 1e-9);
+    }
+
+    @Test
+    void testHoldingChangesOpenAndClosePositions() {
+        when(pmsService.getAllAssets()).thenReturn(List.of(
+                holding("AAPL", "Stocks", "Technology", 10, 100.0, 120.0)));
+        engine.snapshot();
+
+        prices.update("GC=F", 2000.0);
+        engine.onHoldingChanged(new HoldingChangedEvent("GC=F", "Commodities", null, 3, 5700.0, 1900.0));
+        ValuationSnapshot bought = engine.snapshot();
+        assertEquals(1200 + 6000, bought.marketValue(), 1e-9);
+        assertEquals(2, bought.positions());
+
+        engine.onHoldingChanged(new HoldingChangedEvent("AAPL", "Stocks", "Technology", -10, -1000.0, 120.0));
+        ValuationSnapshot sold = engine.snapshot();
+        assertEquals(6000, sold.marketValue(), 1e-9);
+        assertEquals(5700, sold.investedValue(), 1e-9);
+        assertEquals(1, sold.positions());
+        assertFalse(sold.byAssetType().containsKey("Stocks"));
+    }
+
+    @Test
+    void testReopenedPositionValuedAtCurrentPrice() {
+        when(pmsService.getAllAssets()).thenReturn(List.of());
+        engine.snapshot();
+        prices.update("AAPL", 100.0);
+        engine.onHoldingChanged(new HoldingChangedEvent("AAPL", "Stocks", "Technology", 10, 1000.0, 100.0));
+        engine.onHoldingChanged(new HoldingChangedEvent("AAPL", "Stocks", "Technology", -10, -1000.0, 100.0));
+
+        prices.update("AAPL", 200.0);
+        engine.onHoldingChanged(new HoldingChangedEvent("AAPL", "Stocks", "Technology", 10, 2000.0, 200.0));
+
+        ValuationSnapshot snapshot = engine.snapshot();
+        assertEquals(2000, snapshot.marketValue(), 1e-9);
+        assertEquals(2000, snapshot.byIndustry().get("Technology").marketValue(), 1e-9);
+        assertEquals(1, snapshot.positions());
+    }
+
+    @Test
+    void testRunningTotalsMatchFullRecomputation() {
+        String[] symbols = {"AAPL", "MSFT", "GOOGL", "AMZN", "BTC-USD"};
+        when(pmsService.getAllAssets()).thenReturn(List.of());
+        engine.snapshot();
+        Random random = new Random(7);
+        int[] quantity = new int[symbols.length];
+        double[] invested = new double[symbols.length];
+        double[] price = new double[symbols.length];
+        for (int i = 0; i < symbols.length; i++) {
+            price[i] = 100 + i;
+            prices.update(symbols[i], price[i]);
+        }
+
+        for (int step = 0; step < 10_000; step++) {
+            int i = random.nextInt(symbols.length);
+            if (random.nextInt(4) == 0) {
+                int delta = quantity[i] > 0 && random.nextBoolean() ? -random.nextInt(quantity[i]) - 1 : random.nextInt(10) + 1;
+                double investedDelta = delta > 0 ? delta * price[i] : invested[i] * delta / quantity[i];
+                quantity[i] += delta;
+                invested[i] += investedDelta;
+                engine.onHoldingChanged(new HoldingChangedEvent(symbols[i], "Stocks", "Any", delta, investedDelta, price[i]));
+            } else {
+                price[i] = Math.max(1, price[i] * (1 + (random.nextDouble() - 0.5) / 50));
+                prices.update(symbols[i], price[i]);
+            }
+        }
+
+        double marketValue = 0;
+        double investedValue = 0;
+        for (int i = 0; i < symbols.length; i++) {
+            marketValue += quantity[i] * price[i];
+            investedValue += invested[i];
+        }
+        ValuationSnapshot snapshot = engine.snapshot();
+        assertEquals(marketValue, snapshot.marketValue(), 1e-6 * marketValue);
+        assertEquals(investedValue, snapshot.investedValue(), 1e-6 * investedValue);
+    }
+
+    @Test
+    void testStreamPushesSnapshotsOnChange() throws Exception {
+        when(pmsService.getAllAssets()).thenReturn(List.of(
+                holding("AAPL", "Stocks", "Technology", 10, 100.0, 120.0)));
+        ValuationStream stream = new ValuationStream(engine);
+        List<Double> values = new CopyOnWriteArrayList<>();
+        CountDownLatch initial = new CountDownLatch(1);
+        CountDownLatch updated = new CountDownLatch(1);
+        try {
+            stream.subscribe(new ValuationStream.SnapshotSink() {
+                @Override
+                public void send(ValuationSnapshot snapshot) throws IOException {
+                    values.add(snapshot.marketValue());
+                    initial.countDown();
+                    if (snapshot.marketValue() == 1300) {
+                        updated.countDown();
+                    }
+                }
+
+                @Override
+                public void closed() {
+                }
+            });
+
+            assertTrue(initial.await(5, TimeUnit.SECONDS));
+            prices.update("AAPL", 130.0);
+
+            assertTrue(updated.await(5, TimeUnit.SECONDS));
+            assertEquals(List.of(1200.0, 1300.0), values);
+        } finally {
+            stream.shutdown();
+        }
+    }
+
+    private static PmsEntity holding(String symbol, String type, String industry, int quantity, double buyPrice,
+                                     double currentPrice) {
+        PmsEntity asset = new PmsEntity();
+        asset.setSymbol(symbol);
+        asset.setAssetType(type);
+        asset.setIndustry(industry);
+        asset.setQuantity(quantity);
+        asset.setBuyPrice(buyPrice);
+        asset.setBuyingValue(buyPrice * quantity);
+        asset.setCurrentPrice(currentPrice);
+        return asset;
+    }
+}